@@ -0,0 +1,62 @@
+package com.kkst.mycinema.benchmark;
+
+import com.kkst.mycinema.entity.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic entities for the JMH benchmarks: a hall of rows x columns seats for one show,
+ * with a deterministic mix of available, booked and locked seats.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static Show show() {
+        var movie = Movie.builder().id(1L).title("Inception").durationMinutes(148).genre("Sci-Fi").build();
+        var hall = Hall.builder().id(1L).name("Hall 1").totalRows(20).totalColumns(25).build();
+        var start = LocalDateTime.now().plusDays(1);
+        return Show.builder().id(1L).movie(movie).hall(hall).startTime(start).endTime(start.plusHours(3)).build();
+    }
+
+    static List<ShowSeat> showSeats(Show show, int rows, int columns) {
+        var showSeats = new ArrayList<ShowSeat>(rows * columns);
+        var lockedUntil = LocalDateTime.now().plusHours(1);
+        long id = 1;
+        for (int row = 1; row <= rows; row++) {
+            for (int number = 1; number <= columns; number++, id++) {
+                var seat = Seat.builder().id(id).hall(show.getHall()).rowNumber(row).seatNumber(number).build();
+                var showSeat = ShowSeat.builder()
+                        .id(id)
+                        .show(show)
+                        .seat(seat)
+                        .price(row <= 3 ? new BigDecimal("14.50") : new BigDecimal("11.00"))
+                        .status(id % 5 == 0 ? ShowSeat.SeatStatus.BOOKED : ShowSeat.SeatStatus.AVAILABLE)
+                        .build();
+                if (id % 7 == 0) {
+                    showSeat.lockForUser(id, lockedUntil);
+                }
+                showSeats.add(showSeat);
+            }
+        }
+        return showSeats;
+    }
+
+    static Booking booking(Show show, List<ShowSeat> showSeats) {
+        var total = BigDecimal.ZERO;
+        for (ShowSeat showSeat : showSeats) {
+            total = total.add(showSeat.getPrice());
+        }
+        return Booking.builder()
+                .id(1L)
+                .show(show)
+                .totalAmount(total)
+                .bookingTime(LocalDateTime.now())
+                .status(Booking.BookingStatus.CONFIRMED)
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.kkst.mycinema.benchmark;
+
+import com.kkst.mycinema.dto.BookingResponse;
+import com.kkst.mycinema.entity.Booking;
+import com.kkst.mycinema.entity.ShowSeat;
+import com.kkst.mycinema.service.BookingMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking response mapping (booking history, confirmations) and the seat price total
+ * computed on payment initiation and confirmation, for typical booking sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingMappingBenchmark {
+
+    @Param({"1", "4", "10"})
+    public int seats;
+
+    private Booking booking;
+    private List<ShowSeat> showSeats;
+
+    @Setup
+    public void setUp() {
+        var show = BenchmarkData.show();
+        showSeats = BenchmarkData.showSeats(show, 1, seats);
+        booking = BenchmarkData.booking(show, showSeats);
+    }
+
+    @Benchmark
+    public BookingResponse toBookingResponse() {
+        return BookingMapper.toBookingResponse(booking, showSeats);
+    }
+
+    @Benchmark
+    public BigDecimal totalAmount() {
+        return BookingMapper.totalAmount(showSeats);
+    }
+
+    /**
+     * The stream reduction the services used before {@link BookingMapper#totalAmount}.
+     */
+    @Benchmark
+    public BigDecimal totalAmountStream() {
+        return showSeats.stream()
+                .map(ShowSeat::getPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
@@ -0,0 +1,49 @@
+package com.kkst.mycinema.benchmark;
+
+import com.kkst.mycinema.entity.User;
+import com.kkst.mycinema.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access-token verification as done by the JWT filter on every authenticated request.
+ * With a cache size of 0 every call pays for base64/JSON decoding and the HMAC check;
+ * otherwise repeat tokens hit the verified-token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtParsingBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-long-enough-for-hmac-sha-256-signing";
+
+    @Param({"0", "10000"})
+    public long verifiedCacheSize;
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheMaxSize", verifiedCacheSize);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+
+        var user = User.builder().id(42L).email("bench@example.com").name("Bench").roles("USER").build();
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims verify() {
+        return jwtUtil.verify(token);
+    }
+}
@@ -0,0 +1,62 @@
+package com.kkst.mycinema.benchmark;
+
+import com.kkst.mycinema.service.SeatIdCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The seat_holds.seat_ids CSV, parsed on every payment, confirmation, release and
+ * cleanup of a hold, against the split/stream code it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeatIdCodecBenchmark {
+
+    @Param({"1", "4", "10"})
+    public int seats;
+
+    private List<Long> seatIds;
+    private String csv;
+
+    @Setup
+    public void setUp() {
+        seatIds = new ArrayList<>(seats);
+        for (int i = 0; i < seats; i++) {
+            seatIds.add(100_000L + i * 37L);
+        }
+        csv = SeatIdCodec.encode(seatIds);
+    }
+
+    @Benchmark
+    public List<Long> decode() {
+        return SeatIdCodec.decode(csv);
+    }
+
+    @Benchmark
+    public List<Long> decodeSplitStream() {
+        return Arrays.stream(csv.split(","))
+                .map(Long::parseLong)
+                .toList();
+    }
+
+    @Benchmark
+    public String encode() {
+        return SeatIdCodec.encode(seatIds);
+    }
+
+    @Benchmark
+    public String encodeStream() {
+        return seatIds.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,49 @@
+package com.kkst.mycinema.benchmark;
+
+import com.kkst.mycinema.dto.SeatResponse;
+import com.kkst.mycinema.entity.ShowSeat;
+import com.kkst.mycinema.service.ShowMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seat-map assembly for GET /api/shows/{id}/seats and the per-seat availability checks
+ * the booking paths run, on halls of increasing size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeatMapBenchmark {
+
+    @Param({"10x10", "20x25", "40x50"})
+    public String hall;
+
+    private List<ShowSeat> showSeats;
+
+    @Setup
+    public void setUp() {
+        var dimensions = hall.split("x");
+        showSeats = BenchmarkData.showSeats(BenchmarkData.show(),
+                Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+    }
+
+    @Benchmark
+    public Map<Integer, List<SeatResponse>> seatsByRow() {
+        return ShowMapper.seatsByRow(showSeats);
+    }
+
+    @Benchmark
+    public void availabilityChecks(Blackhole blackhole) {
+        for (ShowSeat showSeat : showSeats) {
+            blackhole.consume(showSeat.isAvailable());
+            blackhole.consume(showSeat.isLocked());
+        }
+    }
+}
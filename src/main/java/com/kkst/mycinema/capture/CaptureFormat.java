@@ -0,0 +1,124 @@
+package com.kkst.mycinema.capture;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Binary layout of a capture file. A header (magic "MCAP", format version, base time)
+ * is followed by records appended in completion order:
+ *
+ * <pre>
+ * start      zigzag varint, microseconds relative to the previous record (or the base time)
+ * endpoint   byte, {@link CapturedEndpoint#code()}
+ * status     varint
+ * duration   varint, microseconds
+ * user       8 bytes, anonymized
+ * show       varint, show id + 1 (0 = none)
+ * seats      varint count, then zigzag varint deltas between consecutive seat ids
+ * </pre>
+ *
+ * A typical hold is about 20 bytes. A record cut short by a crash ends the file.
+ */
+final class CaptureFormat {
+
+    static final int MAGIC = 0x4D434150;
+    static final int VERSION = 1;
+
+    private CaptureFormat() {
+    }
+
+    static void writeHeader(DataOutputStream out, long baseMicros) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(baseMicros);
+    }
+
+    /**
+     * @return the base time of the file
+     */
+    static long readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a capture file");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported capture format version " + version);
+        }
+        return in.readLong();
+    }
+
+    static void writeRecord(DataOutputStream out, CaptureRecord record, long previousStartMicros) throws IOException {
+        writeVarLong(out, zigzag(record.startMicros() - previousStartMicros));
+        out.writeByte(record.endpoint().code());
+        writeVarLong(out, record.status());
+        writeVarLong(out, record.durationMicros());
+        out.writeLong(record.user());
+        writeVarLong(out, record.showId() + 1);
+        writeVarLong(out, record.seatIds().length);
+        long previousSeat = 0;
+        for (long seatId : record.seatIds()) {
+            writeVarLong(out, zigzag(seatId - previousSeat));
+            previousSeat = seatId;
+        }
+    }
+
+    /**
+     * @return the next record, or null at the end of the file (including a truncated last record)
+     */
+    static CaptureRecord readRecord(DataInputStream in, long previousStartMicros) throws IOException {
+        try {
+            int first = in.read();
+            if (first < 0) {
+                return null;
+            }
+            long start = previousStartMicros + unzigzag(readVarLong(in, first));
+            var endpoint = CapturedEndpoint.fromCode(in.readUnsignedByte());
+            int status = (int) readVarLong(in, in.readUnsignedByte());
+            long duration = readVarLong(in, in.readUnsignedByte());
+            long user = in.readLong();
+            long showId = readVarLong(in, in.readUnsignedByte()) - 1;
+            var seatIds = new long[(int) readVarLong(in, in.readUnsignedByte())];
+            long previousSeat = 0;
+            for (int i = 0; i < seatIds.length; i++) {
+                previousSeat += unzigzag(readVarLong(in, in.readUnsignedByte()));
+                seatIds[i] = previousSeat;
+            }
+            return new CaptureRecord(start, duration, endpoint, status, user, showId, seatIds);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in, int firstByte) throws IOException {
+        long value = firstByte & 0x7F;
+        int shift = 7;
+        int b = firstByte;
+        while ((b & 0x80) != 0) {
+            if (shift > 63) {
+                throw new IOException("Malformed varint");
+            }
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }
+        return value;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
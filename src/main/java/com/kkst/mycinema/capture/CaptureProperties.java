@@ -0,0 +1,42 @@
+package com.kkst.mycinema.capture;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration for the booking traffic capture (see {@link TrafficCaptureFilter}).
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "traffic-capture")
+public class CaptureProperties {
+
+    /**
+     * Record booking-relevant requests to capture files.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Directory the capture files are appended to.
+     */
+    private String directory = "captures";
+
+    /**
+     * A new file is started once the current one reaches this size.
+     */
+    private DataSize maxFileSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Requests waiting for the writer thread; further requests are not captured
+     * (traffic.capture.dropped) rather than slowed down.
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * HMAC key for anonymizing user ids. Keep it stable to link a user's requests
+     * across restarts; when empty a random key is used per process.
+     */
+    private String anonymizationKey = "";
+}
@@ -0,0 +1,56 @@
+package com.kkst.mycinema.capture;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the records of a capture file in the order they were written.
+ */
+public class CaptureReader implements Closeable {
+
+    private final DataInputStream in;
+    private long previousStartMicros;
+
+    public CaptureReader(Path file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+        this.previousStartMicros = CaptureFormat.readHeader(in);
+    }
+
+    /**
+     * @return the next record, or null at the end of the file
+     */
+    public CaptureRecord next() throws IOException {
+        var record = CaptureFormat.readRecord(in, previousStartMicros);
+        if (record != null) {
+            previousStartMicros = record.startMicros();
+        }
+        return record;
+    }
+
+    /**
+     * All records of the given files, in file order.
+     */
+    public static List<CaptureRecord> readAll(List<Path> files) throws IOException {
+        var records = new ArrayList<CaptureRecord>();
+        for (Path file : files) {
+            try (var reader = new CaptureReader(file)) {
+                CaptureRecord record;
+                while ((record = reader.next()) != null) {
+                    records.add(record);
+                }
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
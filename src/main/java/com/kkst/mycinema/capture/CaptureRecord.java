@@ -0,0 +1,19 @@
+package com.kkst.mycinema.capture;
+
+/**
+ * One captured request.
+ *
+ * @param startMicros    request start, microseconds since the epoch
+ * @param durationMicros time spent in the application
+ * @param user           anonymized user id, 0 for unauthenticated requests
+ * @param showId         show the request targets, 0 if unknown (confirm and release)
+ * @param seatIds        show seat ids of a hold or direct booking, empty otherwise
+ */
+public record CaptureRecord(long startMicros,
+                            long durationMicros,
+                            CapturedEndpoint endpoint,
+                            int status,
+                            long user,
+                            long showId,
+                            long[] seatIds) {
+}
@@ -0,0 +1,68 @@
+package com.kkst.mycinema.capture;
+
+/**
+ * The booking-relevant endpoints that are captured. The code is what ends up in
+ * capture files, so existing codes must never change.
+ */
+public enum CapturedEndpoint {
+    SEAT_MAP(1, "GET", "/api/shows/{showId}/seats"),
+    HOLD(2, "POST", "/api/bookings/hold"),
+    CONFIRM(3, "POST", "/api/bookings/confirm-with-payment"),
+    RELEASE(4, "DELETE", "/api/bookings/hold/{holdToken}"),
+    BOOK(5, "POST", "/api/bookings");
+
+    private final int code;
+    private final String method;
+    private final String path;
+
+    CapturedEndpoint(int code, String method, String path) {
+        this.code = code;
+        this.method = method;
+        this.path = path;
+    }
+
+    public int code() {
+        return code;
+    }
+
+    public String method() {
+        return method;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    /**
+     * Whether the show and seat ids come from the JSON request body.
+     */
+    boolean hasBody() {
+        return this == HOLD || this == BOOK;
+    }
+
+    /**
+     * @return the endpoint, or null if the request is not captured
+     */
+    static CapturedEndpoint match(String method, String uri) {
+        return switch (method) {
+            case "GET" -> uri.startsWith("/api/shows/") && uri.endsWith("/seats") ? SEAT_MAP : null;
+            case "POST" -> switch (uri) {
+                case "/api/bookings/hold" -> HOLD;
+                case "/api/bookings/confirm-with-payment" -> CONFIRM;
+                case "/api/bookings" -> BOOK;
+                default -> null;
+            };
+            case "DELETE" -> uri.startsWith("/api/bookings/hold/") ? RELEASE : null;
+            default -> null;
+        };
+    }
+
+    static CapturedEndpoint fromCode(int code) {
+        for (CapturedEndpoint endpoint : values()) {
+            if (endpoint.code == code) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown captured endpoint code: " + code);
+    }
+}
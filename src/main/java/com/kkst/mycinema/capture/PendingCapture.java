@@ -0,0 +1,14 @@
+package com.kkst.mycinema.capture;
+
+/**
+ * What the filter hands to the writer thread: the raw request details. Parsing,
+ * anonymization and encoding happen off the request thread.
+ */
+record PendingCapture(long startMicros,
+                      long durationNanos,
+                      CapturedEndpoint endpoint,
+                      int status,
+                      Long userId,
+                      String uri,
+                      byte[] body) {
+}
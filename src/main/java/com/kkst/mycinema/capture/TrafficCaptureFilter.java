@@ -0,0 +1,70 @@
+package com.kkst.mycinema.capture;
+
+import com.kkst.mycinema.security.AuthenticatedUser;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Captures booking-relevant requests (seat map, hold, confirm, release, direct booking)
+ * for later replay with ReplayRunner (in the test sources): endpoint, start time, duration, status,
+ * show and seat ids and an anonymized user. Other requests pass straight through.
+ * The request thread only copies what it needs and queues it on {@link TrafficCaptureWriter}.
+ *
+ * Enable with traffic-capture.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(name = "traffic-capture.enabled", havingValue = "true")
+// Inside Spring Security's filter chain, so the authenticated user is still known after the request
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+@RequiredArgsConstructor
+public class TrafficCaptureFilter extends OncePerRequestFilter {
+
+    // Hold and booking bodies are a show id and a handful of seat ids
+    private static final int MAX_BODY_BYTES = 4096;
+
+    private final TrafficCaptureWriter writer;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return CapturedEndpoint.match(request.getMethod(), request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        var endpoint = CapturedEndpoint.match(request.getMethod(), request.getRequestURI());
+        var capturing = endpoint.hasBody() ? new ContentCachingRequestWrapper(request, MAX_BODY_BYTES) : null;
+
+        var now = Instant.now();
+        long startMicros = now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+        long startNanos = System.nanoTime();
+        try {
+            filterChain.doFilter(capturing != null ? capturing : request, response);
+        } finally {
+            writer.offer(new PendingCapture(startMicros, System.nanoTime() - startNanos, endpoint,
+                    response.getStatus(), currentUserId(), request.getRequestURI(),
+                    capturing != null ? capturing.getContentAsByteArray() : null));
+        }
+    }
+
+    private static Long currentUserId() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                ? user.id()
+                : null;
+    }
+}
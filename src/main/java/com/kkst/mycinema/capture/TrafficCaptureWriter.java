@@ -0,0 +1,226 @@
+package com.kkst.mycinema.capture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends captured requests to capture-[timestamp]-[n].mcap files from a single
+ * background thread. Request threads only offer to a bounded queue and never block;
+ * when the writer falls behind, requests go uncaptured and are counted instead.
+ *
+ * Metrics:
+ * - traffic.capture.records       - records written
+ * - traffic.capture.dropped       - requests not captured because the queue was full
+ * - traffic.capture.queue.depth
+ */
+@Component
+@ConditionalOnProperty(name = "traffic-capture.enabled", havingValue = "true")
+@Slf4j
+public class TrafficCaptureWriter implements DisposableBean {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final CaptureProperties properties;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<PendingCapture> queue;
+    private final Counter written;
+    private final Counter dropped;
+    private final Mac anonymizer;
+    private final String filePrefix;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    // Writer thread only
+    private DataOutputStream out;
+    private long previousStartMicros;
+    private int fileIndex;
+
+    public TrafficCaptureWriter(CaptureProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.anonymizer = anonymizer(properties.getAnonymizationKey());
+        this.filePrefix = "capture-" + LocalDateTime.now().format(FILE_TIMESTAMP) + "-";
+
+        this.written = Counter.builder("traffic.capture.records")
+                .description("Requests written to the traffic capture")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("traffic.capture.dropped")
+                .description("Requests not captured because the capture queue was full")
+                .register(meterRegistry);
+        Gauge.builder("traffic.capture.queue.depth", queue, BlockingQueue::size)
+                .description("Captured requests waiting to be written")
+                .register(meterRegistry);
+
+        this.thread = Thread.ofPlatform().name("traffic-capture").daemon(true).start(this::drain);
+        log.info("Capturing booking traffic to {}", Path.of(properties.getDirectory()).toAbsolutePath());
+    }
+
+    /**
+     * Queue a request for writing. Never blocks.
+     */
+    void offer(PendingCapture capture) {
+        if (!queue.offer(capture)) {
+            dropped.increment();
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void drain() {
+        try {
+            while (running || !queue.isEmpty()) {
+                var capture = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (capture == null) {
+                    flush();
+                    continue;
+                }
+                write(toRecord(capture));
+                if (queue.isEmpty()) {
+                    flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            close();
+        }
+    }
+
+    private void write(CaptureRecord record) {
+        try {
+            if (out == null || out.size() >= properties.getMaxFileSize().toBytes()) {
+                rotate(record.startMicros());
+            }
+            CaptureFormat.writeRecord(out, record, previousStartMicros);
+            previousStartMicros = record.startMicros();
+            written.increment();
+        } catch (IOException e) {
+            log.warn("Could not write traffic capture record: {}", e.getMessage());
+            close();
+        }
+    }
+
+    private void rotate(long baseMicros) throws IOException {
+        close();
+        var directory = Path.of(properties.getDirectory());
+        Files.createDirectories(directory);
+        var file = directory.resolve(filePrefix + fileIndex++ + ".mcap");
+        out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), 64 * 1024));
+        CaptureFormat.writeHeader(out, baseMicros);
+        previousStartMicros = baseMicros;
+    }
+
+    private void flush() {
+        if (out != null) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                log.warn("Could not flush traffic capture: {}", e.getMessage());
+                close();
+            }
+        }
+    }
+
+    private void close() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                log.warn("Could not close traffic capture file: {}", e.getMessage());
+            }
+            out = null;
+        }
+    }
+
+    private CaptureRecord toRecord(PendingCapture capture) {
+        long showId = 0;
+        long[] seatIds = new long[0];
+        if (capture.endpoint() == CapturedEndpoint.SEAT_MAP) {
+            showId = parseShowId(capture.uri());
+        } else if (capture.body() != null && capture.body().length > 0) {
+            try {
+                var body = objectMapper.readTree(capture.body());
+                showId = body.path("showId").asLong(0);
+                var seats = body.path("seatIds");
+                seatIds = new long[seats.size()];
+                int i = 0;
+                for (JsonNode seat : seats) {
+                    seatIds[i++] = seat.asLong();
+                }
+            } catch (IOException e) {
+                // Malformed request; the status records how the application handled it
+            }
+        }
+        return new CaptureRecord(capture.startMicros(), TimeUnit.NANOSECONDS.toMicros(capture.durationNanos()),
+                capture.endpoint(), capture.status(), anonymize(capture.userId()), showId, seatIds);
+    }
+
+    private static long parseShowId(String uri) {
+        // /api/shows/{showId}/seats
+        int start = "/api/shows/".length();
+        int end = uri.indexOf('/', start);
+        try {
+            return Long.parseLong(uri, start, end < 0 ? uri.length() : end, 10);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private long anonymize(Long userId) {
+        if (userId == null) {
+            return 0;
+        }
+        var digest = anonymizer.doFinal(ByteBuffer.allocate(Long.BYTES).putLong(userId).array());
+        long user = ByteBuffer.wrap(digest).getLong();
+        return user == 0 ? 1 : user;
+    }
+
+    private static Mac anonymizer(String key) {
+        byte[] keyBytes;
+        if (key == null || key.isEmpty()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            log.info("No traffic-capture.anonymization-key set; users cannot be linked across restarts");
+        } else {
+            keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            var mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(keyBytes, "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
@@ -5,25 +5,31 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.MDC;
+import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Filter that adds a correlation ID to each request for distributed tracing.
  * The correlation ID is added to:
  * - MDC for logging (accessible via %X{correlationId} in log patterns)
  * - Response header (X-Correlation-ID) for client-side tracking
+ * - Metric exemplars, together with a per-request id (see {@link CorrelationIdSpanContext})
  */
 @Component
-@Order(1)
+// Ahead of Spring's observation filter, so the request's root span can use the correlation ID as its trace ID
+@Order(Ordered.HIGHEST_PRECEDENCE)
 public class CorrelationIdFilter extends OncePerRequestFilter {
 
     private static final String CORRELATION_ID_HEADER = "X-Correlation-ID";
-    private static final String CORRELATION_ID_MDC_KEY = "correlationId";
+    static final String CORRELATION_ID_MDC_KEY = "correlationId";
+    // Unique per request even when the client reuses a correlation ID across calls
+    static final String REQUEST_ID_MDC_KEY = "requestId";
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -38,6 +44,7 @@ public class CorrelationIdFilter extends OncePerRequestFilter {
 
             // Add to MDC for logging
             MDC.put(CORRELATION_ID_MDC_KEY, correlationId);
+            MDC.put(REQUEST_ID_MDC_KEY, Long.toHexString(ThreadLocalRandom.current().nextLong()));
 
             // Add to response header
             response.setHeader(CORRELATION_ID_HEADER, correlationId);
@@ -46,6 +53,7 @@ public class CorrelationIdFilter extends OncePerRequestFilter {
         } finally {
             // Always clear MDC to prevent memory leaks
             MDC.remove(CORRELATION_ID_MDC_KEY);
+            MDC.remove(REQUEST_ID_MDC_KEY);
         }
     }
 }
@@ -0,0 +1,36 @@
+package com.kkst.mycinema.config;
+
+import io.prometheus.metrics.tracer.common.SpanContext;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets the Prometheus registry attach exemplars to histogram buckets without a
+ * tracing library: the "trace" is the request's X-Correlation-ID and the "span"
+ * the per-request id, both put in the MDC by {@link CorrelationIdFilter}. A slow
+ * bucket in booking.stage then points at the log lines of a request that landed
+ * in it. Exemplars are only exposed when scraping in the OpenMetrics format.
+ */
+@Component
+public class CorrelationIdSpanContext implements SpanContext {
+
+    @Override
+    public String getCurrentTraceId() {
+        return MDC.get(CorrelationIdFilter.CORRELATION_ID_MDC_KEY);
+    }
+
+    @Override
+    public String getCurrentSpanId() {
+        return MDC.get(CorrelationIdFilter.REQUEST_ID_MDC_KEY);
+    }
+
+    @Override
+    public boolean isCurrentSpanSampled() {
+        return getCurrentTraceId() != null;
+    }
+
+    @Override
+    public void markCurrentSpanAsExemplar() {
+        // Nothing to propagate: the correlation id is already in the logs
+    }
+}
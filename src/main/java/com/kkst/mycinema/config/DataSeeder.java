@@ -5,6 +5,7 @@ import com.kkst.mycinema.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -13,6 +14,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 
 @Component
+@Profile("!datagen")
 @RequiredArgsConstructor
 @Slf4j
 public class DataSeeder implements CommandLineRunner {
@@ -3,19 +3,38 @@ package com.kkst.mycinema.config;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
 @Component
 @Getter
 public class MetricsConfig {
 
+    /**
+     * SLO buckets for booking.stage; with the percentile histogram they let dashboards show
+     * both p99 and the share of requests under each threshold, for every stage
+     */
+    private static final Duration[] STAGE_SLOS = {
+            Duration.ofMillis(10), Duration.ofMillis(25), Duration.ofMillis(50), Duration.ofMillis(100),
+            Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofMillis(2500),
+            Duration.ofSeconds(5)
+    };
+
+    @Getter(AccessLevel.NONE)
+    private final MeterRegistry meterRegistry;
     private final Counter bookingSuccessCounter;
     private final Counter bookingFailureCounter;
     private final Counter bookingCancellationCounter;
     private final Timer bookingDurationTimer;
 
     public MetricsConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
         this.bookingSuccessCounter = Counter.builder("booking.success")
                 .description("Number of successful bookings")
                 .tag("type", "success")
@@ -35,5 +54,77 @@ public class MetricsConfig {
                 .description("Time taken to complete bookings")
                 .register(meterRegistry);
     }
-}
 
+    /**
+     * Time one stage of the booking pipeline as booking.stage, tagged with the stage, the
+     * outcome (success/failure) and the exception on failure. On a Prometheus scrape each
+     * bucket carries an exemplar with the request's X-Correlation-ID
+     * (see {@link CorrelationIdSpanContext}).
+     */
+    public <T> T recordStage(BookingStage stage, Supplier<T> work) {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return work.get();
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            recordStage(stage, System.nanoTime() - start, failure);
+        }
+    }
+
+    /**
+     * Record a stage timed elsewhere, e.g. around a transactional proxy by {@link TimedStageAspect}.
+     *
+     * @param failure what the stage threw, or null if it succeeded
+     */
+    public void recordStage(BookingStage stage, long durationNanos, Throwable failure) {
+        stageTimer(stage, failure != null ? failure.getClass().getSimpleName() : null)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordStage(BookingStage stage, Runnable work) {
+        recordStage(stage, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private Timer stageTimer(BookingStage stage, String exception) {
+        return Timer.builder("booking.stage")
+                .description("Time spent in each stage of the booking pipeline")
+                .tag("stage", stage.tag())
+                .tag("outcome", exception == null ? "success" : "failure")
+                .tag("exception", exception == null ? "none" : exception)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(STAGE_SLOS)
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stages of the hold / pay / confirm flow. The gateway stage is the only one
+     * outside the database; the rest include their queries.
+     */
+    public enum BookingStage {
+        HOLD("hold"),
+        INITIATE_PAYMENT("initiate_payment"),
+        PAYMENT_GATEWAY("payment_gateway"),
+        REVERT_HOLD("revert_hold"),
+        COMPLETE("complete"),
+        REFUND("refund"),
+        RELEASE("release"),
+        CLEANUP("cleanup");
+
+        private final String tag;
+
+        BookingStage(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.kkst.mycinema.config;
+
+import com.kkst.mycinema.config.MetricsConfig.BookingStage;
+
+import java.lang.annotation.*;
+
+/**
+ * Times a {@code @Transactional} method as one booking.stage sample, including its
+ * commit: the version-checked UPDATEs only flush at commit, and an optimistic lock
+ * failure there must count as a failed stage. Applied by {@link TimedStageAspect}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface TimedStage {
+
+    BookingStage value();
+}
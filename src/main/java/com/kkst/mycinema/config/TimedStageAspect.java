@@ -0,0 +1,36 @@
+package com.kkst.mycinema.config;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies {@link TimedStage}. Ordered ahead of the transaction interceptor, so the
+ * sample covers the whole transaction and its commit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class TimedStageAspect {
+
+    private final MetricsConfig metricsConfig;
+
+    @Around("@annotation(timedStage)")
+    public Object time(ProceedingJoinPoint joinPoint, TimedStage timedStage) throws Throwable {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            metricsConfig.recordStage(timedStage.value(), System.nanoTime() - start, failure);
+        }
+    }
+}
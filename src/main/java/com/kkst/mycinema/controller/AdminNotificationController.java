@@ -0,0 +1,65 @@
+package com.kkst.mycinema.controller;
+
+import com.kkst.mycinema.dto.FailedNotificationResponse;
+import com.kkst.mycinema.dto.NotificationReplayResponse;
+import com.kkst.mycinema.entity.FailedNotification;
+import com.kkst.mycinema.notification.FailedNotificationRetrier;
+import com.kkst.mycinema.notification.FailedNotificationStore;
+import com.kkst.mycinema.notification.NotificationType;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/notifications/failed")
+@RequiredArgsConstructor
+@Tag(name = "Admin - Notifications", description = "APIs for inspecting and replaying failed notifications")
+public class AdminNotificationController {
+
+    private final FailedNotificationStore failedNotificationStore;
+    private final FailedNotificationRetrier failedNotificationRetrier;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "List failed notifications", description = "Dead-lettered notifications by status, newest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of failed notifications"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - admin role required")
+    })
+    public ResponseEntity<Page<FailedNotificationResponse>> getFailedNotifications(
+            @Parameter(description = "RETRYING or DEAD") @RequestParam(defaultValue = "DEAD") FailedNotification.Status status,
+            @Parameter(description = "Page number (0-indexed)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size) {
+        var pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100),
+                Sort.by(Sort.Direction.DESC, "createdAt"));
+        return ResponseEntity.ok(failedNotificationStore.findByStatus(status, pageable));
+    }
+
+    @PostMapping("/replay")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Replay dead notifications",
+            description = "Puts every DEAD notification (optionally for one channel) back into the retry cycle. " +
+                    "Sends are throttled in the background; the response returns immediately.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Replay scheduled", content = @Content(schema = @Schema(implementation = NotificationReplayResponse.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - admin role required")
+    })
+    public ResponseEntity<NotificationReplayResponse> replayDead(
+            @Parameter(description = "Only replay this channel") @RequestParam(required = false) NotificationType channel) {
+        int scheduled = failedNotificationRetrier.replayDead(channel);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new NotificationReplayResponse(scheduled, failedNotificationRetrier.replayRatePerSecond()));
+    }
+}
@@ -56,7 +56,8 @@ public class AuthController {
 
     @PostMapping("/refresh")
     @RateLimiter(name = "auth")
-    @Operation(summary = "Refresh access token", description = "Uses a valid refresh token to obtain a new access token")
+    @Operation(summary = "Refresh access token", description = "Exchanges a refresh token for a new access token and a new refresh token. "
+            + "Each refresh token can be used once; reusing one revokes the session.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Token refreshed successfully"),
             @ApiResponse(responseCode = "401", description = "Invalid or expired refresh token"),
@@ -66,5 +67,17 @@ public class AuthController {
         var response = authService.refreshToken(request);
         return ResponseEntity.ok(response);
     }
-}
 
+    @PostMapping("/logout")
+    @RateLimiter(name = "auth")
+    @Operation(summary = "Logout", description = "Revokes the refresh token's session, including the access tokens issued with it")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Session revoked"),
+            @ApiResponse(responseCode = "401", description = "Invalid or expired refresh token"),
+            @ApiResponse(responseCode = "429", description = "Too many requests - rate limit exceeded")
+    })
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        authService.logout(request);
+        return ResponseEntity.noContent().build();
+    }
+}
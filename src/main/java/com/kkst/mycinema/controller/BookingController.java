@@ -3,10 +3,12 @@ package com.kkst.mycinema.controller;
 import com.kkst.mycinema.dto.BookingRequest;
 import com.kkst.mycinema.dto.BookingResponse;
 import com.kkst.mycinema.dto.CancellationResponse;
+import com.kkst.mycinema.dto.CursorPage;
 import com.kkst.mycinema.dto.PaymentConfirmationRequest;
 import com.kkst.mycinema.dto.SeatHoldResponse;
+import com.kkst.mycinema.ratelimit.KeyedRateLimited;
+import com.kkst.mycinema.security.AuthenticatedUser;
 import com.kkst.mycinema.service.BookingService;
-import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -22,7 +24,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -42,13 +44,12 @@ public class BookingController {
                         @ApiResponse(responseCode = "200", description = "Bookings retrieved successfully", content = @Content(array = @ArraySchema(schema = @Schema(implementation = BookingResponse.class)))),
                         @ApiResponse(responseCode = "401", description = "Not authenticated")
         })
-        public ResponseEntity<List<BookingResponse>> getUserBookings(Authentication authentication) {
-                var userEmail = authentication.getName();
-                return ResponseEntity.ok(bookingService.getUserBookings(userEmail));
+        public ResponseEntity<List<BookingResponse>> getUserBookings(@AuthenticationPrincipal AuthenticatedUser user) {
+                return ResponseEntity.ok(bookingService.getUserBookings(user.id()));
         }
 
         @PostMapping("/hold")
-        @RateLimiter(name = "booking")
+        @KeyedRateLimited("booking")
         @Operation(summary = "Hold seats temporarily", description = "Holds seats for a limited time (default 10 minutes) while user completes payment. "
                         +
                         "Held seats are automatically released if not confirmed.")
@@ -59,14 +60,13 @@ public class BookingController {
         })
         public ResponseEntity<SeatHoldResponse> holdSeats(
                         @Valid @RequestBody BookingRequest request,
-                        Authentication authentication) {
-                var userEmail = authentication.getName();
-                var response = bookingService.holdSeats(request, userEmail);
+                        @AuthenticationPrincipal AuthenticatedUser user) {
+                var response = bookingService.holdSeats(request, user.id());
                 return ResponseEntity.ok(response);
         }
 
         @PostMapping("/confirm-with-payment")
-        @RateLimiter(name = "booking")
+        @KeyedRateLimited("booking")
         @Operation(summary = "Confirm held seats with payment (Production)", description = "Confirms a seat hold after processing payment. This is the recommended production endpoint. "
                         +
                         "Must be called before hold expires. Sends confirmation email on success.")
@@ -78,9 +78,8 @@ public class BookingController {
         })
         public ResponseEntity<BookingResponse> confirmBookingWithPayment(
                         @Valid @RequestBody PaymentConfirmationRequest request,
-                        Authentication authentication) {
-                var userEmail = authentication.getName();
-                var response = bookingService.confirmHoldWithPayment(request, userEmail);
+                        @AuthenticationPrincipal AuthenticatedUser user) {
+                var response = bookingService.confirmHoldWithPayment(request, user.id());
                 return ResponseEntity.status(HttpStatus.CREATED).body(response);
         }
 
@@ -92,14 +91,13 @@ public class BookingController {
         })
         public ResponseEntity<Void> releaseHold(
                         @PathVariable String holdToken,
-                        Authentication authentication) {
-                var userEmail = authentication.getName();
-                bookingService.releaseHold(holdToken, userEmail);
+                        @AuthenticationPrincipal AuthenticatedUser user) {
+                bookingService.releaseHold(holdToken, user.id());
                 return ResponseEntity.ok().build();
         }
 
         @PostMapping
-        @RateLimiter(name = "booking")
+        @KeyedRateLimited("booking")
         @Operation(summary = "Book seats directly (legacy)", description = "Books one or more seats for a movie show directly without hold. "
                         +
                         "Uses optimistic locking to prevent double-booking. " +
@@ -112,18 +110,16 @@ public class BookingController {
         })
         public ResponseEntity<BookingResponse> createBooking(
                         @Valid @RequestBody BookingRequest request,
-                        Authentication authentication) {
-                var userEmail = authentication.getName();
-                var response = bookingService.bookSeats(request, userEmail);
+                        @AuthenticationPrincipal AuthenticatedUser user) {
+                var response = bookingService.bookSeats(request, user.id());
                 return ResponseEntity.status(HttpStatus.CREATED).body(response);
         }
 
         @GetMapping("/my-bookings")
         @Operation(summary = "Get user bookings", description = "Retrieves all bookings made by the authenticated user, ordered by booking time (newest first)")
         @ApiResponse(responseCode = "200", description = "List of bookings retrieved successfully", content = @Content(array = @ArraySchema(schema = @Schema(implementation = BookingResponse.class))))
-        public ResponseEntity<List<BookingResponse>> getMyBookings(Authentication authentication) {
-                var userEmail = authentication.getName();
-                return ResponseEntity.ok(bookingService.getUserBookings(userEmail));
+        public ResponseEntity<List<BookingResponse>> getMyBookings(@AuthenticationPrincipal AuthenticatedUser user) {
+                return ResponseEntity.ok(bookingService.getUserBookings(user.id()));
         }
 
         @GetMapping("/my-bookings/paginated")
@@ -135,7 +131,7 @@ public class BookingController {
         public ResponseEntity<Page<BookingResponse>> getMyBookingsPaginated(
                         @RequestParam(defaultValue = "0") int page,
                         @RequestParam(defaultValue = "10") int size,
-                        Authentication authentication) {
+                        @AuthenticationPrincipal AuthenticatedUser user) {
 
                 // Validate pagination parameters
                 if (page < 0) {
@@ -145,13 +141,32 @@ public class BookingController {
                         size = 10; // Default to 10, max 100 per page
                 }
 
-                var userEmail = authentication.getName();
                 Pageable pageable = PageRequest.of(page, size);
-                var bookingsPage = bookingService.getUserBookingsPaginated(userEmail, pageable);
+                var bookingsPage = bookingService.getUserBookingsPaginated(user.id(), pageable);
 
                 return ResponseEntity.ok(bookingsPage);
         }
 
+        @GetMapping("/my-bookings/scroll")
+        @Operation(summary = "Get user bookings (cursor-based)", description = "Retrieves bookings newest first using keyset pagination. "
+                        + "Pass the returned nextCursor to fetch the following page. The total count is omitted unless includeTotal=true.")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Page of bookings retrieved successfully"),
+                        @ApiResponse(responseCode = "400", description = "Invalid cursor")
+        })
+        public ResponseEntity<CursorPage<BookingResponse>> getMyBookingsScroll(
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(defaultValue = "10") int size,
+                        @RequestParam(defaultValue = "false") boolean includeTotal,
+                        @AuthenticationPrincipal AuthenticatedUser user) {
+
+                if (size < 1 || size > 100) {
+                        size = 10; // Default to 10, max 100 per page
+                }
+
+                return ResponseEntity.ok(bookingService.getUserBookingsScroll(user.id(), cursor, size, includeTotal));
+        }
+
         @DeleteMapping("/{bookingId}")
         @Operation(summary = "Cancel a booking", description = "Cancels a booking and releases the seats. Must be done at least 24 hours before show time.")
         @ApiResponses(value = {
@@ -162,9 +177,8 @@ public class BookingController {
         })
         public ResponseEntity<CancellationResponse> cancelBooking(
                         @PathVariable Long bookingId,
-                        Authentication authentication) {
-                var userEmail = authentication.getName();
-                var response = bookingService.cancelBooking(bookingId, userEmail);
+                        @AuthenticationPrincipal AuthenticatedUser user) {
+                var response = bookingService.cancelBooking(bookingId, user.id());
                 return ResponseEntity.ok(response);
         }
 }
@@ -1,6 +1,9 @@
 package com.kkst.mycinema.controller;
 
+import com.kkst.mycinema.dto.CursorPage;
 import com.kkst.mycinema.dto.MovieResponse;
+import com.kkst.mycinema.dto.MovieSuggestionResponse;
+import com.kkst.mycinema.search.MovieSuggestIndex;
 import com.kkst.mycinema.service.MovieService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -22,6 +25,7 @@ import java.util.List;
 public class MovieController {
 
     private final MovieService movieService;
+    private final MovieSuggestIndex movieSuggestIndex;
 
     @GetMapping
     @Operation(summary = "Get all movies", description = "Returns a list of all available movies")
@@ -30,6 +34,21 @@ public class MovieController {
         return ResponseEntity.ok(movieService.getAllMovies());
     }
 
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest movie titles", description = "Typeahead suggestions for a partially typed title, served from an in-memory index")
+    @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully")
+    public ResponseEntity<List<MovieSuggestionResponse>> suggestMovies(
+            @Parameter(description = "Partially typed title") @RequestParam(defaultValue = "") String q,
+            @Parameter(description = "Maximum suggestions (max 20)") @RequestParam(defaultValue = "8") int limit) {
+
+        if (limit < 1)
+            limit = 8;
+        if (limit > 20)
+            limit = 20;
+
+        return ResponseEntity.ok(movieSuggestIndex.suggest(q, limit));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get movie details", description = "Returns details of a specific movie")
     @ApiResponse(responseCode = "200", description = "Movie retrieved successfully")
@@ -64,4 +83,23 @@ public class MovieController {
         var pageable = PageRequest.of(page, size, sort);
         return ResponseEntity.ok(movieService.getMoviesPaginated(query, genre, pageable));
     }
+
+    @GetMapping("/scroll")
+    @Operation(summary = "Get movies (cursor-based)", description = "Returns movies ordered by title using keyset pagination. "
+            + "Pass the returned nextCursor to fetch the following page. The total count is omitted unless includeTotal=true.")
+    @ApiResponse(responseCode = "200", description = "Movies page retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    public ResponseEntity<CursorPage<MovieResponse>> getMoviesScroll(
+            @Parameter(description = "Filter by genre") @RequestParam(required = false) String genre,
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 50)") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Include total count (runs an extra query)") @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        if (size < 1)
+            size = 10;
+        if (size > 50)
+            size = 50;
+
+        return ResponseEntity.ok(movieService.getMoviesScroll(genre, cursor, size, includeTotal));
+    }
 }
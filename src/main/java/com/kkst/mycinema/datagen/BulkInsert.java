@@ -0,0 +1,96 @@
+package com.kkst.mycinema.datagen;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Buffers rows for one table and writes them as multi-row INSERT statements,
+ * rowsPerStatement rows each, sent as one JDBC batch. Rows are only written on
+ * {@link #flush()}, so the caller controls the order tables hit the database in
+ * and foreign keys are always satisfied.
+ */
+final class BulkInsert implements AutoCloseable {
+
+    // Postgres accepts at most 32767 bind parameters per statement
+    private static final int MAX_PARAMETERS = 32_000;
+
+    private final Connection connection;
+    private final String table;
+    private final String[] columns;
+    private final int rowsPerStatement;
+    private final List<Object[]> rows = new ArrayList<>();
+
+    private PreparedStatement fullStatement;
+    private long written;
+
+    BulkInsert(Connection connection, String table, int batchSize, String... columns) {
+        this.connection = connection;
+        this.table = table;
+        this.columns = columns;
+        this.rowsPerStatement = Math.max(1, Math.min(batchSize, MAX_PARAMETERS / columns.length));
+    }
+
+    void add(Object... values) {
+        if (values.length != columns.length) {
+            throw new IllegalArgumentException(table + " expects " + columns.length + " values, got " + values.length);
+        }
+        rows.add(values);
+    }
+
+    void flush() throws SQLException {
+        int full = rows.size() / rowsPerStatement;
+        if (full > 0) {
+            if (fullStatement == null) {
+                fullStatement = connection.prepareStatement(sql(rowsPerStatement));
+            }
+            for (int i = 0; i < full; i++) {
+                bind(fullStatement, rows.subList(i * rowsPerStatement, (i + 1) * rowsPerStatement));
+                fullStatement.addBatch();
+            }
+            fullStatement.executeBatch();
+        }
+        int tail = rows.size() - full * rowsPerStatement;
+        if (tail > 0) {
+            try (var statement = connection.prepareStatement(sql(tail))) {
+                bind(statement, rows.subList(rows.size() - tail, rows.size()));
+                statement.executeUpdate();
+            }
+        }
+        written += rows.size();
+        rows.clear();
+    }
+
+    long written() {
+        return written;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (fullStatement != null) {
+            fullStatement.close();
+        }
+    }
+
+    private String sql(int rowCount) {
+        var row = "(" + "?,".repeat(columns.length - 1) + "?)";
+        var sql = new StringBuilder(64 + rowCount * (row.length() + 1))
+                .append("INSERT INTO ").append(table)
+                .append(" (").append(String.join(", ", columns)).append(") VALUES ");
+        for (int i = 0; i < rowCount; i++) {
+            sql.append(i == 0 ? "" : ",").append(row);
+        }
+        return sql.toString();
+    }
+
+    private void bind(PreparedStatement statement, List<Object[]> batch) throws SQLException {
+        int index = 1;
+        for (Object[] row : batch) {
+            for (Object value : row) {
+                statement.setObject(index++, value);
+            }
+        }
+    }
+}
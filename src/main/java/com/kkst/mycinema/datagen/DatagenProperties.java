@@ -0,0 +1,92 @@
+package com.kkst.mycinema.datagen;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Shape of the synthetic dataset written by {@link DatagenRunner}.
+ * Binds to properties with prefix "datagen".
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "datagen")
+public class DatagenProperties {
+
+    /**
+     * Random seed; the same seed, sizes and reference date give the same dataset on an empty database
+     */
+    private long seed = 42;
+
+    /**
+     * Day treated as today. Defaults to the current date; pass the logged value to reproduce a run
+     */
+    private LocalDate referenceDate;
+
+    /**
+     * Days before the reference date the schedule starts, so there is booking history
+     */
+    private int pastDays = 7;
+
+    private int halls = 300;
+    private int minRows = 8;
+    private int maxRows = 24;
+    private int minSeatsPerRow = 10;
+    private int maxSeatsPerRow = 30;
+
+    private int movies = 400;
+
+    /**
+     * Shows per hall, scheduled back to back between 10:00 and 23:00
+     */
+    private int showsPerHall = 20;
+
+    private int users = 200_000;
+
+    /**
+     * Password of every generated user (user{id}@datagen.local)
+     */
+    private String userPassword = "Datagen123!";
+
+    /**
+     * Zipf exponent of movie popularity; 0 picks movies uniformly
+     */
+    private double movieSkew = 1.0;
+
+    /**
+     * Average share of a show's seats that are booked; popular movies sell more
+     */
+    private double occupancy = 0.4;
+
+    private int maxSeatsPerBooking = 6;
+
+    /**
+     * Share of bookings that are cancelled; their seats are available again
+     */
+    private double cancelledRate = 0.05;
+
+    private BigDecimal basePrice = new BigDecimal("12.00");
+
+    /**
+     * Surcharge for seats in the back third of a hall
+     */
+    private BigDecimal premiumSurcharge = new BigDecimal("4.00");
+
+    /**
+     * Rows per multi-row INSERT statement
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Shows written (with their seats and bookings) per transaction
+     */
+    private int showsPerTransaction = 100;
+
+    /**
+     * Stop the application once the dataset is written
+     */
+    private boolean exitWhenDone = true;
+}
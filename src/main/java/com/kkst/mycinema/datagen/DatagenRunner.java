@@ -0,0 +1,57 @@
+package com.kkst.mycinema.datagen;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Fills the database with a synthetic dataset for performance work instead of the
+ * small {@link com.kkst.mycinema.config.DataSeeder} data, then exits:
+ *
+ * <pre>
+ * ./mvnw spring-boot:run -Dspring-boot.run.profiles=datagen \
+ *     -Dspring-boot.run.arguments="--datagen.halls=500 --datagen.shows-per-hall=40 --datagen.seed=7"
+ * </pre>
+ *
+ * Sizes and distributions are the datagen.* properties, see {@link DatagenProperties}.
+ */
+@Component
+@Profile("datagen")
+@RequiredArgsConstructor
+@Slf4j
+public class DatagenRunner implements CommandLineRunner {
+
+    private final DatagenProperties properties;
+    private final DataSource dataSource;
+    private final PasswordEncoder passwordEncoder;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(String... args) throws Exception {
+        // One hash shared by every generated user; hashing each would dominate the run
+        var generator = new DatasetGenerator(properties, dataSource, passwordEncoder.encode(properties.getUserPassword()));
+        log.info("Generating dataset with seed {} and reference date {} ({} halls, {} shows per hall, {} users)",
+                properties.getSeed(), generator.referenceDate(), properties.getHalls(),
+                properties.getShowsPerHall(), properties.getUsers());
+
+        var summary = generator.generate();
+        long seconds = Math.max(1, summary.elapsed().toSeconds());
+        log.info("Generated {} rows in {} s ({} rows/s): {} halls, {} seats, {} movies, {} users, {} shows, "
+                        + "{} show seats, {} bookings, {} booked seats, revenue {}",
+                summary.rows(), summary.elapsed().toSeconds(), summary.rows() / seconds,
+                summary.halls(), summary.seats(), summary.movies(), summary.users(), summary.shows(),
+                summary.showSeats(), summary.bookings(), summary.bookingSeats(), summary.revenue());
+        log.info("Generated users log in as user<id>@datagen.local with password {}", properties.getUserPassword());
+
+        if (properties.isExitWhenDone()) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+}
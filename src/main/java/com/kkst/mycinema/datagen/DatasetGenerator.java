@@ -0,0 +1,366 @@
+package com.kkst.mycinema.datagen;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Writes a large synthetic dataset straight through JDBC: halls of varying size with
+ * their seats, movies whose popularity follows a Zipf distribution, back-to-back show
+ * schedules per hall, and bookings of contiguous seat groups that fill each show to an
+ * occupancy driven by its movie's popularity. Cancelled bookings leave their seats
+ * available, as a real cancellation does.
+ *
+ * Ids are assigned here, continuing after the current maximum of each table, so child
+ * rows can be written with multi-row INSERTs without reading generated keys back; the
+ * identity sequences are moved past them at the end. All randomness comes from one
+ * seeded generator consumed in a fixed order, so the same properties reproduce the same
+ * dataset on an empty database.
+ */
+@Slf4j
+public class DatasetGenerator {
+
+    static final String[] TABLES = {"halls", "seats", "movies", "users", "shows", "show_seats", "bookings", "booking_seats"};
+
+    private static final String[] GENRES = {
+            "Action", "Comedy", "Drama", "Sci-Fi", "Thriller", "Horror", "Animation", "Romance", "Documentary", "Fantasy"};
+    private static final String[] TITLE_ADJECTIVES = {
+            "Silent", "Last", "Broken", "Golden", "Hidden", "Crimson", "Endless", "Frozen", "Lost", "Midnight",
+            "Burning", "Distant", "Electric", "Quiet", "Savage", "Shattered", "Wandering", "Wild", "Iron", "Glass"};
+    private static final String[] TITLE_NOUNS = {
+            "Harbor", "Kingdom", "Signal", "Horizon", "Garden", "Empire", "Frontier", "River", "Machine", "Storm",
+            "Mirror", "Summer", "Station", "Orbit", "Echo", "Promise", "Voyage", "Shadow", "Island", "Code"};
+
+    private static final LocalTime FIRST_SHOW = LocalTime.of(10, 0);
+    private static final LocalTime LAST_SHOW = LocalTime.of(23, 0);
+    private static final int BOOKING_WINDOW_DAYS = 14;
+    // Share of bookings for exactly two seats; the rest are spread evenly over 1..max
+    private static final double PAIR_SHARE = 0.45;
+
+    private final DatagenProperties properties;
+    private final DataSource dataSource;
+    private final String passwordHash;
+    private final LocalDate referenceDate;
+    private final SplittableRandom random;
+
+    private final BigDecimal standardPrice;
+    private final BigDecimal premiumPrice;
+
+    public record Summary(long halls, long seats, long movies, long users, long shows, long showSeats,
+                          long bookings, long bookingSeats, BigDecimal revenue, Duration elapsed) {
+
+        public long rows() {
+            return halls + seats + movies + users + shows + showSeats + bookings + bookingSeats;
+        }
+    }
+
+    private record HallLayout(long id, int rows, int seatsPerRow, long firstSeatId) {
+    }
+
+    /**
+     * @param passwordHash encoded password stored for every generated user
+     */
+    public DatasetGenerator(DatagenProperties properties, DataSource dataSource, String passwordHash) {
+        if (properties.getHalls() < 1 || properties.getMovies() < 1 || properties.getUsers() < 1) {
+            throw new IllegalArgumentException("datagen.halls, datagen.movies and datagen.users must be positive");
+        }
+        if (properties.getMinRows() < 1 || properties.getMinRows() > properties.getMaxRows()
+                || properties.getMinSeatsPerRow() < 1 || properties.getMinSeatsPerRow() > properties.getMaxSeatsPerRow()) {
+            throw new IllegalArgumentException("datagen hall dimensions must satisfy 1 <= min <= max");
+        }
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.passwordHash = passwordHash;
+        this.referenceDate = properties.getReferenceDate() != null ? properties.getReferenceDate() : LocalDate.now();
+        this.random = new SplittableRandom(properties.getSeed());
+        this.standardPrice = properties.getBasePrice();
+        this.premiumPrice = properties.getBasePrice().add(properties.getPremiumSurcharge());
+    }
+
+    public LocalDate referenceDate() {
+        return referenceDate;
+    }
+
+    public Summary generate() throws SQLException {
+        long started = System.nanoTime();
+        try (var connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                var summary = write(connection, started);
+                advanceSequences(connection);
+                return summary;
+            } catch (SQLException | RuntimeException e) {
+                // Earlier chunks stay committed; delete by id range to start over
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private Summary write(Connection connection, long started) throws SQLException {
+        int batchSize = properties.getBatchSize();
+        long hallBase = maxId(connection, "halls");
+        long seatBase = maxId(connection, "seats");
+        long movieBase = maxId(connection, "movies");
+        long userBase = maxId(connection, "users");
+        long showId = maxId(connection, "shows");
+        long showSeatId = maxId(connection, "show_seats");
+        long bookingId = maxId(connection, "bookings");
+        long bookingSeatId = maxId(connection, "booking_seats");
+
+        try (var hallInsert = new BulkInsert(connection, "halls", batchSize,
+                "id", "name", "total_rows", "total_columns");
+             var seatInsert = new BulkInsert(connection, "seats", batchSize,
+                     "id", "hall_id", "row_number", "seat_number", "status");
+             var movieInsert = new BulkInsert(connection, "movies", batchSize,
+                     "id", "title", "duration_minutes", "genre");
+             var userInsert = new BulkInsert(connection, "users", batchSize,
+                     "id", "name", "email", "password", "roles", "created_at");
+             var showInsert = new BulkInsert(connection, "shows", batchSize,
+                     "id", "movie_id", "hall_id", "start_time", "end_time");
+             var showSeatInsert = new BulkInsert(connection, "show_seats", batchSize,
+                     "id", "show_id", "seat_id", "status", "price", "version");
+             var bookingInsert = new BulkInsert(connection, "bookings", batchSize,
+                     "id", "user_id", "show_id", "booking_time", "status", "total_amount", "transaction_id");
+             var bookingSeatInsert = new BulkInsert(connection, "booking_seats", batchSize,
+                     "id", "booking_id", "show_seat_id")) {
+
+            // Halls and seats, seat ids row-major within each hall
+            var halls = new HallLayout[properties.getHalls()];
+            long seatId = seatBase;
+            for (int h = 0; h < halls.length; h++) {
+                int rows = between(properties.getMinRows(), properties.getMaxRows());
+                int seatsPerRow = between(properties.getMinSeatsPerRow(), properties.getMaxSeatsPerRow());
+                long hallId = hallBase + h + 1;
+                halls[h] = new HallLayout(hallId, rows, seatsPerRow, seatId + 1);
+                hallInsert.add(hallId, "Hall " + hallId, rows, seatsPerRow);
+                for (int row = 1; row <= rows; row++) {
+                    for (int seat = 1; seat <= seatsPerRow; seat++) {
+                        seatInsert.add(++seatId, hallId, row, seat, "ACTIVE");
+                    }
+                }
+            }
+            hallInsert.flush();
+            seatInsert.flush();
+            connection.commit();
+            log.info("Generated {} halls with {} seats", hallInsert.written(), seatInsert.written());
+
+            // Movies; the index is also the popularity rank
+            var durations = new int[properties.getMovies()];
+            for (int m = 0; m < durations.length; m++) {
+                durations[m] = between(80, 180);
+                movieInsert.add(movieBase + m + 1, title(m), durations[m], GENRES[random.nextInt(GENRES.length)]);
+            }
+            movieInsert.flush();
+            connection.commit();
+
+            var cutoff = referenceDate.atStartOfDay();
+            for (int u = 1; u <= properties.getUsers(); u++) {
+                long userId = userBase + u;
+                userInsert.add(userId, "User " + userId, "user" + userId + "@datagen.local", passwordHash,
+                        "ROLE_USER", cutoff.minusMinutes(random.nextInt(365 * 24 * 60)));
+                if (u % 10_000 == 0) {
+                    userInsert.flush();
+                    connection.commit();
+                }
+            }
+            userInsert.flush();
+            connection.commit();
+            log.info("Generated {} movies and {} users", movieInsert.written(), userInsert.written());
+
+            var popularity = cumulativePopularity(durations.length);
+            double meanGroupSize = meanGroupSize();
+            var revenue = BigDecimal.ZERO;
+            var scheduleStart = referenceDate.minusDays(properties.getPastDays()).atTime(FIRST_SHOW);
+            long totalShows = (long) halls.length * properties.getShowsPerHall();
+            int pending = 0;
+
+            for (HallLayout hall : halls) {
+                var start = scheduleStart.plusMinutes(15L * random.nextInt(5));
+                for (int s = 0; s < properties.getShowsPerHall(); s++) {
+                    int movie = pickMovie(popularity);
+                    var end = start.plusMinutes(durations[movie]);
+                    long show = ++showId;
+                    showInsert.add(show, movieBase + movie + 1, hall.id(), start, end);
+
+                    // 0 available, 1 booked, 2 booked then cancelled; doubles as the row version
+                    var seatState = new byte[hall.rows() * hall.seatsPerRow()];
+                    long firstShowSeatId = showSeatId + 1;
+                    double heat = 1.5 - (double) movie / durations.length;
+                    double fill = Math.min(1.0, properties.getOccupancy() * heat * (0.5 + random.nextDouble()));
+                    double groupStart = fill / (fill + meanGroupSize * (1 - fill));
+
+                    for (int row = 0; row < hall.rows(); row++) {
+                        var rowPrice = price(hall, row);
+                        int seat = 0;
+                        while (seat < hall.seatsPerRow()) {
+                            if (random.nextDouble() >= groupStart) {
+                                seat++;
+                                continue;
+                            }
+                            int size = Math.min(groupSize(), hall.seatsPerRow() - seat);
+                            boolean cancelled = random.nextDouble() < properties.getCancelledRate();
+                            long booking = ++bookingId;
+                            for (int k = 0; k < size; k++) {
+                                int index = row * hall.seatsPerRow() + seat + k;
+                                seatState[index] = (byte) (cancelled ? 2 : 1);
+                                bookingSeatInsert.add(++bookingSeatId, booking, firstShowSeatId + index);
+                            }
+                            var amount = rowPrice.multiply(BigDecimal.valueOf(size));
+                            bookingInsert.add(booking, userBase + 1 + random.nextLong(properties.getUsers()), show,
+                                    bookingTime(start, cutoff), cancelled ? "CANCELLED" : "CONFIRMED", amount,
+                                    "DATAGEN-" + booking);
+                            if (!cancelled) {
+                                revenue = revenue.add(amount);
+                            }
+                            seat += size;
+                        }
+                    }
+                    for (int index = 0; index < seatState.length; index++) {
+                        showSeatInsert.add(++showSeatId, show, hall.firstSeatId() + index,
+                                seatState[index] == 1 ? "BOOKED" : "AVAILABLE",
+                                price(hall, index / hall.seatsPerRow()), (long) seatState[index]);
+                    }
+
+                    start = nextStart(start, end);
+                    if (++pending == properties.getShowsPerTransaction()) {
+                        flushShows(connection, showInsert, showSeatInsert, bookingInsert, bookingSeatInsert);
+                        pending = 0;
+                        logProgress(showInsert.written(), totalShows, started);
+                    }
+                }
+            }
+            flushShows(connection, showInsert, showSeatInsert, bookingInsert, bookingSeatInsert);
+
+            return new Summary(hallInsert.written(), seatInsert.written(), movieInsert.written(), userInsert.written(),
+                    showInsert.written(), showSeatInsert.written(), bookingInsert.written(), bookingSeatInsert.written(),
+                    revenue, Duration.ofNanos(System.nanoTime() - started));
+        }
+    }
+
+    // Parents before children, so every foreign key is satisfied
+    private static void flushShows(Connection connection, BulkInsert shows, BulkInsert showSeats,
+            BulkInsert bookings, BulkInsert bookingSeats) throws SQLException {
+        shows.flush();
+        showSeats.flush();
+        bookings.flush();
+        bookingSeats.flush();
+        connection.commit();
+    }
+
+    private void logProgress(long shows, long totalShows, long started) {
+        long step = Math.max(1, totalShows / 10);
+        if (shows / step != (shows - properties.getShowsPerTransaction()) / step) {
+            log.info("Generated {}/{} shows ({} s)", shows, totalShows,
+                    Duration.ofNanos(System.nanoTime() - started).toSeconds());
+        }
+    }
+
+    /**
+     * Move each identity sequence past the ids written here, then refresh planner statistics.
+     */
+    private void advanceSequences(Connection connection) throws SQLException {
+        var product = connection.getMetaData().getDatabaseProductName();
+        try (var statement = connection.createStatement()) {
+            for (String table : TABLES) {
+                long max = maxId(connection, table);
+                switch (product) {
+                    case "PostgreSQL" -> {
+                        statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), "
+                                + Math.max(max, 1) + ", " + (max > 0) + ")");
+                        statement.execute("ANALYZE " + table);
+                    }
+                    case "H2" -> statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (max + 1));
+                    default -> log.warn("Don't know how to advance the id sequence of {} on {}; "
+                            + "inserts through the application may collide with generated ids", table, product);
+                }
+            }
+        }
+        connection.commit();
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (var statement = connection.createStatement();
+             var result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    private double[] cumulativePopularity(int movies) {
+        var cumulative = new double[movies];
+        double total = 0;
+        for (int i = 0; i < movies; i++) {
+            total += 1 / Math.pow(i + 1, properties.getMovieSkew());
+            cumulative[i] = total;
+        }
+        return cumulative;
+    }
+
+    private int pickMovie(double[] cumulative) {
+        double x = random.nextDouble() * cumulative[cumulative.length - 1];
+        int index = Arrays.binarySearch(cumulative, x);
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    private int groupSize() {
+        int max = Math.max(1, properties.getMaxSeatsPerBooking());
+        return random.nextDouble() < PAIR_SHARE ? Math.min(2, max) : 1 + random.nextInt(max);
+    }
+
+    private double meanGroupSize() {
+        int max = Math.max(1, properties.getMaxSeatsPerBooking());
+        return PAIR_SHARE * Math.min(2, max) + (1 - PAIR_SHARE) * (max + 1) / 2.0;
+    }
+
+    private BigDecimal price(HallLayout hall, int row) {
+        return row >= hall.rows() * 2 / 3 ? premiumPrice : standardPrice;
+    }
+
+    /**
+     * Some time in the two weeks before the show, but not after the reference date.
+     */
+    private LocalDateTime bookingTime(LocalDateTime showStart, LocalDateTime cutoff) {
+        var latest = showStart.isBefore(cutoff) ? showStart : cutoff;
+        var earliest = showStart.minusDays(BOOKING_WINDOW_DAYS);
+        if (!latest.isAfter(earliest)) {
+            earliest = latest.minusDays(BOOKING_WINDOW_DAYS);
+        }
+        return earliest.plusSeconds(random.nextLong(Math.max(1, Duration.between(earliest, latest).toSeconds())));
+    }
+
+    /**
+     * Next slot after cleaning, on a 5 minute boundary, or the first slot of the next day.
+     */
+    private LocalDateTime nextStart(LocalDateTime start, LocalDateTime end) {
+        var next = end.plusMinutes(20 + 5L * random.nextInt(5));
+        next = next.plusMinutes((5 - next.getMinute() % 5) % 5).withSecond(0).withNano(0);
+        if (!next.toLocalDate().equals(start.toLocalDate()) || next.toLocalTime().isAfter(LAST_SHOW)) {
+            return start.toLocalDate().plusDays(1).atTime(FIRST_SHOW);
+        }
+        return next;
+    }
+
+    private int between(int min, int max) {
+        return min + random.nextInt(max - min + 1);
+    }
+
+    private static String title(int index) {
+        int combinations = TITLE_ADJECTIVES.length * TITLE_NOUNS.length;
+        var title = "The " + TITLE_ADJECTIVES[index % TITLE_ADJECTIVES.length] + " "
+                + TITLE_NOUNS[(index / TITLE_ADJECTIVES.length) % TITLE_NOUNS.length];
+        return index < combinations ? title : title + " " + (index / combinations + 1);
+    }
+}
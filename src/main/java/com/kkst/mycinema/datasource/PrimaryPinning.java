@@ -0,0 +1,31 @@
+package com.kkst.mycinema.datasource;
+
+/**
+ * Thread-bound flag set by {@link UsePrimaryAspect} and read by
+ * {@link ReplicaRoutingDataSource}. A depth counter keeps nested
+ * {@link UsePrimary} calls from clearing the outer pin.
+ */
+public final class PrimaryPinning {
+
+    private static final ThreadLocal<Integer> DEPTH = ThreadLocal.withInitial(() -> 0);
+
+    private PrimaryPinning() {
+    }
+
+    public static boolean isPinned() {
+        return DEPTH.get() > 0;
+    }
+
+    static void enter() {
+        DEPTH.set(DEPTH.get() + 1);
+    }
+
+    static void exit() {
+        int depth = DEPTH.get() - 1;
+        if (depth <= 0) {
+            DEPTH.remove();
+        } else {
+            DEPTH.set(depth);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.kkst.mycinema.datasource;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements and rows each HTTP request causes and records them per
+ * endpoint. A request over query-count.warn-threshold statements is logged, which is
+ * usually an N+1: a lazy association read once per row of a list.
+ *
+ * Metrics (tagged by method and uri template):
+ * - http.server.requests.sql.statements - statements executed per request
+ * - http.server.requests.sql.rows       - result rows read per request
+ */
+@Component
+// Right after the correlation ID filter, so the warning carries the request's correlation ID
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "query-count.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final int warnThreshold;
+
+    public QueryCountFilter(MeterRegistry meterRegistry,
+            @Value("${query-count.warn-threshold:20}") int warnThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.warnThreshold = warnThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        var scope = QueryCounter.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+            record(request, scope.statements(), scope.rows());
+        }
+    }
+
+    private void record(HttpServletRequest request, long statements, long rows) {
+        var method = request.getMethod();
+        var uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String pattern
+                ? pattern
+                : "UNKNOWN";
+
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .description("SQL statements executed per HTTP request")
+                .baseUnit("statements")
+                .tag("method", method)
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statements);
+        DistributionSummary.builder("http.server.requests.sql.rows")
+                .description("Result rows read per HTTP request")
+                .baseUnit("rows")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(rows);
+
+        if (statements > warnThreshold) {
+            log.warn("{} {} executed {} SQL statements ({} rows), over the threshold of {} - check for N+1 queries",
+                    method, uri, statements, rows, warnThreshold);
+        }
+    }
+}
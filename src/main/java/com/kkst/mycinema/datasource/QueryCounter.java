@@ -0,0 +1,69 @@
+package com.kkst.mycinema.datasource;
+
+/**
+ * Counts the SQL statements and result rows issued by the current thread while a
+ * scope is open. Scopes nest: a test helper opened inside a request counts the same
+ * statements as the request's own scope. The counts are fed by {@link QueryCountingDataSource}.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    /**
+     * Start counting on this thread until the returned scope is closed.
+     */
+    public static Scope open() {
+        var scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static void statementExecuted() {
+        for (var scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.statements++;
+        }
+    }
+
+    static void rowRead() {
+        for (var scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.rows++;
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final Scope parent;
+        private long statements;
+        private long rows;
+        private boolean closed;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public long statements() {
+            return statements;
+        }
+
+        public long rows() {
+            return rows;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (CURRENT.get() == this) {
+                if (parent == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(parent);
+                }
+            }
+        }
+    }
+}
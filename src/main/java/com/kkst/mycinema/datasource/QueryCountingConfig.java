@@ -0,0 +1,36 @@
+package com.kkst.mycinema.datasource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's "dataSource" bean - Boot's pool, or the routing proxy from
+ * {@link ReadReplicaDataSourceConfig} - in a {@link QueryCountingDataSource}, so JPA,
+ * JdbcTemplate and Flyway statements are all counted. Pools behind it are left alone,
+ * which keeps statements from being counted twice. Disable with query-count.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "query-count.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryCountingConfig {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    // Static so the post-processor does not pull this configuration in early
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof QueryCountingDataSource)) {
+                    return new QueryCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.kkst.mycinema.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything
+ * else to the primary.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy: the transaction manager
+ * grabs a connection before the read-only flag is bound to the thread, so the
+ * routing decision has to be deferred until the first statement.
+ *
+ * If the replica cannot hand out a connection it is skipped for
+ * {@code retryInterval} and reads fall back to the primary.
+ *
+ * {@link #unwrap} and {@link #isWrapperFor} look through to the primary, so
+ * code that monitors "the" pool (e.g. load shedding) sees the one writes use.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final Duration retryInterval;
+    private final Clock clock;
+    private final AtomicLong replicaDownUntil = new AtomicLong();
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration retryInterval) {
+        this(primary, replica, retryInterval, Clock.systemUTC());
+    }
+
+    ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration retryInterval, Clock clock) {
+        this.primary = primary;
+        this.replica = replica;
+        this.retryInterval = retryInterval;
+        this.clock = clock;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (shouldUseReplica()) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                markReplicaDown(e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (shouldUseReplica()) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                markReplicaDown(e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    public boolean isReplicaAvailable() {
+        return clock.millis() >= replicaDownUntil.get();
+    }
+
+    private boolean shouldUseReplica() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !PrimaryPinning.isPinned()
+                && isReplicaAvailable();
+    }
+
+    private void markReplicaDown(SQLException cause) {
+        replicaDownUntil.set(clock.millis() + retryInterval.toMillis());
+        log.warn("Read replica unavailable, routing reads to primary for {}s: {}",
+                retryInterval.toSeconds(), cause.getMessage());
+    }
+}
@@ -0,0 +1,15 @@
+package com.kkst.mycinema.datasource;
+
+import java.lang.annotation.*;
+
+/**
+ * Pins a read-only method (or every method of a class) to the primary
+ * database when read-replica routing is enabled. Use it for read-your-writes
+ * paths, e.g. listing a user's bookings right after they confirmed one,
+ * where replica lag would show stale data.
+ */
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface UsePrimary {
+}
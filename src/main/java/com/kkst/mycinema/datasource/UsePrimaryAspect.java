@@ -0,0 +1,27 @@
+package com.kkst.mycinema.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies {@link UsePrimary}. Only registered when a replica is configured;
+ * without one every query already goes to the primary.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "app.datasource.replica.url")
+public class UsePrimaryAspect {
+
+    @Around("@annotation(com.kkst.mycinema.datasource.UsePrimary) || @within(com.kkst.mycinema.datasource.UsePrimary)")
+    public Object pinToPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+        PrimaryPinning.enter();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            PrimaryPinning.exit();
+        }
+    }
+}
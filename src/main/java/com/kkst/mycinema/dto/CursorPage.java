@@ -0,0 +1,20 @@
+package com.kkst.mycinema.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated result. Clients pass {@code nextCursor}
+ * back unchanged to fetch the following slice.
+ */
+@Schema(description = "Cursor-based page of results")
+public record CursorPage<T>(
+        @Schema(description = "Items in this page") List<T> items,
+
+        @Schema(description = "Opaque cursor for the next page, null when there are no more results") String nextCursor,
+
+        @Schema(description = "Whether another page is available", example = "true") boolean hasNext,
+
+        @Schema(description = "Total number of matching items, only present when includeTotal=true", example = "42", nullable = true) Long totalElements) {
+}
@@ -0,0 +1,28 @@
+package com.kkst.mycinema.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "A notification held in the dead-letter store")
+public record FailedNotificationResponse(
+        @Schema(description = "Failed notification ID", example = "42") Long id,
+
+        @Schema(description = "Delivery channel", example = "EMAIL") String channel,
+
+        @Schema(description = "Recipient address", example = "user@example.com") String recipient,
+
+        @Schema(description = "Template used to render the notification", example = "booking-confirmation") String templateName,
+
+        @Schema(description = "RETRYING or DEAD", example = "DEAD") String status,
+
+        @Schema(description = "Send attempts so far", example = "6") int attempts,
+
+        @Schema(description = "Last failure reason", example = "SmtpEmailService: Connection refused") String reason,
+
+        @Schema(description = "Next automatic retry, empty for DEAD notifications") LocalDateTime nextAttemptAt,
+
+        @Schema(description = "Time of the last attempt") LocalDateTime lastAttemptAt,
+
+        @Schema(description = "Time of the first failure") LocalDateTime createdAt) {
+}
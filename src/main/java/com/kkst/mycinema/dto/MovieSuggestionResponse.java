@@ -0,0 +1,10 @@
+package com.kkst.mycinema.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Typeahead suggestion for the movie search box")
+public record MovieSuggestionResponse(
+        @Schema(description = "Movie ID", example = "1") Long id,
+
+        @Schema(description = "Movie title", example = "The Matrix") String title) {
+}
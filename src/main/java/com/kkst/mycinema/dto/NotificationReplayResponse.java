@@ -0,0 +1,10 @@
+package com.kkst.mycinema.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Result of a dead-letter replay request")
+public record NotificationReplayResponse(
+        @Schema(description = "Notifications put back into the retry cycle", example = "1250") int scheduled,
+
+        @Schema(description = "Maximum re-sends per second", example = "50") int ratePerSecond) {
+}
@@ -0,0 +1,87 @@
+package com.kkst.mycinema.entity;
+
+import com.kkst.mycinema.notification.Notification;
+import com.kkst.mycinema.notification.NotificationType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification that no channel service managed to send. Kept with the last
+ * failure reason and attempt count, and retried with exponential backoff until
+ * it succeeds (row deleted) or runs out of attempts (status DEAD).
+ */
+@Entity
+@Table(name = "failed_notifications", indexes = {
+        @Index(name = "idx_failed_notifications_due", columnList = "status, next_attempt_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FailedNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private NotificationType channel;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(name = "recipient_name")
+    private String recipientName;
+
+    @Column(length = 500)
+    private String subject;
+
+    @Column(name = "template_name", length = 100)
+    private String templateName;
+
+    /**
+     * Template variables serialized as JSON.
+     */
+    @Column(name = "data_json", columnDefinition = "TEXT")
+    private String dataJson;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private Notification.NotificationPriority priority = Notification.NotificationPriority.NORMAL;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private Status status = Status.RETRYING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(length = 1000)
+    private String reason;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_attempt_at")
+    private LocalDateTime lastAttemptAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
+    public enum Status {
+        RETRYING, DEAD
+    }
+}
@@ -0,0 +1,64 @@
+package com.kkst.mycinema.entity;
+
+import com.kkst.mycinema.notification.Notification;
+import com.kkst.mycinema.notification.NotificationType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification that could not be queued in memory because its channel's
+ * dispatch queue was full (or the application was shutting down). Rows are
+ * drained back into the dispatcher in insertion order.
+ */
+@Entity
+@Table(name = "pending_notifications")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PendingNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private NotificationType channel;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(name = "recipient_name")
+    private String recipientName;
+
+    @Column(length = 500)
+    private String subject;
+
+    @Column(name = "template_name", length = 100)
+    private String templateName;
+
+    /**
+     * Template variables serialized as JSON.
+     */
+    @Column(name = "data_json", columnDefinition = "TEXT")
+    private String dataJson;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private Notification.NotificationPriority priority = Notification.NotificationPriority.NORMAL;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.kkst.mycinema.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks that a (user, show) pair has already been sent its show reminder.
+ * Plain id columns rather than associations: the reminder job only ever
+ * writes these rows and checks for their existence.
+ */
+@Entity
+@Table(name = "show_reminders_sent", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_show_reminder_user_show", columnNames = {"user_id", "show_id"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShowReminderSent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "show_id", nullable = false)
+    private Long showId;
+
+    @Column(name = "sent_at", nullable = false)
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (sentAt == null) {
+            sentAt = LocalDateTime.now();
+        }
+    }
+}
@@ -1,19 +1,33 @@
 package com.kkst.mycinema.exception;
 
+import lombok.Getter;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import java.time.Duration;
+
 /**
  * Exception thrown when rate limit is exceeded.
  */
+@Getter
 @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
 public class RateLimitExceededException extends RuntimeException {
-    public RateLimitExceededException(String message) {
+
+    /**
+     * When the client may try again, if known
+     */
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String message, Duration retryAfter) {
         super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public RateLimitExceededException(String message) {
+        this(message, null);
     }
 
     public RateLimitExceededException() {
-        super("Too many requests. Please try again later.");
+        this("Too many requests. Please try again later.");
     }
 }
-
@@ -0,0 +1,27 @@
+package com.kkst.mycinema.loadshedding;
+
+/**
+ * A concurrency limit that adjusts itself from the requests it admitted.
+ */
+interface AdaptiveLimit {
+
+    int limit();
+
+    /**
+     * Called as each admitted request completes.
+     *
+     * @param rttNanos  time the request took
+     * @param inflight  requests in flight when it was admitted, itself included
+     * @param congested whether a shared resource (the connection pool) was queueing
+     */
+    void onSample(long rttNanos, int inflight, boolean congested);
+
+    static AdaptiveLimit create(LoadSheddingProperties.Algorithm algorithm, LoadSheddingProperties.EndpointClass settings) {
+        return switch (algorithm) {
+            case GRADIENT -> new GradientLimit(settings.getInitialLimit(), settings.getMinLimit(),
+                    settings.getMaxLimit(), settings.getTolerance());
+            case AIMD -> new AimdLimit(settings.getInitialLimit(), settings.getMinLimit(), settings.getMaxLimit(),
+                    settings.getLatencyThreshold(), settings.getBackoffRatio());
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.kkst.mycinema.loadshedding;
+
+import java.time.Duration;
+
+/**
+ * Additive increase, multiplicative decrease: +1 for each request that finished under
+ * the latency threshold while the limit was actually in use, times backoff-ratio for
+ * each one that was slow or saw the connection pool queueing.
+ */
+final class AimdLimit implements AdaptiveLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long thresholdNanos;
+    private final double backoffRatio;
+
+    private volatile int limit;
+
+    AimdLimit(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.thresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long rttNanos, int inflight, boolean congested) {
+        if (congested || rttNanos > thresholdNanos) {
+            limit = Math.max(minLimit, (int) (limit * backoffRatio));
+        } else if (inflight * 2 >= limit) {
+            // Only grow when the limit is what's holding requests back
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.kkst.mycinema.loadshedding;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admits requests while fewer than {@link AdaptiveLimit#limit()} are in flight and
+ * feeds each completed one back into the limit. Never queues.
+ */
+final class ConcurrencyLimiter {
+
+    private final AdaptiveLimit limit;
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    ConcurrencyLimiter(AdaptiveLimit limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * @return requests in flight including this one, or 0 if the request must be shed
+     */
+    int tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit.limit()) {
+                return 0;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    void release(long rttNanos, int inflightAtStart, boolean congested) {
+        inflight.decrementAndGet();
+        limit.onSample(rttNanos, inflightAtStart, congested);
+    }
+
+    /**
+     * Free the slot without telling the limit anything, for requests whose latency
+     * says nothing about the handler's (e.g. rejected with a 4xx).
+     */
+    void releaseUnsampled() {
+        inflight.decrementAndGet();
+    }
+
+    int limit() {
+        return limit.limit();
+    }
+
+    int inflight() {
+        return inflight.get();
+    }
+}
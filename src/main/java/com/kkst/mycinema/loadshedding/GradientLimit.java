@@ -0,0 +1,65 @@
+package com.kkst.mycinema.loadshedding;
+
+/**
+ * Compares recent latency with a slowly moving baseline. While they match, the limit
+ * grows by about its square root, leaving room for a small queue; when recent latency
+ * rises above tolerance times the baseline, requests are queueing somewhere downstream
+ * and the limit shrinks in proportion (by at most half per sample). Congestion in the
+ * connection pool is treated as the steepest gradient.
+ */
+final class GradientLimit implements AdaptiveLimit {
+
+    // Exponential averages: short ~ the last 10 samples, baseline ~ the last 500
+    private static final double SHORT_SMOOTHING = 0.1;
+    private static final double BASELINE_SMOOTHING = 0.002;
+    private static final double LIMIT_SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    private double estimatedLimit;
+    private double shortRtt;
+    private double baselineRtt;
+    private volatile int limit;
+
+    GradientLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long rttNanos, int inflight, boolean congested) {
+        if (shortRtt == 0) {
+            shortRtt = rttNanos;
+            baselineRtt = rttNanos;
+        }
+        shortRtt += (rttNanos - shortRtt) * SHORT_SMOOTHING;
+        baselineRtt += (rttNanos - baselineRtt) * BASELINE_SMOOTHING;
+        if (baselineRtt > shortRtt * 2) {
+            // Latency recovered after a slow period; don't let the inflated baseline hide the next one
+            baselineRtt *= 0.95;
+        }
+
+        double gradient = congested
+                ? MIN_GRADIENT
+                : Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * baselineRtt / shortRtt));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        if (target > estimatedLimit && inflight * 2 < estimatedLimit) {
+            // Half the limit unused says nothing about whether a higher one would be safe
+            return;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit,
+                estimatedLimit * (1 - LIMIT_SMOOTHING) + target * LIMIT_SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,193 @@
+package com.kkst.mycinema.loadshedding;
+
+import com.kkst.mycinema.exception.ServiceOverloadedException;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Caps concurrent requests per endpoint class (load-shedding.classes, e.g. booking and
+ * admin) with a limit that adapts to observed latency and to the Hikari pool: while
+ * threads are waiting for a connection the limits shrink, and beyond max-pool-waiters
+ * matched requests are shed outright. A shed request gets 503 with Retry-After at once
+ * instead of holding a Tomcat thread for up to the pool's connection-timeout.
+ *
+ * Runs after Spring Security, so unauthenticated requests never take a slot. Requests
+ * that end in a 4xx (validation, 403, 429 from the keyed rate limiter, ...) free their
+ * slot without feeding their near-zero latency into the limit.
+ *
+ * Metrics:
+ * - load.shedding.limit       - current limit (tag class)
+ * - load.shedding.inflight    - admitted requests in progress (tag class)
+ * - load.shedding.rejected    - shed requests (tags class, reason: limit, pool_saturated)
+ * - load.shedding.pool.waiters - threads waiting for a database connection
+ */
+@Component
+// Inside Spring Security's filter chain and after traffic capture, which records shed requests too
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 2)
+@ConditionalOnProperty(name = "load-shedding.enabled", havingValue = "true", matchIfMissing = true)
+// Nothing to shed without a servlet container (e.g. the datagen profile), and no handlerExceptionResolver either
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Slf4j
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private final List<EndpointClass> classes = new ArrayList<>();
+    private final int maxPoolWaiters;
+    private final Duration retryAfter;
+    private final HikariDataSource pool;
+    private final HandlerExceptionResolver exceptionResolver;
+    private final MeterRegistry meterRegistry;
+
+    private record EndpointClass(String name, List<PathPattern> paths, ConcurrencyLimiter limiter) {
+
+        boolean matches(PathContainer path) {
+            for (PathPattern pattern : paths) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public LoadSheddingFilter(LoadSheddingProperties properties,
+            DataSource dataSource,
+            MeterRegistry meterRegistry,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        this.maxPoolWaiters = properties.getMaxPoolWaiters();
+        this.retryAfter = properties.getRetryAfter();
+        this.pool = hikari(dataSource);
+        this.exceptionResolver = exceptionResolver;
+        this.meterRegistry = meterRegistry;
+
+        properties.getClasses().forEach((name, settings) -> {
+            var limiter = new ConcurrencyLimiter(AdaptiveLimit.create(properties.getAlgorithm(), settings));
+            var paths = settings.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+            classes.add(new EndpointClass(name, paths, limiter));
+
+            Gauge.builder("load.shedding.limit", limiter, ConcurrencyLimiter::limit)
+                    .description("Adaptive concurrency limit of the endpoint class")
+                    .tag("class", name)
+                    .register(meterRegistry);
+            Gauge.builder("load.shedding.inflight", limiter, ConcurrencyLimiter::inflight)
+                    .description("Admitted requests of the endpoint class in progress")
+                    .tag("class", name)
+                    .register(meterRegistry);
+        });
+        Gauge.builder("load.shedding.pool.waiters", this, LoadSheddingFilter::poolWaiters)
+                .description("Threads waiting for a database connection")
+                .register(meterRegistry);
+
+        if (pool == null) {
+            log.info("Data source is not a Hikari pool; load shedding uses latency only");
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return classes.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        var endpointClass = classify(request);
+        if (endpointClass == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (poolWaiters() > maxPoolWaiters) {
+            shed(endpointClass, "pool_saturated", request, response);
+            return;
+        }
+        var limiter = endpointClass.limiter();
+        int inflight = limiter.tryAcquire();
+        if (inflight == 0) {
+            shed(endpointClass, "limit", request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (isClientError(response.getStatus())) {
+                limiter.releaseUnsampled();
+            } else {
+                limiter.release(System.nanoTime() - start, inflight, poolWaiters() > 0);
+            }
+        }
+    }
+
+    private EndpointClass classify(HttpServletRequest request) {
+        var path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (EndpointClass endpointClass : classes) {
+            if (endpointClass.matches(path)) {
+                return endpointClass;
+            }
+        }
+        return null;
+    }
+
+    private void shed(EndpointClass endpointClass, String reason, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Counter.builder("load.shedding.rejected")
+                .description("Requests shed by the adaptive concurrency limiter")
+                .tag("class", endpointClass.name())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+
+        // Same 503 body and Retry-After as every other overload, via GlobalExceptionHandler
+        var overloaded = new ServiceOverloadedException("Server is busy, please retry shortly", retryAfter);
+        if (exceptionResolver.resolveException(request, response, null, overloaded) == null) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, overloaded.getMessage());
+        }
+    }
+
+    private static boolean isClientError(int status) {
+        return status >= 400 && status < 500;
+    }
+
+    private int poolWaiters() {
+        var mxBean = pool != null ? pool.getHikariPoolMXBean() : null;
+        // Null until the pool has started
+        return mxBean != null ? mxBean.getThreadsAwaitingConnection() : 0;
+    }
+
+    // Through the query-counting and replica-routing wrappers to the (primary) pool
+    private static HikariDataSource hikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
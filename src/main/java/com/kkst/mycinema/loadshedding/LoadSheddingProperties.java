@@ -0,0 +1,76 @@
+package com.kkst.mycinema.loadshedding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adaptive concurrency limits applied by {@link LoadSheddingFilter}.
+ * Binds to properties with prefix "load-shedding".
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "load-shedding")
+public class LoadSheddingProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * How each class's limit adapts: gradient (to the latency trend) or aimd (to a latency threshold)
+     */
+    private Algorithm algorithm = Algorithm.GRADIENT;
+
+    /**
+     * Retry-After sent with a shed request
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /**
+     * Threads waiting for a database connection above which matched requests are shed
+     * outright; any waiter at all counts as congestion and shrinks the limits
+     */
+    private int maxPoolWaiters = 10;
+
+    /**
+     * Endpoint classes by name, each with its own limit, e.g. load-shedding.classes.booking.paths=/api/bookings/**
+     */
+    private Map<String, EndpointClass> classes = new LinkedHashMap<>();
+
+    public enum Algorithm {
+        GRADIENT,
+        AIMD
+    }
+
+    @Data
+    public static class EndpointClass {
+        /**
+         * Path patterns of the class; a request belongs to the first class with a matching pattern
+         */
+        private List<String> paths = new ArrayList<>();
+
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private int maxLimit = 200;
+
+        /**
+         * aimd: a request slower than this counts as congestion
+         */
+        private Duration latencyThreshold = Duration.ofMillis(500);
+
+        /**
+         * aimd: factor the limit is multiplied by on congestion
+         */
+        private double backoffRatio = 0.9;
+
+        /**
+         * gradient: how far recent latency may rise above the long-term baseline before the limit shrinks
+         */
+        private double tolerance = 1.5;
+    }
+}
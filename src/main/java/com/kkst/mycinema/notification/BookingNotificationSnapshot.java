@@ -0,0 +1,61 @@
+package com.kkst.mycinema.notification;
+
+import com.kkst.mycinema.entity.Booking;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable copy of everything a booking notification needs.
+ *
+ * Create it with {@link #of(Booking)} while the booking's persistence context is
+ * still open (i.e. inside the service transaction). From then on notification code
+ * only sees plain values: nothing lazy-loads on a dispatcher thread and no entity
+ * graph is kept alive by a queued notification.
+ */
+public record BookingNotificationSnapshot(
+        Long bookingId,
+        Long userId,
+        String userName,
+        String userEmail,
+        Long showId,
+        String movieTitle,
+        String hallName,
+        LocalDateTime showStartTime,
+        LocalDateTime bookingTime,
+        BigDecimal totalAmount,
+        List<String> seats) {
+
+    public BookingNotificationSnapshot {
+        seats = seats == null ? List.of() : List.copyOf(seats);
+    }
+
+    public static BookingNotificationSnapshot of(Booking booking) {
+        var user = booking.getUser();
+        var show = booking.getShow();
+        var bookingSeats = booking.getBookingSeats();
+
+        var seats = new ArrayList<String>(bookingSeats != null ? bookingSeats.size() : 0);
+        if (bookingSeats != null) {
+            for (var bookingSeat : bookingSeats) {
+                var seat = bookingSeat.getShowSeat().getSeat();
+                seats.add("Row " + seat.getRowNumber() + ", Seat " + seat.getSeatNumber());
+            }
+        }
+
+        return new BookingNotificationSnapshot(
+                booking.getId(),
+                user.getId(),
+                user.getName(),
+                user.getEmail(),
+                show.getId(),
+                show.getMovie().getTitle(),
+                show.getHall().getName(),
+                show.getStartTime(),
+                booking.getBookingTime(),
+                booking.getTotalAmount(),
+                seats);
+    }
+}
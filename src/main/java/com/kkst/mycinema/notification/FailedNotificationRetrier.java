@@ -0,0 +1,162 @@
+package com.kkst.mycinema.notification;
+
+import com.kkst.mycinema.entity.FailedNotification;
+import com.kkst.mycinema.repository.FailedNotificationRepository;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Re-drives dead-lettered notifications: due RETRYING rows on a schedule, and
+ * DEAD rows on an admin replay.
+ *
+ * Every re-send goes through one rate limiter (notification.dispatch.dead-letter.replay-rate-per-second)
+ * and never takes more room than is free in the channel queue, so replaying
+ * thousands of messages trickles them out instead of flooding the SMTP server
+ * or spilling fresh traffic. Claimed rows are leased (next_attempt_at pushed out)
+ * before the send is queued, so overlapping runs do not send them twice.
+ * A run that used up the limiter's permits is resumed as soon as they refresh
+ * rather than after the next retry-interval, so a large backlog drains at the
+ * configured rate without a run ever blocking the scheduler thread.
+ */
+@Component
+@Slf4j
+public class FailedNotificationRetrier {
+
+    private static final long PERMIT_REFRESH_MILLIS = 1000;
+
+    private final FailedNotificationRepository repository;
+    private final FailedNotificationStore store;
+    private final NotificationDispatcher dispatcher;
+    private final NotificationDispatchProperties.DeadLetter policy;
+    private final TransactionTemplate transactionTemplate;
+    private final RateLimiter rateLimiter;
+    private volatile boolean throttled;
+
+    public FailedNotificationRetrier(FailedNotificationRepository repository,
+            FailedNotificationStore store,
+            NotificationDispatcher dispatcher,
+            NotificationDispatchProperties properties,
+            PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.store = store;
+        this.dispatcher = dispatcher;
+        this.policy = properties.getDeadLetter();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rateLimiter = RateLimiter.of("notification-replay", RateLimiterConfig.custom()
+                .limitForPeriod(policy.getReplayRatePerSecond())
+                .limitRefreshPeriod(Duration.ofMillis(PERMIT_REFRESH_MILLIS))
+                .timeoutDuration(Duration.ZERO)
+                .build());
+    }
+
+    /**
+     * Re-send failed notifications whose backoff has elapsed.
+     *
+     * @return number of notifications queued for sending
+     */
+    @Scheduled(fixedDelayString = "#{@notificationDispatchProperties.deadLetter.retryInterval.toMillis()}")
+    public int retryDue() {
+        int total = 0;
+        while (true) {
+            var batch = claimDue();
+            for (var claim : batch.claims()) {
+                if (dispatcher.redeliver(claim.notification(), claim.id())) {
+                    total++;
+                }
+                // else: leased row is picked up again once the lease expires
+            }
+            if (batch.claims().isEmpty()) {
+                throttled = batch.throttled();
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Re-queued {} failed notifications", total);
+        }
+        return total;
+    }
+
+    /**
+     * Carry on a run that ran out of permits, once the limiter has refreshed them.
+     */
+    @Scheduled(fixedDelay = PERMIT_REFRESH_MILLIS)
+    public void resumeThrottled() {
+        if (throttled) {
+            retryDue();
+        }
+    }
+
+    /**
+     * Put every DEAD notification (optionally only one channel) back into the retry
+     * cycle with a fresh attempt budget. The actual sends are throttled by {@link #retryDue()}.
+     *
+     * @return number of notifications scheduled for replay
+     */
+    @Transactional
+    public int replayDead(NotificationType channel) {
+        int scheduled = repository.scheduleReplay(FailedNotification.Status.DEAD, channel, LocalDateTime.now());
+        log.info("Scheduled {} dead-lettered notifications for replay (channel: {})",
+                scheduled, channel != null ? channel : "all");
+        return scheduled;
+    }
+
+    public int replayRatePerSecond() {
+        return policy.getReplayRatePerSecond();
+    }
+
+    private Batch claimDue() {
+        var batch = transactionTemplate.execute(status -> {
+            var permits = (int) Math.min(rateLimiter.getMetrics().getAvailablePermissions(), Integer.MAX_VALUE);
+            if (permits <= 0) {
+                return new Batch(List.of(), true);
+            }
+            var now = LocalDateTime.now();
+            var due = repository.findDueForUpdate(now, PageRequest.of(0, permits));
+
+            var result = new ArrayList<Claim>(due.size());
+            boolean outOfPermits = false;
+            for (var row : due) {
+                if (dispatcher.remainingCapacity(row.getChannel()) <= countFor(result, row.getChannel())) {
+                    continue;
+                }
+                if (!rateLimiter.acquirePermission()) {
+                    outOfPermits = true;
+                    continue;
+                }
+                row.setNextAttemptAt(now.plus(policy.getInFlightLease()));
+                result.add(new Claim(row.getId(), row.getChannel(), store.toNotification(row)));
+            }
+            return new Batch(result, outOfPermits);
+        });
+        return batch != null ? batch : new Batch(List.of(), false);
+    }
+
+    private static int countFor(List<Claim> claims, NotificationType channel) {
+        int count = 0;
+        for (var claim : claims) {
+            if (claim.channel() == channel) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private record Claim(Long id, NotificationType channel, Notification notification) {
+    }
+
+    // throttled: stopped because the limiter had no permits left, not for lack of due rows
+    private record Batch(List<Claim> claims, boolean throttled) {
+    }
+}
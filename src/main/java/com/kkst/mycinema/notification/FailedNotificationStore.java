@@ -0,0 +1,172 @@
+package com.kkst.mycinema.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kkst.mycinema.dto.FailedNotificationResponse;
+import com.kkst.mycinema.entity.FailedNotification;
+import com.kkst.mycinema.repository.FailedNotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Dead-letter store for notifications that no channel service could send.
+ *
+ * A first failure creates a RETRYING row; each failed retry bumps the attempt
+ * count and pushes next_attempt_at out exponentially (initial-backoff * 2^(n-1),
+ * capped at max-backoff). After max-attempts the row becomes DEAD and is only
+ * re-driven by an admin replay. A successful retry deletes the row.
+ *
+ * Metrics: notification.dead_letter.recorded (tag outcome=retrying|dead)
+ */
+@Component
+@Slf4j
+public class FailedNotificationStore {
+
+    private static final int MAX_REASON_LENGTH = 1000;
+
+    private final FailedNotificationRepository repository;
+    private final NotificationDispatchProperties.DeadLetter policy;
+    private final NotificationPayloadCodec codec;
+    private final Counter retrying;
+    private final Counter dead;
+
+    public FailedNotificationStore(FailedNotificationRepository repository,
+            NotificationDispatchProperties properties,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.policy = properties.getDeadLetter();
+        this.codec = new NotificationPayloadCodec(objectMapper);
+        this.retrying = Counter.builder("notification.dead_letter.recorded")
+                .description("Failed notification attempts recorded in the dead-letter store")
+                .tag("outcome", "retrying")
+                .register(meterRegistry);
+        this.dead = Counter.builder("notification.dead_letter.recorded")
+                .description("Failed notification attempts recorded in the dead-letter store")
+                .tag("outcome", "dead")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record the first failed attempt of a notification.
+     */
+    public void recordFailure(Notification notification, String reason) {
+        var now = LocalDateTime.now();
+        String dataJson;
+        try {
+            dataJson = codec.write(notification.getData());
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialize failed notification for {}, dropping it: {}",
+                    notification.getRecipient(), e.getMessage());
+            return;
+        }
+
+        var row = FailedNotification.builder()
+                .channel(notification.getType())
+                .recipient(notification.getRecipient())
+                .recipientName(notification.getRecipientName())
+                .subject(notification.getSubject())
+                .templateName(notification.getTemplateName())
+                .dataJson(dataJson)
+                .priority(notification.getPriority() != null
+                        ? notification.getPriority()
+                        : Notification.NotificationPriority.NORMAL)
+                .attempts(1)
+                .lastAttemptAt(now)
+                .reason(truncate(reason))
+                .build();
+        schedule(row, now);
+        repository.save(row);
+        log.warn("Notification to {} failed ({}), stored for retry", notification.getRecipient(), reason);
+    }
+
+    /**
+     * Record another failed attempt of a stored notification.
+     */
+    @Transactional
+    public void recordRetryFailure(Long id, String reason) {
+        repository.findById(id).ifPresent(row -> {
+            var now = LocalDateTime.now();
+            row.setAttempts(row.getAttempts() + 1);
+            row.setLastAttemptAt(now);
+            row.setReason(truncate(reason));
+            schedule(row, now);
+            if (row.getStatus() == FailedNotification.Status.DEAD) {
+                log.error("Notification {} to {} gave up after {} attempts: {}",
+                        id, row.getRecipient(), row.getAttempts(), reason);
+            }
+        });
+    }
+
+    /**
+     * A stored notification was finally sent.
+     */
+    @Transactional
+    public void resolve(Long id) {
+        repository.findById(id).ifPresent(repository::delete);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<FailedNotificationResponse> findByStatus(FailedNotification.Status status, Pageable pageable) {
+        return repository.findByStatus(status, pageable)
+                .map(row -> new FailedNotificationResponse(
+                        row.getId(),
+                        row.getChannel().name(),
+                        row.getRecipient(),
+                        row.getTemplateName(),
+                        row.getStatus().name(),
+                        row.getAttempts(),
+                        row.getReason(),
+                        row.getNextAttemptAt(),
+                        row.getLastAttemptAt(),
+                        row.getCreatedAt()));
+    }
+
+    Notification toNotification(FailedNotification row) {
+        return Notification.builder()
+                .type(row.getChannel())
+                .recipient(row.getRecipient())
+                .recipientName(row.getRecipientName())
+                .subject(row.getSubject())
+                .templateName(row.getTemplateName())
+                .data(codec.read(row.getDataJson(), row.getId()))
+                .priority(row.getPriority())
+                .build();
+    }
+
+    /**
+     * Delay after the given number of failed attempts.
+     */
+    Duration backoff(int attempts) {
+        int doublings = Math.min(Math.max(attempts - 1, 0), 30);
+        var delay = policy.getInitialBackoff().multipliedBy(1L << doublings);
+        return delay.compareTo(policy.getMaxBackoff()) > 0 ? policy.getMaxBackoff() : delay;
+    }
+
+    private void schedule(FailedNotification row, LocalDateTime now) {
+        if (row.getAttempts() >= policy.getMaxAttempts()) {
+            row.setStatus(FailedNotification.Status.DEAD);
+            row.setNextAttemptAt(null);
+            dead.increment();
+        } else {
+            row.setStatus(FailedNotification.Status.RETRYING);
+            row.setNextAttemptAt(now.plus(backoff(row.getAttempts())));
+            retrying.increment();
+        }
+    }
+
+    private static String truncate(String reason) {
+        if (reason == null || reason.length() <= MAX_REASON_LENGTH) {
+            return reason;
+        }
+        return reason.substring(0, MAX_REASON_LENGTH);
+    }
+}
@@ -0,0 +1,12 @@
+package com.kkst.mycinema.notification;
+
+/**
+ * Thrown by a {@link NotificationService} when a send attempt fails, so the
+ * dispatcher can record why in the dead-letter store.
+ */
+public class NotificationDeliveryException extends RuntimeException {
+
+    public NotificationDeliveryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
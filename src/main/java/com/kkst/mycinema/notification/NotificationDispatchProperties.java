@@ -0,0 +1,94 @@
+package com.kkst.mycinema.notification;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Sizing for the per-channel notification executors.
+ * Binds to properties with prefix "notification.dispatch".
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "notification.dispatch")
+public class NotificationDispatchProperties {
+
+    /**
+     * Defaults applied to every channel without an explicit entry in {@link #channels}
+     */
+    private Channel defaults = new Channel();
+
+    /**
+     * Per-channel overrides, e.g. notification.dispatch.channels.email.threads=8
+     */
+    private Map<NotificationType, Channel> channels = new EnumMap<>(NotificationType.class);
+
+    /**
+     * How often spilled notifications are moved back into the in-memory queues
+     */
+    private Duration drainInterval = Duration.ofSeconds(5);
+
+    /**
+     * Maximum spilled notifications re-dispatched per drain run
+     */
+    private int drainBatchSize = 100;
+
+    /**
+     * Retry policy for notifications that every channel service failed to send
+     */
+    private DeadLetter deadLetter = new DeadLetter();
+
+    public Channel forChannel(NotificationType type) {
+        return channels.getOrDefault(type, defaults);
+    }
+
+    @Data
+    public static class Channel {
+        /**
+         * Worker threads sending on this channel
+         */
+        private int threads = 4;
+
+        /**
+         * Notifications waiting in memory before new ones spill to the database
+         */
+        private int queueCapacity = 500;
+    }
+
+    @Data
+    public static class DeadLetter {
+        /**
+         * Send attempts (including the first) before a notification is marked DEAD
+         */
+        private int maxAttempts = 6;
+
+        /**
+         * Delay before the first retry; doubles on every further failure
+         */
+        private Duration initialBackoff = Duration.ofMinutes(1);
+
+        /**
+         * Upper bound for the retry delay
+         */
+        private Duration maxBackoff = Duration.ofHours(6);
+
+        /**
+         * How often due retries are picked up
+         */
+        private Duration retryInterval = Duration.ofSeconds(10);
+
+        /**
+         * Maximum failed notifications re-driven per second, shared by retries and admin replays
+         */
+        private int replayRatePerSecond = 50;
+
+        /**
+         * How long a claimed retry is hidden from other runs while it is in flight
+         */
+        private Duration inFlightLease = Duration.ofMinutes(10);
+    }
+}
@@ -0,0 +1,333 @@
+package com.kkst.mycinema.notification;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kkst.mycinema.entity.PendingNotification;
+import com.kkst.mycinema.observability.PropagatedContext;
+import com.kkst.mycinema.repository.PendingNotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Hands notifications to a dedicated, bounded executor per channel so a slow
+ * SMTP server can only back up its own queue. When a channel's queue is full
+ * the notification is written to pending_notifications instead of being
+ * dropped, and a scheduled drain feeds it back once there is room. The spill is
+ * written in its own transaction, so it neither joins nor can break the caller's.
+ * A notification that no service manages to send is recorded in the
+ * {@link FailedNotificationStore}.
+ * Each task carries the dispatching thread's correlation id and trace, and the send is
+ * observed as a notification.deliver span.
+ *
+ * Metrics (tagged by channel):
+ * - notification.dispatch.queue.depth - notifications waiting in memory
+ * - notification.dispatch.wait        - time between dispatch and a worker picking it up
+ * - notification.send.latency         - time spent in the channel's NotificationServices (tag outcome)
+ * - notification.dispatch.spilled     - notifications diverted to the database
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher {
+
+    private final List<NotificationService> notificationServices;
+    private final PendingNotificationRepository pendingNotificationRepository;
+    private final NotificationDispatchProperties properties;
+    private final FailedNotificationStore failedNotificationStore;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final NotificationPayloadCodec codec;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate spillTransaction;
+
+    private final Map<NotificationType, ThreadPoolExecutor> executors = new EnumMap<>(NotificationType.class);
+    private final Map<NotificationType, Timer> waitTimers = new EnumMap<>(NotificationType.class);
+    private final Map<NotificationType, Counter> spillCounters = new EnumMap<>(NotificationType.class);
+
+    public NotificationDispatcher(List<NotificationService> notificationServices,
+            PendingNotificationRepository pendingNotificationRepository,
+            NotificationDispatchProperties properties,
+            FailedNotificationStore failedNotificationStore,
+            MeterRegistry meterRegistry,
+            ObservationRegistry observationRegistry,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.notificationServices = notificationServices;
+        this.pendingNotificationRepository = pendingNotificationRepository;
+        this.properties = properties;
+        this.failedNotificationStore = failedNotificationStore;
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+        this.codec = new NotificationPayloadCodec(objectMapper);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.spillTransaction = new TransactionTemplate(transactionManager);
+        this.spillTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        for (NotificationType type : NotificationType.values()) {
+            var executor = createExecutor(type, virtualThreads);
+            executors.put(type, executor);
+
+            var channel = channelTag(type);
+            Gauge.builder("notification.dispatch.queue.depth", executor, e -> e.getQueue().size())
+                    .description("Notifications waiting in the in-memory dispatch queue")
+                    .tag("channel", channel)
+                    .register(meterRegistry);
+            waitTimers.put(type, Timer.builder("notification.dispatch.wait")
+                    .description("Time a notification waited in the dispatch queue")
+                    .tag("channel", channel)
+                    .register(meterRegistry));
+            spillCounters.put(type, Counter.builder("notification.dispatch.spilled")
+                    .description("Notifications diverted to the persistent queue because the channel was saturated")
+                    .tag("channel", channel)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Queue a notification on its channel. Never blocks the caller on a full
+     * queue: the notification is persisted and retried by {@link #drainSpilled()}.
+     */
+    public void dispatch(Notification notification) {
+        executors.get(notification.getType()).execute(new DispatchTask(notification, null, System.nanoTime()));
+    }
+
+    /**
+     * Queue a retry of a dead-lettered notification. Unlike {@link #dispatch}, a full
+     * queue is not spilled: the caller keeps the row and tries again later.
+     *
+     * @return false if the channel had no room
+     */
+    boolean redeliver(Notification notification, Long failedNotificationId) {
+        var executor = executors.get(notification.getType());
+        if (executor.getQueue().remainingCapacity() == 0) {
+            return false;
+        }
+        try {
+            executor.execute(new DispatchTask(notification, failedNotificationId, System.nanoTime()));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Free slots in a channel's in-memory queue.
+     */
+    int remainingCapacity(NotificationType type) {
+        return executors.get(type).getQueue().remainingCapacity();
+    }
+
+    /**
+     * Move spilled notifications back into the in-memory queues, oldest first,
+     * without overfilling them. Rows are deleted and committed before anything is
+     * dispatched, so a rolled-back drain can never send a notification that is
+     * still in the table; one that finds its queue full again is simply re-spilled.
+     */
+    @Scheduled(fixedDelayString = "#{@notificationDispatchProperties.drainInterval.toMillis()}")
+    public void drainSpilled() {
+        var claimed = transactionTemplate.execute(status -> {
+            var pending = pendingNotificationRepository.findOldestForUpdate(
+                    PageRequest.of(0, properties.getDrainBatchSize()));
+            var result = new ArrayList<Notification>(pending.size());
+            var reserved = new EnumMap<NotificationType, Integer>(NotificationType.class);
+            for (PendingNotification row : pending) {
+                int taken = reserved.getOrDefault(row.getChannel(), 0);
+                if (remainingCapacity(row.getChannel()) <= taken) {
+                    continue;
+                }
+                result.add(fromPending(row));
+                pendingNotificationRepository.delete(row);
+                reserved.put(row.getChannel(), taken + 1);
+            }
+            if (!pending.isEmpty()) {
+                log.info("Re-dispatching {} of {} spilled notifications", result.size(), pending.size());
+            }
+            return result;
+        });
+
+        for (Notification notification : claimed) {
+            dispatch(notification);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (var executor : executors.values()) {
+            executor.shutdown();
+        }
+        for (var entry : executors.entrySet()) {
+            var executor = entry.getValue();
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                // Persist whatever is still queued so a restart picks it up
+                for (Runnable queued : executor.shutdownNow()) {
+                    // Retries stay in failed_notifications and are picked up again after their lease
+                    if (queued instanceof DispatchTask task && task.failedNotificationId() == null) {
+                        spill(task.notification());
+                    }
+                }
+            }
+        }
+    }
+
+    private ThreadPoolExecutor createExecutor(NotificationType type, boolean virtualThreads) {
+        var channel = properties.forChannel(type);
+        var threadName = "notify-" + channelTag(type) + "-";
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name(threadName, 1).factory()
+                : Thread.ofPlatform().name(threadName, 1).daemon(true).factory();
+
+        var executor = new ThreadPoolExecutor(
+                channel.getThreads(), channel.getThreads(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(channel.getQueueCapacity()),
+                threadFactory,
+                (task, pool) -> {
+                    var dispatchTask = (DispatchTask) task;
+                    if (dispatchTask.failedNotificationId() != null) {
+                        throw new RejectedExecutionException("Dispatch queue full");
+                    }
+                    spill(dispatchTask.notification());
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private void deliver(Notification notification, Long failedNotificationId, long enqueuedAtNanos) {
+        waitTimers.get(notification.getType()).record(System.nanoTime() - enqueuedAtNanos, TimeUnit.NANOSECONDS);
+
+        Observation.createNotStarted("notification.deliver", observationRegistry)
+                .contextualName("deliver " + channelTag(notification.getType()))
+                .lowCardinalityKeyValue("channel", channelTag(notification.getType()))
+                .lowCardinalityKeyValue("retry", String.valueOf(failedNotificationId != null))
+                .observe(() -> send(notification, failedNotificationId));
+    }
+
+    private void send(Notification notification, Long failedNotificationId) {
+        var sample = Timer.start(meterRegistry);
+        boolean sent = false;
+        String failureReason = "No notification service supports " + notification.getType();
+        for (NotificationService service : notificationServices) {
+            if (service.supports(notification.getType())) {
+                try {
+                    if (service.send(notification)) {
+                        sent = true;
+                        log.debug("Notification sent successfully via {}", service.getClass().getSimpleName());
+                    } else {
+                        failureReason = service.getClass().getSimpleName() + " did not send the notification";
+                    }
+                } catch (Exception e) {
+                    failureReason = service.getClass().getSimpleName() + ": " + e.getMessage();
+                    log.error("Failed to send notification via {}: {}",
+                            service.getClass().getSimpleName(), e.getMessage());
+                }
+            }
+        }
+        sample.stop(Timer.builder("notification.send.latency")
+                .description("Time spent sending a notification")
+                .tag("channel", channelTag(notification.getType()))
+                .tag("outcome", sent ? "success" : "failure")
+                .register(meterRegistry));
+
+        try {
+            if (sent) {
+                if (failedNotificationId != null) {
+                    failedNotificationStore.resolve(failedNotificationId);
+                }
+            } else if (failedNotificationId != null) {
+                failedNotificationStore.recordRetryFailure(failedNotificationId, failureReason);
+            } else {
+                log.warn("No notification service could send the notification of type: {}", notification.getType());
+                failedNotificationStore.recordFailure(notification, failureReason);
+            }
+        } catch (Exception e) {
+            log.error("Could not update the dead-letter store for {}: {}", notification.getRecipient(), e.getMessage());
+        }
+    }
+
+    private void spill(Notification notification) {
+        spillCounters.get(notification.getType()).increment();
+        log.warn("{} dispatch queue full, persisting notification for {}",
+                notification.getType(), notification.getRecipient());
+        // Runs on the caller's thread: never join its transaction or throw into it
+        try {
+            var row = PendingNotification.builder()
+                    .channel(notification.getType())
+                    .recipient(notification.getRecipient())
+                    .recipientName(notification.getRecipientName())
+                    .subject(notification.getSubject())
+                    .templateName(notification.getTemplateName())
+                    .dataJson(codec.write(notification.getData()))
+                    .priority(notification.getPriority() != null
+                            ? notification.getPriority()
+                            : Notification.NotificationPriority.NORMAL)
+                    .build();
+            spillTransaction.executeWithoutResult(status -> pendingNotificationRepository.save(row));
+        } catch (Exception e) {
+            log.error("Could not persist notification for {}, dropping it: {}",
+                    notification.getRecipient(), e.getMessage());
+        }
+    }
+
+    private Notification fromPending(PendingNotification row) {
+        return Notification.builder()
+                .type(row.getChannel())
+                .recipient(row.getRecipient())
+                .recipientName(row.getRecipientName())
+                .subject(row.getSubject())
+                .templateName(row.getTemplateName())
+                .data(codec.read(row.getDataJson(), row.getId()))
+                .priority(row.getPriority())
+                .build();
+    }
+
+    private static String channelTag(NotificationType type) {
+        return type.name().toLowerCase();
+    }
+
+    private final class DispatchTask implements Runnable {
+        private final Notification notification;
+        private final Long failedNotificationId;
+        private final long enqueuedAtNanos;
+        private final PropagatedContext context;
+
+        private DispatchTask(Notification notification, Long failedNotificationId, long enqueuedAtNanos) {
+            this.notification = notification;
+            this.failedNotificationId = failedNotificationId;
+            this.enqueuedAtNanos = enqueuedAtNanos;
+            this.context = PropagatedContext.capture(observationRegistry);
+        }
+
+        Notification notification() {
+            return notification;
+        }
+
+        Long failedNotificationId() {
+            return failedNotificationId;
+        }
+
+        @Override
+        public void run() {
+            try (var ignored = context.restore()) {
+                deliver(notification, failedNotificationId, enqueuedAtNanos);
+            }
+        }
+    }
+}
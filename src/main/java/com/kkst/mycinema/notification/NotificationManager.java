@@ -1,10 +1,8 @@
 package com.kkst.mycinema.notification;
 
-import com.kkst.mycinema.entity.Booking;
 import com.kkst.mycinema.entity.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.time.format.DateTimeFormatter;
@@ -14,14 +12,18 @@ import java.util.Map;
 
 /**
  * Notification manager that coordinates sending notifications through various channels.
- * Uses the Observer pattern - multiple NotificationService implementations can handle notifications.
+ * Builds notifications from {@link BookingNotificationSnapshot}s captured inside the caller's
+ * transaction; delivery is delegated to {@link NotificationDispatcher}, which fans out to the
+ * NotificationService implementations on per-channel executors. Building is cheap and never
+ * touches JPA state, so the methods run on the caller's thread and the dispatcher is the
+ * only asynchronous boundary.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationManager {
 
-    private final List<NotificationService> notificationServices;
+    private final NotificationDispatcher notificationDispatcher;
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("EEEE, MMMM d, yyyy");
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("h:mm a");
@@ -29,18 +31,17 @@ public class NotificationManager {
     /**
      * Send booking confirmation notification.
      */
-    @Async
-    public void sendBookingConfirmation(Booking booking) {
-        log.info("Sending booking confirmation for booking: {}", booking.getId());
+    public void sendBookingConfirmation(BookingNotificationSnapshot booking) {
+        log.info("Sending booking confirmation for booking: {}", booking.bookingId());
 
         Map<String, Object> data = buildBookingData(booking);
-        data.put("confirmationNumber", String.format("CIN%06d", booking.getId()));
+        data.put("confirmationNumber", String.format("CIN%06d", booking.bookingId()));
 
         var notification = Notification.builder()
                 .type(NotificationType.EMAIL)
-                .recipient(booking.getUser().getEmail())
-                .recipientName(booking.getUser().getName())
-                .subject("Your Booking Confirmation - " + booking.getShow().getMovie().getTitle())
+                .recipient(booking.userEmail())
+                .recipientName(booking.userName())
+                .subject("Your Booking Confirmation - " + booking.movieTitle())
                 .templateName("booking-confirmation")
                 .data(data)
                 .priority(Notification.NotificationPriority.HIGH)
@@ -52,18 +53,17 @@ public class NotificationManager {
     /**
      * Send booking cancellation notification.
      */
-    @Async
-    public void sendBookingCancellation(Booking booking) {
-        log.info("Sending cancellation confirmation for booking: {}", booking.getId());
+    public void sendBookingCancellation(BookingNotificationSnapshot booking) {
+        log.info("Sending cancellation confirmation for booking: {}", booking.bookingId());
 
         Map<String, Object> data = buildBookingData(booking);
-        data.put("refundAmount", booking.getTotalAmount());
+        data.put("refundAmount", booking.totalAmount());
 
         var notification = Notification.builder()
                 .type(NotificationType.EMAIL)
-                .recipient(booking.getUser().getEmail())
-                .recipientName(booking.getUser().getName())
-                .subject("Booking Cancelled - " + booking.getShow().getMovie().getTitle())
+                .recipient(booking.userEmail())
+                .recipientName(booking.userName())
+                .subject("Booking Cancelled - " + booking.movieTitle())
                 .templateName("booking-cancellation")
                 .data(data)
                 .priority(Notification.NotificationPriority.NORMAL)
@@ -75,29 +75,40 @@ public class NotificationManager {
     /**
      * Send show reminder (24 hours before).
      */
-    @Async
-    public void sendShowReminder(Booking booking) {
-        log.info("Sending show reminder for booking: {}", booking.getId());
+    public void sendShowReminder(BookingNotificationSnapshot booking) {
+        log.info("Sending show reminder for booking: {}", booking.bookingId());
+        sendNotification(buildShowReminder(List.of(booking)));
+    }
 
+    /**
+     * Build one reminder for a user's bookings of the same show, listing the seats of all of them.
+     * Used by {@link ShowReminderScheduler}, which loads the bookings in bulk.
+     */
+    Notification buildShowReminder(List<BookingNotificationSnapshot> bookingsForShow) {
+        var booking = bookingsForShow.get(0);
         Map<String, Object> data = buildBookingData(booking);
+        if (bookingsForShow.size() > 1) {
+            var seats = bookingsForShow.stream()
+                    .flatMap(b -> b.seats().stream())
+                    .toList();
+            data.put("seats", seats);
+            data.put("seatCount", seats.size());
+        }
 
-        var notification = Notification.builder()
+        return Notification.builder()
                 .type(NotificationType.EMAIL)
-                .recipient(booking.getUser().getEmail())
-                .recipientName(booking.getUser().getName())
-                .subject("Reminder: Your show is tomorrow - " + booking.getShow().getMovie().getTitle())
+                .recipient(booking.userEmail())
+                .recipientName(booking.userName())
+                .subject("Reminder: Your show is tomorrow - " + booking.movieTitle())
                 .templateName("show-reminder")
                 .data(data)
                 .priority(Notification.NotificationPriority.NORMAL)
                 .build();
-
-        sendNotification(notification);
     }
 
     /**
      * Send welcome email to new user.
      */
-    @Async
     public void sendWelcomeEmail(User user) {
         log.info("Sending welcome email to: {}", user.getEmail());
 
@@ -120,18 +131,17 @@ public class NotificationManager {
     /**
      * Send payment receipt.
      */
-    @Async
-    public void sendPaymentReceipt(Booking booking, String transactionId) {
-        log.info("Sending payment receipt for booking: {}", booking.getId());
+    public void sendPaymentReceipt(BookingNotificationSnapshot booking, String transactionId) {
+        log.info("Sending payment receipt for booking: {}", booking.bookingId());
 
         Map<String, Object> data = buildBookingData(booking);
         data.put("transactionId", transactionId);
-        data.put("paymentDate", booking.getBookingTime().format(DATE_FORMATTER));
+        data.put("paymentDate", booking.bookingTime().format(DATE_FORMATTER));
 
         var notification = Notification.builder()
                 .type(NotificationType.EMAIL)
-                .recipient(booking.getUser().getEmail())
-                .recipientName(booking.getUser().getName())
+                .recipient(booking.userEmail())
+                .recipientName(booking.userName())
                 .subject("Payment Receipt - myCinema")
                 .templateName("payment-receipt")
                 .data(data)
@@ -142,57 +152,27 @@ public class NotificationManager {
     }
 
     /**
-     * Core method to dispatch notification to appropriate services.
+     * Hand the notification to its channel's bounded executor.
      */
     private void sendNotification(Notification notification) {
-        boolean sent = false;
-
-        for (NotificationService service : notificationServices) {
-            if (service.supports(notification.getType())) {
-                try {
-                    boolean success = service.send(notification);
-                    if (success) {
-                        sent = true;
-                        log.debug("Notification sent successfully via {}", service.getClass().getSimpleName());
-                    }
-                } catch (Exception e) {
-                    log.error("Failed to send notification via {}: {}",
-                            service.getClass().getSimpleName(), e.getMessage());
-                }
-            }
-        }
-
-        if (!sent) {
-            log.warn("No notification service could send the notification of type: {}",
-                    notification.getType());
-        }
+        notificationDispatcher.dispatch(notification);
     }
 
     /**
      * Build common booking data for templates.
      */
-    private Map<String, Object> buildBookingData(Booking booking) {
-        Map<String, Object> data = new HashMap<>();
-        data.put("bookingId", booking.getId());
-        data.put("userName", booking.getUser().getName());
-        data.put("userEmail", booking.getUser().getEmail());
-        data.put("movieTitle", booking.getShow().getMovie().getTitle());
-        data.put("showDate", booking.getShow().getStartTime().format(DATE_FORMATTER));
-        data.put("showTime", booking.getShow().getStartTime().format(TIME_FORMATTER));
-        data.put("hallName", booking.getShow().getHall().getName());
-        data.put("totalAmount", booking.getTotalAmount());
-        data.put("seatCount", booking.getBookingSeats() != null ? booking.getBookingSeats().size() : 0);
-
-        // Build seat list
-        if (booking.getBookingSeats() != null) {
-            var seatList = booking.getBookingSeats().stream()
-                    .map(bs -> "Row " + bs.getShowSeat().getSeat().getRowNumber() +
-                            ", Seat " + bs.getShowSeat().getSeat().getSeatNumber())
-                    .toList();
-            data.put("seats", seatList);
-        }
-
+    private Map<String, Object> buildBookingData(BookingNotificationSnapshot booking) {
+        Map<String, Object> data = new HashMap<>(16);
+        data.put("bookingId", booking.bookingId());
+        data.put("userName", booking.userName());
+        data.put("userEmail", booking.userEmail());
+        data.put("movieTitle", booking.movieTitle());
+        data.put("showDate", booking.showStartTime().format(DATE_FORMATTER));
+        data.put("showTime", booking.showStartTime().format(TIME_FORMATTER));
+        data.put("hallName", booking.hallName());
+        data.put("totalAmount", booking.totalAmount());
+        data.put("seatCount", booking.seats().size());
+        data.put("seats", booking.seats());
         return data;
     }
 }
-
@@ -0,0 +1,46 @@
+package com.kkst.mycinema.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+
+/**
+ * Serializes notification template data for the database-backed queues
+ * (pending_notifications, failed_notifications).
+ */
+@Slf4j
+final class NotificationPayloadCodec {
+
+    private static final TypeReference<Map<String, Object>> DATA_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+
+    NotificationPayloadCodec(ObjectMapper objectMapper) {
+        // Keep BigDecimal amounts exact when reading payloads back
+        this.objectMapper = objectMapper.copy().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    }
+
+    String write(Map<String, Object> data) throws JsonProcessingException {
+        return data == null ? null : objectMapper.writeValueAsString(data);
+    }
+
+    /**
+     * @return the decoded data, or an empty map if the payload is missing or corrupt
+     */
+    Map<String, Object> read(String json, Object rowId) {
+        if (json == null) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(json, DATA_TYPE);
+        } catch (JsonProcessingException e) {
+            log.error("Corrupt notification payload for row {}: {}", rowId, e.getMessage());
+            return Map.of();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.kkst.mycinema.notification;
+
+import com.kkst.mycinema.entity.ShowReminderSent;
+import com.kkst.mycinema.repository.BookingRepository;
+import com.kkst.mycinema.repository.ShowReminderSentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends a reminder for every confirmed booking whose show starts within the
+ * lead time (notification.reminders.lead-time, default 24h).
+ *
+ * Each run walks candidate bookings in chunks using a keyset cursor on booking id,
+ * loads a whole chunk with one fetch-joined query and merges bookings by the
+ * same user for the same show into a single reminder, pulling in that pair's
+ * bookings past the chunk boundary so none is left out. The (user, show) pairs are
+ * recorded in show_reminders_sent in the chunk's transaction and excluded by the
+ * candidate query, so a restart - or a later run - never re-sends them.
+ * Notifications are handed to the {@link NotificationDispatcher} after commit.
+ */
+@Component
+@Slf4j
+public class ShowReminderScheduler {
+
+    private final BookingRepository bookingRepository;
+    private final ShowReminderSentRepository showReminderSentRepository;
+    private final NotificationManager notificationManager;
+    private final NotificationDispatcher notificationDispatcher;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter remindersSent;
+    private final Clock clock;
+    private final Duration leadTime;
+    private final int chunkSize;
+    private final Duration retention;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ShowReminderScheduler(BookingRepository bookingRepository,
+            ShowReminderSentRepository showReminderSentRepository,
+            NotificationManager notificationManager,
+            NotificationDispatcher notificationDispatcher,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${notification.reminders.lead-time:24h}") Duration leadTime,
+            @Value("${notification.reminders.chunk-size:500}") int chunkSize,
+            @Value("${notification.reminders.retention:7d}") Duration retention) {
+        this(bookingRepository, showReminderSentRepository, notificationManager, notificationDispatcher,
+                transactionManager, meterRegistry, leadTime, chunkSize, retention, Clock.systemDefaultZone());
+    }
+
+    ShowReminderScheduler(BookingRepository bookingRepository,
+            ShowReminderSentRepository showReminderSentRepository,
+            NotificationManager notificationManager,
+            NotificationDispatcher notificationDispatcher,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            Duration leadTime,
+            int chunkSize,
+            Duration retention,
+            Clock clock) {
+        this.bookingRepository = bookingRepository;
+        this.showReminderSentRepository = showReminderSentRepository;
+        this.notificationManager = notificationManager;
+        this.notificationDispatcher = notificationDispatcher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.remindersSent = Counter.builder("notification.reminders.sent")
+                .description("Show reminders handed to the notification dispatcher")
+                .register(meterRegistry);
+        this.leadTime = leadTime;
+        this.chunkSize = chunkSize;
+        this.retention = retention;
+        this.clock = clock;
+    }
+
+    @Scheduled(cron = "${notification.reminders.cron:0 */5 * * * *}")
+    public void sendDueReminders() {
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Show reminder run already in progress, skipping");
+            return;
+        }
+        try {
+            int sent = runOnce();
+            if (sent > 0) {
+                log.info("Show reminder run completed: {} reminders dispatched", sent);
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * One pass over the current window.
+     *
+     * @return number of reminders dispatched
+     */
+    int runOnce() {
+        var now = LocalDateTime.now(clock);
+        var windowEnd = now.plus(leadTime);
+        long cursor = 0L;
+        int total = 0;
+
+        while (true) {
+            var chunk = processChunk(now, windowEnd, cursor);
+            if (chunk == null) {
+                break;
+            }
+            chunk.reminders().forEach(notificationDispatcher::dispatch);
+            remindersSent.increment(chunk.reminders().size());
+            total += chunk.reminders().size();
+            cursor = chunk.lastBookingId();
+        }
+
+        transactionTemplate.executeWithoutResult(status ->
+                showReminderSentRepository.deleteSentBefore(now.minus(retention)));
+        return total;
+    }
+
+    private Chunk processChunk(LocalDateTime from, LocalDateTime to, long afterId) {
+        return transactionTemplate.execute(status -> {
+            var ids = bookingRepository.findReminderCandidateIds(from, to, afterId, PageRequest.ofSize(chunkSize));
+            if (ids.isEmpty()) {
+                return null;
+            }
+
+            // De-duplicate per (user, show); a pair seen in an earlier chunk is already
+            // checkpointed and excluded by the candidate query
+            var byUserAndShow = new LinkedHashMap<List<Long>, List<BookingNotificationSnapshot>>();
+            for (var booking : bookingRepository.findByIdInForReminder(ids)) {
+                var snapshot = BookingNotificationSnapshot.of(booking);
+                var key = List.of(snapshot.userId(), snapshot.showId());
+                byUserAndShow.computeIfAbsent(key, k -> new ArrayList<>()).add(snapshot);
+            }
+
+            // The checkpoint written below hides every later booking of these pairs from
+            // the next chunk, so pull the rest of each pair's bookings into this one
+            long lastBookingId = ids.get(ids.size() - 1);
+            var userIds = new HashSet<Long>();
+            var showIds = new HashSet<Long>();
+            byUserAndShow.keySet().forEach(key -> {
+                userIds.add(key.get(0));
+                showIds.add(key.get(1));
+            });
+            var laterIds = bookingRepository.findConfirmedIdsAfter(lastBookingId, userIds, showIds);
+            if (!laterIds.isEmpty()) {
+                for (var booking : bookingRepository.findByIdInForReminder(laterIds)) {
+                    var snapshot = BookingNotificationSnapshot.of(booking);
+                    var group = byUserAndShow.get(List.of(snapshot.userId(), snapshot.showId()));
+                    if (group != null) {
+                        group.add(snapshot);
+                    }
+                }
+            }
+
+            var reminders = new ArrayList<Notification>(byUserAndShow.size());
+            var checkpoints = new ArrayList<ShowReminderSent>(byUserAndShow.size());
+            byUserAndShow.forEach((key, bookings) -> {
+                reminders.add(notificationManager.buildShowReminder(bookings));
+                checkpoints.add(ShowReminderSent.builder()
+                        .userId(key.get(0))
+                        .showId(key.get(1))
+                        .build());
+            });
+            showReminderSentRepository.saveAll(checkpoints);
+
+            return new Chunk(reminders, lastBookingId);
+        });
+    }
+
+    private record Chunk(List<Notification> reminders, long lastBookingId) {
+    }
+}
@@ -1,5 +1,8 @@
 package com.kkst.mycinema.notification;
 
+import com.kkst.mycinema.notification.template.EmailTemplateEngine;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,6 +11,7 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
+import org.springframework.web.util.HtmlUtils;
 
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -23,6 +27,10 @@ import java.util.concurrent.CompletableFuture;
  * - spring.mail.properties.mail.smtp.auth=true
  * - spring.mail.properties.mail.smtp.starttls.enable=true
  * - notification.email.from
+ *
+ * Messages go out over connections from {@link SmtpTransportPool}
+ * (notification.email.pool.*) rather than a fresh connection per email.
+ * Bodies are rendered from precompiled templates by {@link EmailTemplateEngine}.
  */
 @Component
 @ConditionalOnProperty(name = "notification.email.provider", havingValue = "smtp")
@@ -31,6 +39,8 @@ import java.util.concurrent.CompletableFuture;
 public class SmtpEmailService implements NotificationService {
 
     private final JavaMailSender mailSender;
+    private final SmtpTransportPool transportPool;
+    private final EmailTemplateEngine templateEngine;
 
     @Value("${notification.email.from:noreply@mycinema.com}")
     private String fromAddress;
@@ -44,27 +54,31 @@ public class SmtpEmailService implements NotificationService {
         log.info("[SMTP] Sending email to: {}", notification.getRecipient());
 
         try {
-            var message = mailSender.createMimeMessage();
-            var helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromAddress);
-            helper.setTo(notification.getRecipient());
-            helper.setSubject(notification.getSubject());
-
-            // Generate HTML content from template
-            String htmlContent = generateHtmlContent(notification);
-            helper.setText(htmlContent, true);
-
-            mailSender.send(message);
+            transportPool.send(buildMessage(notification));
             log.info("[SMTP] Email sent successfully to: {}", notification.getRecipient());
             return true;
 
         } catch (Exception e) {
             log.error("[SMTP] Failed to send email to {}: {}", notification.getRecipient(), e.getMessage());
-            return false;
+            // Surface the cause so the dispatcher can record it with the dead-lettered notification
+            throw new NotificationDeliveryException("SMTP send failed: " + e.getMessage(), e);
         }
     }
 
+    private MimeMessage buildMessage(Notification notification) throws MessagingException {
+        var message = mailSender.createMimeMessage();
+        var helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        helper.setFrom(fromAddress);
+        helper.setTo(notification.getRecipient());
+        helper.setSubject(notification.getSubject());
+
+        // Generate HTML content from template
+        String htmlContent = generateHtmlContent(notification);
+        helper.setText(htmlContent, true);
+        return message;
+    }
+
     /**
      * Async method for sending emails without blocking the main thread
      */
@@ -79,145 +93,29 @@ public class SmtpEmailService implements NotificationService {
     }
 
     /**
-     * Generate HTML content from notification data.
-     * In production, consider using a template engine like Thymeleaf or Freemarker.
+     * Render the notification's template; templates live in templates/email
+     * and are compiled once by {@link EmailTemplateEngine}.
      */
     private String generateHtmlContent(Notification notification) {
-        Map<String, Object> data = notification.getData();
+        Map<String, Object> data = notification.getData() != null ? notification.getData() : Map.of();
         String templateName = notification.getTemplateName();
 
-        if ("booking-confirmation".equals(templateName)) {
-            return generateBookingConfirmationEmail(data);
-        } else if ("booking-cancellation".equals(templateName)) {
-            return generateBookingCancellationEmail(data);
+        if (templateEngine.hasTemplate(templateName)) {
+            return templateEngine.render(templateName, data);
         }
 
         // Default template
         return generateDefaultEmail(notification.getSubject(), data);
     }
 
-    private String generateBookingConfirmationEmail(Map<String, Object> data) {
-        return """
-            <!DOCTYPE html>
-            <html>
-            <head>
-                <style>
-                    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }
-                    .container { max-width: 600px; margin: 0 auto; padding: 20px; }
-                    .header { background: #1a1a2e; color: white; padding: 20px; text-align: center; }
-                    .content { padding: 20px; background: #f9f9f9; }
-                    .booking-details { background: white; padding: 15px; border-radius: 5px; margin: 15px 0; }
-                    .booking-details h3 { margin-top: 0; color: #1a1a2e; }
-                    .detail-row { display: flex; justify-content: space-between; padding: 8px 0; border-bottom: 1px solid #eee; }
-                    .total { font-size: 1.2em; font-weight: bold; color: #1a1a2e; }
-                    .footer { text-align: center; padding: 20px; color: #666; font-size: 0.9em; }
-                </style>
-            </head>
-            <body>
-                <div class="container">
-                    <div class="header">
-                        <h1>MyCinema</h1>
-                        <h2>Booking Confirmation</h2>
-                    </div>
-                    <div class="content">
-                        <p>Dear %s,</p>
-                        <p>Thank you for your booking! Your seats have been confirmed.</p>
-                        
-                        <div class="booking-details">
-                            <h3>Booking Details</h3>
-                            <div class="detail-row">
-                                <span>Booking ID:</span>
-                                <span><strong>#%s</strong></span>
-                            </div>
-                            <div class="detail-row">
-                                <span>Movie:</span>
-                                <span><strong>%s</strong></span>
-                            </div>
-                            <div class="detail-row">
-                                <span>Show Time:</span>
-                                <span>%s</span>
-                            </div>
-                            <div class="detail-row">
-                                <span>Hall:</span>
-                                <span>%s</span>
-                            </div>
-                            <div class="detail-row">
-                                <span>Seats:</span>
-                                <span>%s</span>
-                            </div>
-                            <div class="detail-row total">
-                                <span>Total Amount:</span>
-                                <span>%s</span>
-                            </div>
-                        </div>
-                        
-                        <p><strong>Important:</strong> Please arrive at least 15 minutes before the show starts.</p>
-                        <p>Show this confirmation email at the entrance.</p>
-                    </div>
-                    <div class="footer">
-                        <p>Booked on: %s</p>
-                        <p>© 2024 MyCinema. All rights reserved.</p>
-                    </div>
-                </div>
-            </body>
-            </html>
-            """.formatted(
-                data.getOrDefault("userName", "Customer"),
-                data.getOrDefault("bookingId", "N/A"),
-                data.getOrDefault("movieTitle", "N/A"),
-                data.getOrDefault("showTime", "N/A"),
-                data.getOrDefault("hallName", "N/A"),
-                data.getOrDefault("seats", "N/A"),
-                data.getOrDefault("totalAmount", "N/A"),
-                data.getOrDefault("bookingTime", "N/A")
-            );
-    }
-
-    private String generateBookingCancellationEmail(Map<String, Object> data) {
-        return """
-            <!DOCTYPE html>
-            <html>
-            <head>
-                <style>
-                    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }
-                    .container { max-width: 600px; margin: 0 auto; padding: 20px; }
-                    .header { background: #dc3545; color: white; padding: 20px; text-align: center; }
-                    .content { padding: 20px; background: #f9f9f9; }
-                    .footer { text-align: center; padding: 20px; color: #666; font-size: 0.9em; }
-                </style>
-            </head>
-            <body>
-                <div class="container">
-                    <div class="header">
-                        <h1>MyCinema</h1>
-                        <h2>Booking Cancelled</h2>
-                    </div>
-                    <div class="content">
-                        <p>Dear %s,</p>
-                        <p>Your booking #%s has been cancelled.</p>
-                        <p>If you paid for this booking, a refund will be processed within 5-7 business days.</p>
-                        <p>We hope to see you again soon!</p>
-                    </div>
-                    <div class="footer">
-                        <p>© 2024 MyCinema. All rights reserved.</p>
-                    </div>
-                </div>
-            </body>
-            </html>
-            """.formatted(
-                data.getOrDefault("userName", "Customer"),
-                data.getOrDefault("bookingId", "N/A")
-            );
-    }
-
     private String generateDefaultEmail(String subject, Map<String, Object> data) {
         StringBuilder content = new StringBuilder();
         content.append("<html><body>");
-        content.append("<h2>").append(subject).append("</h2>");
+        content.append("<h2>").append(HtmlUtils.htmlEscape(String.valueOf(subject))).append("</h2>");
         content.append("<ul>");
         for (Map.Entry<String, Object> entry : data.entrySet()) {
-            content.append("<li><strong>").append(entry.getKey()).append(":</strong> ")
-                   .append(entry.getValue()).append("</li>");
+            content.append("<li><strong>").append(HtmlUtils.htmlEscape(entry.getKey())).append(":</strong> ")
+                   .append(HtmlUtils.htmlEscape(String.valueOf(entry.getValue()))).append("</li>");
         }
         content.append("</ul>");
         content.append("</body></html>");
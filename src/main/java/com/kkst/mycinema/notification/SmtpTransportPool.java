@@ -0,0 +1,187 @@
+package com.kkst.mycinema.notification;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Small pool of connected SMTP transports so consecutive emails skip the
+ * connect / STARTTLS / AUTH handshake that JavaMailSender.send() pays every time.
+ *
+ * A transport is recycled after max-messages-per-connection messages (many
+ * providers cap messages per session) or once it has been idle longer than
+ * max-idle, whichever comes first.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.email.provider", havingValue = "smtp")
+@Slf4j
+public class SmtpTransportPool implements DisposableBean {
+
+    private final JavaMailSenderImpl mailSender;
+    private final int maxMessagesPerConnection;
+    private final long maxIdleMillis;
+    private final Semaphore permits;
+    private final Deque<PooledTransport> idle = new ConcurrentLinkedDeque<>();
+
+    public SmtpTransportPool(JavaMailSenderImpl mailSender,
+            @Value("${notification.email.pool.max-connections:4}") int maxConnections,
+            @Value("${notification.email.pool.max-messages-per-connection:100}") int maxMessagesPerConnection,
+            @Value("${notification.email.pool.max-idle:30s}") Duration maxIdle) {
+        this.mailSender = mailSender;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.maxIdleMillis = maxIdle.toMillis();
+        this.permits = new Semaphore(maxConnections, true);
+    }
+
+    /**
+     * Send one message over a pooled connection.
+     */
+    public void send(MimeMessage message) throws MessagingException {
+        var failures = sendAll(List.of(message));
+        if (failures.get(0) != null) {
+            throw failures.get(0);
+        }
+    }
+
+    /**
+     * Send messages back-to-back, reusing one connection until it reaches its
+     * message limit. Returns one entry per message: null when it was accepted,
+     * otherwise the failure, so callers can retry individual messages.
+     */
+    public List<MessagingException> sendAll(List<MimeMessage> messages) {
+        var failures = new ArrayList<MessagingException>(messages.size());
+        PooledTransport transport = null;
+        try {
+            for (MimeMessage message : messages) {
+                try {
+                    if (transport == null) {
+                        transport = borrow();
+                    }
+                    message.saveChanges();
+                    transport.transport().sendMessage(message, message.getAllRecipients());
+                    transport.sent++;
+                    failures.add(null);
+                } catch (MessagingException e) {
+                    failures.add(e);
+                    if (transport != null && !transport.transport().isConnected()) {
+                        release(transport, true);
+                        transport = null;
+                    }
+                }
+                if (transport != null && transport.sent >= maxMessagesPerConnection) {
+                    release(transport, true);
+                    transport = null;
+                }
+            }
+        } finally {
+            if (transport != null) {
+                release(transport, false);
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Close connections that have sat idle past max-idle, before the server
+     * drops them on its side.
+     */
+    @Scheduled(fixedDelayString = "${notification.email.pool.eviction-interval-ms:10000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        for (PooledTransport transport : idle) {
+            if (now - transport.lastUsed > maxIdleMillis && idle.remove(transport)) {
+                close(transport);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        PooledTransport transport;
+        while ((transport = idle.pollFirst()) != null) {
+            close(transport);
+        }
+    }
+
+    int idleConnections() {
+        return idle.size();
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted while waiting for an SMTP connection", e);
+        }
+
+        try {
+            PooledTransport transport;
+            long now = System.currentTimeMillis();
+            while ((transport = idle.pollFirst()) != null) {
+                if (now - transport.lastUsed <= maxIdleMillis && transport.transport().isConnected()) {
+                    return transport;
+                }
+                close(transport);
+            }
+            return open();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledTransport open() throws MessagingException {
+        var transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+        transport.connect(mailSender.getHost(), mailSender.getPort(),
+                mailSender.getUsername(), mailSender.getPassword());
+        log.debug("[SMTP] Opened pooled connection to {}:{}", mailSender.getHost(), mailSender.getPort());
+        return new PooledTransport(transport);
+    }
+
+    private void release(PooledTransport transport, boolean discard) {
+        if (discard) {
+            close(transport);
+        } else {
+            transport.lastUsed = System.currentTimeMillis();
+            idle.offerFirst(transport);
+        }
+        permits.release();
+    }
+
+    private void close(PooledTransport transport) {
+        try {
+            transport.transport().close();
+        } catch (MessagingException e) {
+            log.debug("[SMTP] Error closing pooled connection: {}", e.getMessage());
+        }
+    }
+
+    private static final class PooledTransport {
+        private final Transport transport;
+        private int sent;
+        private long lastUsed = System.currentTimeMillis();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        Transport transport() {
+            return transport;
+        }
+    }
+}
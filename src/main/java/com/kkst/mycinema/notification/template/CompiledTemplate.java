@@ -0,0 +1,75 @@
+package com.kkst.mycinema.notification.template;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A template parsed once into literal text, variable and partial segments.
+ * Rendering walks the segments and appends to a caller-supplied buffer, so no
+ * parsing or intermediate strings happen per email.
+ */
+record CompiledTemplate(String name, List<Segment> segments) {
+
+    sealed interface Segment permits Literal, Variable, Partial {
+    }
+
+    record Literal(String text) implements Segment {
+    }
+
+    /**
+     * {{name}} or {{name|fallback}}; values are HTML-escaped on output.
+     */
+    record Variable(String name, String fallback) implements Segment {
+    }
+
+    /**
+     * {{> name}}; resolved to the compiled partial after all files are loaded.
+     */
+    record Partial(String name) implements Segment {
+    }
+
+    /**
+     * Variable names this template reads; for partials these form the fragment cache key.
+     */
+    Set<String> variableNames() {
+        var names = new LinkedHashSet<String>();
+        for (Segment segment : segments) {
+            if (segment instanceof Variable variable) {
+                names.add(variable.name());
+            }
+        }
+        return names;
+    }
+
+    static CompiledTemplate parse(String name, String source) {
+        var segments = new ArrayList<Segment>();
+        int position = 0;
+        while (position < source.length()) {
+            int open = source.indexOf("{{", position);
+            if (open < 0) {
+                segments.add(new Literal(source.substring(position)));
+                break;
+            }
+            if (open > position) {
+                segments.add(new Literal(source.substring(position, open)));
+            }
+            int close = source.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalStateException("Unclosed tag in email template '" + name + "' at offset " + open);
+            }
+            var tag = source.substring(open + 2, close).trim();
+            if (tag.startsWith(">")) {
+                segments.add(new Partial(tag.substring(1).trim()));
+            } else {
+                int pipe = tag.indexOf('|');
+                segments.add(pipe < 0
+                        ? new Variable(tag, "")
+                        : new Variable(tag.substring(0, pipe).trim(), tag.substring(pipe + 1).trim()));
+            }
+            position = close + 2;
+        }
+        return new CompiledTemplate(name, List.copyOf(segments));
+    }
+}
@@ -0,0 +1,162 @@
+package com.kkst.mycinema.notification.template;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Renders HTML emails from templates/email/*.html.
+ *
+ * Syntax: {{var}} (HTML-escaped), {{var|fallback}}, and {{> partial}} which
+ * includes templates/email/partials/partial.html. Everything is compiled at
+ * startup; rendering reuses a per-thread buffer.
+ *
+ * Partials hold the blocks shared by every recipient of a show (movie, hall,
+ * time), so their rendered output is cached keyed by the values they read:
+ * a reminder run for one show renders that block once, not per recipient.
+ */
+@Component
+@Slf4j
+public class EmailTemplateEngine {
+
+    private static final String TEMPLATE_LOCATION = "classpath*:templates/email/*.html";
+    private static final String PARTIAL_LOCATION = "classpath*:templates/email/partials/*.html";
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private final Map<String, CompiledTemplate> templates;
+    private final Map<String, CompiledTemplate> partials;
+    private final Map<String, List<String>> partialKeys = new HashMap<>();
+    private final Cache<String, String> fragmentCache = Caffeine.newBuilder()
+            .maximumSize(2_000)
+            .expireAfterWrite(Duration.ofMinutes(30))
+            .build();
+    private final ThreadLocal<StringBuilder> buffers =
+            ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER_SIZE));
+
+    public EmailTemplateEngine() {
+        var resolver = new PathMatchingResourcePatternResolver();
+        this.partials = load(resolver, PARTIAL_LOCATION);
+        this.templates = load(resolver, TEMPLATE_LOCATION);
+
+        partials.forEach((name, partial) -> {
+            if (partial.segments().stream().anyMatch(CompiledTemplate.Partial.class::isInstance)) {
+                throw new IllegalStateException("Email partial '" + name + "' must not include other partials");
+            }
+            partialKeys.put(name, List.copyOf(partial.variableNames()));
+        });
+        templates.forEach((name, template) -> template.segments().stream()
+                .filter(CompiledTemplate.Partial.class::isInstance)
+                .map(segment -> ((CompiledTemplate.Partial) segment).name())
+                .filter(partial -> !partials.containsKey(partial))
+                .findFirst()
+                .ifPresent(missing -> {
+                    throw new IllegalStateException(
+                            "Email template '" + name + "' includes unknown partial '" + missing + "'");
+                }));
+
+        log.info("Compiled {} email templates and {} partials", templates.size(), partials.size());
+    }
+
+    public boolean hasTemplate(String templateName) {
+        return templateName != null && templates.containsKey(templateName);
+    }
+
+    public String render(String templateName, Map<String, Object> data) {
+        var template = templates.get(templateName);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown email template: " + templateName);
+        }
+
+        var buffer = buffers.get();
+        buffer.setLength(0);
+        try {
+            for (CompiledTemplate.Segment segment : template.segments()) {
+                switch (segment) {
+                    case CompiledTemplate.Literal literal -> buffer.append(literal.text());
+                    case CompiledTemplate.Variable variable -> appendValue(buffer, variable, data);
+                    case CompiledTemplate.Partial partial -> buffer.append(renderPartial(partial.name(), data));
+                }
+            }
+            return buffer.toString();
+        } finally {
+            // Don't pin an unusually large buffer to the thread forever
+            if (buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+                buffers.remove();
+            }
+        }
+    }
+
+    private String renderPartial(String name, Map<String, Object> data) {
+        var keyVariables = partialKeys.get(name);
+        var key = new StringBuilder(name);
+        for (String variable : keyVariables) {
+            key.append('\u0000').append(data.get(variable));
+        }
+        return fragmentCache.get(key.toString(), k -> {
+            var fragment = new StringBuilder(512);
+            for (CompiledTemplate.Segment segment : partials.get(name).segments()) {
+                if (segment instanceof CompiledTemplate.Literal literal) {
+                    fragment.append(literal.text());
+                } else if (segment instanceof CompiledTemplate.Variable variable) {
+                    appendValue(fragment, variable, data);
+                }
+            }
+            return fragment.toString();
+        });
+    }
+
+    private static void appendValue(StringBuilder out, CompiledTemplate.Variable variable, Map<String, Object> data) {
+        Object value = data.get(variable.name());
+        if (value == null) {
+            escapeInto(out, variable.fallback());
+        } else if (value instanceof Collection<?> values) {
+            int i = 0;
+            for (Object item : values) {
+                if (i++ > 0) {
+                    out.append(", ");
+                }
+                escapeInto(out, String.valueOf(item));
+            }
+        } else {
+            escapeInto(out, value.toString());
+        }
+    }
+
+    static void escapeInto(StringBuilder out, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static Map<String, CompiledTemplate> load(PathMatchingResourcePatternResolver resolver, String pattern) {
+        try {
+            var compiled = new HashMap<String, CompiledTemplate>();
+            for (Resource resource : resolver.getResources(pattern)) {
+                var filename = Objects.requireNonNull(resource.getFilename());
+                var name = filename.substring(0, filename.length() - ".html".length());
+                compiled.put(name, CompiledTemplate.parse(name, resource.getContentAsString(StandardCharsets.UTF_8)));
+            }
+            return Map.copyOf(compiled);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load email templates from " + pattern, e);
+        }
+    }
+}
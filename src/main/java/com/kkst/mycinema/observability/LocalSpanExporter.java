@@ -0,0 +1,134 @@
+package com.kkst.mycinema.observability;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the most recent spans in memory (served by {@link TracesEndpoint}) and, when
+ * tracing.local.file is set, appends every span to that file as a JSON line. Meant for
+ * inspecting traces locally or on a single box without running a collector.
+ */
+@Component
+@Slf4j
+public class LocalSpanExporter {
+
+    private final ConcurrentLinkedDeque<SpanRecord> spans = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxSpans;
+    private final ObjectMapper objectMapper;
+    private final BufferedWriter fileWriter;
+
+    public LocalSpanExporter(@Value("${tracing.local.max-spans:10000}") int maxSpans,
+            @Value("${tracing.local.file:}") String file,
+            ObjectMapper objectMapper) throws IOException {
+        this.maxSpans = maxSpans;
+        this.objectMapper = objectMapper;
+        if (file.isBlank()) {
+            this.fileWriter = null;
+        } else {
+            var path = Path.of(file);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.fileWriter = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            log.info("Writing spans to {}", path.toAbsolutePath());
+        }
+    }
+
+    public void export(SpanRecord span) {
+        spans.addLast(span);
+        if (size.incrementAndGet() > maxSpans && spans.pollFirst() != null) {
+            size.decrementAndGet();
+        }
+        if (fileWriter != null) {
+            writeToFile(span);
+        }
+    }
+
+    /**
+     * Spans of one trace, in start order.
+     */
+    public List<SpanRecord> spans(String traceId) {
+        return spans.stream()
+                .filter(span -> span.traceId().equals(traceId))
+                .sorted(Comparator.comparing(SpanRecord::start))
+                .toList();
+    }
+
+    /**
+     * The most recently started traces still in memory, newest first.
+     */
+    public List<TraceSummary> recentTraces(int limit) {
+        Map<String, List<SpanRecord>> byTrace = new LinkedHashMap<>();
+        spans.descendingIterator().forEachRemaining(span ->
+                byTrace.computeIfAbsent(span.traceId(), id -> new ArrayList<>()).add(span));
+
+        return byTrace.entrySet().stream()
+                .map(entry -> TraceSummary.of(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparing(TraceSummary::start).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (fileWriter != null) {
+            synchronized (fileWriter) {
+                fileWriter.close();
+            }
+        }
+    }
+
+    private void writeToFile(SpanRecord span) {
+        try {
+            var line = objectMapper.writeValueAsString(span);
+            synchronized (fileWriter) {
+                fileWriter.write(line);
+                fileWriter.newLine();
+                fileWriter.flush();
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize span {}: {}", span.name(), e.getMessage());
+        } catch (IOException e) {
+            log.warn("Could not write span {} to file: {}", span.name(), e.getMessage());
+        }
+    }
+
+    /**
+     * One trace in the /actuator/traces listing. The root is the span without a parent
+     * still in memory.
+     */
+    public record TraceSummary(String traceId, String rootSpan, Instant start, long durationMicros, int spanCount,
+            boolean hasErrors) {
+
+        static TraceSummary of(String traceId, List<SpanRecord> spans) {
+            var root = spans.stream()
+                    .filter(span -> span.parentSpanId() == null)
+                    .findFirst()
+                    .orElseGet(() -> spans.stream().min(Comparator.comparing(SpanRecord::start)).orElseThrow());
+            boolean hasErrors = spans.stream().anyMatch(span -> span.error() != null);
+            return new TraceSummary(traceId, root.contextualName(), root.start(), root.durationMicros(),
+                    spans.size(), hasErrors);
+        }
+    }
+}
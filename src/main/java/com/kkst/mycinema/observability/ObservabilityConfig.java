@@ -0,0 +1,19 @@
+package com.kkst.mycinema.observability;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+@Configuration
+public class ObservabilityConfig {
+
+    /**
+     * Picked up by Spring Boot's task executor, so @Async methods (e.g. SmtpEmailService.sendAsync)
+     * run with the caller's correlation id and as part of its trace.
+     */
+    @Bean
+    public TaskDecorator contextPropagatingTaskDecorator(ObservationRegistry observationRegistry) {
+        return task -> PropagatedContext.capture(observationRegistry).wrap(task);
+    }
+}
@@ -0,0 +1,73 @@
+package com.kkst.mycinema.observability;
+
+import io.micrometer.common.KeyValues;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Observations around our Spring Data repositories and the payment gateway, which
+ * nothing else instruments. Together with the MVC and RestTemplate observations
+ * this puts DB time, gateway time and TMDb calls in the same trace.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ObservedOperationsAspect {
+
+    private final ObservationRegistry observationRegistry;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    @Around("target(org.springframework.data.repository.Repository)")
+    public Object observeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        var repository = repositoryNames.computeIfAbsent(joinPoint.getTarget().getClass(),
+                type -> repositoryName(joinPoint.getTarget()));
+        var method = joinPoint.getSignature().getName();
+        return observe("repository.call", repository + "." + method,
+                KeyValues.of("repository", repository, "method", method), joinPoint);
+    }
+
+    @Around("execution(* com.kkst.mycinema.payment.PaymentGateway+.*(..)) && !execution(* getGatewayName())")
+    public Object observePaymentGateway(ProceedingJoinPoint joinPoint) throws Throwable {
+        var gateway = AopProxyUtils.ultimateTargetClass(joinPoint.getTarget()).getSimpleName();
+        var operation = joinPoint.getSignature().getName();
+        return observe("payment.gateway", "payment " + operation,
+                KeyValues.of("gateway", gateway, "operation", operation), joinPoint);
+    }
+
+    private Object observe(String name, String contextualName, KeyValues keyValues,
+            ProceedingJoinPoint joinPoint) throws Throwable {
+        var observation = Observation.createNotStarted(name, observationRegistry)
+                .contextualName(contextualName)
+                .lowCardinalityKeyValues(keyValues)
+                .start();
+        try (var ignored = observation.openScope()) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    /**
+     * Spring Data repositories are JDK proxies; name them after our interface, not the proxy class.
+     */
+    private static String repositoryName(Object repository) {
+        return Arrays.stream(AopProxyUtils.proxiedUserInterfaces(repository))
+                .filter(type -> type.getName().startsWith("com.kkst.mycinema."))
+                .findFirst()
+                .map(Class::getSimpleName)
+                .orElseGet(() -> AopProxyUtils.ultimateTargetClass(repository).getSimpleName());
+    }
+}
@@ -0,0 +1,63 @@
+package com.kkst.mycinema.observability;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.MDC;
+
+import java.util.Map;
+
+/**
+ * The submitting thread's MDC (correlation id) and current Observation, captured when
+ * work is handed to another thread and restored around it there, so logs keep their
+ * correlation id and spans started by the work attach to the caller's trace.
+ */
+public final class PropagatedContext {
+
+    private final Map<String, String> mdc;
+    private final Observation observation;
+
+    private PropagatedContext(Map<String, String> mdc, Observation observation) {
+        this.mdc = mdc;
+        this.observation = observation;
+    }
+
+    public static PropagatedContext capture(ObservationRegistry observationRegistry) {
+        return new PropagatedContext(MDC.getCopyOfContextMap(), observationRegistry.getCurrentObservation());
+    }
+
+    /**
+     * Install the captured context on the current thread until the returned scope is closed.
+     */
+    public Scope restore() {
+        var previousMdc = MDC.getCopyOfContextMap();
+        setMdc(mdc);
+        var observationScope = observation != null ? observation.openScope() : null;
+        return () -> {
+            if (observationScope != null) {
+                observationScope.close();
+            }
+            setMdc(previousMdc);
+        };
+    }
+
+    public Runnable wrap(Runnable task) {
+        return () -> {
+            try (var ignored = restore()) {
+                task.run();
+            }
+        };
+    }
+
+    private static void setMdc(Map<String, String> contextMap) {
+        if (contextMap != null) {
+            MDC.setContextMap(contextMap);
+        } else {
+            MDC.clear();
+        }
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
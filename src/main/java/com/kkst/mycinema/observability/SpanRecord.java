@@ -0,0 +1,21 @@
+package com.kkst.mycinema.observability;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A finished span, built from a stopped Observation by {@link SpanRecordingObservationHandler}.
+ * The trace id is the request's X-Correlation-ID when the root span started inside a request.
+ */
+public record SpanRecord(
+        String traceId,
+        String spanId,
+        String parentSpanId,
+        String name,
+        String contextualName,
+        Instant start,
+        long durationMicros,
+        Map<String, String> tags,
+        String error,
+        String thread) {
+}
@@ -0,0 +1,111 @@
+package com.kkst.mycinema.observability;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Turns Observations into spans for {@link LocalSpanExporter}: every observation that
+ * starts while another one is in scope becomes its child, and a root observation takes
+ * the request's correlation id as its trace id so spans and log lines can be matched.
+ *
+ * Spring MVC (http.server.requests), RestTemplate (http.client.requests, which covers
+ * TMDb) and {@link ObservedOperationsAspect} create the observations; observations whose
+ * name starts with one of tracing.local.ignored-prefixes are skipped, and their children
+ * attach to the nearest recorded ancestor.
+ */
+@Component
+public class SpanRecordingObservationHandler implements ObservationHandler<Observation.Context> {
+
+    private final LocalSpanExporter exporter;
+    private final List<String> ignoredPrefixes;
+
+    public SpanRecordingObservationHandler(LocalSpanExporter exporter,
+            @Value("${tracing.local.ignored-prefixes:spring.security.}") String[] ignoredPrefixes) {
+        this.exporter = exporter;
+        this.ignoredPrefixes = List.of(ignoredPrefixes);
+    }
+
+    @Override
+    public void onStart(Observation.Context context) {
+        if (isIgnored(context)) {
+            return;
+        }
+        var parent = nearestRecordedAncestor(context);
+        var traceId = parent != null ? parent.traceId() : rootTraceId();
+        context.put(SpanState.class, new SpanState(traceId, randomId(), parent != null ? parent.spanId() : null,
+                Instant.now(), System.nanoTime()));
+    }
+
+    @Override
+    public void onStop(Observation.Context context) {
+        SpanState span = context.get(SpanState.class);
+        if (span == null) {
+            return;
+        }
+        Map<String, String> tags = new LinkedHashMap<>();
+        for (KeyValue keyValue : context.getLowCardinalityKeyValues()) {
+            tags.put(keyValue.getKey(), keyValue.getValue());
+        }
+        for (KeyValue keyValue : context.getHighCardinalityKeyValues()) {
+            tags.put(keyValue.getKey(), keyValue.getValue());
+        }
+        var error = context.getError();
+
+        exporter.export(new SpanRecord(
+                span.traceId(),
+                span.spanId(),
+                span.parentSpanId(),
+                context.getName(),
+                context.getContextualName() != null ? context.getContextualName() : context.getName(),
+                span.start(),
+                (System.nanoTime() - span.startNanos()) / 1_000,
+                tags,
+                error != null ? error.getClass().getSimpleName() + ": " + error.getMessage() : null,
+                Thread.currentThread().getName()));
+    }
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return true;
+    }
+
+    private boolean isIgnored(Observation.Context context) {
+        var name = context.getName();
+        return name != null && ignoredPrefixes.stream().anyMatch(prefix -> !prefix.isEmpty() && name.startsWith(prefix));
+    }
+
+    private static SpanState nearestRecordedAncestor(Observation.ContextView context) {
+        var parent = context.getParentObservation();
+        while (parent != null) {
+            var parentContext = parent.getContextView();
+            SpanState state = parentContext.get(SpanState.class);
+            if (state != null) {
+                return state;
+            }
+            parent = parentContext.getParentObservation();
+        }
+        return null;
+    }
+
+    private static String rootTraceId() {
+        var correlationId = MDC.get("correlationId");
+        return correlationId != null ? correlationId : randomId() + randomId();
+    }
+
+    private static String randomId() {
+        return String.format("%016x", ThreadLocalRandom.current().nextLong());
+    }
+
+    private record SpanState(String traceId, String spanId, String parentSpanId, Instant start, long startNanos) {
+    }
+}
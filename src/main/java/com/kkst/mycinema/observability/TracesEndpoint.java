@@ -0,0 +1,33 @@
+package com.kkst.mycinema.observability;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * /actuator/traces lists the most recent traces; /actuator/traces/{traceId} returns
+ * the spans of one trace. The trace id of a request is its X-Correlation-ID.
+ */
+@Component
+@Endpoint(id = "traces")
+@RequiredArgsConstructor
+public class TracesEndpoint {
+
+    private static final int RECENT_TRACES = 50;
+
+    private final LocalSpanExporter exporter;
+
+    @ReadOperation
+    public List<LocalSpanExporter.TraceSummary> traces() {
+        return exporter.recentTraces(RECENT_TRACES);
+    }
+
+    @ReadOperation
+    public List<SpanRecord> trace(@Selector String traceId) {
+        return exporter.spans(traceId);
+    }
+}
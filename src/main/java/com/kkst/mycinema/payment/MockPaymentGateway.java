@@ -1,17 +1,22 @@
 package com.kkst.mycinema.payment;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Mock payment gateway for development and testing.
- * Simulates payment processing with configurable behaviors.
+ * Simulates payment processing with configurable behaviors: the simulated network
+ * latency is drawn uniformly from payment.mock.latency-min..latency-max, and
+ * payment.mock.decline-rate declines that share of otherwise valid payments.
  *
  * Replace this with StripePaymentGateway or other real implementations in production.
  */
@@ -27,6 +32,15 @@ public class MockPaymentGateway implements PaymentGateway {
     private static final String FAIL_CARD_NUMBER = "4000000000000002";
     private static final String DECLINE_CARD_NUMBER = "4000000000000069";
 
+    @Value("${payment.mock.latency-min:100ms}")
+    private Duration latencyMin = Duration.ofMillis(100);
+
+    @Value("${payment.mock.latency-max:500ms}")
+    private Duration latencyMax = Duration.ofMillis(500);
+
+    @Value("${payment.mock.decline-rate:0}")
+    private double declineRate;
+
     @Override
     public PaymentResult processPayment(PaymentRequest request) {
         log.info("[MOCK] Processing payment for order: {}, amount: {} {}",
@@ -108,6 +122,9 @@ public class MockPaymentGateway implements PaymentGateway {
     }
 
     private boolean shouldSimulateFailure(PaymentRequest request) {
+        if (declineRate > 0 && ThreadLocalRandom.current().nextDouble() < declineRate) {
+            return true;
+        }
         if (request.getCardNumber() == null) {
             return false;
         }
@@ -116,9 +133,13 @@ public class MockPaymentGateway implements PaymentGateway {
     }
 
     private void simulateNetworkDelay() {
+        long min = latencyMin.toMillis();
+        long max = Math.max(min, latencyMax.toMillis());
+        if (max == 0) {
+            return;
+        }
         try {
-            // Simulate 100-500ms network delay
-            Thread.sleep(100 + (long) (Math.random() * 400));
+            Thread.sleep(min + ThreadLocalRandom.current().nextLong(max - min + 1));
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
@@ -0,0 +1,43 @@
+package com.kkst.mycinema.ratelimit;
+
+import com.kkst.mycinema.security.AuthenticatedUser;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Applies {@link KeyedRateLimited}, keying on the authenticated user's id and the
+ * client address. Behind a proxy, set server.forward-headers-strategy so the
+ * address is taken from X-Forwarded-For rather than the proxy's own.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class KeyedRateLimitAspect {
+
+    private final KeyedRateLimiter keyedRateLimiter;
+
+    @Before(value = "@annotation(limited)", argNames = "limited")
+    public void limit(KeyedRateLimited limited) {
+        keyedRateLimiter.acquire(limited.value(), currentUserId(), currentClientIp());
+    }
+
+    private static Long currentUserId() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
+        }
+        return null;
+    }
+
+    private static String currentClientIp() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,74 @@
+package com.kkst.mycinema.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-user and per-IP limits for endpoints annotated with {@link KeyedRateLimited}.
+ * Binds to properties with prefix "rate-limit.keyed".
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit.keyed")
+public class KeyedRateLimitProperties {
+
+    /**
+     * Limits by name, e.g. rate-limit.keyed.limits.booking.per-user=10
+     */
+    private Map<String, Limit> limits = new HashMap<>();
+
+    /**
+     * Upper bound on buckets kept in memory; least recently used keys are evicted first
+     */
+    private long maxKeys = 100_000;
+
+    /**
+     * Buckets untouched for this long are dropped (a new one starts full, which is
+     * what the old one would have refilled to anyway once idle for a whole period)
+     */
+    private Duration idleExpiry = Duration.ofMinutes(10);
+
+    /**
+     * Count requests in the shared rate_limit_counters table instead of in memory,
+     * so every replica enforces the same limit (PostgreSQL only)
+     */
+    private boolean shared = false;
+
+    /**
+     * How often expired shared counters are deleted
+     */
+    private Duration sharedCleanupInterval = Duration.ofMinutes(1);
+
+    public Limit forName(String name) {
+        var limit = limits.get(name);
+        if (limit == null) {
+            throw new IllegalStateException("No rate limit configured for '" + name
+                    + "' (rate-limit.keyed.limits." + name + ".*)");
+        }
+        return limit;
+    }
+
+    @Data
+    public static class Limit {
+        /**
+         * Requests each authenticated user may make per period (0 = not limited by user)
+         */
+        private int perUser = 10;
+
+        /**
+         * Requests each client IP may make per period (0 = not limited by IP); higher than
+         * per-user because several users can share an address behind NAT
+         */
+        private int perIp = 30;
+
+        /**
+         * Time for an empty bucket to refill completely
+         */
+        private Duration period = Duration.ofMinutes(1);
+    }
+}
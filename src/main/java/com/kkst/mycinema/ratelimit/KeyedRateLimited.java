@@ -0,0 +1,19 @@
+package com.kkst.mycinema.ratelimit;
+
+import java.lang.annotation.*;
+
+/**
+ * Rate-limits a handler method per authenticated user and per client IP, using
+ * the limit configured under rate-limit.keyed.limits.&lt;value&gt;. Unlike a single
+ * Resilience4j limiter, one busy client only exhausts its own buckets.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface KeyedRateLimited {
+
+    /**
+     * Name of the limit in {@link KeyedRateLimitProperties#getLimits()}
+     */
+    String value();
+}
@@ -0,0 +1,121 @@
+package com.kkst.mycinema.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kkst.mycinema.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets keyed by limit name plus user id or client IP, so each client
+ * has its own budget instead of sharing one instance-wide limiter.
+ *
+ * Buckets live in a Caffeine cache bounded by rate-limit.keyed.max-keys; the cache
+ * is striped internally and each bucket is a lock-free {@link TokenBucket}, so
+ * concurrent requests for different keys never contend. With rate-limit.keyed.shared
+ * the count is kept in {@link SharedRateLimitCounter} instead and every replica
+ * enforces the same limit; if the database is unreachable the local bucket is used.
+ *
+ * Metrics:
+ * - rate_limit.keyed.requests - permits requested (tags limit, key: user/ip, outcome: allowed/rejected)
+ * - rate_limit.keyed.buckets  - buckets held in memory
+ */
+@Component
+@Slf4j
+public class KeyedRateLimiter {
+
+    private final KeyedRateLimitProperties properties;
+    private final SharedRateLimitCounter sharedCounter;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier clock;
+    private final Cache<String, TokenBucket> buckets;
+
+    @Autowired
+    public KeyedRateLimiter(KeyedRateLimitProperties properties,
+            ObjectProvider<SharedRateLimitCounter> sharedCounter,
+            MeterRegistry meterRegistry) {
+        this(properties, sharedCounter.getIfAvailable(), meterRegistry, System::currentTimeMillis);
+    }
+
+    KeyedRateLimiter(KeyedRateLimitProperties properties, SharedRateLimitCounter sharedCounter,
+            MeterRegistry meterRegistry, LongSupplier clock) {
+        this.properties = properties;
+        this.sharedCounter = sharedCounter;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+
+        // An evicted bucket comes back full, so never drop one before it could have refilled
+        var expiry = properties.getLimits().values().stream()
+                .map(KeyedRateLimitProperties.Limit::getPeriod)
+                .reduce(properties.getIdleExpiry(), (a, b) -> a.compareTo(b) >= 0 ? a : b);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxKeys())
+                .expireAfterAccess(expiry)
+                .build();
+
+        Gauge.builder("rate_limit.keyed.buckets", buckets, Cache::estimatedSize)
+                .description("Rate limit buckets held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Take one permit from the client IP's and the user's bucket for the named limit.
+     * Either key may be null, e.g. for anonymous requests.
+     *
+     * @throws RateLimitExceededException carrying the time until the exhausted bucket has a permit again
+     */
+    public void acquire(String name, Long userId, String clientIp) {
+        var limit = properties.forName(name);
+        long periodMillis = limit.getPeriod().toMillis();
+        if (clientIp != null && limit.getPerIp() > 0) {
+            consume(name, "ip", clientIp, limit.getPerIp(), periodMillis);
+        }
+        if (userId != null && limit.getPerUser() > 0) {
+            consume(name, "user", userId.toString(), limit.getPerUser(), periodMillis);
+        }
+    }
+
+    private void consume(String name, String keyType, String key, int capacity, long periodMillis) {
+        var bucketKey = name + ':' + keyType + ':' + key;
+        long now = clock.getAsLong();
+        long waitMillis = sharedCounter != null
+                ? consumeShared(bucketKey, capacity, periodMillis, now)
+                : consumeLocal(bucketKey, capacity, periodMillis, now);
+
+        Counter.builder("rate_limit.keyed.requests")
+                .description("Permits requested from keyed rate limits")
+                .tag("limit", name)
+                .tag("key", keyType)
+                .tag("outcome", waitMillis == 0 ? "allowed" : "rejected")
+                .register(meterRegistry)
+                .increment();
+
+        if (waitMillis > 0) {
+            log.debug("Rate limit '{}' exceeded for {} {}", name, keyType, key);
+            throw new RateLimitExceededException("Too many requests. Please try again later.",
+                    Duration.ofMillis(waitMillis));
+        }
+    }
+
+    private long consumeLocal(String bucketKey, int capacity, long periodMillis, long now) {
+        return buckets.get(bucketKey, k -> new TokenBucket(capacity, periodMillis, now)).tryConsume(now);
+    }
+
+    private long consumeShared(String bucketKey, int capacity, long periodMillis, long now) {
+        try {
+            return sharedCounter.tryConsume(bucketKey, capacity, periodMillis, now);
+        } catch (DataAccessException e) {
+            log.warn("Shared rate limit counter unavailable, falling back to the local bucket: {}", e.getMessage());
+            return consumeLocal(bucketKey, capacity, periodMillis, now);
+        }
+    }
+}
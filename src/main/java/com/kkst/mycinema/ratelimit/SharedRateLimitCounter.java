@@ -0,0 +1,55 @@
+package com.kkst.mycinema.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fixed-window request counters in the rate_limit_counters table, shared by all
+ * replicas. Each request is one upsert that increments the key's counter for the
+ * current window and returns it, so the check is atomic without a row lock held
+ * across statements. Coarser than the in-memory token bucket: a client can spend
+ * a full window's budget on either side of a window boundary.
+ *
+ * Uses INSERT ... ON CONFLICT, so it requires PostgreSQL.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.keyed.shared", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class SharedRateLimitCounter {
+
+    private static final String INCREMENT_SQL = """
+            INSERT INTO rate_limit_counters (bucket_key, window_start, expires_at, hits)
+            VALUES (?, ?, ?, 1)
+            ON CONFLICT (bucket_key, window_start)
+            DO UPDATE SET hits = rate_limit_counters.hits + 1
+            RETURNING hits
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Count one request against the key's current window.
+     *
+     * @return 0 if the request is within the limit, otherwise the milliseconds until the window resets
+     */
+    long tryConsume(String bucketKey, int capacity, long periodMillis, long nowMillis) {
+        long windowStart = nowMillis - Math.floorMod(nowMillis, periodMillis);
+        long windowEnd = windowStart + periodMillis;
+        Long hits = jdbcTemplate.queryForObject(INCREMENT_SQL, Long.class, bucketKey, windowStart, windowEnd);
+        return hits != null && hits <= capacity ? 0 : Math.max(1, windowEnd - nowMillis);
+    }
+
+    @Scheduled(fixedDelayString = "#{@keyedRateLimitProperties.sharedCleanupInterval.toMillis()}")
+    public void deleteExpired() {
+        int deleted = jdbcTemplate.update("DELETE FROM rate_limit_counters WHERE expires_at < ?",
+                System.currentTimeMillis());
+        if (deleted > 0) {
+            log.debug("Deleted {} expired rate limit counters", deleted);
+        }
+    }
+}
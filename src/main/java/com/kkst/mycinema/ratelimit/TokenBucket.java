@@ -0,0 +1,77 @@
+package com.kkst.mycinema.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. Tokens and the last refill time are packed into one
+ * AtomicLong so a request is a single CAS: the upper bits hold the tokens left,
+ * the lower {@value #TIME_BITS} bits the refill time in milliseconds since the
+ * bucket was created (about 34 years, far longer than a bucket lives).
+ */
+final class TokenBucket {
+
+    private static final int TIME_BITS = 40;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+
+    /**
+     * Largest capacity that fits next to the timestamp without touching the sign bit
+     */
+    static final long MAX_CAPACITY = (1L << (63 - TIME_BITS)) - 1;
+
+    private final long capacity;
+    private final long periodMillis;
+    private final long originMillis;
+    private final AtomicLong state;
+
+    TokenBucket(long capacity, long periodMillis, long nowMillis) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Bucket capacity must be between 1 and " + MAX_CAPACITY);
+        }
+        if (periodMillis < 1) {
+            throw new IllegalArgumentException("Refill period must be at least 1ms");
+        }
+        this.capacity = capacity;
+        this.periodMillis = periodMillis;
+        this.originMillis = nowMillis;
+        this.state = new AtomicLong(capacity << TIME_BITS);
+    }
+
+    /**
+     * Take one token.
+     *
+     * @return 0 if a token was taken, otherwise the milliseconds until the next one is available
+     */
+    long tryConsume(long nowMillis) {
+        long now = Math.min(Math.max(0, nowMillis - originMillis), TIME_MASK);
+        while (true) {
+            long current = state.get();
+            long tokens = current >>> TIME_BITS;
+            long refilledAt = current & TIME_MASK;
+            long elapsed = Math.max(0, now - refilledAt);
+
+            long available;
+            if (elapsed >= periodMillis) {
+                available = capacity;
+                refilledAt = now;
+            } else {
+                long refill = elapsed * capacity / periodMillis;
+                available = tokens + refill;
+                if (available >= capacity) {
+                    available = capacity;
+                    refilledAt = now;
+                } else {
+                    // Only advance by the time the whole tokens cover, keeping the remainder
+                    refilledAt += refill * periodMillis / capacity;
+                }
+            }
+
+            if (available == 0) {
+                long nextTokenAt = refilledAt + Math.ceilDiv(periodMillis, capacity);
+                return Math.max(1, nextTokenAt - now);
+            }
+            if (state.compareAndSet(current, ((available - 1) << TIME_BITS) | refilledAt)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -7,7 +7,12 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
@@ -32,6 +37,74 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
            countQuery = "SELECT COUNT(DISTINCT b) FROM Booking b WHERE b.user.id = :userId")
     Page<Booking> findByUserIdOrderByBookingTimeDesc(@Param("userId") Long userId, Pageable pageable);
 
+    // Keyset pagination over (booking_time, id): cost is independent of how deep the client scrolls
+    @Query("SELECT b.id FROM Booking b " +
+           "WHERE b.user.id = :userId " +
+           "ORDER BY b.bookingTime DESC, b.id DESC")
+    List<Long> findFirstBookingIdsByUserId(@Param("userId") Long userId, Pageable limit);
+
+    @Query("SELECT b.id FROM Booking b " +
+           "WHERE b.user.id = :userId " +
+           "AND (b.bookingTime < :bookingTime OR (b.bookingTime = :bookingTime AND b.id < :id)) " +
+           "ORDER BY b.bookingTime DESC, b.id DESC")
+    List<Long> findBookingIdsByUserIdBefore(@Param("userId") Long userId,
+                                            @Param("bookingTime") LocalDateTime bookingTime,
+                                            @Param("id") Long id,
+                                            Pageable limit);
+
+    long countByUserId(Long userId);
+
+    // Show reminders: confirmed bookings for shows in the window whose (user, show) pair
+    // has not been reminded yet, walked by booking id so each chunk is an index range scan
+    @Query("SELECT b.id FROM Booking b JOIN b.show s " +
+           "WHERE b.status = com.kkst.mycinema.entity.Booking.BookingStatus.CONFIRMED " +
+           "AND s.startTime >= :from AND s.startTime < :to " +
+           "AND b.id > :afterId " +
+           "AND NOT EXISTS (SELECT 1 FROM ShowReminderSent r " +
+           "                WHERE r.userId = b.user.id AND r.showId = s.id) " +
+           "ORDER BY b.id")
+    List<Long> findReminderCandidateIds(@Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("afterId") Long afterId,
+                                        Pageable limit);
+
+    // Later bookings of a reminder chunk's users and shows; the scheduler keeps those
+    // matching a (user, show) pair in the chunk so the pair is not split across chunks
+    @Query("SELECT b.id FROM Booking b " +
+           "WHERE b.status = com.kkst.mycinema.entity.Booking.BookingStatus.CONFIRMED " +
+           "AND b.id > :afterId " +
+           "AND b.user.id IN :userIds AND b.show.id IN :showIds " +
+           "ORDER BY b.id")
+    List<Long> findConfirmedIdsAfter(@Param("afterId") Long afterId,
+                                     @Param("userIds") Collection<Long> userIds,
+                                     @Param("showIds") Collection<Long> showIds);
+
+    @Query("SELECT DISTINCT b FROM Booking b " +
+           "JOIN FETCH b.user " +
+           "JOIN FETCH b.show s " +
+           "JOIN FETCH s.movie " +
+           "JOIN FETCH s.hall " +
+           "LEFT JOIN FETCH b.bookingSeats bs " +
+           "LEFT JOIN FETCH bs.showSeat ss " +
+           "LEFT JOIN FETCH ss.seat " +
+           "WHERE b.id IN :bookingIds " +
+           "ORDER BY b.id")
+    List<Booking> findByIdInForReminder(@Param("bookingIds") List<Long> bookingIds);
+
+    // Cancellation: ownership is part of the lookup, and everything the refund,
+    // seat release and cancellation email touch is loaded in the same round trip
+    @Query("SELECT DISTINCT b FROM Booking b " +
+           "JOIN FETCH b.user " +
+           "JOIN FETCH b.show s " +
+           "JOIN FETCH s.movie " +
+           "JOIN FETCH s.hall " +
+           "LEFT JOIN FETCH b.bookingSeats bs " +
+           "LEFT JOIN FETCH bs.showSeat ss " +
+           "LEFT JOIN FETCH ss.seat " +
+           "WHERE b.id = :bookingId AND b.user.id = :userId")
+    Optional<Booking> findByIdAndUserIdWithDetails(@Param("bookingId") Long bookingId,
+                                                   @Param("userId") Long userId);
+
     // Fetch join for paginated results (called separately to avoid pagination issues)
     @Query("SELECT DISTINCT b FROM Booking b " +
            "LEFT JOIN FETCH b.bookingSeats bs " +
@@ -41,4 +114,37 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
            "LEFT JOIN FETCH s.movie " +
            "WHERE b.id IN :bookingIds")
     List<Booking> findByIdInWithDetails(@Param("bookingIds") List<Long> bookingIds);
+
+    // Admin reports: aggregated in the database so the cost does not grow with one query per booking
+    @Query("SELECT b.status AS status, COUNT(b) AS bookings, SUM(b.totalAmount) AS revenue " +
+           "FROM Booking b GROUP BY b.status")
+    List<BookingStatusTotals> sumByStatus();
+
+    @Query("SELECT COUNT(bs) FROM BookingSeat bs WHERE bs.booking.status = :status")
+    long countSeatsByBookingStatus(@Param("status") Booking.BookingStatus status);
+
+    @Query("SELECT m.id AS movieId, m.title AS title, m.genre AS genre, COUNT(b) AS bookingCount " +
+           "FROM Booking b JOIN b.show s JOIN s.movie m " +
+           "WHERE b.status = :status " +
+           "GROUP BY m.id, m.title, m.genre " +
+           "ORDER BY COUNT(b) DESC")
+    List<MovieBookingCount> countByMovie(@Param("status") Booking.BookingStatus status, Pageable limit);
+
+    interface BookingStatusTotals {
+        Booking.BookingStatus getStatus();
+
+        Long getBookings();
+
+        BigDecimal getRevenue();
+    }
+
+    interface MovieBookingCount {
+        Long getMovieId();
+
+        String getTitle();
+
+        String getGenre();
+
+        Long getBookingCount();
+    }
 }
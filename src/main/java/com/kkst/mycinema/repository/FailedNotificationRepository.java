@@ -0,0 +1,42 @@
+package com.kkst.mycinema.repository;
+
+import com.kkst.mycinema.entity.FailedNotification;
+import com.kkst.mycinema.notification.NotificationType;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface FailedNotificationRepository extends JpaRepository<FailedNotification, Long> {
+
+    // Due retries, oldest first; SKIP LOCKED (where supported) lets several instances retry concurrently
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT f FROM FailedNotification f " +
+           "WHERE f.status = com.kkst.mycinema.entity.FailedNotification.Status.RETRYING " +
+           "AND f.nextAttemptAt <= :now " +
+           "ORDER BY f.nextAttemptAt, f.id")
+    List<FailedNotification> findDueForUpdate(@Param("now") LocalDateTime now, Pageable limit);
+
+    Page<FailedNotification> findByStatus(FailedNotification.Status status, Pageable pageable);
+
+    long countByStatus(FailedNotification.Status status);
+
+    // Bulk replay: one UPDATE instead of loading thousands of rows; the retry job then re-drives them
+    @Modifying
+    @Query("UPDATE FailedNotification f " +
+           "SET f.status = com.kkst.mycinema.entity.FailedNotification.Status.RETRYING, " +
+           "    f.attempts = 0, f.nextAttemptAt = :now " +
+           "WHERE f.status = :status " +
+           "AND (:channel IS NULL OR f.channel = :channel)")
+    int scheduleReplay(@Param("status") FailedNotification.Status status,
+                       @Param("channel") NotificationType channel,
+                       @Param("now") LocalDateTime now);
+}
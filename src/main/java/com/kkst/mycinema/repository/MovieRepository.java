@@ -1,11 +1,27 @@
 package com.kkst.mycinema.repository;
 
 import com.kkst.mycinema.entity.Movie;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
 @Repository
 public interface MovieRepository extends JpaRepository<Movie, Long>, JpaSpecificationExecutor<Movie> {
+
+    // PostgreSQL only: relies on the generated search_vector column and its GIN index.
+    // Pass genre as '' to disable the filter.
+    @Query(value = "SELECT m.id FROM movies m " +
+                   "WHERE m.search_vector @@ websearch_to_tsquery('english', :query) " +
+                   "AND (:genre = '' OR lower(m.genre) = :genre) " +
+                   "ORDER BY ts_rank_cd(m.search_vector, websearch_to_tsquery('english', :query)) DESC, m.id",
+           countQuery = "SELECT count(*) FROM movies m " +
+                        "WHERE m.search_vector @@ websearch_to_tsquery('english', :query) " +
+                        "AND (:genre = '' OR lower(m.genre) = :genre)",
+           nativeQuery = true)
+    Page<Long> searchRankedIds(@Param("query") String query, @Param("genre") String genre, Pageable pageable);
 }
@@ -0,0 +1,23 @@
+package com.kkst.mycinema.repository;
+
+import com.kkst.mycinema.entity.PendingNotification;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PendingNotificationRepository extends JpaRepository<PendingNotification, Long> {
+
+    // Oldest first; SKIP LOCKED (where supported) lets several instances drain concurrently
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT p FROM PendingNotification p ORDER BY p.id")
+    List<PendingNotification> findOldestForUpdate(Pageable limit);
+}
@@ -0,0 +1,45 @@
+package com.kkst.mycinema.repository;
+
+import com.kkst.mycinema.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    /**
+     * Consume an active token. Returns 0 if it was already rotated or revoked, which
+     * also settles two concurrent refreshes with the same token.
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.status = com.kkst.mycinema.entity.RefreshToken.Status.ROTATED " +
+           "WHERE t.id = :id AND t.status = com.kkst.mycinema.entity.RefreshToken.Status.ACTIVE " +
+           "AND t.expiresAt > :now")
+    int markRotated(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.status = com.kkst.mycinema.entity.RefreshToken.Status.REVOKED " +
+           "WHERE t.familyId = :familyId AND t.status <> com.kkst.mycinema.entity.RefreshToken.Status.REVOKED")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    boolean existsByFamilyIdAndStatus(String familyId, RefreshToken.Status status);
+
+    // Revocation list contents: unexpired tokens that can no longer be used, and revoked families
+    @Query("SELECT t.id FROM RefreshToken t " +
+           "WHERE t.status <> com.kkst.mycinema.entity.RefreshToken.Status.ACTIVE AND t.expiresAt > :now")
+    List<String> findInvalidatedIds(@Param("now") LocalDateTime now);
+
+    @Query("SELECT DISTINCT t.familyId FROM RefreshToken t " +
+           "WHERE t.status = com.kkst.mycinema.entity.RefreshToken.Status.REVOKED AND t.expiresAt > :now")
+    List<String> findRevokedFamilyIds(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
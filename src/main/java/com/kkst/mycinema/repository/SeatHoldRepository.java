@@ -16,10 +16,18 @@ public interface SeatHoldRepository extends JpaRepository<SeatHold, Long> {
 
     Optional<SeatHold> findByHoldToken(String holdToken);
 
-    Optional<SeatHold> findByHoldTokenAndUserEmail(String holdToken, String userEmail);
+    boolean existsByHoldToken(String holdToken);
 
-    @Query("SELECT sh FROM SeatHold sh WHERE sh.holdToken = :token AND sh.user.email = :email")
-    Optional<SeatHold> findByTokenAndUserEmail(@Param("token") String token, @Param("email") String email);
+    /**
+     * Find a hold owned by the given user. Fetches the user, show and movie because the
+     * payment step reads them after the transaction has closed.
+     */
+    @Query("SELECT sh FROM SeatHold sh " +
+           "JOIN FETCH sh.user u " +
+           "JOIN FETCH sh.show s " +
+           "JOIN FETCH s.movie " +
+           "WHERE sh.holdToken = :token AND u.id = :userId")
+    Optional<SeatHold> findByTokenAndUserId(@Param("token") String token, @Param("userId") Long userId);
 
     /**
      * Find all expired holds that are still marked as ACTIVE
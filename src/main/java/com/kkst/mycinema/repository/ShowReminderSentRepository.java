@@ -0,0 +1,18 @@
+package com.kkst.mycinema.repository;
+
+import com.kkst.mycinema.entity.ShowReminderSent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ShowReminderSentRepository extends JpaRepository<ShowReminderSent, Long> {
+
+    @Modifying
+    @Query("DELETE FROM ShowReminderSent r WHERE r.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,6 +1,7 @@
 package com.kkst.mycinema.repository;
 
 import com.kkst.mycinema.entity.Show;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,9 +14,15 @@ import java.util.List;
 @Repository
 public interface ShowRepository extends JpaRepository<Show, Long> {
 
+    // Show listings render the movie and hall of every row; load them with the shows
+    @Override
+    @EntityGraph(attributePaths = {"movie", "hall"})
+    List<Show> findAll();
+
+    @EntityGraph(attributePaths = {"movie", "hall"})
     List<Show> findByMovieId(Long movieId);
 
-    @Query("SELECT s FROM Show s WHERE s.movie.id = :movieId " +
+    @Query("SELECT s FROM Show s JOIN FETCH s.movie JOIN FETCH s.hall WHERE s.movie.id = :movieId " +
             "AND CAST(s.startTime AS date) = :date ORDER BY s.startTime")
     List<Show> findByMovieIdAndDate(@Param("movieId") Long movieId,
             @Param("date") LocalDate date);
@@ -2,6 +2,7 @@ package com.kkst.mycinema.repository;
 
 import com.kkst.mycinema.entity.ShowSeat;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
@@ -14,6 +15,8 @@ import java.util.Optional;
 @Repository
 public interface ShowSeatRepository extends JpaRepository<ShowSeat, Long> {
 
+    // Seat maps read row and number of every seat
+    @EntityGraph(attributePaths = "seat")
     List<ShowSeat> findByShowId(Long showId);
 
     @Lock(LockModeType.OPTIMISTIC)
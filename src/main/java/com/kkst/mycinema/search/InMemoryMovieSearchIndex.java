@@ -0,0 +1,142 @@
+package com.kkst.mycinema.search;
+
+import com.kkst.mycinema.entity.Movie;
+import com.kkst.mycinema.repository.MovieRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inverted-index fallback used with H2 (no tsvector support). Built once at
+ * startup and then maintained per movie from {@link MovieCatalogChangedEvent}.
+ *
+ * Matching mirrors websearch_to_tsquery's default: every query token must
+ * appear in the title or description. Ranking weights title hits above
+ * description hits, like setweight 'A' vs 'B' on the Postgres side.
+ */
+@Component
+@ConditionalOnProperty(name = "movie.search.engine", havingValue = "memory", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryMovieSearchIndex implements MovieSearchIndex {
+
+    private static final double TITLE_WEIGHT = 1.0;
+    private static final double DESCRIPTION_WEIGHT = 0.4;
+
+    private final MovieRepository movieRepository;
+
+    private final Map<Long, IndexedMovie> documents = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    private record IndexedMovie(String genre, Set<String> titleTokens, Map<String, Integer> descriptionTerms) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        documents.keySet().forEach(this::remove);
+        movieRepository.findAll().forEach(this::index);
+        log.info("Movie search index built with {} movies", documents.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(MovieCatalogChangedEvent event) {
+        if (event.deleted()) {
+            remove(event.movieId());
+        } else {
+            movieRepository.findById(event.movieId()).ifPresent(this::index);
+        }
+    }
+
+    @Override
+    public Page<Long> search(String query, String genre, Pageable pageable) {
+        var queryTokens = new LinkedHashSet<>(MovieTextNormalizer.tokenize(query));
+        if (queryTokens.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        var genreFilter = genre == null || genre.isBlank() ? null : genre.trim().toLowerCase();
+
+        // Start from the rarest token's postings to keep the intersection small
+        Set<Long> candidates = null;
+        for (String token : queryTokens) {
+            var ids = postings.getOrDefault(token, Set.of());
+            if (candidates == null || ids.size() < candidates.size()) {
+                candidates = ids;
+            }
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>();
+        for (Long id : candidates) {
+            var doc = documents.get(id);
+            if (doc == null || (genreFilter != null && !genreFilter.equals(doc.genre()))) {
+                continue;
+            }
+            double score = 0;
+            boolean allMatched = true;
+            for (String token : queryTokens) {
+                boolean inTitle = doc.titleTokens().contains(token);
+                int inDescription = doc.descriptionTerms().getOrDefault(token, 0);
+                if (!inTitle && inDescription == 0) {
+                    allMatched = false;
+                    break;
+                }
+                score += (inTitle ? TITLE_WEIGHT : 0) + DESCRIPTION_WEIGHT * inDescription;
+            }
+            if (allMatched) {
+                ranked.add(Map.entry(id, score));
+            }
+        }
+
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        int to = Math.min(from + pageable.getPageSize(), ranked.size());
+        var pageIds = ranked.subList(from, to).stream().map(Map.Entry::getKey).toList();
+        return new PageImpl<>(pageIds, pageable, ranked.size());
+    }
+
+    private synchronized void index(Movie movie) {
+        remove(movie.getId());
+
+        var titleTokens = new HashSet<>(MovieTextNormalizer.tokenize(movie.getTitle()));
+        var descriptionTerms = new HashMap<String, Integer>();
+        for (String token : MovieTextNormalizer.tokenize(movie.getDescription())) {
+            descriptionTerms.merge(token, 1, Integer::sum);
+        }
+        var genre = movie.getGenre() == null ? "" : movie.getGenre().toLowerCase();
+
+        documents.put(movie.getId(), new IndexedMovie(genre, titleTokens, descriptionTerms));
+        titleTokens.forEach(token -> addPosting(token, movie.getId()));
+        descriptionTerms.keySet().forEach(token -> addPosting(token, movie.getId()));
+    }
+
+    private synchronized void remove(Long movieId) {
+        var previous = documents.remove(movieId);
+        if (previous == null) {
+            return;
+        }
+        previous.titleTokens().forEach(token -> removePosting(token, movieId));
+        previous.descriptionTerms().keySet().forEach(token -> removePosting(token, movieId));
+    }
+
+    private void addPosting(String token, Long movieId) {
+        postings.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(movieId);
+    }
+
+    private void removePosting(String token, Long movieId) {
+        postings.computeIfPresent(token, (t, ids) -> {
+            ids.remove(movieId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+}
@@ -0,0 +1,17 @@
+package com.kkst.mycinema.search;
+
+/**
+ * Published whenever a movie is created, updated, imported or deleted so that
+ * in-memory read models (search index, suggestions) can refresh that single
+ * movie instead of rebuilding from the database.
+ */
+public record MovieCatalogChangedEvent(Long movieId, boolean deleted) {
+
+    public static MovieCatalogChangedEvent saved(Long movieId) {
+        return new MovieCatalogChangedEvent(movieId, false);
+    }
+
+    public static MovieCatalogChangedEvent deleted(Long movieId) {
+        return new MovieCatalogChangedEvent(movieId, true);
+    }
+}
@@ -0,0 +1,22 @@
+package com.kkst.mycinema.search;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Full-text search over the movie catalog (title and description).
+ * Implementations return movie ids ordered by relevance; callers load
+ * the entities themselves.
+ *
+ * Selected via the movie.search.engine property (postgres, memory).
+ */
+public interface MovieSearchIndex {
+
+    /**
+     * @param query    free-text query entered by the user
+     * @param genre    optional genre filter (case-insensitive), may be null
+     * @param pageable page number and size; any sort is ignored in favour of rank
+     * @return page of movie ids, best match first
+     */
+    Page<Long> search(String query, String genre, Pageable pageable);
+}
@@ -0,0 +1,122 @@
+package com.kkst.mycinema.search;
+
+import com.kkst.mycinema.dto.MovieSuggestionResponse;
+import com.kkst.mycinema.entity.Movie;
+import com.kkst.mycinema.repository.MovieRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory prefix index over normalized title tokens for the typeahead box.
+ * Lookups are a sorted-map range scan and never touch the database; the index
+ * is loaded once at startup and then updated per movie from
+ * {@link MovieCatalogChangedEvent}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MovieSuggestIndex {
+
+    private final MovieRepository movieRepository;
+
+    private static final Comparator<Entry> RANKING_TIEBREAK = Comparator
+            .comparingInt((Entry entry) -> entry.title().length())
+            .thenComparing(Entry::normalizedTitle);
+
+    private final ConcurrentSkipListMap<String, Set<Long>> tokens = new ConcurrentSkipListMap<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Entry(Long id, String title, String normalizedTitle, Set<String> tokens) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        entries.keySet().forEach(this::remove);
+        movieRepository.findAll().forEach(this::index);
+        log.info("Movie suggest index built with {} titles and {} tokens", entries.size(), tokens.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(MovieCatalogChangedEvent event) {
+        if (event.deleted()) {
+            remove(event.movieId());
+        } else {
+            movieRepository.findById(event.movieId()).ifPresent(this::index);
+        }
+    }
+
+    /**
+     * Suggest titles for a partially typed query. The last word is matched as a
+     * prefix, earlier words must match whole title words: "dark kn" finds
+     * "The Dark Knight". Titles that start with the query rank first.
+     *
+     * Every match is ranked, but only the best {@code limit} are kept (a bounded
+     * heap), so a one-letter prefix costs a pass over its matches, not a sort.
+     */
+    public List<MovieSuggestionResponse> suggest(String query, int limit) {
+        var queryTokens = MovieTextNormalizer.tokenize(query);
+        if (queryTokens.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        var prefix = queryTokens.get(queryTokens.size() - 1);
+        var wholeWords = queryTokens.subList(0, queryTokens.size() - 1);
+
+        var normalizedQuery = String.join(" ", queryTokens);
+        Comparator<Entry> ranking = Comparator
+                .comparing((Entry entry) -> !entry.normalizedTitle().startsWith(normalizedQuery))
+                .thenComparing(RANKING_TIEBREAK);
+
+        // Worst of the current top `limit` at the head
+        var best = new PriorityQueue<Entry>(ranking.reversed());
+        var seen = new HashSet<Long>();
+        for (var ids : tokens.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            for (Long id : ids) {
+                var entry = seen.add(id) ? entries.get(id) : null;
+                if (entry == null || !entry.tokens().containsAll(wholeWords)) {
+                    continue;
+                }
+                if (best.size() < limit) {
+                    best.add(entry);
+                } else if (ranking.compare(entry, best.peek()) < 0) {
+                    best.poll();
+                    best.add(entry);
+                }
+            }
+        }
+
+        return best.stream()
+                .sorted(ranking)
+                .map(entry -> new MovieSuggestionResponse(entry.id(), entry.title()))
+                .toList();
+    }
+
+    private synchronized void index(Movie movie) {
+        remove(movie.getId());
+
+        var titleTokens = MovieTextNormalizer.tokenize(movie.getTitle());
+        var entry = new Entry(movie.getId(), movie.getTitle(), String.join(" ", titleTokens),
+                new HashSet<>(titleTokens));
+        entries.put(movie.getId(), entry);
+        entry.tokens().forEach(token ->
+                tokens.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(movie.getId()));
+    }
+
+    private synchronized void remove(Long movieId) {
+        var previous = entries.remove(movieId);
+        if (previous == null) {
+            return;
+        }
+        previous.tokens().forEach(token -> tokens.computeIfPresent(token, (t, ids) -> {
+            ids.remove(movieId);
+            return ids.isEmpty() ? null : ids;
+        }));
+    }
+}
@@ -0,0 +1,31 @@
+package com.kkst.mycinema.search;
+
+import com.kkst.mycinema.repository.MovieRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ranked search backed by the movies.search_vector tsvector column and its
+ * GIN index (see db/vendor/postgresql). The column is GENERATED ALWAYS from
+ * title and description, so inserts, updates and TMDb imports keep it in sync
+ * without any application-side maintenance.
+ */
+@Component
+@ConditionalOnProperty(name = "movie.search.engine", havingValue = "postgres")
+@RequiredArgsConstructor
+public class PostgresMovieSearchIndex implements MovieSearchIndex {
+
+    private final MovieRepository movieRepository;
+
+    @Override
+    public Page<Long> search(String query, String genre, Pageable pageable) {
+        // The native query orders by rank itself, so drop any caller-supplied sort
+        var unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        var genreFilter = genre == null ? "" : genre.trim().toLowerCase();
+        return movieRepository.searchRankedIds(query, genreFilter, unsorted);
+    }
+}
@@ -0,0 +1,47 @@
+package com.kkst.mycinema.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kkst.mycinema.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Short-TTL cache of {@link AuthenticatedUser}s by email, for requests that cannot
+ * (or, with security.user-cache.enabled, should not) trust the roles in the token:
+ * tokens issued before the uid/roles claims existed, and deployments that want role
+ * changes to apply within the TTL rather than at token expiry.
+ *
+ * UserService and AuthService evict entries when a user changes. Unknown emails are
+ * not cached.
+ */
+@Component
+public class AuthenticatedUserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, AuthenticatedUser> cache;
+
+    public AuthenticatedUserCache(UserRepository userRepository,
+            @Value("${security.user-cache.ttl:30s}") Duration ttl,
+            @Value("${security.user-cache.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public Optional<AuthenticatedUser> get(String email) {
+        return Optional.ofNullable(cache.get(email, key -> userRepository.findByEmail(key)
+                .map(user -> new AuthenticatedUser(
+                        user.getId(), user.getEmail(), AuthenticatedUser.authoritiesOf(user.getRoles())))
+                .orElse(null)));
+    }
+
+    public void evict(String email) {
+        cache.invalidate(email);
+    }
+}
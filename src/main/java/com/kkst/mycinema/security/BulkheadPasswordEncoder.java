@@ -0,0 +1,202 @@
+package com.kkst.mycinema.security;
+
+import com.kkst.mycinema.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * BCrypt on a dedicated, CPU-sized executor so login and registration storms can
+ * only use those threads, not every request thread. The queue is bounded and a
+ * request that waited longer than max-queue-time is dropped when it reaches the
+ * front; both cases fail fast with {@link ServiceOverloadedException} (503).
+ *
+ * With calibration enabled the work factor is raised at startup as long as one
+ * hash stays within the latency budget on this hardware, never below the
+ * configured strength. Existing hashes keep verifying at their own cost.
+ *
+ * Metrics:
+ * - security.password.hashing            - time spent hashing (tag operation: encode, matches)
+ * - security.password.hashing.queue.wait - time waiting for a hashing thread
+ * - security.password.hashing.queue.depth
+ * - security.password.hashing.rejected   - shed requests (tag reason: queue_full, queue_timeout, hash_timeout)
+ * - security.password.bcrypt.strength    - work factor in use
+ */
+@Slf4j
+public class BulkheadPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long maxQueueNanos;
+    private final long maxWaitNanos;
+    private final Duration retryAfter;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer queueWait;
+
+    public BulkheadPasswordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, strengthFor(properties));
+    }
+
+    private BulkheadPasswordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry, int strength) {
+        this(properties, meterRegistry, new BCryptPasswordEncoder(strength), strength);
+    }
+
+    BulkheadPasswordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry,
+            PasswordEncoder delegate, int strength) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.maxQueueNanos = properties.getMaxQueueTime().toNanos();
+        this.maxWaitNanos = maxQueueNanos + properties.getMaxHashTime().toNanos();
+        this.retryAfter = properties.getRetryAfter();
+
+        int threads = properties.getThreads() > 0
+                ? properties.getThreads()
+                : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(threads, threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                Thread.ofPlatform().name("password-hash-", 1).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        this.queueWait = Timer.builder("security.password.hashing.queue.wait")
+                .description("Time a password hash waited for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("security.password.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashes waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("security.password.bcrypt.strength", () -> strength)
+                .description("BCrypt work factor used for new hashes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit("encode", () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(String operation, Supplier<T> work) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long waited = System.nanoTime() - enqueuedAt;
+                queueWait.record(waited, TimeUnit.NANOSECONDS);
+                if (waited > maxQueueNanos) {
+                    // The caller has given up or is about to; don't spend CPU on it
+                    throw new QueueTimeoutException();
+                }
+                var sample = Timer.start(meterRegistry);
+                try {
+                    return work.get();
+                } finally {
+                    sample.stop(Timer.builder("security.password.hashing")
+                            .description("Time spent hashing or verifying a password")
+                            .tag("operation", operation)
+                            .publishPercentileHistogram()
+                            .register(meterRegistry));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw overloaded("queue_full");
+        }
+
+        try {
+            return future.get(maxWaitNanos - (System.nanoTime() - enqueuedAt), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof QueueTimeoutException) {
+                throw overloaded("queue_timeout");
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw overloaded("hash_timeout");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        }
+    }
+
+    private ServiceOverloadedException overloaded(String reason) {
+        Counter.builder("security.password.hashing.rejected")
+                .description("Password hashes rejected because the hashing executor was saturated")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        log.warn("Password hashing saturated ({}), rejecting request", reason);
+        return new ServiceOverloadedException("Authentication is busy, please retry shortly", retryAfter);
+    }
+
+    private static int strengthFor(PasswordHashingProperties properties) {
+        if (!properties.isCalibrate()) {
+            return properties.getStrength();
+        }
+        var encoder = new BCryptPasswordEncoder(properties.getStrength());
+        encoder.encode("calibration-warmup");
+        long[] samples = new long[3];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration-sample-" + i);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        var measured = Duration.ofNanos(samples[1]);
+
+        int strength = calibrate(properties.getLatencyBudget(), properties.getStrength(),
+                properties.getMaxStrength(), measured);
+        log.info("BCrypt strength calibrated to {} (strength {} took {} ms, budget {} ms)",
+                strength, properties.getStrength(), measured.toMillis(), properties.getLatencyBudget().toMillis());
+        return strength;
+    }
+
+    /**
+     * Highest work factor whose estimated cost fits the budget, given the measured cost at
+     * {@code minStrength}. Each step doubles the cost; the result stays within [min, max].
+     */
+    static int calibrate(Duration budget, int minStrength, int maxStrength, Duration measuredAtMin) {
+        long measured = Math.max(1, measuredAtMin.toNanos());
+        long cost = measured;
+        int strength = minStrength;
+        while (strength < maxStrength && cost * 2 <= budget.toNanos()) {
+            cost *= 2;
+            strength++;
+        }
+        return strength;
+    }
+
+    private static final class QueueTimeoutException extends RuntimeException {
+        private QueueTimeoutException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -1,13 +1,15 @@
 package com.kkst.mycinema.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -19,7 +21,11 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final AuthenticatedUserCache authenticatedUserCache;
+    private final TokenRevocationList tokenRevocationList;
+    
+    @Value("${security.user-cache.enabled:false}")
+    private boolean freshUserLookup;
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
@@ -28,24 +34,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authorizationHeader = request.getHeader("Authorization");
         
-        String username = null;
-        String jwt = null;
+        Claims claims = null;
         
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception e) {
-                logger.error("Error extracting username from JWT", e);
+                // Single parse + signature/expiry check (cached per token until it expires)
+                claims = jwtUtil.verify(authorizationHeader.substring(7));
+            } catch (JwtException | IllegalArgumentException e) {
+                logger.debug("Rejected JWT: " + e.getMessage());
             }
         }
         
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            var userDetails = userDetailsService.loadUserByUsername(username);
-            
-            if (jwtUtil.validateToken(jwt, userDetails.getUsername())) {
+        if (claims != null && claims.getSubject() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null
+                && jwtUtil.isAccessToken(claims)
+                && !isRevoked(claims)) {
+            var principal = resolvePrincipal(claims);
+            if (principal != null) {
                 var authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        principal, null, principal.authorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
@@ -53,5 +60,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+    
+    /**
+     * Access tokens of a revoked refresh-token family (logout, reuse detection) are rejected.
+     * The revocation list answers from memory unless its Bloom filter reports a possible match.
+     */
+    private boolean isRevoked(Claims claims) {
+        var familyId = jwtUtil.familyId(claims);
+        return familyId != null && tokenRevocationList.isFamilyRevoked(familyId);
+    }
+
+    /**
+     * Signed uid/roles claims need no lookup; older tokens, or every token when
+     * security.user-cache.enabled is set, go through the short-TTL user cache.
+     */
+    private AuthenticatedUser resolvePrincipal(Claims claims) {
+        if (!freshUserLookup) {
+            var fromToken = jwtUtil.toAuthenticatedUser(claims);
+            if (fromToken != null) {
+                return fromToken;
+            }
+        }
+        return authenticatedUserCache.get(claims.getSubject()).orElse(null);
+    }
 }
 
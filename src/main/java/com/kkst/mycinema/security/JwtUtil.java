@@ -1,28 +1,46 @@
 package com.kkst.mycinema.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.kkst.mycinema.entity.User;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
-import lombok.extern.slf4j.Slf4j;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
-
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issues and verifies JWTs.
+ *
+ * The signing key and parser are built once. {@link #verify(String)} parses and
+ * checks a token a single time and returns its claims; successfully verified
+ * tokens are cached by SHA-256 digest until their own exp, so repeat requests
+ * with the same token skip base64/JSON decoding and the HMAC check entirely.
+ * Only valid tokens are ever cached, and an entry never outlives its token.
+ */
 @Component
-@Slf4j
 public class JwtUtil {
 
     private static final String TOKEN_TYPE_CLAIM = "type";
     private static final String TOKEN_TYPE_ACCESS = "access";
     private static final String TOKEN_TYPE_REFRESH = "refresh";
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+    private static final String FAMILY_CLAIM = "fid";
 
     @Value("${jwt.secret}")
     private String secret;
@@ -33,59 +51,105 @@ public class JwtUtil {
     @Value("${jwt.refresh-expiration:604800000}")
     private Long refreshExpiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-    }
-
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    public String extractTokenType(String token) {
-        return extractClaim(token, claims -> claims.get(TOKEN_TYPE_CLAIM, String.class));
-    }
-
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<ByteBuffer, Claims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<ByteBuffer, Claims>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, Claims claims, long currentTime) {
+                        var exp = claims.getExpiration();
+                        if (exp == null) {
+                            return 0;
+                        }
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, exp.getTime() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, Claims claims, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, Claims claims, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Verify signature and expiry, once, and return the token's claims.
+     *
+     * @throws JwtException if the token is malformed, forged or expired
+     */
+    public Claims verify(String token) {
+        var digest = digest(token);
+        var cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+        var claims = parser.parseSignedClaims(token).getPayload();
+        verifiedTokens.put(digest, claims);
+        return claims;
     }
 
-    private Boolean isTokenExpired(String token) {
-        try {
-            return extractExpiration(token).before(new Date());
-        } catch (ExpiredJwtException e) {
-            return true;
-        }
+    /**
+     * Generate access token (short-lived) carrying the user's id and roles, so
+     * requests can be authenticated without loading the user.
+     */
+    public String generateToken(User user) {
+        return generateToken(user, null);
     }
 
     /**
-     * Generate access token (short-lived)
+     * Generate access token tied to a refresh-token family, so revoking the family
+     * (logout, detected token reuse) also rejects its access tokens.
      */
-    public String generateToken(String username) {
+    public String generateToken(User user, String familyId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put(TOKEN_TYPE_CLAIM, TOKEN_TYPE_ACCESS);
-        return createToken(claims, username, expiration);
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(ROLES_CLAIM, user.getRoles());
+        if (familyId != null) {
+            claims.put(FAMILY_CLAIM, familyId);
+        }
+        return createToken(claims, user.getEmail(), expiration);
     }
 
     /**
-     * Generate refresh token (long-lived)
+     * Generate refresh token tracked in refresh_tokens: jti is the row id, fid its family.
      */
-    public String generateRefreshToken(String username) {
+    public String generateRefreshToken(User user, String tokenId, String familyId, Date expiresAt) {
         Map<String, Object> claims = new HashMap<>();
         claims.put(TOKEN_TYPE_CLAIM, TOKEN_TYPE_REFRESH);
-        return createToken(claims, username, refreshExpiration);
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(FAMILY_CLAIM, familyId);
+        return Jwts.builder()
+                .claims(claims)
+                .id(tokenId)
+                .subject(user.getEmail())
+                .issuedAt(new Date(System.currentTimeMillis()))
+                .expiration(expiresAt)
+                .signWith(signingKey)
+                .compact();
+    }
+
+    public long getRefreshExpirationMillis() {
+        return refreshExpiration;
     }
 
     private String createToken(Map<String, Object> claims, String subject, Long expirationTime) {
@@ -94,47 +158,48 @@ public class JwtUtil {
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expirationTime))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public Boolean validateToken(String token, String username) {
-        try {
-            final String extractedUsername = extractUsername(token);
-            return (extractedUsername.equals(username) && !isTokenExpired(token));
-        } catch (JwtException e) {
-            log.warn("JWT validation failed: {}", e.getMessage());
-            return false;
-        }
+    public boolean isAccessToken(Claims claims) {
+        String tokenType = claims.get(TOKEN_TYPE_CLAIM, String.class);
+        return TOKEN_TYPE_ACCESS.equals(tokenType) || tokenType == null;
+    }
+
+    public boolean isRefreshToken(Claims claims) {
+        return TOKEN_TYPE_REFRESH.equals(claims.get(TOKEN_TYPE_CLAIM, String.class));
     }
 
     /**
-     * Validate that token is a valid refresh token
+     * Refresh-token family of a token, or null for tokens issued without one.
      */
-    public Boolean validateRefreshToken(String token, String username) {
-        try {
-            final String extractedUsername = extractUsername(token);
-            final String tokenType = extractTokenType(token);
-            return (extractedUsername.equals(username)
-                    && TOKEN_TYPE_REFRESH.equals(tokenType)
-                    && !isTokenExpired(token));
-        } catch (JwtException e) {
-            log.warn("Refresh token validation failed: {}", e.getMessage());
-            return false;
-        }
+    public String familyId(Claims claims) {
+        return claims.get(FAMILY_CLAIM, String.class);
+    }
+
+    public Long userId(Claims claims) {
+        return claims.get(USER_ID_CLAIM, Long.class);
     }
 
     /**
-     * Check if token is an access token
+     * Principal from an access token's uid/roles claims, or null for tokens issued without them.
      */
-    public Boolean isAccessToken(String token) {
+    public AuthenticatedUser toAuthenticatedUser(Claims claims) {
+        var userId = claims.get(USER_ID_CLAIM, Long.class);
+        var roles = claims.get(ROLES_CLAIM, String.class);
+        if (userId == null || roles == null || claims.getSubject() == null) {
+            return null;
+        }
+        return new AuthenticatedUser(userId, claims.getSubject(), AuthenticatedUser.authoritiesOf(roles));
+    }
+
+    private static ByteBuffer digest(String token) {
         try {
-            String tokenType = extractTokenType(token);
-            return TOKEN_TYPE_ACCESS.equals(tokenType) || tokenType == null;
-        } catch (JwtException e) {
-            return false;
+            var sha256 = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 }
-
-
@@ -0,0 +1,60 @@
+package com.kkst.mycinema.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Sizing and BCrypt cost for the password-hashing bulkhead.
+ * Binds to properties with prefix "security.password-hashing".
+ */
+@Data
+@ConfigurationProperties(prefix = "security.password-hashing")
+public class PasswordHashingProperties {
+
+    /**
+     * Hashing threads; 0 means one per available processor
+     */
+    private int threads = 0;
+
+    /**
+     * Hash requests allowed to wait for a thread before new ones are rejected
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * Longest a request may wait for a thread; older requests are dropped when they reach the front
+     */
+    private Duration maxQueueTime = Duration.ofMillis(250);
+
+    /**
+     * Longest a caller waits for the hash itself once it is running
+     */
+    private Duration maxHashTime = Duration.ofSeconds(2);
+
+    /**
+     * Retry-After sent with 503 responses when hashing is saturated
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /**
+     * BCrypt work factor; the floor when calibrating
+     */
+    private int strength = 10;
+
+    /**
+     * Raise the work factor at startup as far as the latency budget allows
+     */
+    private boolean calibrate = true;
+
+    /**
+     * Target time for one hash on this hardware when calibrating
+     */
+    private Duration latencyBudget = Duration.ofMillis(100);
+
+    /**
+     * Upper bound for the calibrated work factor
+     */
+    private int maxStrength = 14;
+}
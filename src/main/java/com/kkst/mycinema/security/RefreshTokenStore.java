@@ -0,0 +1,140 @@
+package com.kkst.mycinema.security;
+
+import com.kkst.mycinema.entity.RefreshToken;
+import com.kkst.mycinema.entity.User;
+import com.kkst.mycinema.exception.InvalidTokenException;
+import com.kkst.mycinema.repository.RefreshTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Issues, rotates and revokes refresh tokens. Each login starts a family; every refresh
+ * consumes the presented token and issues its successor in the same family. Presenting a
+ * token that was already consumed means it was copied, so the whole family is revoked,
+ * which through {@link TokenRevocationList} also locks out the family's access tokens.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenStore {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenRevocationList tokenRevocationList;
+    private final JwtUtil jwtUtil;
+
+    public record IssuedToken(String token, String familyId) {
+    }
+
+    public record RotatedToken(Long userId, String token, String familyId) {
+    }
+
+    /**
+     * Start a new family for a fresh login.
+     */
+    @Transactional
+    public IssuedToken issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Consume a refresh token and issue its successor. Transactions joined from the
+     * caller must not roll back on InvalidTokenException, or a detected reuse would
+     * not revoke the family.
+     */
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public RotatedToken rotate(String refreshToken) {
+        var claims = verifyRefreshToken(refreshToken);
+        var tokenId = claims.getId();
+        var familyId = jwtUtil.familyId(claims);
+        var userId = jwtUtil.userId(claims);
+        if (tokenId == null || familyId == null || userId == null) {
+            // Issued before tokens were tracked, can't be rotated or revoked: log in again
+            throw new InvalidTokenException("Refresh token is no longer accepted, please log in again");
+        }
+
+        // Filter miss: never consumed, skip the lookup and let the conditional update decide
+        if (tokenRevocationList.mightBeInvalidated(tokenId)) {
+            var row = refreshTokenRepository.findById(tokenId).orElse(null);
+            if (row == null || row.getStatus() != RefreshToken.Status.ACTIVE) {
+                throw rejectReuse(row, familyId);
+            }
+        }
+        if (refreshTokenRepository.markRotated(tokenId, LocalDateTime.now()) == 0) {
+            // Lost a race with another refresh of the same token, or it was revoked meanwhile
+            throw rejectReuse(refreshTokenRepository.findById(tokenId).orElse(null), familyId);
+        }
+        tokenRevocationList.add(tokenId);
+
+        var user = User.builder().id(userId).email(claims.getSubject()).build();
+        var next = issue(user, familyId);
+        return new RotatedToken(userId, next.token(), familyId);
+    }
+
+    /**
+     * Revoke the family of a refresh token (logout). Access tokens of the family stop
+     * working once the revocation list has it, immediately on this instance.
+     */
+    @Transactional
+    public void revoke(String refreshToken) {
+        var familyId = jwtUtil.familyId(verifyRefreshToken(refreshToken));
+        if (familyId == null) {
+            return;
+        }
+        refreshTokenRepository.revokeFamily(familyId);
+        tokenRevocationList.add(familyId);
+    }
+
+    private IssuedToken issue(User user, String familyId) {
+        var tokenId = UUID.randomUUID().toString();
+        var now = Instant.now();
+        var expiresAt = now.plusMillis(jwtUtil.getRefreshExpirationMillis());
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .id(tokenId)
+                .familyId(familyId)
+                .userId(user.getId())
+                .status(RefreshToken.Status.ACTIVE)
+                .issuedAt(LocalDateTime.ofInstant(now, ZoneId.systemDefault()))
+                .expiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()))
+                .build());
+
+        var token = jwtUtil.generateRefreshToken(user, tokenId, familyId, Date.from(expiresAt));
+        return new IssuedToken(token, familyId);
+    }
+
+    private Claims verifyRefreshToken(String refreshToken) {
+        Claims claims;
+        try {
+            claims = jwtUtil.verify(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidTokenException("Invalid or expired refresh token");
+        }
+        if (!jwtUtil.isRefreshToken(claims)) {
+            throw new InvalidTokenException("Invalid or expired refresh token");
+        }
+        return claims;
+    }
+
+    private InvalidTokenException rejectReuse(RefreshToken row, String familyId) {
+        if (row == null) {
+            return new InvalidTokenException("Invalid or expired refresh token");
+        }
+        if (row.getStatus() == RefreshToken.Status.ROTATED) {
+            log.warn("Refresh token {} of user {} was used twice, revoking family {}",
+                    row.getId(), row.getUserId(), familyId);
+        }
+        refreshTokenRepository.revokeFamily(familyId);
+        tokenRevocationList.add(familyId);
+        return new InvalidTokenException("Refresh token has already been used");
+    }
+}
@@ -0,0 +1,151 @@
+package com.kkst.mycinema.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kkst.mycinema.datasource.UsePrimary;
+import com.kkst.mycinema.entity.RefreshToken;
+import com.kkst.mycinema.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process view of refresh_tokens that can no longer be used: rotated/revoked token
+ * ids and revoked families, held in a {@link BloomFilter}. A miss is a definite "not
+ * revoked" and costs no I/O, which is the path almost every request takes; a hit is
+ * confirmed against the table (and the answer cached briefly).
+ *
+ * The filter is rebuilt from the table on startup and every rebuild interval, which is
+ * also how revocations made on other instances arrive. Revocations made here are added
+ * immediately and carried over the next rebuild so none fall into the gap.
+ *
+ * Metrics:
+ * - security.revocation.lookups - filter hits confirmed against the table (tag result: revoked, false_positive)
+ */
+@Component
+@Slf4j
+public class TokenRevocationList {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+    private final Cache<String, Boolean> confirmedFamilies;
+    private final Counter revokedLookups;
+    private final Counter falsePositiveLookups;
+
+    // Null until the first build: everything is a "maybe" and goes to the table
+    private volatile BloomFilter filter;
+    private final Map<String, Long> recentlyAdded = new ConcurrentHashMap<>();
+    private long previousRebuildStartedAt = System.nanoTime();
+
+    public TokenRevocationList(RefreshTokenRepository refreshTokenRepository,
+            MeterRegistry meterRegistry,
+            @Value("${security.revocation.expected-entries:100000}") long expectedEntries,
+            @Value("${security.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+            @Value("${security.revocation.confirmed-ttl:30s}") Duration confirmedTtl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.confirmedFamilies = Caffeine.newBuilder()
+                .expireAfterWrite(confirmedTtl)
+                .maximumSize(10_000)
+                .build();
+        this.revokedLookups = Counter.builder("security.revocation.lookups")
+                .description("Revocation filter hits confirmed against refresh_tokens")
+                .tag("result", "revoked")
+                .register(meterRegistry);
+        this.falsePositiveLookups = Counter.builder("security.revocation.lookups")
+                .description("Revocation filter hits confirmed against refresh_tokens")
+                .tag("result", "false_positive")
+                .register(meterRegistry);
+    }
+
+    /**
+     * False means the refresh token id was certainly never rotated or revoked.
+     */
+    public boolean mightBeInvalidated(String tokenId) {
+        var current = filter;
+        return current == null || current.mightContain(tokenId);
+    }
+
+    /**
+     * Whether access tokens of this family must be rejected. Only filter hits touch the database,
+     * and always the primary: a lagging replica would answer "not revoked" right after a logout,
+     * and that answer would be cached for confirmed-ttl.
+     */
+    @UsePrimary
+    public boolean isFamilyRevoked(String familyId) {
+        if (!mightBeInvalidated(familyId)) {
+            return false;
+        }
+        boolean revoked = confirmedFamilies.get(familyId, id ->
+                refreshTokenRepository.existsByFamilyIdAndStatus(id, RefreshToken.Status.REVOKED));
+        (revoked ? revokedLookups : falsePositiveLookups).increment();
+        return revoked;
+    }
+
+    /**
+     * Record a token id or family id invalidated by this instance.
+     */
+    public void add(String id) {
+        recentlyAdded.put(id, System.nanoTime());
+        var current = filter;
+        if (current != null) {
+            current.put(id);
+        }
+        confirmedFamilies.invalidate(id);
+        // A lookup between now and commit may have cached the old answer
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    confirmedFamilies.invalidate(id);
+                }
+            });
+        }
+    }
+
+    /**
+     * Rebuild the filter from the table and purge rows past their expiry.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${security.revocation.rebuild-interval-ms:60000}",
+            initialDelayString = "${security.revocation.rebuild-interval-ms:60000}")
+    @Transactional
+    public synchronized void rebuild() {
+        long startedAt = System.nanoTime();
+        var now = LocalDateTime.now();
+        int purged = refreshTokenRepository.deleteExpiredBefore(now);
+
+        var tokenIds = refreshTokenRepository.findInvalidatedIds(now);
+        var familyIds = refreshTokenRepository.findRevokedFamilyIds(now);
+        var next = BloomFilter.create(
+                Math.max(expectedEntries, 2L * (tokenIds.size() + familyIds.size())), falsePositiveRate);
+        tokenIds.forEach(next::put);
+        familyIds.forEach(next::put);
+
+        filter = next;
+        // Ids added while the table was read (or not yet committed then) go into the new filter too
+        recentlyAdded.keySet().forEach(next::put);
+        long keepAfter = previousRebuildStartedAt;
+        recentlyAdded.values().removeIf(addedAt -> addedAt - keepAfter < 0);
+        previousRebuildStartedAt = startedAt;
+        confirmedFamilies.invalidateAll();
+
+        log.debug("Rebuilt token revocation list: {} tokens, {} families, {} expired rows purged",
+                tokenIds.size(), familyIds.size(), purged);
+    }
+}
@@ -5,9 +5,12 @@ import com.kkst.mycinema.dto.*;
 import com.kkst.mycinema.entity.*;
 import com.kkst.mycinema.exception.*;
 import com.kkst.mycinema.repository.*;
+import com.kkst.mycinema.search.MovieCatalogChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,6 +32,7 @@ public class AdminService {
         private final SeatRepository seatRepository;
         private final ShowSeatRepository showSeatRepository;
         private final BookingRepository bookingRepository;
+        private final ApplicationEventPublisher eventPublisher;
 
         // Movie Management
         @Transactional
@@ -40,9 +44,11 @@ public class AdminService {
                                 .title(request.title())
                                 .durationMinutes(request.durationMinutes())
                                 .genre(request.genre())
+                                .description(request.description())
                                 .build();
 
                 movie = movieRepository.save(movie);
+                eventPublisher.publishEvent(MovieCatalogChangedEvent.saved(movie.getId()));
                 log.info("Movie created with ID: {}", movie.getId());
 
                 return mapToMovieResponse(movie);
@@ -59,8 +65,10 @@ public class AdminService {
                 movie.setTitle(request.title());
                 movie.setDurationMinutes(request.durationMinutes());
                 movie.setGenre(request.genre());
+                movie.setDescription(request.description());
 
                 movie = movieRepository.save(movie);
+                eventPublisher.publishEvent(MovieCatalogChangedEvent.saved(movie.getId()));
                 log.info("Movie updated: {}", id);
 
                 return mapToMovieResponse(movie);
@@ -85,6 +93,7 @@ public class AdminService {
                 }
 
                 movieRepository.deleteById(id);
+                eventPublisher.publishEvent(MovieCatalogChangedEvent.deleted(id));
                 log.info("Movie deleted: {}", id);
         }
 
@@ -144,7 +153,7 @@ public class AdminService {
                 showSeatRepository.saveAll(showSeats);
                 log.info("Show created with ID: {} with {} seats", show.getId(), showSeats.size());
 
-                return mapToShowResponse(show);
+                return ShowMapper.toShowResponse(show);
         }
 
         @Transactional
@@ -239,30 +248,26 @@ public class AdminService {
 
                 show = showRepository.save(show);
                 log.info("Show updated successfully: {}", id);
-                return mapToShowResponse(show);
+                return ShowMapper.toShowResponse(show);
         }
 
         // Analytics
         public Map<String, Object> getRevenueReport() {
                 log.info("Generating revenue report");
 
-                var allBookings = bookingRepository.findAll();
-                var confirmedBookings = allBookings.stream()
-                                .filter(b -> b.getStatus() == Booking.BookingStatus.CONFIRMED)
-                                .toList();
-
-                var totalRevenue = confirmedBookings.stream()
-                                .map(Booking::getTotalAmount)
-                                .reduce(BigDecimal.ZERO, BigDecimal::add);
+                // Aggregated in the database: loading every booking and its seats was one query per booking
+                var totalsByStatus = bookingRepository.sumByStatus().stream()
+                                .collect(Collectors.toMap(BookingRepository.BookingStatusTotals::getStatus,
+                                                t -> t));
+                var confirmed = totalsByStatus.get(Booking.BookingStatus.CONFIRMED);
+                var cancelled = totalsByStatus.get(Booking.BookingStatus.CANCELLED);
 
-                var totalBookings = confirmedBookings.size();
-                var totalSeatsBooked = confirmedBookings.stream()
-                                .mapToLong(b -> b.getBookingSeats().size())
-                                .sum();
-
-                var cancelledBookings = allBookings.stream()
-                                .filter(b -> b.getStatus() == Booking.BookingStatus.CANCELLED)
-                                .count();
+                var totalRevenue = confirmed != null && confirmed.getRevenue() != null
+                                ? confirmed.getRevenue()
+                                : BigDecimal.ZERO;
+                var totalBookings = confirmed != null ? confirmed.getBookings().intValue() : 0;
+                var totalSeatsBooked = bookingRepository.countSeatsByBookingStatus(Booking.BookingStatus.CONFIRMED);
+                var cancelledBookings = cancelled != null ? cancelled.getBookings() : 0L;
 
                 return Map.of(
                                 "totalRevenue", totalRevenue,
@@ -278,25 +283,14 @@ public class AdminService {
         public Map<String, Object> getPopularMovies() {
                 log.info("Generating popular movies report");
 
-                var allBookings = bookingRepository.findAll().stream()
-                                .filter(b -> b.getStatus() == Booking.BookingStatus.CONFIRMED)
-                                .toList();
-
-                // Group bookings by movie
-                var movieBookingCounts = allBookings.stream()
-                                .collect(Collectors.groupingBy(
-                                                b -> b.getShow().getMovie(),
-                                                Collectors.counting()));
-
-                // Sort by booking count
-                var popularMovies = movieBookingCounts.entrySet().stream()
-                                .sorted(Map.Entry.<Movie, Long>comparingByValue().reversed())
-                                .limit(10)
-                                .map(entry -> Map.of(
-                                                "movieId", entry.getKey().getId(),
-                                                "title", entry.getKey().getTitle(),
-                                                "bookingCount", entry.getValue(),
-                                                "genre", entry.getKey().getGenre()))
+                // Grouped and ranked in the database instead of walking booking -> show -> movie per row
+                var popularMovies = bookingRepository
+                                .countByMovie(Booking.BookingStatus.CONFIRMED, PageRequest.of(0, 10)).stream()
+                                .map(row -> Map.<String, Object>of(
+                                                "movieId", row.getMovieId(),
+                                                "title", row.getTitle(),
+                                                "bookingCount", row.getBookingCount(),
+                                                "genre", row.getGenre()))
                                 .toList();
 
                 return Map.of(
@@ -340,17 +334,7 @@ public class AdminService {
                                 .title(movie.getTitle())
                                 .durationMinutes(movie.getDurationMinutes())
                                 .genre(movie.getGenre())
-                                .build();
-        }
-
-        private ShowResponse mapToShowResponse(Show show) {
-                return ShowResponse.builder()
-                                .id(show.getId())
-                                .movieId(show.getMovie().getId())
-                                .movieTitle(show.getMovie().getTitle())
-                                .hallName(show.getHall().getName())
-                                .startTime(show.getStartTime())
-                                .endTime(show.getEndTime())
+                                .description(movie.getDescription())
                                 .build();
         }
 }
@@ -8,7 +8,9 @@ import com.kkst.mycinema.entity.User;
 import com.kkst.mycinema.exception.EmailAlreadyExistsException;
 import com.kkst.mycinema.exception.InvalidTokenException;
 import com.kkst.mycinema.repository.UserRepository;
+import com.kkst.mycinema.security.AuthenticatedUserCache;
 import com.kkst.mycinema.security.JwtUtil;
+import com.kkst.mycinema.security.RefreshTokenStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -29,6 +31,8 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final AuthenticatedUserCache authenticatedUserCache;
+    private final RefreshTokenStore refreshTokenStore;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -49,17 +53,18 @@ public class AuthService {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        userRepository.save(user);
+        user = userRepository.save(user);
+        authenticatedUserCache.evict(user.getEmail());
 
         // Generate tokens
-        var accessToken = jwtUtil.generateToken(user.getEmail());
-        var refreshToken = jwtUtil.generateRefreshToken(user.getEmail());
+        var refreshToken = refreshTokenStore.issue(user);
+        var accessToken = jwtUtil.generateToken(user, refreshToken.familyId());
 
         log.info("User registered successfully: {}", user.getEmail());
 
         return AuthResponse.builder()
                 .token(accessToken)
-                .refreshToken(refreshToken)
+                .refreshToken(refreshToken.token())
                 .email(user.getEmail())
                 .name(user.getName())
                 .role(user.getRoles())
@@ -83,17 +88,18 @@ public class AuthService {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        userRepository.save(user);
+        user = userRepository.save(user);
+        authenticatedUserCache.evict(user.getEmail());
 
         // Generate tokens
-        var accessToken = jwtUtil.generateToken(user.getEmail());
-        var refreshToken = jwtUtil.generateRefreshToken(user.getEmail());
+        var refreshToken = refreshTokenStore.issue(user);
+        var accessToken = jwtUtil.generateToken(user, refreshToken.familyId());
 
         log.info("Admin created successfully: {}", user.getEmail());
 
         return AuthResponse.builder()
                 .token(accessToken)
-                .refreshToken(refreshToken)
+                .refreshToken(refreshToken.token())
                 .email(user.getEmail())
                 .name(user.getName())
                 .role(user.getRoles())
@@ -101,6 +107,7 @@ public class AuthService {
                 .build();
     }
 
+    @Transactional
     public AuthResponse login(LoginRequest request) {
         // Authenticate user
         authenticationManager.authenticate(
@@ -108,18 +115,18 @@ public class AuthService {
                         request.email(),
                         request.password()));
 
+        var user = userRepository.findByEmail(request.email())
+                .orElseThrow(() -> new com.kkst.mycinema.exception.UserNotFoundException("User not found"));
+
         // If authentication is successful, generate tokens
-        var accessToken = jwtUtil.generateToken(request.email());
-        var refreshToken = jwtUtil.generateRefreshToken(request.email());
+        var refreshToken = refreshTokenStore.issue(user);
+        var accessToken = jwtUtil.generateToken(user, refreshToken.familyId());
 
         log.info("User logged in successfully: {}", request.email());
 
-        var user = userRepository.findByEmail(request.email())
-                .orElseThrow(() -> new com.kkst.mycinema.exception.UserNotFoundException("User not found"));
-
         return AuthResponse.builder()
                 .token(accessToken)
-                .refreshToken(refreshToken)
+                .refreshToken(refreshToken.token())
                 .email(user.getEmail())
                 .name(user.getName())
                 .role(user.getRoles())
@@ -128,46 +135,37 @@ public class AuthService {
     }
 
     /**
-     * Refresh access token using a valid refresh token
+     * Exchange a refresh token for a new access token and a new refresh token. The
+     * presented token is consumed; presenting it again revokes the whole session.
      */
+    @Transactional(noRollbackFor = InvalidTokenException.class)
     public AuthResponse refreshToken(RefreshTokenRequest request) {
-        String refreshToken = request.refreshToken();
-
-        // Extract username from refresh token
-        String username;
-        try {
-            username = jwtUtil.extractUsername(refreshToken);
-        } catch (Exception e) {
-            log.warn("Failed to extract username from refresh token");
-            throw new InvalidTokenException("Invalid refresh token");
-        }
-
-        // Validate refresh token
-        if (!jwtUtil.validateRefreshToken(refreshToken, username)) {
-            log.warn("Refresh token validation failed for user: {}", username);
-            throw new InvalidTokenException("Invalid or expired refresh token");
-        }
+        var rotated = refreshTokenStore.rotate(request.refreshToken());
 
-        // Verify user exists
-        if (!userRepository.existsByEmail(username)) {
-            log.warn("User not found for refresh token: {}", username);
-            throw new InvalidTokenException("User not found");
-        }
+        var user = userRepository.findById(rotated.userId())
+                .orElseThrow(() -> new InvalidTokenException("User not found"));
 
-        // Generate new access token
-        var newAccessToken = jwtUtil.generateToken(username);
+        // Generate new access token (with current id and roles)
+        var newAccessToken = jwtUtil.generateToken(user, rotated.familyId());
 
-        log.info("Access token refreshed for user: {}", username);
-
-        var user = userRepository.findByEmail(username)
-                .orElseThrow(() -> new InvalidTokenException("User not found"));
+        log.info("Tokens refreshed for user: {}", user.getEmail());
 
         return AuthResponse.builder()
                 .token(newAccessToken)
-                .email(username)
+                .refreshToken(rotated.token())
+                .email(user.getEmail())
                 .name(user.getName())
                 .role(user.getRoles())
                 .message("Token refreshed successfully")
                 .build();
     }
+
+    /**
+     * Revoke the session a refresh token belongs to, including its access tokens.
+     */
+    @Transactional
+    public void logout(RefreshTokenRequest request) {
+        refreshTokenStore.revoke(request.refreshToken());
+        log.info("Refresh token family revoked on logout");
+    }
 }
@@ -0,0 +1,53 @@
+package com.kkst.mycinema.service;
+
+import com.kkst.mycinema.dto.BookingResponse;
+import com.kkst.mycinema.entity.Booking;
+import com.kkst.mycinema.entity.ShowSeat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Booking responses and amounts. Free of Spring and repositories so the mapping
+ * can be benchmarked on synthetic data (see the benchmarks profile).
+ */
+public final class BookingMapper {
+
+    private BookingMapper() {
+    }
+
+    public static BookingResponse toBookingResponse(Booking booking, List<ShowSeat> showSeats) {
+        var seatInfos = new ArrayList<BookingResponse.SeatInfo>(showSeats.size());
+        for (ShowSeat showSeat : showSeats) {
+            seatInfos.add(new BookingResponse.SeatInfo(
+                    showSeat.getSeat().getRowNumber(),
+                    showSeat.getSeat().getSeatNumber(),
+                    showSeat.getPrice()));
+        }
+
+        var show = booking.getShow();
+        return BookingResponse.builder()
+                .bookingId(booking.getId())
+                .showId(show.getId())
+                .movieTitle(show.getMovie().getTitle())
+                .showTime(show.getStartTime())
+                .seats(Collections.unmodifiableList(seatInfos))
+                .totalAmount(booking.getTotalAmount())
+                .bookingTime(booking.getBookingTime())
+                .status(booking.getStatus().name())
+                .build();
+    }
+
+    /**
+     * Sum of the seats' prices.
+     */
+    public static BigDecimal totalAmount(List<ShowSeat> showSeats) {
+        var total = BigDecimal.ZERO;
+        for (ShowSeat showSeat : showSeats) {
+            total = total.add(showSeat.getPrice());
+        }
+        return total;
+    }
+}
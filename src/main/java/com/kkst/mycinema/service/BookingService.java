@@ -1,35 +1,41 @@
 package com.kkst.mycinema.service;
 
 import com.kkst.mycinema.config.MetricsConfig;
+import com.kkst.mycinema.config.MetricsConfig.BookingStage;
+import com.kkst.mycinema.config.TimedStage;
+import com.kkst.mycinema.datasource.UsePrimary;
 import com.kkst.mycinema.dto.BookingRequest;
 import com.kkst.mycinema.dto.BookingResponse;
 import com.kkst.mycinema.dto.CancellationResponse;
+import com.kkst.mycinema.dto.CursorPage;
 import com.kkst.mycinema.dto.PaymentConfirmationRequest;
 import com.kkst.mycinema.dto.SeatHoldResponse;
 import com.kkst.mycinema.entity.*;
 import com.kkst.mycinema.exception.*;
+import com.kkst.mycinema.notification.BookingNotificationSnapshot;
 import com.kkst.mycinema.notification.NotificationManager;
 import com.kkst.mycinema.payment.PaymentService;
 import com.kkst.mycinema.repository.*;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
 public class BookingService {
@@ -43,10 +49,34 @@ public class BookingService {
     private final MetricsConfig metricsConfig;
     private final PaymentService paymentService;
     private final NotificationManager notificationManager;
+    // The stages of confirmHoldWithPayment are called through the proxy so each gets its own read-write transaction
+    private final BookingService self;
 
     @Value("${booking.seat-hold.duration-minutes:10}")
     private int seatHoldDurationMinutes;
 
+    public BookingService(BookingRepository bookingRepository,
+            ShowSeatRepository showSeatRepository,
+            ShowRepository showRepository,
+            UserRepository userRepository,
+            BookingSeatRepository bookingSeatRepository,
+            SeatHoldRepository seatHoldRepository,
+            MetricsConfig metricsConfig,
+            PaymentService paymentService,
+            NotificationManager notificationManager,
+            @Lazy BookingService self) {
+        this.bookingRepository = bookingRepository;
+        this.showSeatRepository = showSeatRepository;
+        this.showRepository = showRepository;
+        this.userRepository = userRepository;
+        this.bookingSeatRepository = bookingSeatRepository;
+        this.seatHoldRepository = seatHoldRepository;
+        this.metricsConfig = metricsConfig;
+        this.paymentService = paymentService;
+        this.notificationManager = notificationManager;
+        this.self = self;
+    }
+
     // =====================================================
     // SEAT HOLD METHODS (New Feature)
     // =====================================================
@@ -55,9 +85,10 @@ public class BookingService {
      * Hold seats temporarily during checkout process.
      * Seats are locked for a configurable duration (default 10 minutes).
      */
+    @TimedStage(BookingStage.HOLD)
     @Transactional
-    public SeatHoldResponse holdSeats(BookingRequest request, String userEmail) {
-        log.info("Holding seats for user: {} with {} seats", userEmail, request.seatIds().size());
+    public SeatHoldResponse holdSeats(BookingRequest request, Long userId) {
+        log.info("Holding seats for user: {} with {} seats", userId, request.seatIds().size());
 
         // 1. Validate show exists and is in the future
         var show = showRepository.findById(request.showId())
@@ -67,9 +98,8 @@ public class BookingService {
             throw new InvalidBookingException("Cannot hold seats for past shows");
         }
 
-        // 2. Get user
-        var user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new UserNotFoundException("User not found with email: " + userEmail));
+        // 2. Reference the authenticated user; the id comes from the verified token, so no lookup
+        var user = userRepository.getReferenceById(userId);
 
         // 3. Fetch seats
         var showSeats = showSeatRepository.findByShowIdAndIdIn(request.showId(), request.seatIds());
@@ -81,7 +111,7 @@ public class BookingService {
 
         // 5. Check if all seats are available (not booked and not locked by others)
         var unavailableSeats = showSeats.stream()
-                .filter(seat -> !seat.isAvailable() && !seat.isLockedByUser(user.getId()))
+                .filter(seat -> !seat.isAvailable() && !seat.isLockedByUser(userId))
                 .toList();
 
         if (!unavailableSeats.isEmpty()) {
@@ -93,15 +123,13 @@ public class BookingService {
 
         // 7. Lock the seats
         for (var showSeat : showSeats) {
-            showSeat.lockForUser(user.getId(), expiresAt);
+            showSeat.lockForUser(userId, expiresAt);
         }
         showSeatRepository.saveAll(showSeats);
 
         // 8. Create hold record
         var holdToken = UUID.randomUUID().toString();
-        var seatIdsCsv = request.seatIds().stream()
-                .map(String::valueOf)
-                .collect(Collectors.joining(","));
+        var seatIdsCsv = SeatIdCodec.encode(request.seatIds());
 
         var seatHold = SeatHold.builder()
                 .holdToken(holdToken)
@@ -143,23 +171,27 @@ public class BookingService {
      *             processed
      */
     @Transactional
-    public BookingResponse confirmHold(String holdToken, String userEmail) {
-        return confirmHoldInternal(holdToken, userEmail, null);
+    public BookingResponse confirmHold(String holdToken, Long userId) {
+        return confirmHoldInternal(holdToken, userId, null);
     }
 
     /**
      * Confirm a seat hold with payment processing.
      * This is the production-ready method that processes payment before confirming
      * booking.
-     * Refactored to handle transaction boundaries correctly.
+     * Refactored to handle transaction boundaries correctly: runs outside any transaction
+     * (not the class-level read-only one, which would route the stages' writes to a read
+     * replica) and calls each stage through the proxy, so each commits on its own.
      */
-    public BookingResponse confirmHoldWithPayment(PaymentConfirmationRequest request, String userEmail) {
-        log.info("Confirming hold with payment: {} for user: {}", request.holdToken(), userEmail);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BookingResponse confirmHoldWithPayment(PaymentConfirmationRequest request, Long userId) {
+        log.info("Confirming hold with payment: {} for user: {}", request.holdToken(), userId);
 
         // 1. Initiate Payment (Lock the hold) - Transactional
         // Returns the hold ID and calculated amount to ensure we work with consistent
         // data
-        var initializationResult = initiatePayment(request.holdToken(), userEmail);
+        var initializationResult = metricsConfig.recordStage(BookingStage.INITIATE_PAYMENT,
+                () -> self.initiatePayment(request.holdToken(), userId));
         var holdId = initializationResult.holdId();
         var amount = initializationResult.amount();
 
@@ -192,21 +224,24 @@ public class BookingService {
                     .totalAmount(amount)
                     .build();
 
-            var paymentResult = paymentService.processBookingPayment(bookingForPayment, request.holdToken(),
-                    request.paymentMethod());
+            var paymentResult = metricsConfig.recordStage(BookingStage.PAYMENT_GATEWAY,
+                    () -> paymentService.processBookingPayment(bookingForPayment, request.holdToken(),
+                            request.paymentMethod()));
             transactionId = paymentResult.getTransactionId();
             log.info("Payment successful. Transaction ID: {}", transactionId);
 
         } catch (Exception e) {
             log.error("Payment processing failed or error occurred: {}", e.getMessage());
             // 2b. Revert Hold Status - Transactional
-            revertHoldStatus(holdId);
+            metricsConfig.recordStage(BookingStage.REVERT_HOLD, () -> self.revertHoldStatus(holdId));
             throw e;
         }
 
         // 3. Complete Booking - Transactional
         try {
-            return completeBooking(holdId, transactionId);
+            var completedTransactionId = transactionId;
+            return metricsConfig.recordStage(BookingStage.COMPLETE,
+                    () -> self.completeBooking(holdId, completedTransactionId));
         } catch (OptimisticLockingFailureException | SeatHoldExpiredException e) {
             // CRITICAL: Payment succeeded but Booking failed.
             // This is the "Ghost Booking" scenario.
@@ -217,7 +252,9 @@ public class BookingService {
             // AUTOMATIC REFUND IMPLEMENTATION
             try {
                 log.info("Initiating automatic refund for transaction: {}", transactionId);
-                paymentService.processRefund(transactionId, amount);
+                var refundedTransactionId = transactionId;
+                metricsConfig.recordStage(BookingStage.REFUND,
+                        () -> paymentService.processRefund(refundedTransactionId, amount));
                 log.info("Automatic refund successful for transaction: {}", transactionId);
             } catch (Exception refundEx) {
                 log.error("FATAL: Automatic refund failed for transaction: {}. Manual intervention required!",
@@ -236,15 +273,9 @@ public class BookingService {
      * Step 1 Validation & Locking
      */
     @Transactional
-    public PaymentInitResult initiatePayment(String holdToken, String userEmail) {
-        // 1. Find the hold
-        var seatHold = seatHoldRepository.findByHoldToken(holdToken)
-                .orElseThrow(() -> new SeatHoldExpiredException(holdToken, true));
-
-        // 2. Validate ownership
-        if (!seatHold.getUser().getEmail().equals(userEmail)) {
-            throw new UnauthorizedBookingAccessException("This hold does not belong to you");
-        }
+    public PaymentInitResult initiatePayment(String holdToken, Long userId) {
+        // 1-2. Find the hold, ownership checked by the query
+        var seatHold = findOwnedHold(holdToken, userId);
 
         // 3. Check if hold is active
         if (seatHold.getStatus() != SeatHold.HoldStatus.ACTIVE) {
@@ -263,14 +294,14 @@ public class BookingService {
         seatHold = seatHoldRepository.save(seatHold);
 
         // 5. Calculate amount safely inside this Tx
-        var seatIds = Arrays.stream(seatHold.getSeatIds().split(","))
-                .map(Long::parseLong)
-                .toList();
+        var seatIds = SeatIdCodec.decode(seatHold.getSeatIds());
 
         var showSeats = showSeatRepository.findByShowIdAndIdIn(seatHold.getShow().getId(), seatIds);
-        var totalAmount = showSeats.stream()
-                .map(ShowSeat::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        var totalAmount = BookingMapper.totalAmount(showSeats);
+
+        // The payment runs after this transaction; load what it reads from the user and show now
+        Hibernate.initialize(seatHold.getUser());
+        Hibernate.initialize(seatHold.getShow().getMovie());
 
         return new PaymentInitResult(seatHold.getId(), totalAmount, seatHold.getUser(), seatHold.getShow());
     }
@@ -307,9 +338,7 @@ public class BookingService {
         }
 
         // 3. Parse seat IDs
-        var seatIds = Arrays.stream(seatHold.getSeatIds().split(","))
-                .map(Long::parseLong)
-                .toList();
+        var seatIds = SeatIdCodec.decode(seatHold.getSeatIds());
 
         // 4. Get the seats
         var showSeats = showSeatRepository.findByShowIdAndIdIn(seatHold.getShow().getId(), seatIds);
@@ -326,9 +355,7 @@ public class BookingService {
         // Safer to recalculate or trust the Hold entity if we stored it (we didn't
         // store value in Hold).
         // Let's recalculate to be 100% sure we book what we record.
-        var totalAmount = showSeats.stream()
-                .map(ShowSeat::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        var totalAmount = BookingMapper.totalAmount(showSeats);
 
         var booking = Booking.builder()
                 .user(seatHold.getUser())
@@ -358,6 +385,8 @@ public class BookingService {
             bookingSeats.add(bookingSeat);
         }
         bookingSeatRepository.saveAll(bookingSeats);
+        // Keep the in-memory side of the association in sync so the notification snapshot lists the seats
+        booking.getBookingSeats().addAll(bookingSeats);
 
         // 9. Mark hold as confirmed
         seatHold.setStatus(SeatHold.HoldStatus.CONFIRMED);
@@ -368,7 +397,7 @@ public class BookingService {
 
         sendBookingConfirmationEmail(booking);
 
-        return mapToBookingResponse(booking, showSeats);
+        return BookingMapper.toBookingResponse(booking, showSeats);
     }
 
     /**
@@ -384,7 +413,7 @@ public class BookingService {
      * To support the deprecated generic confirmHold (no payment), we can keep a
      * simplified version.
      */
-    private BookingResponse confirmHoldInternal(String holdToken, String userEmail,
+    private BookingResponse confirmHoldInternal(String holdToken, Long userId,
             PaymentConfirmationRequest paymentRequest) {
         // Because we heavily refactored, the old logic is gone.
         // If confirmHold (deprecated) calls this, we should support it ONLY if payment
@@ -404,7 +433,7 @@ public class BookingService {
         // ... (Logic copied from original is too long).
         // Let's just implement it simply as "inituate + complete" without payment step.
 
-        var init = initiatePayment(holdToken, userEmail);
+        var init = initiatePayment(holdToken, userId);
         return completeBooking(init.holdId(), null);
     }
 
@@ -413,8 +442,8 @@ public class BookingService {
      */
     private void sendBookingConfirmationEmail(Booking booking) {
         try {
-            // Use NotificationManager which handles email sending asynchronously
-            notificationManager.sendBookingConfirmation(booking);
+            // Snapshot inside the transaction; the dispatcher sends it asynchronously
+            notificationManager.sendBookingConfirmation(BookingNotificationSnapshot.of(booking));
             log.info("Booking confirmation email queued for: {}", booking.getUser().getEmail());
         } catch (Exception e) {
             // Log but don't fail the booking
@@ -425,29 +454,22 @@ public class BookingService {
     /**
      * Release a seat hold (user cancelled checkout).
      */
+    @TimedStage(BookingStage.RELEASE)
     @Transactional
-    public void releaseHold(String holdToken, String userEmail) {
-        log.info("Releasing hold: {} for user: {}", holdToken, userEmail);
-
-        // 1. Find the hold
-        var seatHold = seatHoldRepository.findByHoldToken(holdToken)
-                .orElseThrow(() -> new SeatHoldExpiredException(holdToken, true));
+    public void releaseHold(String holdToken, Long userId) {
+        log.info("Releasing hold: {} for user: {}", holdToken, userId);
 
-        // 2. Validate ownership
-        if (!seatHold.getUser().getEmail().equals(userEmail)) {
-            throw new UnauthorizedBookingAccessException("This hold does not belong to you");
-        }
+        // 1-2. Find the hold, ownership checked by the query
+        var seatHold = findOwnedHold(holdToken, userId);
 
         // 3. Only release if active
         if (seatHold.getStatus() == SeatHold.HoldStatus.ACTIVE) {
             // 4. Parse seat IDs and release locks
-            var seatIds = Arrays.stream(seatHold.getSeatIds().split(","))
-                    .map(Long::parseLong)
-                    .toList();
+            var seatIds = SeatIdCodec.decode(seatHold.getSeatIds());
 
             var showSeats = showSeatRepository.findByShowIdAndIdIn(seatHold.getShow().getId(), seatIds);
             for (var seat : showSeats) {
-                if (seat.isLockedByUser(seatHold.getUser().getId())) {
+                if (seat.isLockedByUser(userId)) {
                     seat.releaseLock();
                 }
             }
@@ -461,6 +483,17 @@ public class BookingService {
         }
     }
 
+    /**
+     * Load a hold owned by the user. The existence check only runs when the lookup
+     * misses, to tell someone else's hold apart from an unknown one.
+     */
+    private SeatHold findOwnedHold(String holdToken, Long userId) {
+        return seatHoldRepository.findByTokenAndUserId(holdToken, userId)
+                .orElseThrow(() -> seatHoldRepository.existsByHoldToken(holdToken)
+                        ? new UnauthorizedBookingAccessException("This hold does not belong to you")
+                        : new SeatHoldExpiredException(holdToken, true));
+    }
+
     // =====================================================
     // DIRECT BOOKING METHODS (Original)
     // =====================================================
@@ -471,11 +504,11 @@ public class BookingService {
      * This is the core of the concurrency control mechanism
      */
     @Transactional
-    public BookingResponse bookSeats(BookingRequest request, String userEmail) {
+    public BookingResponse bookSeats(BookingRequest request, Long userId) {
         return metricsConfig.getBookingDurationTimer().record(() -> {
             try {
                 log.info("Starting booking process for user: {} with {} seats",
-                        userEmail, request.seatIds().size());
+                        userId, request.seatIds().size());
 
                 // 1. Validate show exists and is in the future
                 var show = showRepository.findById(request.showId())
@@ -485,9 +518,8 @@ public class BookingService {
                     throw new InvalidBookingException("Cannot book seats for past shows");
                 }
 
-                // 2. Get user
-                var user = userRepository.findByEmail(userEmail)
-                        .orElseThrow(() -> new UserNotFoundException("User not found with email: " + userEmail));
+                // 2. Reference the authenticated user without loading it
+                var user = userRepository.getReferenceById(userId);
 
                 // 3. Fetch seats with optimistic lock
                 var showSeats = showSeatRepository.findByShowIdAndIdIn(
@@ -508,9 +540,7 @@ public class BookingService {
                 }
 
                 // 6. Calculate total amount
-                var totalAmount = showSeats.stream()
-                        .map(ShowSeat::getPrice)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+                var totalAmount = BookingMapper.totalAmount(showSeats);
 
                 // 7. Create booking
                 var booking = Booking.builder()
@@ -542,7 +572,7 @@ public class BookingService {
                 log.info("Booking completed successfully. Booking ID: {}", booking.getId());
 
                 metricsConfig.getBookingSuccessCounter().increment();
-                return mapToBookingResponse(booking, showSeats);
+                return BookingMapper.toBookingResponse(booking, showSeats);
             } catch (Exception e) {
                 metricsConfig.getBookingFailureCounter().increment();
                 throw e;
@@ -550,18 +580,16 @@ public class BookingService {
         });
     }
 
-    public List<BookingResponse> getUserBookings(String userEmail) {
-        var user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new UserNotFoundException("User not found with email: " + userEmail));
-
-        var bookings = bookingRepository.findByUserIdOrderByBookingTimeDesc(user.getId());
+    @UsePrimary
+    public List<BookingResponse> getUserBookings(Long userId) {
+        var bookings = bookingRepository.findByUserIdOrderByBookingTimeDesc(userId);
 
         return bookings.stream()
                 .map(booking -> {
                     var showSeats = booking.getBookingSeats().stream()
                             .map(BookingSeat::getShowSeat)
                             .toList();
-                    return mapToBookingResponse(booking, showSeats);
+                    return BookingMapper.toBookingResponse(booking, showSeats);
                 })
                 .toList();
     }
@@ -569,19 +597,17 @@ public class BookingService {
     /**
      * Get user bookings with pagination support (optimized to avoid N+1 queries)
      * 
-     * @param userEmail - User's email
-     * @param pageable  - Pagination parameters (page number, size, sort)
+     * @param userId   - Authenticated user's ID
+     * @param pageable - Pagination parameters (page number, size, sort)
      * @return Page of BookingResponse
      */
-    public Page<BookingResponse> getUserBookingsPaginated(String userEmail, Pageable pageable) {
+    @UsePrimary
+    public Page<BookingResponse> getUserBookingsPaginated(Long userId, Pageable pageable) {
         log.info("Fetching paginated bookings for user: {} with page: {}, size: {}",
-                userEmail, pageable.getPageNumber(), pageable.getPageSize());
-
-        var user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new UserNotFoundException("User not found with email: " + userEmail));
+                userId, pageable.getPageNumber(), pageable.getPageSize());
 
         // First, get the paginated booking IDs
-        var bookingsPage = bookingRepository.findByUserIdOrderByBookingTimeDesc(user.getId(), pageable);
+        var bookingsPage = bookingRepository.findByUserIdOrderByBookingTimeDesc(userId, pageable);
 
         // Then fetch full details with joins to avoid N+1 queries
         if (bookingsPage.hasContent()) {
@@ -597,7 +623,7 @@ public class BookingService {
                         var showSeats = booking.getBookingSeats().stream()
                                 .map(BookingSeat::getShowSeat)
                                 .toList();
-                        return mapToBookingResponse(booking, showSeats);
+                        return BookingMapper.toBookingResponse(booking, showSeats);
                     })
                     .toList();
 
@@ -610,21 +636,63 @@ public class BookingService {
         return Page.empty(pageable);
     }
 
-    @Transactional
-    public CancellationResponse cancelBooking(Long bookingId, String userEmail) {
-        // 1. Get user
-        var user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new UserNotFoundException("User not found with email: " + userEmail));
-
-        // 2. Get booking
-        var booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new BookingNotFoundException(bookingId));
-
-        // 3. Verify booking belongs to user
-        if (!booking.getUser().getId().equals(user.getId())) {
-            throw new UnauthorizedBookingAccessException();
+    /**
+     * Get user bookings with keyset (cursor) pagination over (booking_time, id).
+     * Unlike offset pagination, every page costs the same regardless of depth,
+     * and the total count is only computed when explicitly requested.
+     *
+     * @param userId       - Authenticated user's ID
+     * @param cursor       - Cursor returned by the previous page, or null for the first page
+     * @param size         - Maximum number of bookings to return
+     * @param includeTotal - Whether to run the extra count query
+     * @return CursorPage of BookingResponse
+     */
+    @UsePrimary
+    public CursorPage<BookingResponse> getUserBookingsScroll(Long userId, String cursor, int size,
+            boolean includeTotal) {
+        var after = KeysetCursor.decode(cursor);
+        // Fetch one extra id to know whether another page exists without counting
+        var limit = PageRequest.of(0, size + 1);
+        var ids = after == null
+                ? bookingRepository.findFirstBookingIdsByUserId(userId, limit)
+                : bookingRepository.findBookingIdsByUserIdBefore(
+                        userId, after.sortKeyAsDateTime(), after.id(), limit);
+
+        boolean hasNext = ids.size() > size;
+        var pageIds = hasNext ? ids.subList(0, size) : ids;
+
+        List<Booking> bookings = List.of();
+        if (!pageIds.isEmpty()) {
+            // IN-query does not preserve order, restore the keyset order
+            var byId = bookingRepository.findByIdInWithDetails(pageIds).stream()
+                    .collect(Collectors.toMap(Booking::getId, b -> b));
+            bookings = pageIds.stream().map(byId::get).toList();
         }
 
+        var responses = bookings.stream()
+                .map(booking -> BookingMapper.toBookingResponse(booking, booking.getBookingSeats().stream()
+                        .map(BookingSeat::getShowSeat)
+                        .toList()))
+                .toList();
+
+        String nextCursor = null;
+        if (hasNext) {
+            var last = bookings.get(bookings.size() - 1);
+            nextCursor = KeysetCursor.of(last.getBookingTime(), last.getId()).encode();
+        }
+        Long total = includeTotal ? bookingRepository.countByUserId(userId) : null;
+
+        return new CursorPage<>(responses, nextCursor, hasNext, total);
+    }
+
+    @Transactional
+    public CancellationResponse cancelBooking(Long bookingId, Long userId) {
+        // 1-3. Get the booking with its seats, ownership checked by the query
+        var booking = bookingRepository.findByIdAndUserIdWithDetails(bookingId, userId)
+                .orElseThrow(() -> bookingRepository.existsById(bookingId)
+                        ? new UnauthorizedBookingAccessException()
+                        : new BookingNotFoundException(bookingId));
+
         // 4. Check if already cancelled
         if (booking.getStatus() == Booking.BookingStatus.CANCELLED) {
             throw new InvalidBookingException("Booking is already cancelled");
@@ -670,7 +738,12 @@ public class BookingService {
         bookingRepository.save(booking);
 
         // 9. Send Notification (New Step)
-        notificationManager.sendBookingCancellation(booking);
+        try {
+            notificationManager.sendBookingCancellation(BookingNotificationSnapshot.of(booking));
+        } catch (Exception e) {
+            // Log but don't fail the cancellation; the refund has already gone through
+            log.error("Failed to send booking cancellation email: {}", e.getMessage());
+        }
 
         log.info("Booking cancelled and refunded successfully. Booking ID: {}", bookingId);
 
@@ -681,24 +754,4 @@ public class BookingService {
                 .cancelledAt(now)
                 .build();
     }
-
-    private BookingResponse mapToBookingResponse(Booking booking, List<ShowSeat> showSeats) {
-        var seatInfos = showSeats.stream()
-                .map(showSeat -> new BookingResponse.SeatInfo(
-                        showSeat.getSeat().getRowNumber(),
-                        showSeat.getSeat().getSeatNumber(),
-                        showSeat.getPrice()))
-                .toList();
-
-        return BookingResponse.builder()
-                .bookingId(booking.getId())
-                .showId(booking.getShow().getId())
-                .movieTitle(booking.getShow().getMovie().getTitle())
-                .showTime(booking.getShow().getStartTime())
-                .seats(seatInfos)
-                .totalAmount(booking.getTotalAmount())
-                .bookingTime(booking.getBookingTime())
-                .status(booking.getStatus().name())
-                .build();
-    }
 }
@@ -0,0 +1,60 @@
+package com.kkst.mycinema.service;
+
+import com.kkst.mycinema.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for keyset pagination: the sort key of the last row served
+ * plus its id as a tie-breaker, base64url-encoded so clients treat it as a token.
+ */
+record KeysetCursor(String sortKey, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    static KeysetCursor of(String sortKey, Long id) {
+        return new KeysetCursor(sortKey, id);
+    }
+
+    static KeysetCursor of(LocalDateTime sortKey, Long id) {
+        return new KeysetCursor(sortKey.toString(), id);
+    }
+
+    String encode() {
+        var raw = sortKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    LocalDateTime sortKeyAsDateTime() {
+        try {
+            return LocalDateTime.parse(sortKey);
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid pagination cursor");
+        }
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode()}. Returns null for a blank
+     * cursor, which means "start from the first page".
+     */
+    static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // Title keys may contain the separator, the id never does
+            int split = raw.lastIndexOf(SEPARATOR);
+            if (split < 0) {
+                throw new InvalidCursorException("Invalid pagination cursor");
+            }
+            return new KeysetCursor(raw.substring(0, split), Long.parseLong(raw.substring(split + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid pagination cursor");
+        }
+    }
+}
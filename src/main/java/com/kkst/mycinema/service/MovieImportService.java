@@ -9,10 +9,12 @@ import com.kkst.mycinema.exception.MovieNotFoundException;
 import com.kkst.mycinema.external.ExternalMovieData;
 import com.kkst.mycinema.external.MovieDataSource;
 import com.kkst.mycinema.repository.MovieRepository;
+import com.kkst.mycinema.search.MovieCatalogChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,6 +34,7 @@ public class MovieImportService {
 
         private final MovieDataSource movieDataSource;
         private final MovieRepository movieRepository;
+        private final ApplicationEventPublisher eventPublisher;
 
         /**
          * Search for movies from the external data source.
@@ -106,11 +109,13 @@ public class MovieImportService {
                                 .title(externalData.title())
                                 .durationMinutes(externalData.runtime() != null ? externalData.runtime() : 120)
                                 .genre(genre)
+                                .description(externalData.overview())
                                 .externalSource(movieDataSource.getSourceName())
                                 .externalId(externalData.externalId())
                                 .build();
 
                 movie = movieRepository.save(movie);
+                eventPublisher.publishEvent(MovieCatalogChangedEvent.saved(movie.getId()));
 
                 log.info("Movie imported successfully: {} (ID: {}) from {} (external ID: {})",
                                 movie.getTitle(), movie.getId(), movie.getExternalSource(), movie.getExternalId());
@@ -138,6 +143,7 @@ public class MovieImportService {
                                 .title(movie.getTitle())
                                 .durationMinutes(movie.getDurationMinutes())
                                 .genre(movie.getGenre())
+                                .description(movie.getDescription())
                                 .build();
         }
 }
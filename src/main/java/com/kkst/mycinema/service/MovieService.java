@@ -1,16 +1,27 @@
 package com.kkst.mycinema.service;
 
 import com.kkst.mycinema.config.CacheConfig;
+import com.kkst.mycinema.dto.CursorPage;
 import com.kkst.mycinema.dto.MovieResponse;
+import com.kkst.mycinema.entity.Movie;
 import com.kkst.mycinema.repository.MovieRepository;
+import com.kkst.mycinema.search.MovieCatalogChangedEvent;
+import com.kkst.mycinema.search.MovieSearchIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -18,6 +29,8 @@ import java.util.List;
 public class MovieService {
 
     private final MovieRepository movieRepository;
+    private final MovieSearchIndex movieSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Cacheable(CacheConfig.MOVIES_CACHE)
     public List<MovieResponse> getAllMovies() {
@@ -34,26 +47,79 @@ public class MovieService {
     }
 
     public Page<MovieResponse> getMoviesPaginated(String query, String genre, Pageable pageable) {
-        org.springframework.data.jpa.domain.Specification<com.kkst.mycinema.entity.Movie> spec = (root, criteriaQuery,
-                cb) -> {
-            java.util.List<jakarta.persistence.criteria.Predicate> predicates = new java.util.ArrayList<>();
+        if (query != null && !query.trim().isEmpty()) {
+            return searchMovies(query.trim(), genre, pageable);
+        }
 
-            if (query != null && !query.trim().isEmpty()) {
-                String likePattern = "%" + query.trim().toLowerCase() + "%";
-                predicates.add(cb.like(cb.lower(root.get("title")), likePattern));
-            }
-
-            if (genre != null && !genre.trim().isEmpty()) {
-                predicates.add(cb.equal(cb.lower(root.get("genre")), genre.trim().toLowerCase()));
-            }
-
-            return cb.and(predicates.toArray(new jakarta.persistence.criteria.Predicate[0]));
-        };
+        Specification<Movie> spec = (root, criteriaQuery, cb) -> genre == null || genre.trim().isEmpty()
+                ? cb.conjunction()
+                : cb.equal(cb.lower(root.get("genre")), genre.trim().toLowerCase());
 
         return movieRepository.findAll(spec, pageable)
                 .map(this::mapToResponse);
     }
 
+    /**
+     * Full-text search over title and description, ordered by relevance.
+     * The requested sort is ignored: rank is the only meaningful order here.
+     */
+    private Page<MovieResponse> searchMovies(String query, String genre, Pageable pageable) {
+        var rankedIds = movieSearchIndex.search(query, genre, pageable);
+        if (!rankedIds.hasContent()) {
+            return Page.empty(pageable);
+        }
+
+        Map<Long, Movie> byId = movieRepository.findAllById(rankedIds.getContent()).stream()
+                .collect(Collectors.toMap(Movie::getId, movie -> movie));
+        var responses = rankedIds.getContent().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToResponse)
+                .toList();
+
+        return new PageImpl<>(responses, pageable, rankedIds.getTotalElements());
+    }
+
+    /**
+     * Keyset (cursor) pagination over (title, id). Each page is a bounded index
+     * range scan, so page 500 costs the same as page 1; the count query only
+     * runs when {@code includeTotal} is set.
+     */
+    public CursorPage<MovieResponse> getMoviesScroll(String genre, String cursor, int size, boolean includeTotal) {
+        Specification<Movie> filter = (root, criteriaQuery, cb) -> genre == null || genre.isBlank()
+                ? cb.conjunction()
+                : cb.equal(cb.lower(root.get("genre")), genre.trim().toLowerCase());
+
+        var after = KeysetCursor.decode(cursor);
+        Specification<Movie> page = filter;
+        if (after != null) {
+            page = filter.and((root, criteriaQuery, cb) -> cb.or(
+                    cb.greaterThan(root.get("title"), after.sortKey()),
+                    cb.and(cb.equal(root.get("title"), after.sortKey()),
+                            cb.greaterThan(root.get("id"), after.id()))));
+        }
+
+        // Fetch one extra row to know whether another page exists without counting
+        List<Movie> movies = movieRepository.findBy(page, q -> q
+                .sortBy(Sort.by("title", "id"))
+                .limit(size + 1)
+                .all());
+
+        boolean hasNext = movies.size() > size;
+        if (hasNext) {
+            movies = movies.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            var last = movies.get(movies.size() - 1);
+            nextCursor = KeysetCursor.of(last.getTitle(), last.getId()).encode();
+        }
+        Long total = includeTotal ? movieRepository.count(filter) : null;
+
+        return new CursorPage<>(movies.stream().map(this::mapToResponse).toList(), nextCursor, hasNext, total);
+    }
+
     @Transactional
     public MovieResponse createMovie(com.kkst.mycinema.dto.CreateMovieRequest request) {
         var movie = com.kkst.mycinema.entity.Movie.builder()
@@ -64,6 +130,7 @@ public class MovieService {
                 .build();
 
         movie = movieRepository.save(movie);
+        eventPublisher.publishEvent(MovieCatalogChangedEvent.saved(movie.getId()));
         return mapToResponse(movie);
     }
 
@@ -1,5 +1,7 @@
 package com.kkst.mycinema.service;
 
+import com.kkst.mycinema.config.MetricsConfig.BookingStage;
+import com.kkst.mycinema.config.TimedStage;
 import com.kkst.mycinema.entity.ShowSeat;
 import com.kkst.mycinema.repository.SeatHoldRepository;
 import com.kkst.mycinema.repository.ShowSeatRepository;
@@ -10,7 +12,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
 
 /**
  * Service responsible for cleaning up expired seat holds.
@@ -29,6 +30,7 @@ public class SeatHoldCleanupService {
      * Runs every minute by default (configurable via booking.seat-hold.cleanup-cron).
      */
     @Scheduled(cron = "${booking.seat-hold.cleanup-cron:0 * * * * *}")
+    @TimedStage(BookingStage.CLEANUP)
     @Transactional
     public void cleanupExpiredHolds() {
         var now = LocalDateTime.now();
@@ -50,9 +52,7 @@ public class SeatHoldCleanupService {
         for (var hold : expiredHolds) {
             try {
                 // Parse seat IDs
-                var seatIds = Arrays.stream(hold.getSeatIds().split(","))
-                        .map(Long::parseLong)
-                        .toList();
+                var seatIds = SeatIdCodec.decode(hold.getSeatIds());
 
                 // Get the seats
                 var showSeats = showSeatRepository.findByShowIdAndIdIn(hold.getShow().getId(), seatIds);
@@ -84,6 +84,7 @@ public class SeatHoldCleanupService {
     /**
      * Manual trigger for cleanup (can be called from admin endpoint).
      */
+    @TimedStage(BookingStage.CLEANUP)
     @Transactional
     public int manualCleanup() {
         log.info("Manual seat hold cleanup triggered");
@@ -0,0 +1,42 @@
+package com.kkst.mycinema.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The comma-separated seat id list stored in seat_holds.seat_ids. Parsing walks the
+ * string once without a regex split, substrings or boxing streams; it runs on every
+ * payment, confirmation, release and cleanup of a hold.
+ */
+public final class SeatIdCodec {
+
+    private SeatIdCodec() {
+    }
+
+    public static String encode(Collection<Long> seatIds) {
+        var csv = new StringBuilder(seatIds.size() * 8);
+        for (Long seatId : seatIds) {
+            if (!csv.isEmpty()) {
+                csv.append(',');
+            }
+            csv.append(seatId.longValue());
+        }
+        return csv.toString();
+    }
+
+    /**
+     * @throws NumberFormatException if an entry is empty or not a number
+     */
+    public static List<Long> decode(String csv) {
+        var seatIds = new ArrayList<Long>(csv.length() / 4 + 1);
+        int start = 0;
+        for (int i = 0; i <= csv.length(); i++) {
+            if (i == csv.length() || csv.charAt(i) == ',') {
+                seatIds.add(Long.parseLong(csv, start, i, 10));
+                start = i + 1;
+            }
+        }
+        return seatIds;
+    }
+}
@@ -0,0 +1,50 @@
+package com.kkst.mycinema.service;
+
+import com.kkst.mycinema.dto.SeatResponse;
+import com.kkst.mycinema.dto.ShowResponse;
+import com.kkst.mycinema.entity.Show;
+import com.kkst.mycinema.entity.ShowSeat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Show and seat-map responses. Kept free of Spring and repositories so the seat-map
+ * assembly can be benchmarked on synthetic data (see the benchmarks profile).
+ */
+public final class ShowMapper {
+
+    private ShowMapper() {
+    }
+
+    public static ShowResponse toShowResponse(Show show) {
+        return ShowResponse.builder()
+                .id(show.getId())
+                .movieId(show.getMovie().getId())
+                .movieTitle(show.getMovie().getTitle())
+                .hallName(show.getHall().getName())
+                .startTime(show.getStartTime())
+                .endTime(show.getEndTime())
+                .build();
+    }
+
+    /**
+     * Group seats by row number for easy frontend rendering.
+     */
+    public static Map<Integer, List<SeatResponse>> seatsByRow(List<ShowSeat> showSeats) {
+        return showSeats.stream()
+                .map(ShowMapper::toSeatResponse)
+                .collect(Collectors.groupingBy(SeatResponse::rowNumber));
+    }
+
+    public static SeatResponse toSeatResponse(ShowSeat showSeat) {
+        return SeatResponse.builder()
+                .seatId(showSeat.getId())
+                .rowNumber(showSeat.getSeat().getRowNumber())
+                .seatNumber(showSeat.getSeat().getSeatNumber())
+                .status(showSeat.getStatus().name())
+                .price(showSeat.getPrice())
+                .build();
+    }
+}
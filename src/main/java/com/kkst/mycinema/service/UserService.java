@@ -4,6 +4,7 @@ import com.kkst.mycinema.dto.UpdateUserRequest;
 import com.kkst.mycinema.dto.UserResponse;
 import com.kkst.mycinema.exception.UserNotFoundException;
 import com.kkst.mycinema.repository.UserRepository;
+import com.kkst.mycinema.security.AuthenticatedUserCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -15,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final AuthenticatedUserCache authenticatedUserCache;
 
     @Transactional
     public void updateProfile(String email, UpdateUserRequest request) {
@@ -31,6 +33,7 @@ public class UserService {
         // We can add it in a future migration.
 
         userRepository.save(user);
+        authenticatedUserCache.evict(email);
         log.info("Profile updated successfully for user: {}", email);
     }
 
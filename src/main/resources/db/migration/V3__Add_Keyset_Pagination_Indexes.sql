@@ -0,0 +1,7 @@
+-- Composite indexes backing keyset (cursor) pagination.
+-- The id column is the tie-breaker so each page is a single index range scan.
+CREATE INDEX idx_movies_title_id ON movies(title, id);
+
+-- Supersedes idx_bookings_user_time, which lacks the id tie-breaker
+DROP INDEX idx_bookings_user_time;
+CREATE INDEX idx_bookings_user_time_id ON bookings(user_id, booking_time DESC, id DESC);
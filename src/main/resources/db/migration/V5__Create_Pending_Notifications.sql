@@ -0,0 +1,15 @@
+-- Spill-over queue for notifications rejected by a full in-memory dispatch queue.
+-- Drained back into the dispatcher once there is capacity again.
+CREATE TABLE pending_notifications (
+    id BIGSERIAL PRIMARY KEY,
+    channel VARCHAR(30) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    recipient_name VARCHAR(255),
+    subject VARCHAR(500),
+    template_name VARCHAR(100),
+    data_json TEXT,
+    priority VARCHAR(20) NOT NULL DEFAULT 'NORMAL',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_pending_notifications_created ON pending_notifications(created_at);
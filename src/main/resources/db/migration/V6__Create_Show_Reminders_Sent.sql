@@ -0,0 +1,14 @@
+-- Checkpoint for the show-reminder job: one row per (user, show) already reminded.
+-- The job skips pairs present here, so a restart never re-sends a reminder.
+CREATE TABLE show_reminders_sent (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    show_id BIGINT NOT NULL REFERENCES shows(id) ON DELETE CASCADE,
+    sent_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_show_reminder_user_show UNIQUE (user_id, show_id)
+);
+
+CREATE INDEX idx_show_reminders_sent_at ON show_reminders_sent(sent_at);
+
+-- Reminder scan: confirmed bookings by show, walked in id order
+CREATE INDEX idx_bookings_show_status_id ON bookings(show_id, status, id);
@@ -0,0 +1,21 @@
+-- Dead-letter store for notifications every channel service failed to send.
+-- RETRYING rows are re-driven with exponential backoff; DEAD rows ran out of
+-- attempts and wait for an admin replay.
+CREATE TABLE failed_notifications (
+    id BIGSERIAL PRIMARY KEY,
+    channel VARCHAR(30) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    recipient_name VARCHAR(255),
+    subject VARCHAR(500),
+    template_name VARCHAR(100),
+    data_json TEXT,
+    priority VARCHAR(20) NOT NULL DEFAULT 'NORMAL',
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    reason VARCHAR(1000),
+    next_attempt_at TIMESTAMP,
+    last_attempt_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_failed_notifications_due ON failed_notifications(status, next_attempt_at);
@@ -0,0 +1,15 @@
+-- Refresh tokens, one row per issued token (id = the token's jti). Tokens issued from
+-- the same login share a family; using a token marks it ROTATED and issues its successor,
+-- and presenting a ROTATED token again revokes the whole family.
+CREATE TABLE refresh_tokens (
+    id VARCHAR(36) PRIMARY KEY,
+    family_id VARCHAR(36) NOT NULL,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    status VARCHAR(20) NOT NULL,
+    issued_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_refresh_tokens_family ON refresh_tokens(family_id);
+-- Revocation list rebuild and expiry purge
+CREATE INDEX idx_refresh_tokens_status_expires ON refresh_tokens(status, expires_at);
@@ -0,0 +1,12 @@
+-- Fixed-window request counters shared by all replicas when
+-- rate-limit.keyed.shared=true. Window bounds are epoch milliseconds so every
+-- replica computes the same window regardless of its time zone.
+CREATE TABLE rate_limit_counters (
+    bucket_key VARCHAR(200) NOT NULL,
+    window_start BIGINT NOT NULL,
+    expires_at BIGINT NOT NULL,
+    hits BIGINT NOT NULL,
+    PRIMARY KEY (bucket_key, window_start)
+);
+
+CREATE INDEX idx_rate_limit_counters_expires ON rate_limit_counters(expires_at);
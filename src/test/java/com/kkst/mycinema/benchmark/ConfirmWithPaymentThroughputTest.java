@@ -0,0 +1,178 @@
+package com.kkst.mycinema.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kkst.mycinema.MyCinemaApplication;
+import com.kkst.mycinema.entity.*;
+import com.kkst.mycinema.repository.*;
+import com.kkst.mycinema.security.JwtUtil;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares hold + confirm-with-payment throughput with platform threads and
+ * with virtual threads. Tomcat is capped at a small pool in both runs; the
+ * mock payment gateway sleeps 100-500ms, so with platform threads the pool
+ * size bounds throughput, while virtual threads park during the payment call.
+ *
+ * Excluded from the default build. Run with:
+ * ./mvnw test -Dsurefire.excludedGroups= -Dgroups=benchmark
+ */
+@Tag("benchmark")
+class ConfirmWithPaymentThroughputTest {
+
+    private static final int SEATS = 400;
+    private static final int CONCURRENT_CLIENTS = 100;
+    private static final int TOMCAT_MAX_THREADS = 20;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private record SeededShow(long showId, List<Long> seatIds) {
+    }
+
+    private record Result(String mode, int confirmed, int failed, Duration elapsed) {
+        double throughput() {
+            return confirmed * 1000.0 / Math.max(1, elapsed.toMillis());
+        }
+    }
+
+    @Test
+    void confirmWithPayment_PlatformVsVirtualThreads() throws Exception {
+        var platform = run(false);
+        var virtual = run(true);
+
+        for (var result : List.of(platform, virtual)) {
+            System.out.printf("%-8s confirmed=%d failed=%d elapsed=%dms throughput=%.1f bookings/s%n",
+                    result.mode(), result.confirmed(), result.failed(), result.elapsed().toMillis(),
+                    result.throughput());
+        }
+
+        assertThat(platform.confirmed()).isEqualTo(SEATS);
+        assertThat(virtual.confirmed()).isEqualTo(SEATS);
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MyCinemaApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "server.tomcat.threads.max=" + TOMCAT_MAX_THREADS,
+                        "rate-limit.keyed.limits.booking.per-user=1000000",
+                        "rate-limit.keyed.limits.booking.per-ip=1000000")
+                .run()) {
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            var seeded = seedShow(context);
+            var seatIds = seeded.seatIds();
+            var tokens = seedUsers(context, virtualThreads);
+
+            var http = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            var nextSeat = new AtomicInteger();
+            var confirmed = new AtomicInteger();
+            var failed = new AtomicInteger();
+
+            long start = System.nanoTime();
+            try (var clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (String token : tokens) {
+                    clients.submit(() -> {
+                        int index;
+                        while ((index = nextSeat.getAndIncrement()) < seatIds.size()) {
+                            if (holdAndConfirm(http, port, token, seeded.showId(), seatIds.get(index))) {
+                                confirmed.incrementAndGet();
+                            } else {
+                                failed.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    });
+                }
+            }
+            var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            return new Result(virtualThreads ? "virtual" : "platform", confirmed.get(), failed.get(), elapsed);
+        }
+    }
+
+    private boolean holdAndConfirm(HttpClient http, int port, String token, long showId, long seatId) {
+        try {
+            var hold = http.send(post(port, "/api/bookings/hold", token,
+                    "{\"showId\":" + showId + ",\"seatIds\":[" + seatId + "]}"),
+                    HttpResponse.BodyHandlers.ofString());
+            if (hold.statusCode() != 200) {
+                return false;
+            }
+            var holdToken = objectMapper.readTree(hold.body()).get("holdToken").asText();
+
+            var confirm = http.send(post(port, "/api/bookings/confirm-with-payment", token,
+                    "{\"holdToken\":\"" + holdToken + "\",\"paymentMethod\":\"CARD\","
+                            + "\"cardNumber\":\"4111111111111111\",\"cardExpiry\":\"12/30\","
+                            + "\"cardCvv\":\"123\",\"cardHolderName\":\"Bench User\"}"),
+                    HttpResponse.BodyHandlers.ofString());
+            return confirm.statusCode() == 201;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private HttpRequest post(int port, String path, String token, String body) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private SeededShow seedShow(ConfigurableApplicationContext context) {
+        var movie = context.getBean(MovieRepository.class)
+                .save(Movie.builder().title("Benchmark").durationMinutes(120).genre("Drama").build());
+        var hall = context.getBean(HallRepository.class)
+                .save(Hall.builder().name("Benchmark Hall").totalRows(SEATS / 20).totalColumns(20).build());
+        var show = context.getBean(ShowRepository.class).save(Show.builder().movie(movie).hall(hall)
+                .startTime(LocalDateTime.now().plusDays(1)).endTime(LocalDateTime.now().plusDays(1).plusHours(2))
+                .build());
+
+        var seatRepository = context.getBean(SeatRepository.class);
+        var showSeatRepository = context.getBean(ShowSeatRepository.class);
+        var ids = new ArrayList<Long>();
+        for (int i = 0; i < SEATS; i++) {
+            var seat = seatRepository.save(Seat.builder().hall(hall).rowNumber(i / 20 + 1).seatNumber(i % 20 + 1).build());
+            var showSeat = showSeatRepository.save(ShowSeat.builder().show(show).seat(seat)
+                    .price(new BigDecimal("12.00")).status(ShowSeat.SeatStatus.AVAILABLE).build());
+            ids.add(showSeat.getId());
+        }
+        return new SeededShow(show.getId(), ids);
+    }
+
+    private List<String> seedUsers(ConfigurableApplicationContext context, boolean virtualThreads) {
+        var userRepository = context.getBean(UserRepository.class);
+        var jwtUtil = context.getBean(JwtUtil.class);
+        var tokens = new ArrayList<String>();
+        for (int i = 0; i < CONCURRENT_CLIENTS; i++) {
+            var email = "bench" + i + (virtualThreads ? "-vt" : "-pt") + "@example.com";
+            var user = userRepository.save(User.builder().email(email).name("Bench " + i).password("unused")
+                    .roles("ROLE_USER").createdAt(LocalDateTime.now()).build());
+            tokens.add(jwtUtil.generateToken(user));
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,103 @@
+package com.kkst.mycinema.capture;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CaptureFormat Tests")
+class CaptureFormatTest {
+
+    private static final long BASE = 1_700_000_000_000_000L;
+
+    @Test
+    @DisplayName("Should round-trip records, including out-of-order starts and unsorted seats")
+    void writeRead_RoundTrip() throws IOException {
+        var hold = new CaptureRecord(BASE + 1_500, 12_000, CapturedEndpoint.HOLD, 200,
+                0x1234_5678_9ABC_DEF0L, 7, new long[]{105, 101, 102});
+        // Completed after the hold but started before it
+        var seatMap = new CaptureRecord(BASE + 900, 3_000, CapturedEndpoint.SEAT_MAP, 200, 0, 7, new long[0]);
+        var confirm = new CaptureRecord(BASE + 80_000, 450_000, CapturedEndpoint.CONFIRM, 402, -1L, -1, new long[0]);
+
+        var bytes = write(hold, seatMap, confirm);
+
+        try (var in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            long previous = CaptureFormat.readHeader(in);
+            assertThat(previous).isEqualTo(BASE);
+            for (CaptureRecord expected : new CaptureRecord[]{hold, seatMap, confirm}) {
+                var actual = CaptureFormat.readRecord(in, previous);
+                assertSame(actual, expected);
+                previous = actual.startMicros();
+            }
+            assertThat(CaptureFormat.readRecord(in, previous)).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should end the file at a record cut short")
+    void readRecord_Truncated_ReturnsNull() throws IOException {
+        var first = new CaptureRecord(BASE, 1_000, CapturedEndpoint.BOOK, 201, 42, 3, new long[]{10, 11});
+        var second = new CaptureRecord(BASE + 10, 1_000, CapturedEndpoint.BOOK, 409, 43, 3, new long[]{10, 11});
+        var bytes = write(first, second);
+
+        try (var in = new DataInputStream(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 3)))) {
+            long base = CaptureFormat.readHeader(in);
+            assertSame(CaptureFormat.readRecord(in, base), first);
+            assertThat(CaptureFormat.readRecord(in, first.startMicros())).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject files that are not captures")
+    void readHeader_WrongMagic_Throws() {
+        var in = new DataInputStream(new ByteArrayInputStream(new byte[]{'{', '"', 'a', '"', 0, 0, 0, 0, 0, 0, 0, 0, 0}));
+
+        assertThatThrownBy(() -> CaptureFormat.readHeader(in)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    @DisplayName("Should match only the captured booking endpoints")
+    void match_Endpoints() {
+        assertThat(CapturedEndpoint.match("GET", "/api/shows/12/seats")).isEqualTo(CapturedEndpoint.SEAT_MAP);
+        assertThat(CapturedEndpoint.match("POST", "/api/bookings/hold")).isEqualTo(CapturedEndpoint.HOLD);
+        assertThat(CapturedEndpoint.match("POST", "/api/bookings/confirm-with-payment")).isEqualTo(CapturedEndpoint.CONFIRM);
+        assertThat(CapturedEndpoint.match("DELETE", "/api/bookings/hold/HOLD-1-abc")).isEqualTo(CapturedEndpoint.RELEASE);
+        assertThat(CapturedEndpoint.match("POST", "/api/bookings")).isEqualTo(CapturedEndpoint.BOOK);
+
+        assertThat(CapturedEndpoint.match("GET", "/api/bookings")).isNull();
+        assertThat(CapturedEndpoint.match("DELETE", "/api/bookings/17")).isNull();
+        assertThat(CapturedEndpoint.match("GET", "/api/shows/12")).isNull();
+    }
+
+    private static byte[] write(CaptureRecord... records) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            CaptureFormat.writeHeader(out, BASE);
+            long previous = BASE;
+            for (CaptureRecord record : records) {
+                CaptureFormat.writeRecord(out, record, previous);
+                previous = record.startMicros();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void assertSame(CaptureRecord actual, CaptureRecord expected) {
+        assertThat(actual).isNotNull();
+        assertThat(actual.startMicros()).isEqualTo(expected.startMicros());
+        assertThat(actual.durationMicros()).isEqualTo(expected.durationMicros());
+        assertThat(actual.endpoint()).isEqualTo(expected.endpoint());
+        assertThat(actual.status()).isEqualTo(expected.status());
+        assertThat(actual.user()).isEqualTo(expected.user());
+        assertThat(actual.showId()).isEqualTo(expected.showId());
+        assertThat(actual.seatIds()).containsExactly(expected.seatIds());
+    }
+}
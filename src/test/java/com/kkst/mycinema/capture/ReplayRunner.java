@@ -0,0 +1,394 @@
+package com.kkst.mycinema.capture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-drives traffic captures (see {@link TrafficCaptureFilter}) against a running instance
+ * and compares the outcomes and latencies with the captured ones. A developer tool that
+ * lives with the tests so it never ships in the application jar; run it next to a local
+ * instance:
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.kkst.mycinema.capture.ReplayRunner \
+ *     -Dexec.args="captures/capture-20250101-120000-0.mcap --target=http://localhost:8080 --speed=10"
+ * </pre>
+ *
+ * Options:
+ * - --target=URL        instance to replay against (default http://localhost:8080)
+ * - --speed=N|max       1 replays at captured pace, 10 ten times faster, max without waiting
+ * - --show-map=A:B,...  replay captured show A against local show B; seat ids are mapped
+ *                       by rank onto B's seats. Unmapped shows keep their ids.
+ * - --report=FILE       also write the report to FILE
+ *
+ * Every anonymized user becomes a replay user, registered on first use, whose requests
+ * are sent in captured order from their own virtual thread, so one user's hold always
+ * precedes their confirm. A confirm or release uses the token of the user's last
+ * replayed hold. Captured latencies are time spent in the application; replayed ones
+ * are measured by the client and include the local network.
+ */
+public final class ReplayRunner {
+
+    private static final String PASSWORD = "Replay@2024pass";
+    private static final int TRANSPORT_ERROR = -1;
+    private static final int SKIPPED = -2;
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Options options;
+    private final HttpClient http;
+
+    private record Options(List<Path> files, String target, double speed, Map<Long, Long> showMap, Path report) {
+
+        static Options parse(String[] args) {
+            var files = new ArrayList<Path>();
+            var target = "http://localhost:8080";
+            double speed = 1;
+            var showMap = new HashMap<Long, Long>();
+            Path report = null;
+            for (String arg : args) {
+                if (arg.startsWith("--target=")) {
+                    target = arg.substring("--target=".length()).replaceAll("/+$", "");
+                } else if (arg.startsWith("--speed=")) {
+                    var value = arg.substring("--speed=".length());
+                    speed = value.equals("max") ? 0 : Double.parseDouble(value.replace("x", ""));
+                } else if (arg.startsWith("--show-map=")) {
+                    for (String pair : arg.substring("--show-map=".length()).split(",")) {
+                        var ids = pair.split(":");
+                        showMap.put(Long.parseLong(ids[0].trim()), Long.parseLong(ids[1].trim()));
+                    }
+                } else if (arg.startsWith("--report=")) {
+                    report = Path.of(arg.substring("--report=".length()));
+                } else if (arg.startsWith("--")) {
+                    throw new IllegalArgumentException("Unknown option " + arg);
+                } else {
+                    files.add(Path.of(arg));
+                }
+            }
+            if (files.isEmpty()) {
+                throw new IllegalArgumentException("Usage: ReplayRunner <capture file>... [--target=URL] "
+                        + "[--speed=1|10|max] [--show-map=captured:local,...] [--report=FILE]");
+            }
+            return new Options(files, target, speed, showMap, report);
+        }
+    }
+
+    private record Outcome(CapturedEndpoint endpoint, int capturedStatus, int replayedStatus,
+                           long capturedMicros, long replayedMicros) {
+    }
+
+    private ReplayRunner(Options options) {
+        this.options = options;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        var options = Options.parse(args);
+        var records = new ArrayList<>(CaptureReader.readAll(options.files()));
+        if (records.isEmpty()) {
+            System.out.println("No records in " + options.files());
+            return;
+        }
+        // Records are written in completion order; replay in start order
+        records.sort(Comparator.comparingLong(CaptureRecord::startMicros));
+
+        var report = new ReplayRunner(options).replay(records);
+        System.out.println(report);
+        if (options.report() != null) {
+            Files.writeString(options.report(), report);
+        }
+    }
+
+    private String replay(List<CaptureRecord> records) throws Exception {
+        var seatMapping = mapSeats(records);
+        var byUser = new LinkedHashMap<Long, List<CaptureRecord>>();
+        for (CaptureRecord record : records) {
+            byUser.computeIfAbsent(record.user(), user -> new ArrayList<>()).add(record);
+        }
+        var tokens = authenticate(byUser.keySet());
+
+        var outcomes = new ConcurrentLinkedQueue<Outcome>();
+        long baseMicros = records.get(0).startMicros();
+        long startNanos = System.nanoTime();
+        try (var users = Executors.newVirtualThreadPerTaskExecutor()) {
+            byUser.forEach((user, userRecords) -> users.submit(() -> {
+                String holdToken = null;
+                for (CaptureRecord record : userRecords) {
+                    if (options.speed() > 0) {
+                        long due = startNanos + (long) ((record.startMicros() - baseMicros) * 1_000 / options.speed());
+                        sleepNanos(due - System.nanoTime());
+                    }
+                    var result = send(record, tokens.get(user), holdToken, seatMapping);
+                    if (record.endpoint() == CapturedEndpoint.HOLD && result.token() != null) {
+                        holdToken = result.token();
+                    }
+                    outcomes.add(new Outcome(record.endpoint(), record.status(), result.status(),
+                            record.durationMicros(), result.micros()));
+                }
+                return null;
+            }));
+        }
+        var elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+        var capturedSpan = Duration.ofNanos((records.get(records.size() - 1).startMicros() - baseMicros) * 1_000);
+        return report(new ArrayList<>(outcomes), byUser.size(), elapsed, capturedSpan);
+    }
+
+    private record SendResult(int status, long micros, String token) {
+    }
+
+    private SendResult send(CaptureRecord record, String token, String holdToken, Map<Long, Long> seatMapping) {
+        var showId = options.showMap().getOrDefault(record.showId(), record.showId());
+        var seatIds = Arrays.stream(record.seatIds())
+                .map(seatId -> seatMapping.getOrDefault(seatId, seatId))
+                .boxed()
+                .toList();
+        var bookingBody = "{\"showId\":" + showId + ",\"seatIds\":" + seatIds + "}";
+
+        HttpRequest.Builder request;
+        switch (record.endpoint()) {
+            case SEAT_MAP -> request = request("/api/shows/" + showId + "/seats", token).GET();
+            case HOLD -> request = request("/api/bookings/hold", token).POST(body(bookingBody));
+            case BOOK -> request = request("/api/bookings", token).POST(body(bookingBody));
+            case CONFIRM -> {
+                if (holdToken == null) {
+                    return new SendResult(SKIPPED, 0, null);
+                }
+                request = request("/api/bookings/confirm-with-payment", token).POST(body(
+                        "{\"holdToken\":\"" + holdToken + "\",\"paymentMethod\":\"CARD\","
+                                + "\"cardNumber\":\"4111111111111111\",\"cardExpiry\":\"12/30\","
+                                + "\"cardCvv\":\"123\",\"cardHolderName\":\"Replay\"}"));
+            }
+            case RELEASE -> {
+                if (holdToken == null) {
+                    return new SendResult(SKIPPED, 0, null);
+                }
+                request = request("/api/bookings/hold/" + holdToken, token).DELETE();
+            }
+            default -> throw new IllegalStateException("Unexpected endpoint " + record.endpoint());
+        }
+
+        long start = System.nanoTime();
+        try {
+            var response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            String newHoldToken = null;
+            if (record.endpoint() == CapturedEndpoint.HOLD && response.statusCode() == 200) {
+                newHoldToken = readTree(response.body()).path("holdToken").asText(null);
+            }
+            return new SendResult(response.statusCode(), micros, newHoldToken);
+        } catch (IOException e) {
+            return new SendResult(TRANSPORT_ERROR, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new SendResult(TRANSPORT_ERROR, 0, null);
+        }
+    }
+
+    /**
+     * For each mapped show, the captured seat ids in ascending order onto the local
+     * show's seat ids in ascending order.
+     */
+    private Map<Long, Long> mapSeats(List<CaptureRecord> records) throws Exception {
+        var mapping = new HashMap<Long, Long>();
+        for (var show : options.showMap().entrySet()) {
+            var captured = new TreeSet<Long>();
+            for (CaptureRecord record : records) {
+                if (record.showId() == show.getKey()) {
+                    Arrays.stream(record.seatIds()).forEach(captured::add);
+                }
+            }
+            if (captured.isEmpty()) {
+                continue;
+            }
+            var response = http.send(request("/api/shows/" + show.getValue() + "/seats", null).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Cannot load seats of local show " + show.getValue()
+                        + ": HTTP " + response.statusCode());
+            }
+            var local = new TreeSet<Long>();
+            readTree(response.body()).path("seatsByRow").elements().forEachRemaining(row ->
+                    row.elements().forEachRemaining(seat -> local.add(seat.path("seatId").asLong())));
+            if (local.isEmpty()) {
+                throw new IllegalStateException("Local show " + show.getValue() + " has no seats");
+            }
+            var localSeats = new ArrayList<>(local);
+            int rank = 0;
+            for (Long seatId : captured) {
+                mapping.put(seatId, localSeats.get(rank++ % localSeats.size()));
+            }
+        }
+        return mapping;
+    }
+
+    /**
+     * Register (or log in) one replay user per anonymized user, before the clock starts.
+     */
+    private Map<Long, String> authenticate(Set<Long> users) throws InterruptedException {
+        var tokens = new ConcurrentHashMap<Long, String>();
+        // Password hashing is deliberately expensive; don't queue more than the instance will take
+        var permits = new Semaphore(8);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Long user : users) {
+                if (user == 0) {
+                    continue;
+                }
+                executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        tokens.put(user, token(user));
+                    } catch (Exception e) {
+                        // Their requests go out unauthenticated and show up as status differences
+                        System.err.println("Could not authenticate replay user " + Long.toHexString(user) + ": " + e);
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                });
+            }
+        }
+        return tokens;
+    }
+
+    private String token(long user) throws IOException, InterruptedException {
+        var email = "replay-" + Long.toHexString(user) + "@replay.local";
+        var register = postWithRetry("/api/auth/register",
+                "{\"name\":\"Replay " + Long.toHexString(user) + "\",\"email\":\"" + email
+                        + "\",\"password\":\"" + PASSWORD + "\"}");
+        if (register.statusCode() / 100 == 2) {
+            return readTree(register.body()).path("token").asText();
+        }
+        var login = postWithRetry("/api/auth/login",
+                "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}");
+        if (login.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Cannot log in replay user " + email + ": HTTP " + login.statusCode());
+        }
+        return readTree(login.body()).path("token").asText();
+    }
+
+    private HttpResponse<String> postWithRetry(String path, String json) throws IOException, InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            var response = http.send(request(path, null).POST(body(json)).build(), HttpResponse.BodyHandlers.ofString());
+            if ((response.statusCode() != 429 && response.statusCode() != 503) || attempt == 10) {
+                return response;
+            }
+            long seconds = response.headers().firstValueAsLong("Retry-After").orElse(1);
+            TimeUnit.SECONDS.sleep(Math.max(1, seconds));
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        var builder = HttpRequest.newBuilder(URI.create(options.target() + path))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private String report(List<Outcome> outcomes, int users, Duration elapsed, Duration capturedSpan) {
+        var out = new StringBuilder();
+        out.append(String.format("Replayed %d requests from %d users against %s at %s in %.1f s (captured span %.1f s)%n%n",
+                outcomes.size(), users, options.target(),
+                options.speed() > 0 ? options.speed() + "x" : "max speed",
+                elapsed.toMillis() / 1000.0, capturedSpan.toMillis() / 1000.0));
+        out.append(String.format("%-10s %8s %8s   %-24s %-24s%n", "Endpoint", "Requests", "Matched",
+                "Captured p50/p95/p99 ms", "Replayed p50/p95/p99 ms"));
+
+        var mismatches = new TreeMap<String, Integer>();
+        for (CapturedEndpoint endpoint : CapturedEndpoint.values()) {
+            var forEndpoint = outcomes.stream().filter(o -> o.endpoint() == endpoint).toList();
+            if (forEndpoint.isEmpty()) {
+                continue;
+            }
+            int matched = 0;
+            for (Outcome outcome : forEndpoint) {
+                if (outcome.capturedStatus() == outcome.replayedStatus()) {
+                    matched++;
+                } else {
+                    mismatches.merge(endpoint + " " + outcome.capturedStatus() + " -> "
+                            + describe(outcome.replayedStatus()), 1, Integer::sum);
+                }
+            }
+            var replayed = forEndpoint.stream()
+                    .filter(o -> o.replayedStatus() != SKIPPED)
+                    .mapToLong(Outcome::replayedMicros)
+                    .toArray();
+            out.append(String.format("%-10s %8d %8d   %-24s %-24s%n", endpoint, forEndpoint.size(), matched,
+                    percentiles(forEndpoint.stream().mapToLong(Outcome::capturedMicros).toArray()),
+                    percentiles(replayed)));
+        }
+
+        out.append(String.format("%nStatus differences (captured -> replayed):%n"));
+        if (mismatches.isEmpty()) {
+            out.append("  none\n");
+        }
+        mismatches.forEach((transition, count) -> out.append(String.format("  %-40s %d%n", transition, count)));
+        return out.toString();
+    }
+
+    private static String describe(int status) {
+        return switch (status) {
+            case TRANSPORT_ERROR -> "transport error";
+            case SKIPPED -> "skipped (no hold to use)";
+            default -> String.valueOf(status);
+        };
+    }
+
+    private static String percentiles(long[] micros) {
+        if (micros.length == 0) {
+            return "-";
+        }
+        Arrays.sort(micros);
+        return String.format("%.1f/%.1f/%.1f",
+                percentile(micros, 50), percentile(micros, 95), percentile(micros, 99));
+    }
+
+    // Nearest rank, in milliseconds
+    private static double percentile(long[] sortedMicros, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sortedMicros.length);
+        return sortedMicros[Math.max(0, rank - 1)] / 1_000.0;
+    }
+
+    private static HttpRequest.BodyPublisher body(String json) {
+        return HttpRequest.BodyPublishers.ofString(json);
+    }
+
+    private static JsonNode readTree(String body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            return objectMapper.missingNode();
+        }
+    }
+
+    private static void sleepNanos(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
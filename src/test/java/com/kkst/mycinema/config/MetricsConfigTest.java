@@ -0,0 +1,61 @@
+package com.kkst.mycinema.config;
+
+import com.kkst.mycinema.config.MetricsConfig.BookingStage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("MetricsConfig Tests")
+class MetricsConfigTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MetricsConfig metricsConfig = new MetricsConfig(meterRegistry);
+
+    @Test
+    @DisplayName("Should time a successful stage with SLO buckets")
+    void recordStage_Success_TaggedWithOutcome() {
+        var result = metricsConfig.recordStage(BookingStage.HOLD, () -> "held");
+
+        assertThat(result).isEqualTo("held");
+        var timer = meterRegistry.get("booking.stage")
+                .tags("stage", "hold", "outcome", "success", "exception", "none")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+        var buckets = Arrays.stream(timer.takeSnapshot().histogramCounts())
+                .map(bucket -> (long) bucket.bucket(TimeUnit.MILLISECONDS))
+                .toList();
+        assertThat(buckets).contains(50L, 250L, 1000L);
+    }
+
+    @Test
+    @DisplayName("Should time a failed stage and rethrow its exception")
+    void recordStage_Failure_TaggedWithException() {
+        assertThatThrownBy(() -> metricsConfig.recordStage(BookingStage.PAYMENT_GATEWAY, () -> {
+            throw new IllegalStateException("gateway down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(meterRegistry.get("booking.stage")
+                .tags("stage", "payment_gateway", "outcome", "failure", "exception", "IllegalStateException")
+                .timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should time void stages")
+    void recordStage_Runnable() {
+        var ran = new boolean[1];
+
+        metricsConfig.recordStage(BookingStage.CLEANUP, () -> {
+            ran[0] = true;
+        });
+
+        assertThat(ran[0]).isTrue();
+        assertThat(meterRegistry.get("booking.stage").tag("stage", "cleanup").timer().count()).isEqualTo(1);
+    }
+}
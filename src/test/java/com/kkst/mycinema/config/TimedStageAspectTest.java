@@ -0,0 +1,76 @@
+package com.kkst.mycinema.config;
+
+import com.kkst.mycinema.config.MetricsConfig.BookingStage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.OrderUtils;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("TimedStageAspect Tests")
+class TimedStageAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    public static class HoldStage {
+
+        @TimedStage(BookingStage.HOLD)
+        @Transactional
+        public String hold() {
+            return "held";
+        }
+    }
+
+    @Test
+    @DisplayName("Should run outside the transaction interceptor")
+    void orderedBeforeTransactions() {
+        assertThat(OrderUtils.getOrder(TimedStageAspect.class)).isLessThan(Ordered.LOWEST_PRECEDENCE);
+    }
+
+    @Test
+    @DisplayName("Should record a lock failure at commit as a failed stage")
+    void commitFailure_RecordedAsFailure() {
+        var transactionManager = mock(PlatformTransactionManager.class);
+        doThrow(new ObjectOptimisticLockingFailureException("ShowSeat", 1L)).when(transactionManager).commit(any());
+        var stage = proxy(transactionManager);
+
+        assertThatThrownBy(stage::hold).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(meterRegistry.get("booking.stage")
+                .tags("stage", "hold", "outcome", "failure", "exception", "ObjectOptimisticLockingFailureException")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("booking.stage").tag("outcome", "success").timer()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should record a committed stage as a success")
+    void committed_RecordedAsSuccess() {
+        var stage = proxy(mock(PlatformTransactionManager.class));
+
+        assertThat(stage.hold()).isEqualTo("held");
+
+        assertThat(meterRegistry.get("booking.stage")
+                .tags("stage", "hold", "outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    // Aspect first, then the transaction interceptor: the order the two @Orders give in the context
+    private HoldStage proxy(PlatformTransactionManager transactionManager) {
+        var factory = new AspectJProxyFactory(new HoldStage());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new TimedStageAspect(new MetricsConfig(meterRegistry)));
+        factory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        return factory.getProxy();
+    }
+}
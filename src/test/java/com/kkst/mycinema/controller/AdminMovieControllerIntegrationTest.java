@@ -77,8 +77,7 @@ class AdminMovieControllerIntegrationTest {
                 .name("Admin User")
                 .roles("ROLE_ADMIN")
                 .build();
-        userRepository.save(admin);
-        adminToken = jwtUtil.generateToken(admin.getEmail());
+        adminToken = jwtUtil.generateToken(userRepository.save(admin));
 
         // Create regular user
         User user = User.builder()
@@ -87,8 +86,7 @@ class AdminMovieControllerIntegrationTest {
                 .name("Regular User")
                 .roles("ROLE_USER")
                 .build();
-        userRepository.save(user);
-        userToken = jwtUtil.generateToken(user.getEmail());
+        userToken = jwtUtil.generateToken(userRepository.save(user));
     }
 
     // ==================== Search Movies Tests ====================
@@ -3,6 +3,7 @@ package com.kkst.mycinema.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.kkst.mycinema.dto.BookingRequest;
 import com.kkst.mycinema.dto.BookingResponse;
+import com.kkst.mycinema.security.AuthenticatedUser;
 import com.kkst.mycinema.security.CustomUserDetailsService;
 import com.kkst.mycinema.security.JwtAuthenticationFilter;
 import com.kkst.mycinema.security.JwtUtil;
@@ -16,8 +17,10 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -26,6 +29,7 @@ import java.util.Collections;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -54,7 +58,7 @@ class BookingControllerIntegrationTest {
         static class TestConfig {
                 @Bean
                 public JwtAuthenticationFilter jwtAuthenticationFilter() {
-                        return new JwtAuthenticationFilter(null, null) {
+                        return new JwtAuthenticationFilter(null, null, null) {
                                 @Override
                                 protected void doFilterInternal(jakarta.servlet.http.HttpServletRequest request,
                                                 jakarta.servlet.http.HttpServletResponse response,
@@ -66,6 +70,8 @@ class BookingControllerIntegrationTest {
                 }
         }
 
+        private static final Long USER_ID = 7L;
+
         private BookingRequest bookingRequest;
         private BookingResponse bookingResponse;
 
@@ -88,15 +94,23 @@ class BookingControllerIntegrationTest {
                                 .build();
         }
 
+        // The JWT filter puts an AuthenticatedUser principal in the context, which
+        // @WithMockUser does not
+        private static RequestPostProcessor authenticatedUser() {
+                var user = new AuthenticatedUser(USER_ID, "user@example.com",
+                                AuthenticatedUser.authoritiesOf("ROLE_USER"));
+                return authentication(new UsernamePasswordAuthenticationToken(user, null, user.authorities()));
+        }
+
         @Test
-        @WithMockUser(username = "user@example.com")
         void createBooking_ValidRequest_ReturnsCreated() throws Exception {
                 // Arrange
-                when(bookingService.bookSeats(any(BookingRequest.class), eq("user@example.com")))
+                when(bookingService.bookSeats(any(BookingRequest.class), eq(USER_ID)))
                                 .thenReturn(bookingResponse);
 
                 // Act & Assert
                 mockMvc.perform(post("/api/bookings")
+                                .with(authenticatedUser())
                                 .with(csrf())
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(objectMapper.writeValueAsString(bookingRequest)))
@@ -105,8 +119,8 @@ class BookingControllerIntegrationTest {
                                 .andExpect(jsonPath("$.status").value("CONFIRMED"))
                                 .andExpect(jsonPath("$.totalAmount").value(45.00));
 
-                // Verify service was called with correct user email from security context
-                verify(bookingService).bookSeats(any(BookingRequest.class), eq("user@example.com"));
+                // Verify service was called with the user id from the authenticated principal
+                verify(bookingService).bookSeats(any(BookingRequest.class), eq(USER_ID));
         }
 
         @Test
@@ -127,18 +141,17 @@ class BookingControllerIntegrationTest {
         }
 
         @Test
-        @WithMockUser(username = "user@example.com")
         void getMyBookings_ReturnsBookingsList() throws Exception {
                 // Arrange
-                when(bookingService.getUserBookings(eq("user@example.com")))
+                when(bookingService.getUserBookings(eq(USER_ID)))
                                 .thenReturn(Collections.singletonList(bookingResponse));
 
                 // Act & Assert
-                mockMvc.perform(get("/api/bookings/my-bookings"))
+                mockMvc.perform(get("/api/bookings/my-bookings").with(authenticatedUser()))
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$[0].bookingId").value(1));
 
-                verify(bookingService).getUserBookings(eq("user@example.com"));
+                verify(bookingService).getUserBookings(eq(USER_ID));
         }
 
         @Test
@@ -153,7 +166,6 @@ class BookingControllerIntegrationTest {
         }
 
         @Test
-        @WithMockUser
         void createBooking_ServiceThrowsException_ReturnsConflict() throws Exception {
                 // Arrange
                 // Note: GlobalExceptionHandler maps RuntimeException to 400 Bad Request
@@ -162,11 +174,12 @@ class BookingControllerIntegrationTest {
                 // 409.
                 // Let's use RuntimeException as in the original test which maps to 400 in
                 // current handler.
-                when(bookingService.bookSeats(any(BookingRequest.class), anyString()))
+                when(bookingService.bookSeats(any(BookingRequest.class), anyLong()))
                                 .thenThrow(new RuntimeException("Seats already booked"));
 
                 // Act & Assert
                 mockMvc.perform(post("/api/bookings")
+                                .with(authenticatedUser())
                                 .with(csrf())
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(objectMapper.writeValueAsString(bookingRequest)))
@@ -0,0 +1,155 @@
+package com.kkst.mycinema.datagen;
+
+import com.kkst.mycinema.entity.Hall;
+import com.kkst.mycinema.repository.HallRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("DatasetGenerator Tests")
+class DatasetGeneratorTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private HallRepository hallRepository;
+
+    private final Map<String, Long> baseIds = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        for (String table : DatasetGenerator.TABLES) {
+            baseIds.put(table, maxId(table));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Children first; leaves whatever other tests and the seeder created
+        for (int i = DatasetGenerator.TABLES.length - 1; i >= 0; i--) {
+            var table = DatasetGenerator.TABLES[i];
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE id > ?", baseIds.get(table));
+        }
+    }
+
+    @Test
+    @DisplayName("Should write a consistent dataset matching the summary")
+    void generate_ConsistentDataset() throws Exception {
+        var summary = new DatasetGenerator(smallDataset(), dataSource, "{noop}secret").generate();
+
+        assertThat(summary.halls()).isEqualTo(3);
+        assertThat(summary.movies()).isEqualTo(4);
+        assertThat(summary.users()).isEqualTo(20);
+        assertThat(summary.shows()).isEqualTo(15);
+        assertThat(summary.bookings()).isPositive();
+        assertThat(generatedCount("seats")).isEqualTo(summary.seats());
+        assertThat(generatedCount("show_seats")).isEqualTo(summary.showSeats());
+        assertThat(generatedCount("bookings")).isEqualTo(summary.bookings());
+        assertThat(generatedCount("booking_seats")).isEqualTo(summary.bookingSeats());
+
+        // Every show has one show seat per seat of its hall
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM shows s
+                WHERE s.id > ? AND (SELECT COUNT(*) FROM show_seats ss WHERE ss.show_id = s.id)
+                    <> (SELECT COUNT(*) FROM seats st WHERE st.hall_id = s.hall_id)
+                """, Long.class, baseIds.get("shows"))).isZero();
+
+        // Booked seats are exactly the seats of confirmed bookings
+        long bookedSeats = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM show_seats WHERE id > ? AND status = 'BOOKED'",
+                Long.class, baseIds.get("show_seats"));
+        long confirmedBookingSeats = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM booking_seats bs
+                JOIN bookings b ON b.id = bs.booking_id
+                JOIN show_seats ss ON ss.id = bs.show_seat_id
+                WHERE b.id > ? AND b.status = 'CONFIRMED' AND ss.status = 'BOOKED' AND ss.show_id = b.show_id
+                """, Long.class, baseIds.get("bookings"));
+        assertThat(confirmedBookingSeats).isEqualTo(bookedSeats);
+
+        // Booking totals are the prices of their seats
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM bookings b
+                WHERE b.id > ? AND b.total_amount <> (SELECT SUM(ss.price) FROM booking_seats bs
+                    JOIN show_seats ss ON ss.id = bs.show_seat_id WHERE bs.booking_id = b.id)
+                """, Long.class, baseIds.get("bookings"))).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT SUM(total_amount) FROM bookings WHERE id > ? AND status = 'CONFIRMED'",
+                BigDecimal.class, baseIds.get("bookings"))).isEqualByComparingTo(summary.revenue());
+    }
+
+    @Test
+    @DisplayName("Should produce the same dataset for the same seed")
+    void generate_SameSeed_SameDataset() throws Exception {
+        var first = new DatasetGenerator(smallDataset(), dataSource, "{noop}secret").generate();
+        var second = new DatasetGenerator(smallDataset(), dataSource, "{noop}secret").generate();
+
+        assertThat(second.seats()).isEqualTo(first.seats());
+        assertThat(second.showSeats()).isEqualTo(first.showSeats());
+        assertThat(second.bookings()).isEqualTo(first.bookings());
+        assertThat(second.bookingSeats()).isEqualTo(first.bookingSeats());
+        assertThat(second.revenue()).isEqualByComparingTo(first.revenue());
+
+        var otherSeed = smallDataset();
+        otherSeed.setSeed(7);
+        var third = new DatasetGenerator(otherSeed, dataSource, "{noop}secret").generate();
+        assertThat(third.bookingSeats() == first.bookingSeats() && third.revenue().compareTo(first.revenue()) == 0)
+                .isFalse();
+    }
+
+    @Test
+    @DisplayName("Should move id sequences past the generated rows")
+    void generate_AdvancesSequences() throws Exception {
+        new DatasetGenerator(smallDataset(), dataSource, "{noop}secret").generate();
+        long maxHallId = maxId("halls");
+
+        var hall = hallRepository.save(Hall.builder().name("After Datagen").totalRows(1).totalColumns(1).build());
+
+        assertThat(hall.getId()).isGreaterThan(maxHallId);
+    }
+
+    private DatagenProperties smallDataset() {
+        var properties = new DatagenProperties();
+        properties.setReferenceDate(LocalDate.of(2025, 3, 1));
+        properties.setHalls(3);
+        properties.setMinRows(3);
+        properties.setMaxRows(5);
+        properties.setMinSeatsPerRow(4);
+        properties.setMaxSeatsPerRow(8);
+        properties.setMovies(4);
+        properties.setShowsPerHall(5);
+        properties.setUsers(20);
+        properties.setOccupancy(0.6);
+        // Small enough to exercise full statements, tails and several transactions
+        properties.setBatchSize(7);
+        properties.setShowsPerTransaction(4);
+        return properties;
+    }
+
+    private long generatedCount(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE id > ?",
+                Long.class, baseIds.get(table));
+    }
+
+    private long maxId(String table) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+    }
+}
@@ -0,0 +1,48 @@
+package com.kkst.mycinema.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the number of SQL statements a piece of test code may cause, so an N+1
+ * creeping back into an endpoint fails the build instead of a production dashboard:
+ *
+ * <pre>
+ * QueryBudget.assertAtMost(1, () -> mockMvc.perform(get("/api/shows")).andExpect(status().isOk()));
+ * </pre>
+ *
+ * Counts the statements issued on the calling thread, which with MockMvc includes
+ * the whole request. Requires the counting DataSource (query-count.enabled, on by default).
+ */
+public final class QueryBudget {
+
+    private QueryBudget() {
+    }
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    /**
+     * Run the action and fail if it executed more than {@code maxStatements} statements.
+     *
+     * @return the statements actually executed
+     */
+    public static long assertAtMost(long maxStatements, Action action) throws Exception {
+        long statements = count(action);
+        assertThat(statements)
+                .as("SQL statements executed (budget %d)", maxStatements)
+                .isLessThanOrEqualTo(maxStatements);
+        return statements;
+    }
+
+    /**
+     * Run the action and return how many statements it executed.
+     */
+    public static long count(Action action) throws Exception {
+        try (var scope = QueryCounter.open()) {
+            action.run();
+            return scope.statements();
+        }
+    }
+}
@@ -67,7 +67,11 @@ public class GapAnalysisTest {
         BigDecimal amount = new BigDecimal("50.00");
 
         User user = User.builder().id(1L).email(userEmail).build();
-        Show show = Show.builder().startTime(LocalDateTime.now().plusDays(2)).build(); // Future show > 24h
+        Show show = Show.builder()
+                .movie(Movie.builder().title("Test Movie").build())
+                .hall(Hall.builder().name("Hall 1").build())
+                .startTime(LocalDateTime.now().plusDays(2)) // Future show > 24h
+                .build();
 
         Booking booking = Booking.builder()
                 .id(bookingId)
@@ -79,18 +83,19 @@ public class GapAnalysisTest {
                 .bookingSeats(List.of()) // Empty list for simplicity
                 .build();
 
-        when(userRepository.findByEmail(userEmail)).thenReturn(Optional.of(user));
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findByIdAndUserIdWithDetails(bookingId, 1L)).thenReturn(Optional.of(booking));
 
         // Act
-        bookingService.cancelBooking(bookingId, userEmail);
+        bookingService.cancelBooking(bookingId, 1L);
 
         // Assert
         // Verify refund was called
         verify(paymentService, times(1)).processRefund(transactionId, amount);
 
         // Verify notification was sent
-        verify(notificationManager, times(1)).sendBookingCancellation(booking);
+        verify(notificationManager, times(1)).sendBookingCancellation(
+                argThat(snapshot -> bookingId.equals(snapshot.bookingId())
+                        && userEmail.equals(snapshot.userEmail())));
 
         // Verify booking status updated
         assertEquals(Booking.BookingStatus.CANCELLED, booking.getStatus());
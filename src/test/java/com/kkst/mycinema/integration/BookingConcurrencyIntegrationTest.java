@@ -48,8 +48,8 @@ class BookingConcurrencyIntegrationTest {
 
     private Long showId;
     private Long seatId;
-    private String user1Email = "user1@example.com";
-    private String user2Email = "user2@example.com";
+    private Long user1Id;
+    private Long user2Id;
 
     @BeforeEach
     void setUp() {
@@ -62,8 +62,8 @@ class BookingConcurrencyIntegrationTest {
         userRepository.deleteAll();
 
         // Setup Users
-        createTestUser(user1Email, "User 1");
-        createTestUser(user2Email, "User 2");
+        user1Id = createTestUser("user1@example.com", "User 1");
+        user2Id = createTestUser("user2@example.com", "User 2");
 
         // Setup Data
         var movie = movieRepository
@@ -79,9 +79,9 @@ class BookingConcurrencyIntegrationTest {
         seatId = showSeat.getId();
     }
 
-    private void createTestUser(String email, String name) {
-        userRepository.save(User.builder().email(email).name(name).password("pw").roles("USER")
-                .createdAt(LocalDateTime.now()).build());
+    private Long createTestUser(String email, String name) {
+        return userRepository.save(User.builder().email(email).name(name).password("pw").roles("USER")
+                .createdAt(LocalDateTime.now()).build()).getId();
     }
 
     @Test
@@ -96,7 +96,7 @@ class BookingConcurrencyIntegrationTest {
             try {
                 latch.await();
                 BookingRequest request = new BookingRequest(showId, List.of(seatId));
-                bookingService.holdSeats(request, user1Email);
+                bookingService.holdSeats(request, user1Id);
                 successCount.incrementAndGet();
             } catch (Exception e) {
                 failureCount.incrementAndGet();
@@ -107,7 +107,7 @@ class BookingConcurrencyIntegrationTest {
             try {
                 latch.await();
                 BookingRequest request = new BookingRequest(showId, List.of(seatId));
-                bookingService.holdSeats(request, user2Email);
+                bookingService.holdSeats(request, user2Id);
                 successCount.incrementAndGet();
             } catch (Exception e) {
                 failureCount.incrementAndGet();
@@ -143,7 +143,7 @@ class BookingConcurrencyIntegrationTest {
             try {
                 latch.await();
                 BookingRequest request = new BookingRequest(showId, List.of(seatId));
-                bookingService.bookSeats(request, user1Email);
+                bookingService.bookSeats(request, user1Id);
                 successCount.incrementAndGet();
             } catch (Exception e) {
                 failureCount.incrementAndGet();
@@ -154,7 +154,7 @@ class BookingConcurrencyIntegrationTest {
             try {
                 latch.await();
                 BookingRequest request = new BookingRequest(showId, List.of(seatId));
-                bookingService.bookSeats(request, user2Email);
+                bookingService.bookSeats(request, user2Id);
                 successCount.incrementAndGet();
             } catch (Exception e) {
                 failureCount.incrementAndGet();
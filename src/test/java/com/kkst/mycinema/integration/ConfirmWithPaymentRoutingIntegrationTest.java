@@ -0,0 +1,103 @@
+package com.kkst.mycinema.integration;
+
+import com.kkst.mycinema.dto.BookingRequest;
+import com.kkst.mycinema.dto.PaymentConfirmationRequest;
+import com.kkst.mycinema.entity.*;
+import com.kkst.mycinema.payment.PaymentRequest.PaymentMethod;
+import com.kkst.mycinema.repository.*;
+import com.kkst.mycinema.service.BookingService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * With a replica configured, confirming a hold with payment must write through the
+ * primary. Primary and replica point at the same in-memory database here, so only
+ * the routing differs.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "app.datasource.replica.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "payment.mock.latency-min=1ms",
+        "payment.mock.latency-max=2ms",
+        "payment.mock.decline-rate=0"
+})
+@ActiveProfiles("test")
+class ConfirmWithPaymentRoutingIntegrationTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @SpyBean(name = "replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    @Autowired
+    private ShowRepository showRepository;
+    @Autowired
+    private MovieRepository movieRepository;
+    @Autowired
+    private HallRepository hallRepository;
+    @Autowired
+    private SeatRepository seatRepository;
+    @Autowired
+    private ShowSeatRepository showSeatRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long showId;
+    private Long seatId;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        var movie = movieRepository
+                .save(Movie.builder().title("Inception").durationMinutes(148).genre("Sci-Fi").build());
+        var hall = hallRepository.save(Hall.builder().name("Hall R").totalRows(10).totalColumns(10).build());
+        var show = showRepository.save(Show.builder().movie(movie).hall(hall)
+                .startTime(LocalDateTime.now().plusHours(2)).endTime(LocalDateTime.now().plusHours(4)).build());
+        showId = show.getId();
+
+        var seat = seatRepository.save(Seat.builder().hall(hall).rowNumber(1).seatNumber(1).build());
+        seatId = showSeatRepository.save(ShowSeat.builder().show(show).seat(seat).price(new BigDecimal("10.00"))
+                .status(ShowSeat.SeatStatus.AVAILABLE).build()).getId();
+
+        userId = userRepository.save(User.builder().email("routing-" + System.nanoTime() + "@example.com")
+                .name("Routing User").password("pw").roles("USER").createdAt(LocalDateTime.now()).build()).getId();
+    }
+
+    @Test
+    void readOnlyQueries_UseReplica() throws Exception {
+        clearInvocations(replicaDataSource);
+
+        showRepository.findAll();
+
+        verify(replicaDataSource, atLeastOnce()).getConnection();
+    }
+
+    @Test
+    void confirmHoldWithPayment_WritesThroughPrimary() throws Exception {
+        var hold = bookingService.holdSeats(new BookingRequest(showId, List.of(seatId)), userId);
+        clearInvocations(replicaDataSource);
+
+        var response = bookingService.confirmHoldWithPayment(PaymentConfirmationRequest.builder()
+                .holdToken(hold.holdToken())
+                .paymentMethod(PaymentMethod.CARD)
+                .build(), userId);
+
+        assertNotNull(response);
+        verify(replicaDataSource, never()).getConnection();
+        assertEquals(ShowSeat.SeatStatus.BOOKED, showSeatRepository.findById(seatId).orElseThrow().getStatus());
+    }
+}
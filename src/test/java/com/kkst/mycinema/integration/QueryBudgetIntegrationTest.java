@@ -0,0 +1,182 @@
+package com.kkst.mycinema.integration;
+
+import com.kkst.mycinema.datasource.QueryBudget;
+import com.kkst.mycinema.entity.*;
+import com.kkst.mycinema.repository.*;
+import com.kkst.mycinema.service.AdminService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Query budgets for the read paths that used to issue one query per row. The seeded
+ * data has several shows, seats and bookings, so a lazy association read per row
+ * would blow the budget.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryBudgetIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private AdminService adminService;
+
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        @Autowired
+        private MovieRepository movieRepository;
+        @Autowired
+        private HallRepository hallRepository;
+        @Autowired
+        private ShowRepository showRepository;
+        @Autowired
+        private SeatRepository seatRepository;
+        @Autowired
+        private ShowSeatRepository showSeatRepository;
+        @Autowired
+        private BookingRepository bookingRepository;
+        @Autowired
+        private UserRepository userRepository;
+
+        private Long movieId;
+        private Long showId;
+        private Long userId;
+
+        @BeforeEach
+        void setUp() {
+                bookingRepository.deleteAll();
+
+                var movie = movieRepository
+                                .save(Movie.builder().title("Arrival").durationMinutes(116).genre("Sci-Fi").build());
+                movieId = movie.getId();
+                var hall = hallRepository.save(Hall.builder().name("Budget Hall").totalRows(2).totalColumns(2).build());
+
+                List<Show> shows = new ArrayList<>();
+                for (int i = 0; i < 3; i++) {
+                        shows.add(showRepository.save(Show.builder().movie(movie).hall(hall)
+                                        .startTime(LocalDateTime.now().plusDays(2).plusHours(i * 3))
+                                        .endTime(LocalDateTime.now().plusDays(2).plusHours(i * 3 + 2)).build()));
+                }
+                var show = shows.get(0);
+                showId = show.getId();
+
+                List<ShowSeat> showSeats = new ArrayList<>();
+                for (int row = 1; row <= 2; row++) {
+                        for (int number = 1; number <= 2; number++) {
+                                var seat = seatRepository.save(
+                                                Seat.builder().hall(hall).rowNumber(row).seatNumber(number).build());
+                                showSeats.add(showSeatRepository.save(ShowSeat.builder().show(show).seat(seat)
+                                                .price(new BigDecimal("10.00"))
+                                                .status(ShowSeat.SeatStatus.AVAILABLE).build()));
+                        }
+                }
+
+                var user = userRepository.save(User.builder().email("query-budget@example.com").name("Budget")
+                                .password("pw").roles("USER").createdAt(LocalDateTime.now()).build());
+                userId = user.getId();
+
+                saveBooking(user, show, Booking.BookingStatus.CONFIRMED, showSeats.subList(0, 2));
+                saveBooking(user, show, Booking.BookingStatus.CONFIRMED, showSeats.subList(2, 3));
+                saveBooking(user, show, Booking.BookingStatus.CANCELLED, showSeats.subList(3, 4));
+        }
+
+        @AfterEach
+        void tearDown() {
+                bookingRepository.deleteAll();
+                userRepository.deleteById(userId);
+        }
+
+        private void saveBooking(User user, Show show, Booking.BookingStatus status, List<ShowSeat> seats) {
+                var booking = Booking.builder()
+                                .user(user)
+                                .show(show)
+                                .status(status)
+                                .totalAmount(new BigDecimal("10.00").multiply(BigDecimal.valueOf(seats.size())))
+                                .build();
+                seats.forEach(seat -> booking.getBookingSeats()
+                                .add(BookingSeat.builder().booking(booking).showSeat(seat).build()));
+                bookingRepository.save(booking);
+        }
+
+        @Test
+        @DisplayName("Listing shows loads movie and hall with the shows in one query")
+        void getShows_SingleQuery() throws Exception {
+                QueryBudget.assertAtMost(1, () -> mockMvc.perform(get("/api/shows"))
+                                .andExpect(status().isOk()));
+                QueryBudget.assertAtMost(1, () -> mockMvc.perform(get("/api/shows").param("movieId", movieId.toString()))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()").value(3)));
+        }
+
+        @Test
+        @DisplayName("Seat map costs the same number of queries however many seats the hall has")
+        void getShowSeats_FixedBudget() throws Exception {
+                // show, its movie, and the seats with their seat rows
+                QueryBudget.assertAtMost(3, () -> mockMvc.perform(get("/api/shows/{id}/seats", showId))
+                                .andExpect(status().isOk()));
+        }
+
+        @Test
+        @DisplayName("Request statements are recorded per endpoint")
+        void requestStatements_RecordedPerEndpoint() throws Exception {
+                mockMvc.perform(get("/api/shows")).andExpect(status().isOk());
+
+                var summary = meterRegistry.find("http.server.requests.sql.statements")
+                                .tag("method", "GET")
+                                .tag("uri", "/api/shows")
+                                .summary();
+                assertThat(summary).isNotNull();
+                assertThat(summary.count()).isPositive();
+                assertThat(summary.max()).isGreaterThanOrEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Popular movies are ranked by the database in one query")
+        @SuppressWarnings("unchecked")
+        void getPopularMovies_SingleQuery() throws Exception {
+                var report = new AtomicReference<Map<String, Object>>();
+                QueryBudget.assertAtMost(1, () -> report.set(adminService.getPopularMovies()));
+
+                var popularMovies = (List<Map<String, Object>>) report.get().get("popularMovies");
+                assertThat(popularMovies).anySatisfy(movie -> {
+                        assertThat(movie.get("movieId")).isEqualTo(movieId);
+                        assertThat(movie.get("bookingCount")).isEqualTo(2L);
+                });
+        }
+
+        @Test
+        @DisplayName("Revenue report aggregates bookings and seats without loading them")
+        void getRevenueReport_FixedBudget() throws Exception {
+                var report = new AtomicReference<Map<String, Object>>();
+                QueryBudget.assertAtMost(2, () -> report.set(adminService.getRevenueReport()));
+
+                assertThat(report.get())
+                                .containsEntry("totalBookings", 2)
+                                .containsEntry("totalSeatsBooked", 3L)
+                                .containsEntry("cancelledBookings", 1L);
+                assertThat((BigDecimal) report.get().get("totalRevenue")).isEqualByComparingTo("30.00");
+        }
+}
@@ -0,0 +1,67 @@
+package com.kkst.mycinema.integration;
+
+import com.kkst.mycinema.entity.RefreshToken;
+import com.kkst.mycinema.entity.User;
+import com.kkst.mycinema.repository.RefreshTokenRepository;
+import com.kkst.mycinema.repository.UserRepository;
+import com.kkst.mycinema.security.TokenRevocationList;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * A revoked token family must be confirmed against the primary: a lagging replica
+ * would let a logged-out family through for the whole confirmed-ttl.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "app.datasource.replica.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "payment.mock.latency-min=1ms",
+        "payment.mock.latency-max=2ms",
+        "payment.mock.decline-rate=0"
+})
+@ActiveProfiles("test")
+class TokenRevocationRoutingIntegrationTest {
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @SpyBean(name = "replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void isFamilyRevoked_ReadsPrimary() throws Exception {
+        var userId = userRepository.save(User.builder().email("revoked-" + System.nanoTime() + "@example.com")
+                .name("Revoked User").password("pw").roles("USER").createdAt(LocalDateTime.now()).build()).getId();
+        var familyId = UUID.randomUUID().toString();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .id(UUID.randomUUID().toString())
+                .familyId(familyId)
+                .userId(userId)
+                .status(RefreshToken.Status.REVOKED)
+                .issuedAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .build());
+        // As a logout on this instance would: the filter now says "maybe", so the table is asked
+        tokenRevocationList.add(familyId);
+        clearInvocations(replicaDataSource);
+
+        assertTrue(tokenRevocationList.isFamilyRevoked(familyId));
+        verify(replicaDataSource, never()).getConnection();
+    }
+}
@@ -0,0 +1,121 @@
+package com.kkst.mycinema.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Result of a load run, written as JSON (for tracking across versions) and Markdown
+ * (for reading) to the report directory:
+ * {@code <scenario>-<timestamp>.json|.md}, plus {@code <scenario>-latest.json|.md}.
+ */
+record LoadReport(String scenario,
+                  String version,
+                  String database,
+                  LocalDateTime startedAt,
+                  Duration elapsed,
+                  Map<String, Object> settings,
+                  Map<String, Long> users,
+                  long bookings,
+                  long seatsSold,
+                  long totalRequests,
+                  Map<String, Long> errors,
+                  Map<String, LoadStats.EndpointSummary> endpoints) {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    double requestsPerSecond() {
+        return perSecond(totalRequests);
+    }
+
+    double bookingsPerSecond() {
+        return perSecond(bookings);
+    }
+
+    private double perSecond(long count) {
+        return count * 1000.0 / Math.max(1, elapsed.toMillis());
+    }
+
+    Map<String, Object> toMap() {
+        var throughput = new LinkedHashMap<String, Object>();
+        throughput.put("requestsPerSecond", round(requestsPerSecond()));
+        throughput.put("bookingsPerSecond", round(bookingsPerSecond()));
+        throughput.put("seatsPerSecond", round(perSecond(seatsSold)));
+
+        var endpointMaps = new LinkedHashMap<String, Object>();
+        endpoints.forEach((name, summary) -> {
+            var endpoint = new LinkedHashMap<String, Object>();
+            endpoint.put("requests", summary.requests());
+            endpoint.put("p50Ms", round(summary.p50Ms()));
+            endpoint.put("p95Ms", round(summary.p95Ms()));
+            endpoint.put("p99Ms", round(summary.p99Ms()));
+            endpoint.put("maxMs", round(summary.maxMs()));
+            endpoint.put("outcomes", summary.outcomes());
+            endpointMaps.put(name, endpoint);
+        });
+
+        var report = new LinkedHashMap<String, Object>();
+        report.put("scenario", scenario);
+        report.put("version", version);
+        report.put("database", database);
+        report.put("startedAt", startedAt.toString());
+        report.put("elapsedMs", elapsed.toMillis());
+        report.put("settings", settings);
+        report.put("users", users);
+        report.put("bookings", bookings);
+        report.put("seatsSold", seatsSold);
+        report.put("totalRequests", totalRequests);
+        report.put("throughput", throughput);
+        report.put("errors", errors);
+        report.put("endpoints", endpointMaps);
+        return report;
+    }
+
+    String toMarkdown() {
+        var md = new StringBuilder();
+        md.append("# Load report: ").append(scenario).append("\n\n");
+        md.append("- Version: ").append(version).append('\n');
+        md.append("- Database: ").append(database).append('\n');
+        md.append("- Started: ").append(startedAt).append(", elapsed ").append(elapsed.toMillis()).append(" ms\n");
+        md.append("- Settings: ").append(settings).append('\n');
+        md.append("- Users: ").append(users).append('\n');
+        md.append(String.format("- Throughput: %.1f requests/s, %.1f bookings/s (%d bookings, %d seats)%n",
+                requestsPerSecond(), bookingsPerSecond(), bookings, seatsSold));
+        md.append("- Errors: ").append(errors.isEmpty() ? "none" : errors).append("\n\n");
+
+        md.append("| Endpoint | Requests | p50 ms | p95 ms | p99 ms | max ms | Outcomes |\n");
+        md.append("|---|---:|---:|---:|---:|---:|---|\n");
+        endpoints.forEach((name, s) -> md.append(String.format("| %s | %d | %.1f | %.1f | %.1f | %.1f | %s |%n",
+                name, s.requests(), s.p50Ms(), s.p95Ms(), s.p99Ms(), s.maxMs(), s.outcomes())));
+        return md.toString();
+    }
+
+    /**
+     * @return the timestamped JSON report
+     */
+    Path write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        var json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(toMap());
+        var markdown = toMarkdown();
+
+        var base = scenario + "-" + startedAt.format(FILE_TIMESTAMP);
+        var jsonFile = directory.resolve(base + ".json");
+        Files.writeString(jsonFile, json);
+        Files.writeString(directory.resolve(base + ".md"), markdown);
+        Files.writeString(directory.resolve(scenario + "-latest.json"), json);
+        Files.writeString(directory.resolve(scenario + "-latest.md"), markdown);
+        return jsonFile;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
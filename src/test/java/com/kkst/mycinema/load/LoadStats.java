@@ -0,0 +1,93 @@
+package com.kkst.mycinema.load;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes per endpoint, recorded by the virtual users of a load run.
+ * Every sample is kept, so percentiles are exact rather than bucketed.
+ */
+final class LoadStats {
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * @param outcome HTTP status ("200", "409") or the transport failure ("timeout", "io")
+     */
+    void record(String endpoint, long latencyNanos, String outcome) {
+        endpoints.computeIfAbsent(endpoint, name -> new Endpoint()).record(latencyNanos, outcome);
+    }
+
+    Map<String, EndpointSummary> summarize() {
+        var summaries = new TreeMap<String, EndpointSummary>();
+        endpoints.forEach((name, endpoint) -> summaries.put(name, endpoint.summarize()));
+        return summaries;
+    }
+
+    /**
+     * Failed requests across all endpoints, by outcome (non-2xx status or transport failure).
+     */
+    Map<String, Long> errors() {
+        var errors = new TreeMap<String, Long>();
+        endpoints.values().forEach(endpoint -> endpoint.outcomes.forEach((outcome, count) -> {
+            if (!outcome.startsWith("2")) {
+                errors.merge(outcome, count.sum(), Long::sum);
+            }
+        }));
+        return errors;
+    }
+
+    long totalRequests() {
+        return endpoints.values().stream().mapToLong(endpoint -> endpoint.requests.sum()).sum();
+    }
+
+    record EndpointSummary(long requests, double p50Ms, double p95Ms, double p99Ms, double maxMs,
+                           Map<String, Long> outcomes) {
+    }
+
+    private static final class Endpoint {
+        private final LongAdder requests = new LongAdder();
+        private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        private long[] latencies = new long[1024];
+        private int size;
+
+        void record(long latencyNanos, String outcome) {
+            requests.increment();
+            outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+            synchronized (this) {
+                if (size == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, size * 2);
+                }
+                latencies[size++] = latencyNanos;
+            }
+        }
+
+        EndpointSummary summarize() {
+            long[] sorted;
+            synchronized (this) {
+                sorted = Arrays.copyOf(latencies, size);
+            }
+            Arrays.sort(sorted);
+
+            var byOutcome = new LinkedHashMap<String, Long>();
+            new TreeMap<>(outcomes).forEach((outcome, count) -> byOutcome.put(outcome, count.sum()));
+            return new EndpointSummary(requests.sum(),
+                    percentileMs(sorted, 50), percentileMs(sorted, 95), percentileMs(sorted, 99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1_000_000.0,
+                    byOutcome);
+        }
+
+        // Nearest-rank percentile
+        private static double percentileMs(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+        }
+    }
+}
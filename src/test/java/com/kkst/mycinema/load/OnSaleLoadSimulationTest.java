@@ -0,0 +1,412 @@
+package com.kkst.mycinema.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kkst.mycinema.MyCinemaApplication;
+import com.kkst.mycinema.entity.*;
+import com.kkst.mycinema.repository.*;
+import com.kkst.mycinema.security.JwtUtil;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * On-sale simulation: thousands of virtual users arrive over a ramp-up window for one
+ * show, read the seat map, hold one to a few seats and pay through MockPaymentGateway.
+ * Some abandon their hold (releasing it or just walking away); users who lose a seat
+ * race, hit the rate limit or get a declined payment retry a few times. The real
+ * application is started on a random port and driven over HTTP.
+ *
+ * Excluded from the default build. Run against the h2 profile with:
+ * ./mvnw test -Pload-test
+ * ./mvnw test -Pload-test -Dload.users=5000 -Dload.payment-latency-max=2s
+ * or against a local, migrated Postgres with:
+ * ./mvnw test -Pload-test -Dload.database-url=jdbc:postgresql://localhost:5432/cinema_db
+ *     -Dload.database-username=cinema_user -Dload.database-password=cinema_pass
+ * Any -Dload.app.[property]=value is passed to the application, for example
+ * -Dload.app.spring.threads.virtual.enabled=true.
+ *
+ * Throughput, the error breakdown and p50/p95/p99 per endpoint are written to
+ * target/load-reports (see {@link LoadReport}).
+ */
+@Tag("load")
+class OnSaleLoadSimulationTest {
+
+    private static final String APP_PROPERTY_PREFIX = "load.app.";
+    private static final int SEATS_PER_ROW = 25;
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private enum Outcome {
+        CONFIRMED, ABANDONED, SOLD_OUT, GAVE_UP
+    }
+
+    private record UserResult(Outcome outcome, int seats) {
+    }
+
+    private record Settings(int users,
+                            int seats,
+                            Duration rampUp,
+                            int maxSeatsPerUser,
+                            int maxAttempts,
+                            double abandonRate,
+                            double releaseOnAbandonRate,
+                            Duration maxThinkTime,
+                            Duration paymentLatencyMin,
+                            Duration paymentLatencyMax,
+                            double declineRate,
+                            Duration requestTimeout) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    Integer.getInteger("load.users", 2000),
+                    Integer.getInteger("load.seats", 1000),
+                    duration("load.ramp-up", "10s"),
+                    Integer.getInteger("load.max-seats-per-user", 4),
+                    Integer.getInteger("load.max-attempts", 3),
+                    Double.parseDouble(System.getProperty("load.abandon-rate", "0.15")),
+                    Double.parseDouble(System.getProperty("load.release-on-abandon-rate", "0.5")),
+                    duration("load.think-time", "500ms"),
+                    duration("load.payment-latency-min", "100ms"),
+                    duration("load.payment-latency-max", "500ms"),
+                    Double.parseDouble(System.getProperty("load.decline-rate", "0.02")),
+                    duration("load.request-timeout", "30s"));
+        }
+
+        private static Duration duration(String property, String defaultValue) {
+            return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+        }
+
+        Map<String, Object> toMap() {
+            var map = new LinkedHashMap<String, Object>();
+            map.put("users", users);
+            map.put("seats", seats);
+            map.put("rampUpMs", rampUp.toMillis());
+            map.put("maxSeatsPerUser", maxSeatsPerUser);
+            map.put("maxAttempts", maxAttempts);
+            map.put("abandonRate", abandonRate);
+            map.put("releaseOnAbandonRate", releaseOnAbandonRate);
+            map.put("maxThinkTimeMs", maxThinkTime.toMillis());
+            map.put("paymentLatencyMinMs", paymentLatencyMin.toMillis());
+            map.put("paymentLatencyMaxMs", paymentLatencyMax.toMillis());
+            map.put("declineRate", declineRate);
+            map.put("requestTimeoutMs", requestTimeout.toMillis());
+            return map;
+        }
+    }
+
+    @Test
+    void onSale() throws Exception {
+        var settings = Settings.fromSystemProperties();
+        var databaseUrl = System.getProperty("load.database-url");
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MyCinemaApplication.class)
+                .profiles(databaseUrl == null ? new String[]{"h2"} : new String[0])
+                .run(applicationArguments(settings, databaseUrl))) {
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            var runId = Long.toString(System.currentTimeMillis(), 36);
+            long showId = seedShow(context, settings.seats(), runId);
+            var tokens = seedUsers(context, settings.users(), runId);
+
+            var http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            var stats = new LoadStats();
+            var outcomes = new ConcurrentHashMap<Outcome, LongAdder>();
+            var seatsSold = new LongAdder();
+
+            var startedAt = LocalDateTime.now();
+            long start = System.nanoTime();
+            try (var users = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < tokens.size(); i++) {
+                    long arrival = start + settings.rampUp().toNanos() * i / tokens.size();
+                    var user = new VirtualUser(http, stats, settings, "http://localhost:" + port, showId, tokens.get(i));
+                    users.submit(() -> {
+                        sleepNanos(arrival - System.nanoTime());
+                        var result = user.run();
+                        outcomes.computeIfAbsent(result.outcome(), outcome -> new LongAdder()).increment();
+                        seatsSold.add(result.seats());
+                        return null;
+                    });
+                }
+            }
+            var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            var userOutcomes = new LinkedHashMap<String, Long>();
+            for (Outcome outcome : Outcome.values()) {
+                var count = outcomes.get(outcome);
+                userOutcomes.put(outcome.name().toLowerCase(), count == null ? 0 : count.sum());
+            }
+            var errors = stats.errors();
+            var report = new LoadReport("onsale",
+                    System.getProperty("load.version", "unknown"),
+                    databaseUrl == null ? "h2" : databaseUrl,
+                    startedAt, elapsed, settings.toMap(), userOutcomes,
+                    userOutcomes.get("confirmed"), seatsSold.sum(),
+                    stats.totalRequests(), errors, stats.summarize());
+            var reportFile = report.write(Path.of(System.getProperty("load.report-dir", "target/load-reports")));
+            System.out.println(report.toMarkdown());
+            System.out.println("Load report written to " + reportFile.toAbsolutePath());
+
+            // Whatever the throughput, an on-sale must never sell a seat twice or lose a booking
+            var jdbc = context.getBean(JdbcTemplate.class);
+            var soldTwice = jdbc.queryForObject(
+                    "SELECT COUNT(*) - COUNT(DISTINCT bs.show_seat_id) FROM booking_seats bs "
+                            + "JOIN bookings b ON b.id = bs.booking_id "
+                            + "WHERE b.show_id = ? AND b.status = 'CONFIRMED'", Long.class, showId);
+            var booked = jdbc.queryForObject(
+                    "SELECT COUNT(*) FROM show_seats WHERE show_id = ? AND status = 'BOOKED'", Long.class, showId);
+
+            assertThat(soldTwice).as("seats sold more than once").isZero();
+            if (errors.containsKey("timeout")) {
+                // A confirmation that timed out on the client may still have completed
+                assertThat(booked).isGreaterThanOrEqualTo(seatsSold.sum());
+            } else {
+                assertThat(booked).as("booked seats vs. confirmed responses").isEqualTo(seatsSold.sum());
+            }
+            // 503 is deliberate shedding (load-shedding.*, password hashing) that clients retry
+            assertThat(errors.keySet()).as("server errors")
+                    .noneMatch(outcome -> outcome.startsWith("5") && !outcome.equals("503"));
+        }
+    }
+
+    private static String[] applicationArguments(Settings settings, String databaseUrl) {
+        var arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--payment.mock.latency-min=" + settings.paymentLatencyMin().toMillis() + "ms",
+                "--payment.mock.latency-max=" + settings.paymentLatencyMax().toMillis() + "ms",
+                "--payment.mock.decline-rate=" + settings.declineRate(),
+                // Every virtual user connects from loopback; the per-user limit still applies
+                "--rate-limit.keyed.limits.booking.per-ip=1000000",
+                // Production's booking limiter; the test properties don't configure one
+                "--load-shedding.classes.booking.paths=/api/bookings/**",
+                "--load-shedding.classes.booking.initial-limit=40",
+                "--load-shedding.classes.booking.min-limit=5",
+                "--load-shedding.classes.booking.max-limit=200",
+                "--logging.level.com.kkst.mycinema=WARN"));
+        if (databaseUrl != null) {
+            arguments.add("--spring.datasource.url=" + databaseUrl);
+            arguments.add("--spring.datasource.username=" + System.getProperty("load.database-username", "cinema_user"));
+            arguments.add("--spring.datasource.password=" + System.getProperty("load.database-password", "cinema_pass"));
+            arguments.add("--spring.datasource.driver-class-name=org.postgresql.Driver");
+            arguments.add("--spring.flyway.locations=classpath:db/migration,classpath:db/vendor/{vendor}");
+            arguments.add("--spring.flyway.baseline-on-migrate=true");
+        }
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith(APP_PROPERTY_PREFIX))
+                .sorted()
+                .forEach(name -> arguments.add("--" + name.substring(APP_PROPERTY_PREFIX.length())
+                        + "=" + System.getProperty(name)));
+        return arguments.toArray(String[]::new);
+    }
+
+    private static long seedShow(ConfigurableApplicationContext context, int seats, String runId) {
+        int rows = (seats + SEATS_PER_ROW - 1) / SEATS_PER_ROW;
+        var movie = context.getBean(MovieRepository.class)
+                .save(Movie.builder().title("On-sale " + runId).durationMinutes(150).genre("Action").build());
+        var hall = context.getBean(HallRepository.class)
+                .save(Hall.builder().name("On-sale hall " + runId).totalRows(rows).totalColumns(SEATS_PER_ROW).build());
+        var start = LocalDateTime.now().plusDays(7);
+        var show = context.getBean(ShowRepository.class)
+                .save(Show.builder().movie(movie).hall(hall).startTime(start).endTime(start.plusHours(3)).build());
+
+        var seatList = new ArrayList<Seat>(seats);
+        for (int i = 0; i < seats; i++) {
+            seatList.add(Seat.builder().hall(hall).rowNumber(i / SEATS_PER_ROW + 1)
+                    .seatNumber(i % SEATS_PER_ROW + 1).build());
+        }
+        var savedSeats = context.getBean(SeatRepository.class).saveAll(seatList);
+
+        var showSeats = new ArrayList<ShowSeat>(seats);
+        for (Seat seat : savedSeats) {
+            showSeats.add(ShowSeat.builder().show(show).seat(seat)
+                    .price(seat.getRowNumber() <= 3 ? new BigDecimal("18.00") : new BigDecimal("12.00"))
+                    .status(ShowSeat.SeatStatus.AVAILABLE).build());
+        }
+        context.getBean(ShowSeatRepository.class).saveAll(showSeats);
+        return show.getId();
+    }
+
+    private static List<String> seedUsers(ConfigurableApplicationContext context, int count, String runId) {
+        var users = new ArrayList<User>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder().email("onsale-" + runId + "-" + i + "@example.com").name("Fan " + i)
+                    .password("unused").roles("ROLE_USER").createdAt(LocalDateTime.now()).build());
+        }
+        var jwtUtil = context.getBean(JwtUtil.class);
+        return context.getBean(UserRepository.class).saveAll(users).stream()
+                .map(jwtUtil::generateToken)
+                .toList();
+    }
+
+    private static void sleepNanos(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * One fan trying to buy tickets: seat map, hold, think, then pay or abandon.
+     */
+    private static final class VirtualUser {
+        private static final String SEAT_MAP = "GET /api/shows/{id}/seats";
+        private static final String HOLD = "POST /api/bookings/hold";
+        private static final String CONFIRM = "POST /api/bookings/confirm-with-payment";
+        private static final String RELEASE = "DELETE /api/bookings/hold/{holdToken}";
+
+        private final HttpClient http;
+        private final LoadStats stats;
+        private final Settings settings;
+        private final String baseUrl;
+        private final long showId;
+        private final String token;
+
+        private VirtualUser(HttpClient http, LoadStats stats, Settings settings, String baseUrl, long showId,
+                String token) {
+            this.http = http;
+            this.stats = stats;
+            this.settings = settings;
+            this.baseUrl = baseUrl;
+            this.showId = showId;
+            this.token = token;
+        }
+
+        UserResult run() {
+            var random = ThreadLocalRandom.current();
+            for (int attempt = 0; attempt < settings.maxAttempts(); attempt++) {
+                var seatMap = send(SEAT_MAP, request("/api/shows/" + showId + "/seats").GET());
+                if (seatMap == null || seatMap.statusCode() != 200) {
+                    backOff(attempt, seatMap);
+                    continue;
+                }
+                var available = availableSeats(seatMap.body());
+                if (available.isEmpty()) {
+                    return new UserResult(Outcome.SOLD_OUT, 0);
+                }
+                var seatIds = pick(available, 1 + random.nextInt(settings.maxSeatsPerUser()), random);
+
+                var hold = send(HOLD, request("/api/bookings/hold")
+                        .POST(json("{\"showId\":" + showId + ",\"seatIds\":" + seatIds + "}")));
+                if (hold == null || hold.statusCode() != 200) {
+                    backOff(attempt, hold);
+                    continue;
+                }
+                var holdToken = readTree(hold.body()).path("holdToken").asText();
+
+                sleepNanos(random.nextLong(settings.maxThinkTime().toNanos() + 1));
+                if (random.nextDouble() < settings.abandonRate()) {
+                    if (random.nextDouble() < settings.releaseOnAbandonRate()) {
+                        send(RELEASE, request("/api/bookings/hold/" + holdToken).DELETE());
+                    }
+                    return new UserResult(Outcome.ABANDONED, 0);
+                }
+
+                var confirm = send(CONFIRM, request("/api/bookings/confirm-with-payment")
+                        .POST(json("{\"holdToken\":\"" + holdToken + "\",\"paymentMethod\":\"CARD\","
+                                + "\"cardNumber\":\"4111111111111111\",\"cardExpiry\":\"12/30\","
+                                + "\"cardCvv\":\"123\",\"cardHolderName\":\"Load Test\"}")));
+                if (confirm != null && confirm.statusCode() == 201) {
+                    return new UserResult(Outcome.CONFIRMED, seatIds.size());
+                }
+                backOff(attempt, confirm);
+            }
+            return new UserResult(Outcome.GAVE_UP, 0);
+        }
+
+        private HttpRequest.Builder request(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .timeout(settings.requestTimeout());
+        }
+
+        private HttpResponse<String> send(String endpoint, HttpRequest.Builder request) {
+            long start = System.nanoTime();
+            try {
+                var response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+                stats.record(endpoint, System.nanoTime() - start, String.valueOf(response.statusCode()));
+                return response;
+            } catch (HttpTimeoutException e) {
+                stats.record(endpoint, System.nanoTime() - start, "timeout");
+            } catch (IOException e) {
+                stats.record(endpoint, System.nanoTime() - start, "io");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }
+
+        /**
+         * Honour Retry-After on 429/503, otherwise exponential backoff with jitter.
+         */
+        private static void backOff(int attempt, HttpResponse<String> response) {
+            long millis = (100L << attempt) + ThreadLocalRandom.current().nextLong(100);
+            if (response != null) {
+                var retryAfter = response.headers().firstValueAsLong("Retry-After");
+                if (retryAfter.isPresent()) {
+                    millis = Math.min(5_000, retryAfter.getAsLong() * 1000);
+                }
+            }
+            sleepNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        private static List<Long> availableSeats(String seatMapJson) {
+            var available = new ArrayList<Long>();
+            readTree(seatMapJson).path("seatsByRow").elements().forEachRemaining(row ->
+                    row.elements().forEachRemaining(seat -> {
+                        if ("AVAILABLE".equals(seat.path("status").asText())) {
+                            available.add(seat.path("seatId").asLong());
+                        }
+                    }));
+            return available;
+        }
+
+        // Fans buy neighbouring seats, so groups compete for the same stretch of a row
+        private static List<Long> pick(List<Long> available, int count, Random random) {
+            int from = random.nextInt(Math.max(1, available.size() - count + 1));
+            return new ArrayList<>(available.subList(from, Math.min(available.size(), from + count)));
+        }
+
+        private static HttpRequest.BodyPublisher json(String body) {
+            return HttpRequest.BodyPublishers.ofString(body);
+        }
+
+        private static JsonNode readTree(String body) {
+            try {
+                return objectMapper.readTree(body);
+            } catch (IOException e) {
+                return objectMapper.missingNode();
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.kkst.mycinema.loadshedding;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AdaptiveLimit Tests")
+class AdaptiveLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    @DisplayName("AIMD should grow by one per fast request while the limit is in use")
+    void aimd_FastAndBusy_Increases() {
+        var limit = new AimdLimit(10, 2, 20, Duration.ofMillis(50), 0.9);
+
+        limit.onSample(FAST, 10, false);
+
+        assertThat(limit.limit()).isEqualTo(11);
+    }
+
+    @Test
+    @DisplayName("AIMD should not grow while most of the limit is unused")
+    void aimd_AppLimited_Unchanged() {
+        var limit = new AimdLimit(10, 2, 20, Duration.ofMillis(50), 0.9);
+
+        limit.onSample(FAST, 2, false);
+
+        assertThat(limit.limit()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("AIMD should back off on slow requests and pool congestion, down to the minimum")
+    void aimd_SlowOrCongested_Decreases() {
+        var limit = new AimdLimit(10, 2, 20, Duration.ofMillis(50), 0.9);
+
+        limit.onSample(SLOW, 10, false);
+        assertThat(limit.limit()).isEqualTo(9);
+        limit.onSample(FAST, 9, true);
+        assertThat(limit.limit()).isEqualTo(8);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(SLOW, 8, true);
+        }
+        assertThat(limit.limit()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Gradient should grow while latency is steady and the limit is in use")
+    void gradient_SteadyLatency_Increases() {
+        var limit = new GradientLimit(20, 5, 100, 1.5);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(FAST, limit.limit(), false);
+        }
+
+        assertThat(limit.limit()).isGreaterThan(20).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Gradient should not grow while most of the limit is unused")
+    void gradient_AppLimited_Unchanged() {
+        var limit = new GradientLimit(20, 5, 100, 1.5);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(FAST, 1, false);
+        }
+
+        assertThat(limit.limit()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Gradient should shrink when latency rises above the baseline")
+    void gradient_LatencyRises_Decreases() {
+        var limit = new GradientLimit(20, 5, 100, 1.5);
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(FAST, limit.limit(), false);
+        }
+        int before = limit.limit();
+
+        for (int i = 0; i < 30; i++) {
+            limit.onSample(SLOW, limit.limit(), false);
+        }
+
+        assertThat(limit.limit()).isLessThan(before / 2).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Gradient should shrink on pool congestion even at steady latency")
+    void gradient_Congested_Decreases() {
+        var limit = new GradientLimit(50, 5, 100, 1.5);
+
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(FAST, limit.limit(), true);
+        }
+
+        assertThat(limit.limit()).isLessThan(50);
+    }
+}
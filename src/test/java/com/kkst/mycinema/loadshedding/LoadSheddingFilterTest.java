@@ -0,0 +1,161 @@
+package com.kkst.mycinema.loadshedding;
+
+import com.kkst.mycinema.datasource.ReplicaRoutingDataSource;
+import com.kkst.mycinema.exception.ServiceOverloadedException;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("LoadSheddingFilter Tests")
+class LoadSheddingFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HandlerExceptionResolver exceptionResolver = mock(HandlerExceptionResolver.class);
+    private final AtomicInteger passed = new AtomicInteger();
+    private final FilterChain countingChain = (request, response) -> passed.incrementAndGet();
+
+    @BeforeEach
+    void setUp() {
+        when(exceptionResolver.resolveException(any(), any(), any(), any())).thenReturn(new ModelAndView());
+    }
+
+    @Test
+    @DisplayName("Should shed a request over the class's limit and admit again once a slot is free")
+    void doFilter_OverLimit_Shed() throws Exception {
+        var filter = filter(mock(DataSource.class));
+        var inner = booking();
+
+        filter.doFilter(booking(), new MockHttpServletResponse(),
+                (request, response) -> filter.doFilter(inner, new MockHttpServletResponse(), countingChain));
+
+        assertThat(passed).hasValue(0);
+        verify(exceptionResolver).resolveException(eq(inner), any(), isNull(),
+                argThat(e -> e instanceof ServiceOverloadedException overloaded
+                        && overloaded.getRetryAfter().equals(Duration.ofSeconds(2))));
+        assertThat(meterRegistry.get("load.shedding.rejected")
+                .tags("class", "booking", "reason", "limit").counter().count()).isEqualTo(1);
+
+        filter.doFilter(booking(), new MockHttpServletResponse(), countingChain);
+        assertThat(passed).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should not limit requests outside the configured classes")
+    void doFilter_UnmatchedPath_NotLimited() throws Exception {
+        var filter = filter(mock(DataSource.class));
+
+        filter.doFilter(booking(), new MockHttpServletResponse(), (request, response) ->
+                filter.doFilter(new MockHttpServletRequest("GET", "/api/movies"), new MockHttpServletResponse(),
+                        countingChain));
+
+        assertThat(passed).hasValue(1);
+        verify(exceptionResolver, never()).resolveException(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should shed matched requests while too many threads wait for a database connection")
+    void doFilter_PoolSaturated_Shed() throws Exception {
+        var mxBean = mock(HikariPoolMXBean.class);
+        when(mxBean.getThreadsAwaitingConnection()).thenReturn(4);
+        var pool = mock(HikariDataSource.class);
+        when(pool.getHikariPoolMXBean()).thenReturn(mxBean);
+        var dataSource = mock(DataSource.class);
+        when(dataSource.isWrapperFor(HikariDataSource.class)).thenReturn(true);
+        when(dataSource.unwrap(HikariDataSource.class)).thenReturn(pool);
+        var filter = filter(dataSource);
+
+        filter.doFilter(booking(), new MockHttpServletResponse(), countingChain);
+
+        assertThat(passed).hasValue(0);
+        assertThat(meterRegistry.get("load.shedding.rejected")
+                .tags("class", "booking", "reason", "pool_saturated").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("load.shedding.pool.waiters").gauge().value()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should watch the primary pool when reads are routed to a replica")
+    void doFilter_ReplicaConfigured_WatchesPrimaryPool() throws Exception {
+        var mxBean = mock(HikariPoolMXBean.class);
+        when(mxBean.getThreadsAwaitingConnection()).thenReturn(4);
+        var primary = mock(HikariDataSource.class);
+        when(primary.isWrapperFor(HikariDataSource.class)).thenReturn(true);
+        when(primary.unwrap(HikariDataSource.class)).thenReturn(primary);
+        when(primary.getHikariPoolMXBean()).thenReturn(mxBean);
+        // Same shape as ReadReplicaDataSourceConfig
+        var routing = new LazyConnectionDataSourceProxy();
+        routing.setTargetDataSource(
+                new ReplicaRoutingDataSource(primary, mock(HikariDataSource.class), Duration.ofSeconds(30)));
+        var filter = filter(routing);
+
+        filter.doFilter(booking(), new MockHttpServletResponse(), countingChain);
+
+        assertThat(passed).hasValue(0);
+        assertThat(meterRegistry.get("load.shedding.pool.waiters").gauge().value()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should not feed requests that end in a 4xx into the limit")
+    void doFilter_ClientError_NotSampled() throws Exception {
+        var booking = new LoadSheddingProperties.EndpointClass();
+        booking.setPaths(List.of("/api/bookings/**"));
+        booking.setInitialLimit(1);
+        booking.setMinLimit(1);
+        booking.setMaxLimit(10);
+        var properties = new LoadSheddingProperties();
+        properties.setAlgorithm(LoadSheddingProperties.Algorithm.AIMD);
+        properties.getClasses().put("booking", booking);
+        var filter = new LoadSheddingFilter(properties, mock(DataSource.class), meterRegistry, exceptionResolver);
+        var limit = meterRegistry.get("load.shedding.limit").tag("class", "booking").gauge();
+
+        filter.doFilter(booking(), new MockHttpServletResponse(),
+                (request, response) -> ((MockHttpServletResponse) response).setStatus(429));
+
+        assertThat(limit.value()).isEqualTo(1);
+        assertThat(meterRegistry.get("load.shedding.inflight").tag("class", "booking").gauge().value()).isZero();
+
+        // A fast success at full use grows the AIMD limit
+        filter.doFilter(booking(), new MockHttpServletResponse(), countingChain);
+        assertThat(limit.value()).isEqualTo(2);
+    }
+
+    private LoadSheddingFilter filter(DataSource dataSource) {
+        var booking = new LoadSheddingProperties.EndpointClass();
+        booking.setPaths(List.of("/api/bookings/**"));
+        booking.setInitialLimit(1);
+        booking.setMinLimit(1);
+        booking.setMaxLimit(1);
+        var properties = new LoadSheddingProperties();
+        properties.getClasses().put("booking", booking);
+        properties.setMaxPoolWaiters(3);
+        properties.setRetryAfter(Duration.ofSeconds(2));
+        return new LoadSheddingFilter(properties, dataSource, meterRegistry, exceptionResolver);
+    }
+
+    private static MockHttpServletRequest booking() {
+        return new MockHttpServletRequest("POST", "/api/bookings/hold");
+    }
+}
@@ -0,0 +1,110 @@
+package com.kkst.mycinema.notification;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kkst.mycinema.entity.FailedNotification;
+import com.kkst.mycinema.repository.FailedNotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static java.time.temporal.ChronoUnit.SECONDS;
+import static org.mockito.Mockito.*;
+
+@DisplayName("FailedNotificationStore Tests")
+class FailedNotificationStoreTest {
+
+    private FailedNotificationRepository repository;
+    private FailedNotificationStore store;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(FailedNotificationRepository.class);
+
+        var properties = new NotificationDispatchProperties();
+        properties.getDeadLetter().setMaxAttempts(3);
+        properties.getDeadLetter().setInitialBackoff(Duration.ofMinutes(1));
+        properties.getDeadLetter().setMaxBackoff(Duration.ofMinutes(3));
+
+        store = new FailedNotificationStore(repository, properties, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Should double the backoff per attempt up to the maximum")
+    void backoff_IsExponentialAndCapped() {
+        assertThat(store.backoff(1)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(store.backoff(2)).isEqualTo(Duration.ofMinutes(2));
+        assertThat(store.backoff(3)).isEqualTo(Duration.ofMinutes(3));
+        assertThat(store.backoff(40)).isEqualTo(Duration.ofMinutes(3));
+    }
+
+    @Test
+    @DisplayName("Should store a first failure with its reason and payload")
+    void recordFailure_StoresRetryingRow() {
+        var notification = Notification.builder()
+                .type(NotificationType.EMAIL)
+                .recipient("user@example.com")
+                .subject("Booking")
+                .templateName("booking-confirmation")
+                .data(Map.of("totalAmount", new BigDecimal("30.00")))
+                .build();
+
+        store.recordFailure(notification, "SmtpEmailService: Connection refused");
+
+        var captor = ArgumentCaptor.forClass(FailedNotification.class);
+        verify(repository).save(captor.capture());
+        var row = captor.getValue();
+        assertThat(row.getStatus()).isEqualTo(FailedNotification.Status.RETRYING);
+        assertThat(row.getAttempts()).isEqualTo(1);
+        assertThat(row.getReason()).isEqualTo("SmtpEmailService: Connection refused");
+        assertThat(row.getDataJson()).contains("\"totalAmount\":30.00");
+        assertThat(row.getPriority()).isEqualTo(Notification.NotificationPriority.NORMAL);
+        assertThat(row.getNextAttemptAt()).isCloseTo(LocalDateTime.now().plusMinutes(1), within(5, SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should mark a notification DEAD once it runs out of attempts")
+    void recordRetryFailure_LastAttempt_MarksDead() {
+        var row = FailedNotification.builder()
+                .id(9L)
+                .channel(NotificationType.EMAIL)
+                .recipient("user@example.com")
+                .attempts(2)
+                .build();
+        when(repository.findById(9L)).thenReturn(Optional.of(row));
+
+        store.recordRetryFailure(9L, "still down");
+
+        assertThat(row.getAttempts()).isEqualTo(3);
+        assertThat(row.getStatus()).isEqualTo(FailedNotification.Status.DEAD);
+        assertThat(row.getNextAttemptAt()).isNull();
+        assertThat(row.getReason()).isEqualTo("still down");
+    }
+
+    @Test
+    @DisplayName("Should read stored payloads back with exact amounts")
+    void toNotification_RestoresPayload() {
+        var row = FailedNotification.builder()
+                .id(3L)
+                .channel(NotificationType.EMAIL)
+                .recipient("user@example.com")
+                .templateName("booking-confirmation")
+                .dataJson("{\"totalAmount\":30.00}")
+                .priority(Notification.NotificationPriority.HIGH)
+                .build();
+
+        var notification = store.toNotification(row);
+
+        assertThat(notification.getData()).containsEntry("totalAmount", new BigDecimal("30.00"));
+        assertThat(notification.getPriority()).isEqualTo(Notification.NotificationPriority.HIGH);
+    }
+}
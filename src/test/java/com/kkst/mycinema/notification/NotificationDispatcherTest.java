@@ -0,0 +1,203 @@
+package com.kkst.mycinema.notification;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kkst.mycinema.entity.PendingNotification;
+import com.kkst.mycinema.repository.PendingNotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("NotificationDispatcher Tests")
+class NotificationDispatcherTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+    private final Semaphore deliveries = new Semaphore(0);
+
+    private PendingNotificationRepository pendingRepository;
+    private FailedNotificationStore failedStore;
+    private SimpleMeterRegistry meterRegistry;
+    private PlatformTransactionManager transactionManager;
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        pendingRepository = mock(PendingNotificationRepository.class);
+        failedStore = mock(FailedNotificationStore.class);
+        meterRegistry = new SimpleMeterRegistry();
+        transactionManager = mock(PlatformTransactionManager.class);
+
+        var properties = new NotificationDispatchProperties();
+        properties.getDefaults().setThreads(1);
+        properties.getDefaults().setQueueCapacity(1);
+
+        NotificationService slowEmail = new NotificationService() {
+            @Override
+            public boolean send(Notification notification) {
+                if (notification.getRecipient().startsWith("bounce")) {
+                    deliveries.release();
+                    throw new NotificationDeliveryException("SMTP send failed: 550 mailbox unavailable", null);
+                }
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                delivered.add(notification.getRecipient());
+                deliveries.release();
+                return true;
+            }
+
+            @Override
+            public boolean supports(NotificationType type) {
+                return type == NotificationType.EMAIL;
+            }
+        };
+
+        dispatcher = new NotificationDispatcher(List.of(slowEmail), pendingRepository, properties,
+                failedStore, meterRegistry, ObservationRegistry.NOOP, new ObjectMapper(), transactionManager, false);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        dispatcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should spill to the persistent queue when the channel queue is full")
+    void dispatch_FullQueue_SpillsToRepository() throws InterruptedException {
+        // Given - one notification in flight, one queued
+        dispatcher.dispatch(email("first@example.com"));
+        dispatcher.dispatch(email("second@example.com"));
+
+        // When
+        dispatcher.dispatch(email("third@example.com"));
+
+        // Then
+        var captor = ArgumentCaptor.forClass(PendingNotification.class);
+        verify(pendingRepository).save(captor.capture());
+        assertThat(captor.getValue().getRecipient()).isEqualTo("third@example.com");
+        assertThat(captor.getValue().getDataJson()).contains("\"totalAmount\":30.00");
+        assertThat(meterRegistry.get("notification.dispatch.spilled").tag("channel", "email").counter().count())
+                .isEqualTo(1.0);
+
+        release.countDown();
+        assertThat(deliveries.tryAcquire(2, 5, TimeUnit.SECONDS)).isTrue();
+        assertThat(delivered).containsExactly("first@example.com", "second@example.com");
+    }
+
+    @Test
+    @DisplayName("Should re-dispatch spilled notifications when capacity is available")
+    void drainSpilled_RedispatchesAndDeletesRows() throws InterruptedException {
+        // Given
+        var row = PendingNotification.builder()
+                .id(7L)
+                .channel(NotificationType.EMAIL)
+                .recipient("spilled@example.com")
+                .subject("Booking")
+                .dataJson("{\"totalAmount\":30.00}")
+                .priority(Notification.NotificationPriority.HIGH)
+                .build();
+        when(pendingRepository.findOldestForUpdate(any())).thenReturn(List.of(row));
+        release.countDown();
+
+        // When
+        dispatcher.drainSpilled();
+
+        // Then - the delete is committed before anything is sent
+        var inOrder = inOrder(pendingRepository, transactionManager);
+        inOrder.verify(pendingRepository).delete(row);
+        inOrder.verify(transactionManager).commit(any());
+        assertThat(deliveries.tryAcquire(1, 5, TimeUnit.SECONDS)).isTrue();
+        assertThat(delivered).containsExactly("spilled@example.com");
+    }
+
+    @Test
+    @DisplayName("Should persist a spill in its own transaction and never throw into the caller")
+    void dispatch_FullQueue_SpillFailureIsContained() {
+        // Given - one notification in flight, one queued, and a failing database
+        dispatcher.dispatch(email("first@example.com"));
+        dispatcher.dispatch(email("second@example.com"));
+        when(pendingRepository.save(any())).thenThrow(new IllegalStateException("connection refused"));
+
+        // When
+        dispatcher.dispatch(email("third@example.com"));
+
+        // Then
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verify(pendingRepository).save(any());
+    }
+
+    @Test
+    @DisplayName("Should record a notification no service could send in the dead-letter store")
+    void deliver_Failure_RecordsDeadLetter() throws InterruptedException {
+        // When
+        dispatcher.dispatch(email("bounce@example.com"));
+
+        // Then
+        assertThat(deliveries.tryAcquire(1, 5, TimeUnit.SECONDS)).isTrue();
+        verify(failedStore, timeout(5000)).recordFailure(
+                argThat(n -> "bounce@example.com".equals(n.getRecipient())),
+                contains("550 mailbox unavailable"));
+        verify(failedStore, never()).recordRetryFailure(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should resolve or reschedule dead-lettered notifications on redelivery")
+    void redeliver_UpdatesDeadLetterRow() throws InterruptedException {
+        release.countDown();
+
+        // When
+        assertThat(dispatcher.redeliver(email("recovered@example.com"), 11L)).isTrue();
+        assertThat(dispatcher.redeliver(email("bounce-again@example.com"), 12L)).isTrue();
+
+        // Then
+        verify(failedStore, timeout(5000)).resolve(11L);
+        verify(failedStore, timeout(5000)).recordRetryFailure(eq(12L), contains("550"));
+        verify(failedStore, never()).recordFailure(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should refuse a redelivery instead of spilling it when the queue is full")
+    void redeliver_FullQueue_ReturnsFalse() {
+        // Given - one notification in flight, one queued
+        dispatcher.dispatch(email("first@example.com"));
+        dispatcher.dispatch(email("second@example.com"));
+
+        // When / Then
+        assertThat(dispatcher.redeliver(email("retry@example.com"), 5L)).isFalse();
+        verify(pendingRepository, never()).save(any());
+    }
+
+    private Notification email(String recipient) {
+        return Notification.builder()
+                .type(NotificationType.EMAIL)
+                .recipient(recipient)
+                .recipientName("Test User")
+                .subject("Booking")
+                .templateName("booking-confirmation")
+                .data(Map.of("totalAmount", new BigDecimal("30.00")))
+                .priority(Notification.NotificationPriority.HIGH)
+                .build();
+    }
+}
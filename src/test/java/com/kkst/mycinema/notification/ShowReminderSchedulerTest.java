@@ -0,0 +1,176 @@
+package com.kkst.mycinema.notification;
+
+import com.kkst.mycinema.entity.*;
+import com.kkst.mycinema.repository.BookingRepository;
+import com.kkst.mycinema.repository.ShowReminderSentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@DisplayName("ShowReminderScheduler Tests")
+class ShowReminderSchedulerTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ShowReminderSentRepository showReminderSentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationDispatcher dispatcher;
+    private ShowReminderScheduler scheduler;
+
+    private Movie movie;
+    private Hall hall;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = mock(NotificationDispatcher.class);
+        // Chunk size 1 forces the keyset cursor through several chunks
+        scheduler = new ShowReminderScheduler(bookingRepository, showReminderSentRepository,
+                new NotificationManager(dispatcher), dispatcher, transactionManager, new SimpleMeterRegistry(),
+                Duration.ofHours(24), 1, Duration.ofDays(7), Clock.systemDefaultZone());
+
+        hall = entityManager.persist(Hall.builder().name("Hall 1").totalRows(5).totalColumns(5).build());
+        movie = entityManager.persist(Movie.builder().title("Inception").durationMinutes(148).genre("Sci-Fi").build());
+    }
+
+    @Test
+    @DisplayName("Should send one reminder per user and show within the window")
+    void sendsOneReminderPerUserAndShow() {
+        var tomorrow = show(LocalDateTime.now().plusHours(20));
+        var alice = user("alice@example.com");
+        var bob = user("bob@example.com");
+        booking(alice, tomorrow, Booking.BookingStatus.CONFIRMED);
+        booking(alice, tomorrow, Booking.BookingStatus.CONFIRMED);
+        booking(bob, tomorrow, Booking.BookingStatus.CONFIRMED);
+        entityManager.flush();
+        entityManager.clear();
+
+        int sent = scheduler.runOnce();
+
+        var captor = ArgumentCaptor.forClass(Notification.class);
+        verify(dispatcher, times(2)).dispatch(captor.capture());
+        assertThat(sent).isEqualTo(2);
+        assertThat(captor.getAllValues())
+                .extracting(Notification::getRecipient)
+                .containsExactlyInAnyOrder("alice@example.com", "bob@example.com");
+        assertThat(captor.getAllValues())
+                .allMatch(n -> "show-reminder".equals(n.getTemplateName()));
+        assertThat(showReminderSentRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should keep a user's bookings for one show together across a chunk boundary")
+    void mergesPairSpanningChunks() {
+        var tomorrow = show(LocalDateTime.now().plusHours(20));
+        var alice = user("alice@example.com");
+        var bob = user("bob@example.com");
+        // With chunk size 1 alice's first booking, bob's and alice's second land in separate chunks
+        seat(booking(alice, tomorrow, Booking.BookingStatus.CONFIRMED), 1);
+        seat(booking(bob, tomorrow, Booking.BookingStatus.CONFIRMED), 2);
+        seat(booking(alice, tomorrow, Booking.BookingStatus.CONFIRMED), 3);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(scheduler.runOnce()).isEqualTo(2);
+
+        var captor = ArgumentCaptor.forClass(Notification.class);
+        verify(dispatcher, times(2)).dispatch(captor.capture());
+        var aliceReminder = captor.getAllValues().stream()
+                .filter(n -> "alice@example.com".equals(n.getRecipient()))
+                .findFirst()
+                .orElseThrow();
+        assertThat(aliceReminder.getData())
+                .containsEntry("seats", List.of("Row 1, Seat 1", "Row 1, Seat 3"))
+                .containsEntry("seatCount", 2);
+        assertThat(showReminderSentRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should not resend reminders already checkpointed")
+    void doesNotResendAfterCheckpoint() {
+        var tomorrow = show(LocalDateTime.now().plusHours(20));
+        booking(user("alice@example.com"), tomorrow, Booking.BookingStatus.CONFIRMED);
+        entityManager.flush();
+
+        assertThat(scheduler.runOnce()).isEqualTo(1);
+        assertThat(scheduler.runOnce()).isZero();
+
+        verify(dispatcher, times(1)).dispatch(any());
+    }
+
+    @Test
+    @DisplayName("Should skip cancelled bookings and shows outside the lead time")
+    void skipsCancelledAndOutOfWindow() {
+        var alice = user("alice@example.com");
+        booking(alice, show(LocalDateTime.now().plusDays(3)), Booking.BookingStatus.CONFIRMED);
+        booking(alice, show(LocalDateTime.now().minusHours(1)), Booking.BookingStatus.CONFIRMED);
+        booking(user("bob@example.com"), show(LocalDateTime.now().plusHours(5)), Booking.BookingStatus.CANCELLED);
+        entityManager.flush();
+
+        assertThat(scheduler.runOnce()).isZero();
+        verifyNoInteractions(dispatcher);
+    }
+
+    private User user(String email) {
+        return entityManager.persist(User.builder()
+                .name(email.substring(0, email.indexOf('@')))
+                .email(email)
+                .password("password")
+                .roles("ROLE_USER")
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private Show show(LocalDateTime startTime) {
+        return entityManager.persist(Show.builder()
+                .movie(movie)
+                .hall(hall)
+                .startTime(startTime)
+                .endTime(startTime.plusHours(2))
+                .build());
+    }
+
+    private Booking booking(User user, Show show, Booking.BookingStatus status) {
+        return entityManager.persist(Booking.builder()
+                .user(user)
+                .show(show)
+                .bookingTime(LocalDateTime.now())
+                .status(status)
+                .totalAmount(new BigDecimal("12.50"))
+                .build());
+    }
+
+    private void seat(Booking booking, int seatNumber) {
+        var seat = entityManager.persist(Seat.builder().hall(hall).rowNumber(1).seatNumber(seatNumber).build());
+        var showSeat = entityManager.persist(ShowSeat.builder()
+                .show(booking.getShow())
+                .seat(seat)
+                .price(new BigDecimal("12.50"))
+                .status(ShowSeat.SeatStatus.BOOKED)
+                .build());
+        entityManager.persist(BookingSeat.builder().booking(booking).showSeat(showSeat).build());
+    }
+}
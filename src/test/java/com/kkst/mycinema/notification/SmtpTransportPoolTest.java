@@ -0,0 +1,129 @@
+package com.kkst.mycinema.notification;
+
+import com.kkst.mycinema.notification.template.EmailTemplateEngine;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SmtpTransportPool Tests")
+class SmtpTransportPoolTest {
+
+    private FakeSmtpServer server;
+    private JavaMailSenderImpl mailSender;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeSmtpServer();
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(server.port());
+        var props = new Properties();
+        props.put("mail.smtp.auth", "false");
+        props.put("mail.smtp.timeout", "5000");
+        mailSender.setJavaMailProperties(props);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Should reuse one connection for consecutive sends")
+    void send_ReusesConnection() throws Exception {
+        var pool = new SmtpTransportPool(mailSender, 2, 100, Duration.ofSeconds(30));
+
+        for (int i = 0; i < 5; i++) {
+            pool.send(message("user" + i + "@example.com"));
+        }
+
+        assertThat(server.messages()).isEqualTo(5);
+        assertThat(server.connections()).isEqualTo(1);
+        pool.destroy();
+    }
+
+    @Test
+    @DisplayName("Should open a new connection after the per-connection message limit")
+    void sendAll_RecyclesConnectionAfterMessageLimit() throws Exception {
+        var pool = new SmtpTransportPool(mailSender, 2, 3, Duration.ofSeconds(30));
+        var messages = new ArrayList<MimeMessage>();
+        for (int i = 0; i < 7; i++) {
+            messages.add(message("user" + i + "@example.com"));
+        }
+
+        var failures = pool.sendAll(messages);
+
+        assertThat(failures).containsOnlyNulls().hasSize(7);
+        assertThat(server.messages()).isEqualTo(7);
+        assertThat(server.connections()).isEqualTo(3);
+        pool.destroy();
+    }
+
+    @Test
+    @DisplayName("Should close idle connections on eviction")
+    void evictIdle_ClosesExpiredConnections() throws Exception {
+        var pool = new SmtpTransportPool(mailSender, 2, 100, Duration.ZERO);
+        pool.send(message("first@example.com"));
+        Thread.sleep(5);
+
+        pool.evictIdle();
+        pool.send(message("second@example.com"));
+
+        assertThat(pool.idleConnections()).isEqualTo(1);
+        assertThat(server.connections()).isEqualTo(2);
+        pool.destroy();
+    }
+
+    @Test
+    @DisplayName("SmtpEmailService should deliver consecutive emails over one pooled connection")
+    void emailService_SendsOverPooledConnection() {
+        var pool = new SmtpTransportPool(mailSender, 1, 100, Duration.ofSeconds(30));
+        var emailService = new SmtpEmailService(mailSender, pool, new EmailTemplateEngine());
+        ReflectionTestUtils.setField(emailService, "fromAddress", "noreply@mycinema.com");
+
+        var results = List.of("a@example.com", "b@example.com", "c@example.com").stream()
+                .map(recipient -> emailService.send(notification(recipient)))
+                .toList();
+
+        assertThat(results).containsExactly(true, true, true);
+        assertThat(server.recipients()).containsExactly("a@example.com", "b@example.com", "c@example.com");
+        assertThat(server.connections()).isEqualTo(1);
+        pool.destroy();
+    }
+
+    private MimeMessage message(String to) throws MessagingException {
+        var message = mailSender.createMimeMessage();
+        var helper = new MimeMessageHelper(message, false, "UTF-8");
+        helper.setFrom("noreply@mycinema.com");
+        helper.setTo(to);
+        helper.setSubject("Test");
+        helper.setText("Hello");
+        return message;
+    }
+
+    private Notification notification(String recipient) {
+        return Notification.builder()
+                .type(NotificationType.EMAIL)
+                .recipient(recipient)
+                .recipientName("Test User")
+                .subject("Booking Cancelled")
+                .templateName("booking-cancellation")
+                .data(Map.of("userName", "Test User", "bookingId", 1L))
+                .priority(Notification.NotificationPriority.NORMAL)
+                .build();
+    }
+}
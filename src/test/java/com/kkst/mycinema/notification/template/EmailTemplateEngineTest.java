@@ -0,0 +1,102 @@
+package com.kkst.mycinema.notification.template;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("EmailTemplateEngine Tests")
+class EmailTemplateEngineTest {
+
+    private final EmailTemplateEngine engine = new EmailTemplateEngine();
+
+    @Test
+    @DisplayName("Should load every template shipped in templates/email")
+    void loadsShippedTemplates() {
+        assertThat(engine.hasTemplate("booking-confirmation")).isTrue();
+        assertThat(engine.hasTemplate("booking-cancellation")).isTrue();
+        assertThat(engine.hasTemplate("show-reminder")).isTrue();
+        assertThat(engine.hasTemplate("payment-receipt")).isTrue();
+        assertThat(engine.hasTemplate("welcome")).isTrue();
+        assertThat(engine.hasTemplate("does-not-exist")).isFalse();
+        assertThat(engine.hasTemplate(null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should fill variables, include partials and join seat lists")
+    void rendersConfirmation() {
+        var html = engine.render("booking-confirmation", bookingData("Alice", "Inception"));
+
+        assertThat(html)
+                .contains("Dear Alice,")
+                .contains("<strong>Inception</strong>")
+                .contains("Hall 1")
+                .contains("Row 1 Seat 1, Row 1 Seat 2")
+                .contains("<style>")
+                .doesNotContain("{{");
+    }
+
+    @Test
+    @DisplayName("Should use fallbacks for missing values")
+    void usesFallbacks() {
+        var html = engine.render("booking-cancellation", Map.of());
+
+        assertThat(html).contains("Dear Customer,").contains("#N/A");
+    }
+
+    @Test
+    @DisplayName("Should HTML-escape values")
+    void escapesValues() {
+        var html = engine.render("booking-confirmation", bookingData("<script>x</script>", "Tom & Jerry"));
+
+        assertThat(html)
+                .contains("&lt;script&gt;x&lt;/script&gt;")
+                .contains("Tom &amp; Jerry")
+                .doesNotContain("<script>");
+    }
+
+    @Test
+    @DisplayName("Should reuse cached show fragment only for identical show values")
+    void cachedShowFragmentIsKeyedByValues() {
+        var first = engine.render("show-reminder", bookingData("Alice", "Inception"));
+        var second = engine.render("show-reminder", bookingData("Bob", "Inception"));
+        var otherShow = engine.render("show-reminder", bookingData("Carol", "Dune"));
+
+        assertThat(first).contains("Dear Alice,").contains("Inception");
+        assertThat(second).contains("Dear Bob,").contains("Inception");
+        assertThat(otherShow).contains("Dear Carol,").contains("Dune").doesNotContain("Inception");
+    }
+
+    @Test
+    @DisplayName("Should reject unknown templates")
+    void rejectsUnknownTemplate() {
+        assertThatThrownBy(() -> engine.render("missing", Map.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should report unclosed tags when compiling")
+    void rejectsUnclosedTag() {
+        assertThatThrownBy(() -> CompiledTemplate.parse("broken", "<p>{{userName</p>"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("broken");
+    }
+
+    private Map<String, Object> bookingData(String userName, String movieTitle) {
+        var data = new HashMap<String, Object>();
+        data.put("bookingId", 42L);
+        data.put("userName", userName);
+        data.put("movieTitle", movieTitle);
+        data.put("showDate", "Friday, March 1, 2030");
+        data.put("showTime", "7:30 PM");
+        data.put("hallName", "Hall 1");
+        data.put("seats", List.of("Row 1 Seat 1", "Row 1 Seat 2"));
+        data.put("totalAmount", "25.00");
+        return data;
+    }
+}
@@ -0,0 +1,101 @@
+package com.kkst.mycinema.observability;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SpanRecordingObservationHandler Tests")
+class SpanRecordingObservationHandlerTest {
+
+    private LocalSpanExporter exporter;
+    private ObservationRegistry observationRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        exporter = new LocalSpanExporter(100, "", new ObjectMapper().findAndRegisterModules());
+        observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(
+                new SpanRecordingObservationHandler(exporter, new String[] { "spring.security." }));
+    }
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    @DisplayName("Should nest child spans under the observation in scope, using the correlation id as trace id")
+    void observe_ChildSpanLinkedToParent() {
+        MDC.put("correlationId", "corr-123");
+
+        Observation.createNotStarted("http.server.requests", observationRegistry).observe(() ->
+                Observation.createNotStarted("repository.call", observationRegistry)
+                        .lowCardinalityKeyValue("repository", "ShowRepository")
+                        .observe(() -> { }));
+
+        var spans = exporter.spans("corr-123");
+        assertThat(spans).hasSize(2);
+        var root = spans.stream().filter(span -> span.name().equals("http.server.requests")).findFirst().orElseThrow();
+        var child = spans.stream().filter(span -> span.name().equals("repository.call")).findFirst().orElseThrow();
+        assertThat(root.parentSpanId()).isNull();
+        assertThat(child.parentSpanId()).isEqualTo(root.spanId());
+        assertThat(child.tags()).containsEntry("repository", "ShowRepository");
+        assertThat(exporter.recentTraces(10)).singleElement()
+                .satisfies(trace -> assertThat(trace.spanCount()).isEqualTo(2));
+    }
+
+    @Test
+    @DisplayName("Should attach spans below an ignored observation to its recorded ancestor")
+    void observe_IgnoredObservationSkipped() {
+        MDC.put("correlationId", "corr-456");
+
+        Observation.createNotStarted("http.server.requests", observationRegistry).observe(() ->
+                Observation.createNotStarted("spring.security.filterchains", observationRegistry).observe(() ->
+                        Observation.createNotStarted("payment.gateway", observationRegistry).observe(() -> { })));
+
+        var spans = exporter.spans("corr-456");
+        assertThat(spans).extracting(SpanRecord::name).containsExactlyInAnyOrder("http.server.requests", "payment.gateway");
+        var root = spans.stream().filter(span -> span.parentSpanId() == null).findFirst().orElseThrow();
+        assertThat(spans).filteredOn(span -> span.name().equals("payment.gateway"))
+                .singleElement()
+                .satisfies(span -> assertThat(span.parentSpanId()).isEqualTo(root.spanId()));
+    }
+
+    @Test
+    @DisplayName("Should carry the trace and MDC to work handed to another thread")
+    void propagatedContext_CrossesThreads() throws Exception {
+        MDC.put("correlationId", "corr-789");
+        var seenCorrelationId = new String[1];
+
+        try (var executor = Executors.newSingleThreadExecutor()) {
+            Observation.createNotStarted("http.server.requests", observationRegistry).observe(() -> {
+                var task = PropagatedContext.capture(observationRegistry).wrap(() -> {
+                    seenCorrelationId[0] = MDC.get("correlationId");
+                    Observation.createNotStarted("notification.deliver", observationRegistry).observe(() -> { });
+                });
+                try {
+                    executor.submit(task).get(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+
+        assertThat(seenCorrelationId[0]).isEqualTo("corr-789");
+        var spans = exporter.spans("corr-789");
+        assertThat(spans).hasSize(2);
+        var deliver = spans.stream().filter(span -> span.name().equals("notification.deliver")).findFirst().orElseThrow();
+        assertThat(deliver.parentSpanId()).isNotNull();
+        assertThat(deliver.thread()).isNotEqualTo(Thread.currentThread().getName());
+    }
+}
@@ -0,0 +1,122 @@
+package com.kkst.mycinema.ratelimit;
+
+import com.kkst.mycinema.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("KeyedRateLimiter Tests")
+class KeyedRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private KeyedRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        var limit = new KeyedRateLimitProperties.Limit();
+        limit.setPerUser(3);
+        limit.setPerIp(5);
+        limit.setPeriod(Duration.ofSeconds(3));
+        var properties = new KeyedRateLimitProperties();
+        properties.getLimits().put("booking", limit);
+        rateLimiter = new KeyedRateLimiter(properties, null, meterRegistry, clock::get);
+    }
+
+    @Test
+    @DisplayName("Should reject a user once their bucket is empty, with the wait for the next token")
+    void acquire_UserBucketExhausted_ThrowsWithRetryAfter() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire("booking", 1L, "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> rateLimiter.acquire("booking", 1L, "10.0.0.1"))
+                .isInstanceOf(RateLimitExceededException.class)
+                .extracting(e -> ((RateLimitExceededException) e).getRetryAfter())
+                .isEqualTo(Duration.ofSeconds(1));
+        assertThat(meterRegistry.get("rate_limit.keyed.requests")
+                .tags("limit", "booking", "key", "user", "outcome", "rejected").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep separate buckets per user")
+    void acquire_OtherUserUnaffected() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire("booking", 1L, "10.0.0.1");
+        }
+
+        rateLimiter.acquire("booking", 2L, "10.0.0.2");
+        assertThatThrownBy(() -> rateLimiter.acquire("booking", 1L, "10.0.0.1"))
+                .isInstanceOf(RateLimitExceededException.class);
+    }
+
+    @Test
+    @DisplayName("Should limit a client IP across users")
+    void acquire_IpBucketExhausted_Throws() {
+        for (long userId = 1; userId <= 5; userId++) {
+            rateLimiter.acquire("booking", userId, "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> rateLimiter.acquire("booking", 6L, "10.0.0.1"))
+                .isInstanceOf(RateLimitExceededException.class);
+        rateLimiter.acquire("booking", 6L, "10.0.0.2");
+    }
+
+    @Test
+    @DisplayName("Should refill one token per period / capacity")
+    void acquire_RefillsOverTime() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire("booking", 1L, null);
+        }
+
+        clock.addAndGet(999);
+        assertThatThrownBy(() -> rateLimiter.acquire("booking", 1L, null))
+                .isInstanceOf(RateLimitExceededException.class);
+
+        clock.addAndGet(1);
+        rateLimiter.acquire("booking", 1L, null);
+        assertThatThrownBy(() -> rateLimiter.acquire("booking", 1L, null))
+                .isInstanceOf(RateLimitExceededException.class);
+
+        clock.addAndGet(10_000);
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire("booking", 1L, null);
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail fast for a limit that is not configured")
+    void acquire_UnknownLimit_Throws() {
+        assertThatThrownBy(() -> rateLimiter.acquire("unknown", 1L, null))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Should hand out exactly the bucket's capacity under contention")
+    void tokenBucket_ConcurrentConsumers_NeverOverGrant() throws Exception {
+        var bucket = new TokenBucket(1_000, 60_000, 0);
+        var granted = new AtomicInteger();
+
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 5_000; i++) {
+                executor.submit(() -> {
+                    if (bucket.tryConsume(0) == 0) {
+                        granted.incrementAndGet();
+                    }
+                });
+            }
+        }
+
+        assertThat(granted.get()).isEqualTo(1_000);
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -127,6 +128,64 @@ class BookingRepositoryTest {
         assertThat(result.get(0).getBookingTime()).isAfter(result.get(1).getBookingTime());
     }
 
+    @Test
+    void keysetQueries_PageThroughBookingsWithoutGapsOrDuplicates() {
+        // Arrange - two bookings share a booking time so the id tie-breaker matters
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        LocalDateTime[] times = { base, base.minusHours(1), base.minusHours(1), base.minusHours(2), base.minusHours(3) };
+        for (LocalDateTime time : times) {
+            entityManager.persist(Booking.builder()
+                    .user(testUser)
+                    .show(testShow)
+                    .bookingTime(time)
+                    .status(Booking.BookingStatus.CONFIRMED)
+                    .totalAmount(new BigDecimal("15.00"))
+                    .build());
+        }
+        entityManager.flush();
+
+        // Act
+        var limit = PageRequest.of(0, 2);
+        List<Long> firstPage = bookingRepository.findFirstBookingIdsByUserId(testUser.getId(), limit);
+        Booking lastOfFirst = bookingRepository.findById(firstPage.get(1)).orElseThrow();
+        List<Long> secondPage = bookingRepository.findBookingIdsByUserIdBefore(
+                testUser.getId(), lastOfFirst.getBookingTime(), lastOfFirst.getId(), limit);
+        Booking lastOfSecond = bookingRepository.findById(secondPage.get(1)).orElseThrow();
+        List<Long> thirdPage = bookingRepository.findBookingIdsByUserIdBefore(
+                testUser.getId(), lastOfSecond.getBookingTime(), lastOfSecond.getId(), limit);
+
+        // Assert
+        assertThat(firstPage).hasSize(2);
+        assertThat(secondPage).hasSize(2);
+        assertThat(thirdPage).hasSize(1);
+        assertThat(firstPage).doesNotContainAnyElementsOf(secondPage);
+        assertThat(secondPage).doesNotContainAnyElementsOf(thirdPage);
+        assertThat(bookingRepository.countByUserId(testUser.getId())).isEqualTo(5);
+    }
+
+    @Test
+    void findByIdAndUserIdWithDetails_OnlyMatchesOwner() {
+        // Arrange
+        Booking booking = entityManager.persist(Booking.builder()
+                .user(testUser)
+                .show(testShow)
+                .bookingTime(LocalDateTime.now())
+                .status(Booking.BookingStatus.CONFIRMED)
+                .totalAmount(new BigDecimal("15.00"))
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        var owned = bookingRepository.findByIdAndUserIdWithDetails(booking.getId(), testUser.getId());
+        var foreign = bookingRepository.findByIdAndUserIdWithDetails(booking.getId(), testUser.getId() + 1);
+
+        // Assert
+        assertThat(owned).isPresent();
+        assertThat(owned.get().getShow().getMovie().getTitle()).isEqualTo("Test Movie");
+        assertThat(foreign).isEmpty();
+    }
+
     @Test
     void save_PersistsBookingWithRelationships() {
         // Arrange
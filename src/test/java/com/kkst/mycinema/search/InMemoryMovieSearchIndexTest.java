@@ -0,0 +1,87 @@
+package com.kkst.mycinema.search;
+
+import com.kkst.mycinema.entity.Movie;
+import com.kkst.mycinema.repository.MovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryMovieSearchIndexTest {
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @InjectMocks
+    private InMemoryMovieSearchIndex searchIndex;
+
+    private Movie inception;
+    private Movie darkKnight;
+    private Movie amelie;
+
+    @BeforeEach
+    void setUp() {
+        inception = Movie.builder().id(1L).title("Inception").genre("Sci-Fi")
+                .description("A thief enters dreams to plant an idea. Dreams within dreams.").build();
+        darkKnight = Movie.builder().id(2L).title("The Dark Knight").genre("Action")
+                .description("Batman faces the Joker in a city gripped by chaos.").build();
+        amelie = Movie.builder().id(3L).title("Amélie").genre("Comedy")
+                .description("A shy waitress in Paris secretly orchestrates the lives of others.").build();
+
+        when(movieRepository.findAll()).thenReturn(List.of(inception, darkKnight, amelie));
+        searchIndex.rebuild();
+    }
+
+    @Test
+    void search_RanksTitleMatchesAboveDescriptionMatches() {
+        var darkDescription = Movie.builder().id(4L).title("Noir").genre("Drama")
+                .description("A dark story of a knight errant.").build();
+        when(movieRepository.findById(4L)).thenReturn(Optional.of(darkDescription));
+        searchIndex.onCatalogChanged(MovieCatalogChangedEvent.saved(4L));
+
+        var result = searchIndex.search("dark knight", null, PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).containsExactly(2L, 4L);
+    }
+
+    @Test
+    void search_RequiresAllTokensAndIgnoresDiacritics() {
+        assertThat(searchIndex.search("amelie paris", null, PageRequest.of(0, 10)).getContent())
+                .containsExactly(3L);
+        assertThat(searchIndex.search("amelie batman", null, PageRequest.of(0, 10)).getContent())
+                .isEmpty();
+    }
+
+    @Test
+    void search_AppliesGenreFilter() {
+        assertThat(searchIndex.search("dreams", "sci-fi", PageRequest.of(0, 10)).getContent())
+                .containsExactly(1L);
+        assertThat(searchIndex.search("dreams", "Action", PageRequest.of(0, 10)).getContent())
+                .isEmpty();
+    }
+
+    @Test
+    void onCatalogChanged_ReindexesUpdatedAndDeletedMovies() {
+        inception.setTitle("Interstellar");
+        when(movieRepository.findById(1L)).thenReturn(Optional.of(inception));
+        searchIndex.onCatalogChanged(MovieCatalogChangedEvent.saved(1L));
+
+        assertThat(searchIndex.search("inception", null, PageRequest.of(0, 10)).getContent()).isEmpty();
+        assertThat(searchIndex.search("interstellar", null, PageRequest.of(0, 10)).getContent())
+                .containsExactly(1L);
+
+        searchIndex.onCatalogChanged(MovieCatalogChangedEvent.deleted(1L));
+
+        assertThat(searchIndex.search("interstellar", null, PageRequest.of(0, 10)).getContent()).isEmpty();
+    }
+}
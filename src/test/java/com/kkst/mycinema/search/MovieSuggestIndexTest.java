@@ -0,0 +1,81 @@
+package com.kkst.mycinema.search;
+
+import com.kkst.mycinema.dto.MovieSuggestionResponse;
+import com.kkst.mycinema.entity.Movie;
+import com.kkst.mycinema.repository.MovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MovieSuggestIndexTest {
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @InjectMocks
+    private MovieSuggestIndex suggestIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(movieRepository.findAll()).thenReturn(List.of(
+                Movie.builder().id(1L).title("The Dark Knight").build(),
+                Movie.builder().id(2L).title("The Dark Knight Rises").build(),
+                Movie.builder().id(3L).title("Darkest Hour").build(),
+                Movie.builder().id(4L).title("Amélie").build()));
+        suggestIndex.rebuild();
+    }
+
+    @Test
+    void suggest_MatchesWordPrefixesAndRanksTitlePrefixFirst() {
+        var result = suggestIndex.suggest("dark", 10);
+
+        assertThat(result).extracting(MovieSuggestionResponse::id).containsExactly(3L, 1L, 2L);
+    }
+
+    @Test
+    void suggest_RequiresEarlierWordsAndRespectsLimit() {
+        assertThat(suggestIndex.suggest("dark kn", 10)).extracting(MovieSuggestionResponse::id)
+                .containsExactly(1L, 2L);
+        assertThat(suggestIndex.suggest("dark kn", 1)).hasSize(1);
+        assertThat(suggestIndex.suggest("AME", 10)).extracting(MovieSuggestionResponse::title)
+                .containsExactly("Amélie");
+    }
+
+    @Test
+    void suggest_RanksEveryMatchNotJustTheFirstTokens() {
+        // Many longer matches on tokens that sort before the best title's token
+        var movies = new ArrayList<Movie>();
+        for (long id = 10; id < 1010; id++) {
+            movies.add(Movie.builder().id(id).title("Sequel Aa" + id + " Returns").build());
+        }
+        movies.add(Movie.builder().id(5L).title("Sz").build());
+        when(movieRepository.findAll()).thenReturn(movies);
+        suggestIndex.rebuild();
+
+        assertThat(suggestIndex.suggest("s", 3)).extracting(MovieSuggestionResponse::id)
+                .startsWith(5L)
+                .hasSize(3);
+    }
+
+    @Test
+    void onCatalogChanged_UpdatesIndexIncrementally() {
+        when(movieRepository.findById(5L)).thenReturn(Optional.of(Movie.builder().id(5L).title("Dune").build()));
+
+        suggestIndex.onCatalogChanged(MovieCatalogChangedEvent.saved(5L));
+        suggestIndex.onCatalogChanged(MovieCatalogChangedEvent.deleted(3L));
+
+        assertThat(suggestIndex.suggest("du", 10)).extracting(MovieSuggestionResponse::id).containsExactly(5L);
+        assertThat(suggestIndex.suggest("darkest", 10)).isEmpty();
+    }
+}
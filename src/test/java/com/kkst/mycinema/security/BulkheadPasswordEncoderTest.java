@@ -0,0 +1,144 @@
+package com.kkst.mycinema.security;
+
+import com.kkst.mycinema.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("BulkheadPasswordEncoder Tests")
+class BulkheadPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private BulkheadPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (encoder != null) {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Should encode and verify passwords through the executor")
+    void encodeAndMatches_RoundTrip() {
+        var properties = properties(2, 4, Duration.ofSeconds(5));
+        encoder = new BulkheadPasswordEncoder(properties, meterRegistry, new BCryptPasswordEncoder(4), 4);
+
+        var hash = encoder.encode("secret");
+
+        assertThat(encoder.matches("secret", hash)).isTrue();
+        assertThat(encoder.matches("wrong", hash)).isFalse();
+        assertThat(meterRegistry.get("security.password.hashing").tag("operation", "matches").timer().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("security.password.bcrypt.strength").gauge().value()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should reject immediately when the hashing queue is full")
+    void encode_QueueFull_ThrowsServiceOverloaded() throws Exception {
+        var properties = properties(1, 1, Duration.ofSeconds(5));
+        encoder = new BulkheadPasswordEncoder(properties, meterRegistry, blockingEncoder(), 4);
+
+        var running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        var queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        awaitQueueDepth(1);
+
+        assertThatThrownBy(() -> encoder.encode("third"))
+                .isInstanceOf(ServiceOverloadedException.class)
+                .extracting(e -> ((ServiceOverloadedException) e).getRetryAfter())
+                .isEqualTo(Duration.ofSeconds(1));
+        assertThat(rejected("queue_full")).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:first");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:second");
+    }
+
+    @Test
+    @DisplayName("Should drop a hash that waited longer than the max queue time")
+    void encode_QueuedTooLong_ThrowsServiceOverloaded() throws Exception {
+        var properties = properties(1, 4, Duration.ofMillis(50));
+        encoder = new BulkheadPasswordEncoder(properties, meterRegistry, blockingEncoder(), 4);
+
+        var running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture.runAsync(release::countDown,
+                CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS));
+
+        assertThatThrownBy(() -> encoder.encode("second"))
+                .isInstanceOf(ServiceOverloadedException.class);
+        assertThat(rejected("queue_timeout")).isEqualTo(1);
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:first");
+    }
+
+    @Test
+    @DisplayName("Should raise the work factor while the estimated cost fits the budget")
+    void calibrate_DoublesCostPerStep() {
+        assertThat(BulkheadPasswordEncoder.calibrate(Duration.ofMillis(100), 10, 14, Duration.ofMillis(20)))
+                .isEqualTo(12);
+        assertThat(BulkheadPasswordEncoder.calibrate(Duration.ofMillis(100), 10, 14, Duration.ofMillis(150)))
+                .isEqualTo(10);
+        assertThat(BulkheadPasswordEncoder.calibrate(Duration.ofSeconds(10), 10, 14, Duration.ofMillis(1)))
+                .isEqualTo(14);
+    }
+
+    private PasswordHashingProperties properties(int threads, int queueCapacity, Duration maxQueueTime) {
+        var properties = new PasswordHashingProperties();
+        properties.setThreads(threads);
+        properties.setQueueCapacity(queueCapacity);
+        properties.setMaxQueueTime(maxQueueTime);
+        properties.setMaxHashTime(Duration.ofSeconds(5));
+        properties.setCalibrate(false);
+        return properties;
+    }
+
+    /**
+     * Encoder whose hashes block until {@link #release} is counted down.
+     */
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hashed:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+    }
+
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("security.password.hashing.queue.depth").gauge().value() < depth
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("security.password.hashing.rejected").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,139 @@
+package com.kkst.mycinema.security;
+
+import com.kkst.mycinema.entity.User;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("JwtUtil Tests")
+class JwtUtilTest {
+
+    private static final String SECRET = "test-secret-key-for-testing-purposes-must-be-at-least-256-bits-long";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 60_000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", 600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheMaxSize", 100L);
+        jwtUtil.init();
+    }
+
+    private final User user = User.builder()
+            .id(7L)
+            .email("user@example.com")
+            .roles("ROLE_USER")
+            .build();
+
+    @Test
+    @DisplayName("Should verify a token once and return its claims")
+    void verify_ReturnsClaims() {
+        var token = jwtUtil.generateToken(user);
+
+        var claims = jwtUtil.verify(token);
+
+        assertThat(claims.getSubject()).isEqualTo("user@example.com");
+        assertThat(jwtUtil.isAccessToken(claims)).isTrue();
+        assertThat(jwtUtil.userId(claims)).isEqualTo(7L);
+        assertThat(jwtUtil.familyId(claims)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should carry user id and roles in access-token claims")
+    void generateToken_ForUser_CarriesPrincipal() {
+        var admin = User.builder()
+                .id(42L)
+                .email("admin@example.com")
+                .roles("ROLE_USER, ROLE_ADMIN")
+                .build();
+
+        var principal = jwtUtil.toAuthenticatedUser(jwtUtil.verify(jwtUtil.generateToken(admin)));
+
+        assertThat(principal.id()).isEqualTo(42L);
+        assertThat(principal.getName()).isEqualTo("admin@example.com");
+        assertThat(principal.authorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    @Test
+    @DisplayName("Should not build a principal from tokens without id and roles")
+    void toAuthenticatedUser_LegacyToken_ReturnsNull() {
+        var legacy = signed(Jwts.builder()
+                .claim("type", "access")
+                .subject("user@example.com")
+                .expiration(new Date(System.currentTimeMillis() + 60_000)), SECRET);
+
+        var claims = jwtUtil.verify(legacy);
+
+        assertThat(jwtUtil.isAccessToken(claims)).isTrue();
+        assertThat(jwtUtil.toAuthenticatedUser(claims)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should serve repeat verifications from the cache")
+    void verify_RepeatToken_IsCached() {
+        var token = jwtUtil.generateToken(user);
+
+        var first = jwtUtil.verify(token);
+        var second = jwtUtil.verify(token);
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    @DisplayName("Should reject tokens signed with another key")
+    void verify_ForgedToken_Throws() {
+        var forged = signed(Jwts.builder()
+                .subject("user@example.com")
+                .expiration(new Date(System.currentTimeMillis() + 60_000)),
+                "another-secret-key-for-testing-purposes-at-least-256-bits");
+
+        assertThatThrownBy(() -> jwtUtil.verify(forged)).isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject expired tokens")
+    void verify_ExpiredToken_Throws() {
+        ReflectionTestUtils.setField(jwtUtil, "expiration", -1_000L);
+        var expired = jwtUtil.generateToken(user);
+
+        assertThatThrownBy(() -> jwtUtil.verify(expired)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    @DisplayName("Should tell refresh tokens from access tokens")
+    void isRefreshToken_ChecksType() {
+        var access = jwtUtil.verify(jwtUtil.generateToken(user, "family-1"));
+        var refresh = jwtUtil.verify(jwtUtil.generateRefreshToken(user, "token-1", "family-1",
+                new Date(System.currentTimeMillis() + 60_000)));
+
+        assertThat(jwtUtil.isRefreshToken(refresh)).isTrue();
+        assertThat(jwtUtil.isAccessToken(refresh)).isFalse();
+        assertThat(jwtUtil.isRefreshToken(access)).isFalse();
+        assertThat(jwtUtil.isAccessToken(access)).isTrue();
+        assertThat(refresh.getId()).isEqualTo("token-1");
+        assertThat(jwtUtil.familyId(refresh)).isEqualTo("family-1");
+        assertThat(jwtUtil.familyId(access)).isEqualTo("family-1");
+    }
+
+    private static String signed(JwtBuilder builder, String secret) {
+        return builder.signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8))).compact();
+    }
+}
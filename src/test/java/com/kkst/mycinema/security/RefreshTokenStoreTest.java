@@ -0,0 +1,149 @@
+package com.kkst.mycinema.security;
+
+import com.kkst.mycinema.entity.RefreshToken;
+import com.kkst.mycinema.entity.User;
+import com.kkst.mycinema.exception.InvalidTokenException;
+import com.kkst.mycinema.repository.RefreshTokenRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@DisplayName("RefreshTokenStore Tests")
+class RefreshTokenStoreTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private static final String SECRET = "test-secret-key-for-testing-purposes-must-be-at-least-256-bits-long";
+
+    private JwtUtil jwtUtil;
+    private TokenRevocationList revocationList;
+    private RefreshTokenStore store;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 60_000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", 600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheMaxSize", 100L);
+        jwtUtil.init();
+
+        revocationList = new TokenRevocationList(refreshTokenRepository, new SimpleMeterRegistry(),
+                1_000, 0.001, Duration.ofSeconds(30));
+        revocationList.rebuild();
+        store = new RefreshTokenStore(refreshTokenRepository, revocationList, jwtUtil);
+
+        user = entityManager.persist(User.builder()
+                .name("Test User")
+                .email("user@example.com")
+                .password("password")
+                .roles("ROLE_USER")
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should consume the token and issue a successor in the same family")
+    void rotate_IssuesSuccessor() {
+        var issued = store.issue(user);
+        endRequest();
+
+        var rotated = store.rotate(issued.token());
+        endRequest();
+
+        assertThat(rotated.userId()).isEqualTo(user.getId());
+        assertThat(rotated.familyId()).isEqualTo(issued.familyId());
+        assertThat(rotated.token()).isNotEqualTo(issued.token());
+        var oldId = jwtUtil.verify(issued.token()).getId();
+        assertThat(refreshTokenRepository.findById(oldId)).get()
+                .extracting(RefreshToken::getStatus).isEqualTo(RefreshToken.Status.ROTATED);
+        assertThat(revocationList.isFamilyRevoked(issued.familyId())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should revoke the whole family when a consumed token is presented again")
+    void rotate_ReusedToken_RevokesFamily() {
+        var issued = store.issue(user);
+        endRequest();
+        var rotated = store.rotate(issued.token());
+        endRequest();
+
+        assertThatThrownBy(() -> store.rotate(issued.token()))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("already been used");
+        endRequest();
+
+        // The legitimate successor is revoked too, as are the family's access tokens
+        assertThatThrownBy(() -> store.rotate(rotated.token()))
+                .isInstanceOf(InvalidTokenException.class);
+        assertThat(revocationList.isFamilyRevoked(issued.familyId())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should keep revocations across a rebuild of the filter")
+    void revoke_SurvivesRebuild() {
+        var loggedOut = store.issue(user);
+        var other = store.issue(user);
+        endRequest();
+
+        store.revoke(loggedOut.token());
+        endRequest();
+        revocationList.rebuild();
+
+        assertThat(revocationList.isFamilyRevoked(loggedOut.familyId())).isTrue();
+        assertThat(revocationList.isFamilyRevoked(other.familyId())).isFalse();
+        assertThat(store.rotate(other.token()).familyId()).isEqualTo(other.familyId());
+    }
+
+    @Test
+    @DisplayName("Should reject refresh tokens issued without a tracked id")
+    void rotate_UntrackedToken_Rejected() {
+        // Validly signed refresh token without jti/fid, as issued before refresh_tokens existed
+        var legacy = Jwts.builder()
+                .claim("type", "refresh")
+                .subject("user@example.com")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertThatThrownBy(() -> store.rotate(legacy))
+                .isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject access tokens presented as refresh tokens")
+    void rotate_AccessToken_Rejected() {
+        var issued = store.issue(user);
+        var access = jwtUtil.generateToken(user, issued.familyId());
+
+        assertThatThrownBy(() -> store.rotate(access))
+                .isInstanceOf(InvalidTokenException.class);
+    }
+
+    // Each request runs in its own transaction in production
+    private void endRequest() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
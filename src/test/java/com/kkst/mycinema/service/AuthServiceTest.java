@@ -7,7 +7,9 @@ import com.kkst.mycinema.entity.User;
 import com.kkst.mycinema.exception.EmailAlreadyExistsException;
 import com.kkst.mycinema.exception.InvalidTokenException;
 import com.kkst.mycinema.repository.UserRepository;
+import com.kkst.mycinema.security.AuthenticatedUserCache;
 import com.kkst.mycinema.security.JwtUtil;
+import com.kkst.mycinema.security.RefreshTokenStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -40,6 +42,12 @@ class AuthServiceTest {
         @Mock
         private AuthenticationManager authenticationManager;
 
+        @Mock
+        private AuthenticatedUserCache authenticatedUserCache;
+
+        @Mock
+        private RefreshTokenStore refreshTokenStore;
+
         @InjectMocks
         private AuthService authService;
 
@@ -79,8 +87,9 @@ class AuthServiceTest {
                         user.setId(1L);
                         return user;
                 });
-                when(jwtUtil.generateToken(anyString())).thenReturn("jwt-access-token");
-                when(jwtUtil.generateRefreshToken(anyString())).thenReturn("jwt-refresh-token");
+                when(refreshTokenStore.issue(any(User.class)))
+                                .thenReturn(new RefreshTokenStore.IssuedToken("jwt-refresh-token", "family-1"));
+                when(jwtUtil.generateToken(any(User.class), eq("family-1"))).thenReturn("jwt-access-token");
 
                 // Act
                 var response = authService.register(registerRequest);
@@ -110,8 +119,9 @@ class AuthServiceTest {
         @Test
         void login_Success() {
                 // Arrange
-                when(jwtUtil.generateToken(loginRequest.email())).thenReturn("jwt-access-token");
-                when(jwtUtil.generateRefreshToken(loginRequest.email())).thenReturn("jwt-refresh-token");
+                when(refreshTokenStore.issue(testUser))
+                                .thenReturn(new RefreshTokenStore.IssuedToken("jwt-refresh-token", "family-1"));
+                when(jwtUtil.generateToken(testUser, "family-1")).thenReturn("jwt-access-token");
                 when(userRepository.findByEmail(loginRequest.email())).thenReturn(Optional.of(testUser));
 
                 // Act
@@ -144,11 +154,10 @@ class AuthServiceTest {
                                 .refreshToken("valid-refresh-token")
                                 .build();
 
-                when(jwtUtil.extractUsername("valid-refresh-token")).thenReturn("user@example.com");
-                when(jwtUtil.validateRefreshToken("valid-refresh-token", "user@example.com")).thenReturn(true);
-                when(userRepository.existsByEmail("user@example.com")).thenReturn(true);
-                when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(testUser));
-                when(jwtUtil.generateToken("user@example.com")).thenReturn("new-access-token");
+                when(refreshTokenStore.rotate("valid-refresh-token"))
+                                .thenReturn(new RefreshTokenStore.RotatedToken(1L, "new-refresh-token", "family-1"));
+                when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+                when(jwtUtil.generateToken(testUser, "family-1")).thenReturn("new-access-token");
 
                 // Act
                 var response = authService.refreshToken(refreshRequest);
@@ -156,6 +165,7 @@ class AuthServiceTest {
                 // Assert
                 assertNotNull(response);
                 assertEquals("new-access-token", response.token());
+                assertEquals("new-refresh-token", response.refreshToken());
                 assertEquals("user@example.com", response.email());
                 assertEquals("Token refreshed successfully", response.message());
         }
@@ -167,8 +177,8 @@ class AuthServiceTest {
                                 .refreshToken("invalid-refresh-token")
                                 .build();
 
-                when(jwtUtil.extractUsername("invalid-refresh-token")).thenReturn("user@example.com");
-                when(jwtUtil.validateRefreshToken("invalid-refresh-token", "user@example.com")).thenReturn(false);
+                when(refreshTokenStore.rotate("invalid-refresh-token"))
+                                .thenThrow(new InvalidTokenException("Invalid or expired refresh token"));
 
                 // Act & Assert
                 assertThrows(InvalidTokenException.class,
@@ -182,12 +192,23 @@ class AuthServiceTest {
                                 .refreshToken("valid-refresh-token")
                                 .build();
 
-                when(jwtUtil.extractUsername("valid-refresh-token")).thenReturn("nonexistent@example.com");
-                when(jwtUtil.validateRefreshToken("valid-refresh-token", "nonexistent@example.com")).thenReturn(true);
-                when(userRepository.existsByEmail("nonexistent@example.com")).thenReturn(false);
+                when(refreshTokenStore.rotate("valid-refresh-token"))
+                                .thenReturn(new RefreshTokenStore.RotatedToken(99L, "new-refresh-token", "family-1"));
+                when(userRepository.findById(99L)).thenReturn(Optional.empty());
 
                 // Act & Assert
                 assertThrows(InvalidTokenException.class,
                                 () -> authService.refreshToken(refreshRequest));
         }
+
+        @Test
+        void logout_RevokesRefreshTokenFamily() {
+                // Act
+                authService.logout(RefreshTokenRequest.builder()
+                                .refreshToken("valid-refresh-token")
+                                .build());
+
+                // Assert
+                verify(refreshTokenStore).revoke("valid-refresh-token");
+        }
 }
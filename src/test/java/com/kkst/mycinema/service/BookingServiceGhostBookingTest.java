@@ -25,12 +25,14 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -99,7 +101,19 @@ class BookingServiceGhostBookingTest {
                 .expiresAt(LocalDateTime.now().plusMinutes(10))
                 .build();
 
+        // No Spring proxy here; the stages go straight to the spy
+        ReflectionTestUtils.setField(bookingService, "self", bookingService);
+
         lenient().when(metricsConfig.getBookingSuccessCounter()).thenReturn(counter);
+        // Stage timers just run the stage
+        lenient().when(metricsConfig.recordStage(any(), any(Supplier.class))).thenAnswer(invocation -> {
+            Supplier<?> supplier = invocation.getArgument(1);
+            return supplier.get();
+        });
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(metricsConfig).recordStage(any(), any(Runnable.class));
     }
 
     @Test
@@ -120,7 +134,7 @@ class BookingServiceGhostBookingTest {
         // But here we are calling a method that calls it.
         // We'll mock the repositories to support initiatePayment logic.
 
-        when(seatHoldRepository.findByHoldToken(holdToken)).thenReturn(Optional.of(testSeatHold));
+        when(seatHoldRepository.findByTokenAndUserId(holdToken, 1L)).thenReturn(Optional.of(testSeatHold));
         when(seatHoldRepository.save(any(SeatHold.class))).thenAnswer(i -> i.getArguments()[0]);
 
         when(showSeatRepository.findByShowIdAndIdIn(any(), any())).thenReturn(List.of(testShowSeat));
@@ -146,7 +160,7 @@ class BookingServiceGhostBookingTest {
         when(bookingRepository.save(any(Booking.class))).thenReturn(savedBooking);
 
         // Act
-        BookingResponse response = bookingService.confirmHoldWithPayment(request, "test@example.com");
+        BookingResponse response = bookingService.confirmHoldWithPayment(request, 1L);
 
         // Assert
         assertNotNull(response);
@@ -166,7 +180,7 @@ class BookingServiceGhostBookingTest {
                 .build();
 
         // 1. Mock Initiate works
-        when(seatHoldRepository.findByHoldToken(holdToken)).thenReturn(Optional.of(testSeatHold));
+        when(seatHoldRepository.findByTokenAndUserId(holdToken, 1L)).thenReturn(Optional.of(testSeatHold));
         when(seatHoldRepository.save(any(SeatHold.class))).thenAnswer(i -> i.getArguments()[0]);
         when(showSeatRepository.findByShowIdAndIdIn(any(), any())).thenReturn(List.of(testShowSeat));
 
@@ -184,7 +198,7 @@ class BookingServiceGhostBookingTest {
 
         // Act & Assert
         BookingFailedAfterPaymentException exception = assertThrows(BookingFailedAfterPaymentException.class, () -> {
-            bookingService.confirmHoldWithPayment(request, "test@example.com");
+            bookingService.confirmHoldWithPayment(request, 1L);
         });
 
         assertTrue(exception.getMessage().contains("Automatic refund has been initiated"));
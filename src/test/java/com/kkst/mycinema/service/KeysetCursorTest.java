@@ -0,0 +1,64 @@
+package com.kkst.mycinema.service;
+
+import com.kkst.mycinema.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void encodeDecode_RoundTrips() {
+        var cursor = KeysetCursor.of("Mission: Impossible | Fallout", 42L);
+
+        var decoded = KeysetCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+    }
+
+    @Test
+    void encodeDecode_RoundTripsDateTimeKeys() {
+        var bookedAt = LocalDateTime.of(2025, 3, 1, 19, 30, 15, 123_000_000);
+
+        var decoded = KeysetCursor.decode(KeysetCursor.of(bookedAt, 7L).encode());
+
+        assertThat(decoded.sortKeyAsDateTime()).isEqualTo(bookedAt);
+        assertThat(decoded.id()).isEqualTo(7L);
+    }
+
+    @Test
+    void decode_Blank_StartsFromFirstPage() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode(" ")).isNull();
+    }
+
+    @Test
+    void decode_Malformed_Rejected() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not base64!"))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(encode("no separator")))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void decode_TamperedId_Rejected() {
+        assertThatThrownBy(() -> KeysetCursor.decode(encode("Inception|1 OR 1=1")))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void sortKeyAsDateTime_TamperedKey_Rejected() {
+        var cursor = KeysetCursor.decode(encode("yesterday|5"));
+
+        assertThatThrownBy(cursor::sortKeyAsDateTime).isInstanceOf(InvalidCursorException.class);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
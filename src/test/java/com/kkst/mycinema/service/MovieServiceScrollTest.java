@@ -0,0 +1,82 @@
+package com.kkst.mycinema.service;
+
+import com.kkst.mycinema.dto.MovieResponse;
+import com.kkst.mycinema.entity.Movie;
+import com.kkst.mycinema.exception.InvalidCursorException;
+import com.kkst.mycinema.repository.MovieRepository;
+import com.kkst.mycinema.search.MovieSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Keyset paging of the movie list against a real database: the cursor
+ * predicate and sort only mean something when the query actually runs.
+ */
+@DataJpaTest
+class MovieServiceScrollTest {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    private MovieService movieService;
+
+    @BeforeEach
+    void setUp() {
+        movieService = new MovieService(movieRepository, mock(MovieSearchIndex.class), event -> {
+        });
+        // Two "Dune"s: the id breaks the tie on the page boundary
+        for (var title : List.of("Dune", "Alien", "Dune", "Heat", "Casablanca")) {
+            movieRepository.save(Movie.builder().title(title).durationMinutes(120).genre("Drama").build());
+        }
+    }
+
+    @Test
+    void getMoviesScroll_WalksPagesInTitleOrder() {
+        var first = movieService.getMoviesScroll(null, null, 2, true);
+
+        assertThat(first.items()).extracting(MovieResponse::title).containsExactly("Alien", "Casablanca");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(first.totalElements()).isEqualTo(5L);
+        var casablanca = first.items().get(1);
+        assertThat(KeysetCursor.decode(first.nextCursor())).isEqualTo(KeysetCursor.of("Casablanca", casablanca.id()));
+
+        var second = movieService.getMoviesScroll(null, first.nextCursor(), 2, false);
+
+        assertThat(second.items()).extracting(MovieResponse::title).containsExactly("Dune", "Dune");
+        assertThat(second.items().get(0).id()).isLessThan(second.items().get(1).id());
+        assertThat(second.hasNext()).isTrue();
+        assertThat(second.totalElements()).isNull();
+
+        var last = movieService.getMoviesScroll(null, second.nextCursor(), 2, false);
+
+        assertThat(last.items()).extracting(MovieResponse::title).containsExactly("Heat");
+        assertThat(last.hasNext()).isFalse();
+        assertThat(last.nextCursor()).isNull();
+    }
+
+    @Test
+    void getMoviesScroll_PageEndingInsideTie_ResumesAfterId() {
+        var first = movieService.getMoviesScroll(null, null, 3, false);
+        assertThat(first.items()).extracting(MovieResponse::title).containsExactly("Alien", "Casablanca", "Dune");
+
+        var second = movieService.getMoviesScroll(null, first.nextCursor(), 3, false);
+
+        assertThat(second.items()).extracting(MovieResponse::title).containsExactly("Dune", "Heat");
+        assertThat(second.items().get(0).id()).isNotEqualTo(first.items().get(2).id());
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void getMoviesScroll_TamperedCursor_Rejected() {
+        assertThatThrownBy(() -> movieService.getMoviesScroll(null, "%%%", 2, false))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+}
@@ -2,12 +2,18 @@ package com.kkst.mycinema.service;
 
 import com.kkst.mycinema.entity.Movie;
 import com.kkst.mycinema.repository.MovieRepository;
+import com.kkst.mycinema.search.MovieSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -15,6 +21,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,6 +30,12 @@ class MovieServiceTest {
     @Mock
     private MovieRepository movieRepository;
 
+    @Mock
+    private MovieSearchIndex movieSearchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private MovieService movieService;
 
@@ -91,5 +104,22 @@ class MovieServiceTest {
         assertEquals(testMovie1.getDurationMinutes(), movieResponse.durationMinutes());
         assertEquals(testMovie1.getGenre(), movieResponse.genre());
     }
-}
 
+    @Test
+    void getMoviesPaginated_WithQuery_ReturnsMoviesInRankOrder() {
+        // Arrange
+        var pageable = PageRequest.of(0, 10);
+        when(movieSearchIndex.search("dark", null, pageable))
+                .thenReturn(new PageImpl<>(List.of(2L, 1L), pageable, 2));
+        when(movieRepository.findAllById(List.of(2L, 1L))).thenReturn(Arrays.asList(testMovie1, testMovie2));
+
+        // Act
+        var result = movieService.getMoviesPaginated("  dark ", null, pageable);
+
+        // Assert
+        assertEquals(2, result.getTotalElements());
+        assertEquals("The Dark Knight", result.getContent().get(0).title());
+        assertEquals("Inception", result.getContent().get(1).title());
+        verify(movieRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+}
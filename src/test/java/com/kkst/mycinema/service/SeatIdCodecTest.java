@@ -0,0 +1,36 @@
+package com.kkst.mycinema.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SeatIdCodec Tests")
+class SeatIdCodecTest {
+
+    @Test
+    @DisplayName("Should round-trip seat ids through the CSV column format")
+    void encodeDecode_RoundTrip() {
+        var csv = SeatIdCodec.encode(List.of(7L, 42L, 1234567890123L));
+
+        assertThat(csv).isEqualTo("7,42,1234567890123");
+        assertThat(SeatIdCodec.decode(csv)).containsExactly(7L, 42L, 1234567890123L);
+    }
+
+    @Test
+    @DisplayName("Should decode a single seat id")
+    void decode_SingleId() {
+        assertThat(SeatIdCodec.decode("5")).containsExactly(5L);
+    }
+
+    @Test
+    @DisplayName("Should reject empty or malformed entries like the previous split-based parser")
+    void decode_Malformed_Throws() {
+        assertThatThrownBy(() -> SeatIdCodec.decode("")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> SeatIdCodec.decode("1,,2")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> SeatIdCodec.decode("1, 2")).isInstanceOf(NumberFormatException.class);
+    }
+}